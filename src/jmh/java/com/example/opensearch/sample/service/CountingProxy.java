@@ -0,0 +1,113 @@
+package com.example.opensearch.sample.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 클라이언트와 서버 사이에서 TCP 바이트를 그대로 전달하면서 방향별 바이트 수를 세는 프록시
+ *
+ * <p>HTTP 헤더, HTTP/2 프레임, 압축된 본문을 포함한 실제 전송량을 셈.
+ * linkMbps가 0보다 크면 방향별로 그 대역폭을 넘지 않도록 전달을 늦춰서 느린 네트워크를 흉내냄</p>
+ */
+final class CountingProxy implements AutoCloseable {
+
+  private final ServerSocket serverSocket;
+  private final int targetPort;
+  private final long linkMbps;
+  private final AtomicLong sentBytes = new AtomicLong();
+  private final AtomicLong receivedBytes = new AtomicLong();
+  private final AtomicLong connections = new AtomicLong();
+  private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+  CountingProxy(int targetPort, long linkMbps) throws IOException {
+    this.serverSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+    this.targetPort = targetPort;
+    this.linkMbps = linkMbps;
+    daemon("proxy-accept", this::accept).start();
+  }
+
+  int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  // 클라이언트가 보낸 바이트 수
+  long sentBytes() {
+    return sentBytes.get();
+  }
+
+  // 클라이언트가 받은 바이트 수
+  long receivedBytes() {
+    return receivedBytes.get();
+  }
+
+  long connections() {
+    return connections.get();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (Socket socket : sockets) {
+      socket.close();
+    }
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket client = serverSocket.accept();
+        Socket server = new Socket();
+        server.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), targetPort));
+        client.setTcpNoDelay(true);
+        server.setTcpNoDelay(true);
+        sockets.add(client);
+        sockets.add(server);
+        connections.incrementAndGet();
+        daemon("proxy-up", () -> pipe(client, server, sentBytes)).start();
+        daemon("proxy-down", () -> pipe(server, client, receivedBytes)).start();
+      } catch (IOException e) {
+        // 닫힌 후에는 종료
+      }
+    }
+  }
+
+  private void pipe(Socket from, Socket to, AtomicLong counter) {
+    byte[] buffer = new byte[16 * 1024];
+    try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+      int read;
+      while ((read = in.read(buffer)) >= 0) {
+        counter.addAndGet(read);
+        if (linkMbps > 0) {
+          LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(read * 8L) / (linkMbps * 1_000_000));
+        }
+        out.write(buffer, 0, read);
+        out.flush();
+      }
+    } catch (IOException e) {
+      // 한쪽이 닫히면 종료
+    } finally {
+      try {
+        from.close();
+        to.close();
+      } catch (IOException ignored) {
+        // 이미 닫힘
+      }
+    }
+  }
+
+  private static Thread daemon(String name, Runnable runnable) {
+    Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+}
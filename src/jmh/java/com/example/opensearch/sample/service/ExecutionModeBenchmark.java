@@ -0,0 +1,129 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.concurrency.ConcurrencyLimitedOpenSearchTransport;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * 동시 요청이 많을 때 플랫폼 스레드 풀과 가상 스레드의 처리 시간 비교
+ *
+ * <p>한 번의 실행은 정답률 조회 tasks건을 동시에 시작하여 모두 끝날 때까지의 시간이며,
+ * PLATFORM은 Tomcat 기본 최대 스레드 수(200)의 스레드 풀, VIRTUAL은 요청마다 가상 스레드를 사용.
+ * 두 방식 모두 ConcurrencyLimitedOpenSearchTransport로 동시 요청 수를 maxRequests개로 제한</p>
+ * <p>VIRTUAL은 Java 21 이상에서만 실행됨 (gradle jmh -PjmhJvm=/path/to/jdk-21/bin/java)</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutionModeBenchmark {
+
+  static final int PLATFORM_THREADS = 200;
+
+  @Param({"PLATFORM", "VIRTUAL"})
+  String executionMode;
+
+  @Param({"64", "256"})
+  int maxRequests;
+
+  @Param({"2000"})
+  int tasks;
+
+  // OpenSearch 응답 시간을 흉내내는 Stub 서버의 지연
+  @Param({"20"})
+  long delayMillis;
+
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  OpenSearchClient openSearchClient;
+  ExecutorService platformThreads;
+  AsyncTaskExecutor executor;
+
+  @Setup
+  public void setUp() throws Exception {
+    // JDK HttpServer는 기본으로 유휴 커넥션을 200개까지만 유지하고 나머지는 닫으므로 늘림
+    System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(maxRequests * 2));
+
+    String correctTrueRateResponse = Fixtures.readString("correct-true-rate-response.json");
+    server = new StubOpenSearchServer()
+        .handle("POST /problem-records/_search", (m, p, b) ->
+            new Response(200, correctTrueRateResponse));
+    server.setDelayMillis(delayMillis);
+
+    openSearchTransport = new ConcurrencyLimitedOpenSearchTransport(
+        ApacheHttpClient5TransportBuilder.builder(HttpHost.create(server.uri()))
+            .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(maxRequests)
+                    .setMaxConnPerRoute(maxRequests)
+                    // 커넥션이 한꺼번에 열릴 때 Stub 서버가 늦게 accept해도 실패하지 않도록 여유를 둠
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofSeconds(30))
+                        .build())
+                    .build()))
+            .build(),
+        maxRequests, Duration.ofMinutes(1));
+    openSearchClient = new OpenSearchClient(openSearchTransport);
+
+    if ("VIRTUAL".equals(executionMode)) {
+      // Java 17에서는 UnsupportedOperationException으로 이 조합만 건너뜀
+      executor = new VirtualThreadTaskExecutor("benchmark-virtual-");
+    } else {
+      platformThreads = Executors.newFixedThreadPool(PLATFORM_THREADS);
+      executor = new TaskExecutorAdapter(platformThreads);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    if (platformThreads != null) {
+      platformThreads.shutdownNow();
+    }
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @Benchmark
+  public double fanOutCorrectTrueRate() throws Exception {
+
+    List<Future<Double>> futures = new ArrayList<>(tasks);
+    for (int i = 0; i < tasks; i++) {
+      String studentId = "student-" + i;
+      futures.add(executor.submit(() -> ProblemService.correctTrueRate(
+          ProblemService.answerStats(openSearchClient.search(
+              ProblemService.correctTrueRateRequest(studentId), ProblemDto.Aggregation.class)))));
+    }
+
+    double sum = 0;
+    for (Future<Double> future : futures) {
+      sum += future.get();
+    }
+    return sum;
+  }
+}
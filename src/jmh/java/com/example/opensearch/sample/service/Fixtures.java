@@ -0,0 +1,76 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.sample.service.dto.SampleDto;
+import jakarta.json.stream.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.jackson.JacksonJsonpMapper;
+
+/**
+ * 벤치마크에서 공통으로 사용하는 요청, 응답 데이터
+ */
+final class Fixtures {
+
+  // ApacheHttpClient5TransportBuilder가 기본으로 사용하는 JsonpMapper
+  static final JsonpMapper JSONP_MAPPER = new JacksonJsonpMapper();
+
+  static final String STUDENT_ID = "student-000123";
+
+  private Fixtures() {
+  }
+
+  static ProblemDto.Answer answer() {
+    return ProblemDto.Answer.builder()
+        .studyId(1024L)
+        .studyStructureId(20480L)
+        .studentId(STUDENT_ID)
+        .problemNo(17L)
+        .correctYn(true)
+        .problemStartDtm("2024-07-15T09:12:45.123Z")
+        .problemEndDtm("2024-07-15T09:13:31.456Z")
+        .dsscValue(5L)
+        .build();
+  }
+
+  static SampleDto.Document document() {
+    return SampleDto.Document.builder()
+        .id("12345")
+        .firstName("Seoyeon")
+        .lastName("Kim")
+        .build();
+  }
+
+  /**
+   * src/jmh/resources/fixtures 아래의 응답 JSON을 읽음
+   */
+  static byte[] read(String name) {
+    try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+      if (in == null) {
+        throw new IllegalArgumentException("Fixture not found : " + name);
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static String readString(String name) {
+    return new String(read(name), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Transport가 요청 본문을 만드는 것과 같은 방식으로 직렬화
+   */
+  static byte[] serialize(Object value, JsonpMapper mapper) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+    try (JsonGenerator generator = mapper.jsonProvider().createGenerator(out)) {
+      mapper.serialize(value, generator);
+    }
+    return out.toByteArray();
+  }
+}
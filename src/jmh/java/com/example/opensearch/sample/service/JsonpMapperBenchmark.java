@@ -0,0 +1,81 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.json.DtoJsonpMapper;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.sample.service.dto.SampleDto;
+import jakarta.json.stream.JsonParser;
+import java.io.ByteArrayInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.opensearch.client.json.JsonpDeserializer;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.opensearch.core.SearchResponse;
+
+/**
+ * 클라이언트의 JsonpMapper로 Document를 직렬화하고 검색, 집계 응답을 역직렬화하는 비용
+ *
+ * <p>DEFAULT는 Transport의 기본 JacksonJsonpMapper, DTO는 OpenSearchConfig가 사용하는
+ * DtoJsonpMapper이며 gc.alloc.rate.norm으로 요청당 할당량을 비교</p>
+ */
+@State(Scope.Benchmark)
+public class JsonpMapperBenchmark {
+
+  @Param({"DEFAULT", "DTO"})
+  String mapperType;
+
+  JsonpMapper mapper;
+  ProblemDto.AnswerDocument answer;
+  SampleDto.Document document;
+  byte[] documentSearchResponse;
+  byte[] correctTrueRateResponse;
+  JsonpDeserializer<SearchResponse<SampleDto.Document>> documentSearchDeserializer;
+  JsonpDeserializer<SearchResponse<ProblemDto.Aggregation>> aggregationSearchDeserializer;
+
+  @Setup
+  public void setUp() {
+    mapper = "DEFAULT".equals(mapperType) ? Fixtures.JSONP_MAPPER : DtoJsonpMapper.create(false);
+    answer = ProblemService.answerDocument(Fixtures.answer());
+    document = Fixtures.document();
+    documentSearchResponse = Fixtures.read("document-search-response.json");
+    correctTrueRateResponse = Fixtures.read("correct-true-rate-response.json");
+    documentSearchDeserializer = SearchResponse.createSearchResponseDeserializer(
+        JsonpDeserializer.of(SampleDto.Document.class));
+    aggregationSearchDeserializer = SearchResponse.createSearchResponseDeserializer(
+        JsonpDeserializer.of(ProblemDto.Aggregation.class));
+  }
+
+  @Benchmark
+  public byte[] serializeAnswer() {
+    return Fixtures.serialize(answer, mapper);
+  }
+
+  @Benchmark
+  public byte[] serializeDocument() {
+    return Fixtures.serialize(document, mapper);
+  }
+
+  /**
+   * Document 100건이 담긴 검색 응답
+   */
+  @Benchmark
+  public SearchResponse<SampleDto.Document> deserializeDocumentSearchResponse() {
+    try (JsonParser parser = mapper.jsonProvider()
+        .createParser(new ByteArrayInputStream(documentSearchResponse))) {
+      return documentSearchDeserializer.deserialize(parser, mapper);
+    }
+  }
+
+  /**
+   * 정답률 집계 응답을 역직렬화하고 AnswerStats까지 추출
+   */
+  @Benchmark
+  public ProblemDto.AnswerStats deserializeCorrectTrueRateResponse() {
+    try (JsonParser parser = mapper.jsonProvider()
+        .createParser(new ByteArrayInputStream(correctTrueRateResponse))) {
+      return ProblemService.answerStats(aggregationSearchDeserializer.deserialize(parser, mapper));
+    }
+  }
+}
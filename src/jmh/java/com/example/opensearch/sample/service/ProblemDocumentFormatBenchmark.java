@@ -0,0 +1,152 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.OpenSearchProperties.PartitionInterval;
+import com.example.opensearch.config.json.DtoJsonpMapper;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.sample.service.load.AnswerSheetGenerator;
+import com.example.opensearch.sample.service.load.LoadProfile;
+import jakarta.json.stream.JsonGenerator;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.JsonpSerializable;
+import org.opensearch.client.json.NdJsonpSerializable;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+
+/**
+ * problem-records Document 형식별 _bulk 요청 본문 크기와 만드는 비용 비교
+ *
+ * <p>LEGACY는 이전 형식(ISO-8601 시각, problemEndDtm)의 ProblemDto.Answer, COMPACT는 현재 형식의
+ * ProblemDto.AnswerDocument. 한 번의 실행은 문항 풀이 BULK_SIZE건을 저장 형식으로 바꾸고 _bulk 본문으로
+ * 직렬화하는 것이며, bulkBytes / documents가 action 줄을 포함한 _bulk 본문의 Document당 크기</p>
+ * <p>클러스터의 저장 크기와 색인 속도는 같은 데이터를 두 형식으로 저장한 후
+ * GET problem-records-*&#47;_stats/store,docs,indexing 으로 비교</p>
+ */
+@State(Scope.Benchmark)
+public class ProblemDocumentFormatBenchmark {
+
+  static final int BULK_SIZE = 1000;
+
+  @Param({"LEGACY", "COMPACT"})
+  String format;
+
+  JsonpMapper mapper;
+  List<ProblemDto.Answer> answers;
+
+  @Setup
+  public void setUp() {
+    mapper = DtoJsonpMapper.create(false);
+
+    // 부하 생성기와 같은 분포의 문항 풀이 내용
+    AnswerSheetGenerator generator = new AnswerSheetGenerator(LoadProfile.builder().build());
+    answers = new ArrayList<>(BULK_SIZE);
+    while (answers.size() < BULK_SIZE) {
+      answers.addAll(generator.next().answers());
+    }
+    answers = answers.subList(0, BULK_SIZE);
+  }
+
+  @Benchmark
+  public long bulkBody(Bytes bytes) {
+
+    List<BulkOperation> operations = new ArrayList<>(BULK_SIZE);
+    for (ProblemDto.Answer answer : answers) {
+      operations.add("LEGACY".equals(format)
+          ? operation(ProblemIndexPartitions.partitionIndex(PartitionInterval.MONTHLY,
+          answer.getProblemStartDtm()), answer.getStudentId(), answer)
+          : compactOperation(answer));
+    }
+
+    // Transport와 같이 중첩된 NDJSON을 펼쳐 한 줄씩 직렬화
+    CountingOutputStream out = new CountingOutputStream();
+    writeNdJson(BulkRequest.of(b -> b.operations(operations)), out);
+
+    bytes.record(out.count, BULK_SIZE);
+    return out.count;
+  }
+
+  private static BulkOperation compactOperation(ProblemDto.Answer answer) {
+    ProblemDto.AnswerDocument document = ProblemService.answerDocument(answer);
+    return operation(ProblemIndexPartitions.partitionIndex(PartitionInterval.MONTHLY,
+        document.getProblemStartDtm()), answer.getStudentId(), document);
+  }
+
+  private static BulkOperation operation(String index, String routing, Object document) {
+    return BulkOperation.of(op -> op
+        .index(idx -> idx
+            .index(index)
+            .routing(routing)
+            .document(document)));
+  }
+
+  private void writeNdJson(NdJsonpSerializable value, CountingOutputStream out) {
+    Iterator<?> values = value._serializables();
+    while (values.hasNext()) {
+      Object item = values.next();
+      if (item instanceof NdJsonpSerializable nested && item != value) {
+        writeNdJson(nested, out);
+      } else {
+        write(item, out);
+        out.write('\n');
+      }
+    }
+  }
+
+  private void write(Object value, OutputStream out) {
+    try (JsonGenerator generator = mapper.jsonProvider().createGenerator(out)) {
+      if (value instanceof JsonpSerializable serializable) {
+        serializable.serialize(generator, mapper);
+      } else {
+        mapper.serialize(value, generator);
+      }
+    }
+  }
+
+  /**
+   * 측정 구간 동안 직렬화한 Document 수와 _bulk 본문 바이트 수, JMH는 EVENTS 값을 반복마다 더하므로
+   * Document당 크기는 bulkBytes / documents
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Bytes {
+
+    public long documents;
+    public long bulkBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      documents = 0;
+      bulkBytes = 0;
+    }
+
+    void record(long bulk, int count) {
+      documents += count;
+      bulkBytes += bulk;
+    }
+  }
+
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
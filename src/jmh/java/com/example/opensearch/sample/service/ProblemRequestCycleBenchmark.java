@@ -0,0 +1,65 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import java.io.IOException;
+import org.apache.hc.core5.http.HttpHost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.core.IndexResponse;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+/**
+ * 요청 생성, 직렬화, HTTP 전송, 응답 역직렬화까지 한 번의 요청 전체 비용
+ *
+ * <p>같은 프로세스의 Stub 서버가 고정된 응답을 돌려주므로 OpenSearch 처리 시간은 제외되지만
+ * JDK HttpServer의 처리 시간은 포함되므로, 처리량 절대값보다 변경 전후 비교와 gc.alloc.rate.norm을 봄</p>
+ */
+@State(Scope.Benchmark)
+public class ProblemRequestCycleBenchmark {
+
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  OpenSearchClient openSearchClient;
+  ProblemDto.Answer answer;
+
+  @Setup
+  public void setUp() throws Exception {
+    String correctTrueRateResponse = Fixtures.readString("correct-true-rate-response.json");
+    String indexResponse = Fixtures.readString("index-response.json");
+
+    server = new StubOpenSearchServer()
+        .handle("POST /problem-records/_search", (m, p, b) ->
+            new Response(200, correctTrueRateResponse))
+        .handle("POST /problem-records-", (m, p, b) -> new Response(201, indexResponse));
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+    openSearchClient = new OpenSearchClient(openSearchTransport);
+    answer = Fixtures.answer();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @Benchmark
+  public double getCorrectTrueRate() throws IOException {
+    return ProblemService.correctTrueRate(ProblemService.answerStats(openSearchClient.search(
+        ProblemService.correctTrueRateRequest(Fixtures.STUDENT_ID), ProblemDto.Aggregation.class)));
+  }
+
+  @Benchmark
+  public IndexResponse insertProblemAnswer() throws IOException {
+    return openSearchClient.index(ProblemService.insertProblemAnswerRequest(answer,
+        OpenSearchProperties.PartitionInterval.MONTHLY));
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import java.time.Instant;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.opensearch.client.opensearch.core.SearchRequest;
+
+/**
+ * getCorrectTrueRate, getAvgDsscValue가 사용하는 SearchRequest 생성과 직렬화 비용
+ */
+@State(Scope.Benchmark)
+public class ProblemSearchRequestBenchmark {
+
+  Instant from;
+  Instant to;
+  List<String> indices;
+
+  @Setup
+  public void setUp() {
+    from = Instant.parse("2024-01-01T00:00:00Z");
+    to = Instant.parse("2024-07-01T00:00:00Z");
+    indices = ProblemIndexPartitions.partitionIndices(
+        OpenSearchProperties.PartitionInterval.MONTHLY, from, to);
+  }
+
+  @Benchmark
+  public SearchRequest correctTrueRateRequest() {
+    return ProblemService.correctTrueRateRequest(Fixtures.STUDENT_ID);
+  }
+
+  @Benchmark
+  public SearchRequest correctTrueRateRequestInRange() {
+    return ProblemService.correctTrueRateRequest(indices, Fixtures.STUDENT_ID, from, to);
+  }
+
+  @Benchmark
+  public SearchRequest avgDsscValueRequest() {
+    return ProblemService.avgDsscValueRequest();
+  }
+
+  @Benchmark
+  public SearchRequest avgDsscValueRequestInRange() {
+    return ProblemService.avgDsscValueRequest(indices, from, to);
+  }
+
+  @Benchmark
+  public byte[] correctTrueRateRequestBody() {
+    return Fixtures.serialize(ProblemService.correctTrueRateRequest(Fixtures.STUDENT_ID),
+        Fixtures.JSONP_MAPPER);
+  }
+}
@@ -0,0 +1,264 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.metrics.TrafficMetricsInterceptor;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.sample.service.dto.SampleDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+/**
+ * gzip 압축과 HTTP/2 사용 여부에 따른 전송 바이트 수와 응답 시간 비교
+ *
+ * <p>versionPolicy에 따라 HTTP/1.1 또는 h2c로 응답하는 Stub 서버 앞에 CountingProxy를 두고, 요청 하나당 클라이언트가 보내고 받은
+ * 바이트 수(헤더, HTTP/2 프레임 포함)를 sentBytes / operations, receivedBytes / operations로 확인.
+ * 응답 시간은 SampleTime 분포(p50, p99 등)로 확인</p>
+ * <p>linkMbps가 0보다 크면 프록시가 그 대역폭으로 전송을 늦춰서 AZ 간 통신처럼 대역폭이 제한된 환경을 흉내냄.
+ * 압축으로 줄어드는 전송 시간과 압축에 드는 CPU 시간을 함께 비교할 수 있음</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransportFeatureBenchmark {
+
+  static final int BULK_SIZE = 500;
+
+  @Param({"false", "true"})
+  boolean compression;
+
+  @Param({"FORCE_HTTP_1", "FORCE_HTTP_2"})
+  HttpVersionPolicy versionPolicy;
+
+  // 0이면 대역폭 제한 없음
+  @Param({"0", "100"})
+  long linkMbps;
+
+  HttpAsyncServer server;
+  CountingProxy proxy;
+  OpenSearchTransport openSearchTransport;
+  OpenSearchClient openSearchClient;
+  BulkRequest bulkRequest;
+
+  @Setup
+  public void setUp() throws Exception {
+
+    byte[] searchResponse = Fixtures.read("document-search-response.json");
+    byte[] bulkResponse = bulkResponse();
+    server = H2ServerBootstrap.bootstrap()
+        // 평문 커넥션은 협상하지 않으므로 서버도 클라이언트와 같은 버전으로 고정 (FORCE_HTTP_2는 h2c)
+        .setVersionPolicy(versionPolicy)
+        .register("*", new StubHandler(searchResponse, bulkResponse))
+        .create();
+    server.start();
+    ListenerEndpoint endpoint = server.listen(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), URIScheme.HTTP).get();
+    proxy = new CountingProxy(((InetSocketAddress) endpoint.getAddress()).getPort(), linkMbps);
+
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(new HttpHost("http", InetAddress.getLoopbackAddress(), proxy.port()))
+        .setCompressionEnabled(compression)
+        .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder
+            .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                .setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(versionPolicy).build())
+                .build())
+            .addExecInterceptorLast(TrafficMetricsInterceptor.NAME,
+                new TrafficMetricsInterceptor(new SimpleMeterRegistry())))
+        .build();
+    openSearchClient = new OpenSearchClient(openSearchTransport);
+
+    List<BulkOperation> operations = new ArrayList<>(BULK_SIZE);
+    for (int i = 0; i < BULK_SIZE; i++) {
+      ProblemDto.Answer answer = Fixtures.answer();
+      String id = answer.getStudentId() + "_" + i;
+      operations.add(BulkOperation.of(op -> op.index(idx -> idx
+          .index("problem-records-2024.07")
+          .id(id)
+          .document(answer))));
+    }
+    bulkRequest = BulkRequest.of(b -> b.operations(operations));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    openSearchTransport.close();
+    proxy.close();
+    server.close(CloseMode.IMMEDIATE);
+  }
+
+  @Benchmark
+  public BulkResponse bulk(Wire wire) throws IOException {
+    long sent = proxy.sentBytes();
+    long received = proxy.receivedBytes();
+    BulkResponse response = openSearchClient.bulk(bulkRequest);
+    wire.record(proxy.sentBytes() - sent, proxy.receivedBytes() - received);
+    return response;
+  }
+
+  @Benchmark
+  public SearchResponse<SampleDto.Document> search(Wire wire) throws IOException {
+    long sent = proxy.sentBytes();
+    long received = proxy.receivedBytes();
+    SearchResponse<SampleDto.Document> response = openSearchClient.search(s -> s
+        .index("sample-index")
+        .size(100), SampleDto.Document.class);
+    wire.record(proxy.sentBytes() - sent, proxy.receivedBytes() - received);
+    return response;
+  }
+
+  /**
+   * 측정 구간 동안 보낸 요청 수와 전송 바이트 수, JMH는 EVENTS 값을 반복마다 더하므로
+   * 요청 하나당 바이트 수는 sentBytes / operations, receivedBytes / operations
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Wire {
+
+    public long operations;
+    public long sentBytes;
+    public long receivedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      operations = 0;
+      sentBytes = 0;
+      receivedBytes = 0;
+    }
+
+    void record(long sent, long received) {
+      operations++;
+      sentBytes += sent;
+      receivedBytes += received;
+    }
+  }
+
+  /**
+   * _bulk 요청에는 bulk 응답, 나머지에는 검색 응답을 돌려주며 Accept-Encoding: gzip이면 압축하여 응답
+   */
+  private static final class StubHandler
+      implements AsyncServerRequestHandler<Message<HttpRequest, byte[]>> {
+
+    private final byte[] searchResponse;
+    private final byte[] gzipSearchResponse;
+    private final byte[] bulkResponse;
+    private final byte[] gzipBulkResponse;
+
+    private StubHandler(byte[] searchResponse, byte[] bulkResponse) {
+      this.searchResponse = searchResponse;
+      this.gzipSearchResponse = gzip(searchResponse);
+      this.bulkResponse = bulkResponse;
+      this.gzipBulkResponse = gzip(bulkResponse);
+    }
+
+    @Override
+    public AsyncRequestConsumer<Message<HttpRequest, byte[]>> prepare(HttpRequest request,
+        EntityDetails entityDetails, HttpContext context) {
+      return new BasicRequestConsumer<>(new BasicAsyncEntityConsumer());
+    }
+
+    @Override
+    public void handle(Message<HttpRequest, byte[]> message, ResponseTrigger responseTrigger,
+        HttpContext context) throws HttpException, IOException {
+
+      HttpRequest request = message.getHead();
+      // 압축된 요청 본문은 실제 서버처럼 풀어서 읽음
+      if (message.getBody() != null && hasValue(request.getFirstHeader("Content-Encoding"))) {
+        try (GZIPInputStream in = new GZIPInputStream(
+            new ByteArrayInputStream(message.getBody()))) {
+          in.readAllBytes();
+        }
+      }
+
+      boolean bulk = request.getPath().contains("_bulk");
+      boolean gzip = hasValue(request.getFirstHeader("Accept-Encoding"));
+      byte[] body = bulk ? (gzip ? gzipBulkResponse : bulkResponse)
+          : (gzip ? gzipSearchResponse : searchResponse);
+
+      AsyncResponseBuilder response = AsyncResponseBuilder.create(200)
+          .setEntity(AsyncEntityProducers.create(body, ContentType.APPLICATION_JSON));
+      if (gzip) {
+        response.setHeader("Content-Encoding", "gzip");
+      }
+      responseTrigger.submitResponse(response.build(), context);
+    }
+
+    private static boolean hasValue(Header header) {
+      return header != null && header.getValue().contains("gzip");
+    }
+  }
+
+  private static byte[] bulkResponse() {
+    StringBuilder items = new StringBuilder();
+    for (int i = 0; i < BULK_SIZE; i++) {
+      if (i > 0) {
+        items.append(',');
+      }
+      items.append("{\"index\":{\"_index\":\"problem-records-2024.07\",\"_id\":\"")
+          .append(Fixtures.STUDENT_ID).append('_').append(i)
+          .append("\",\"_version\":1,\"result\":\"created\",\"_shards\":{\"total\":2,")
+          .append("\"successful\":1,\"failed\":0},\"_seq_no\":").append(i)
+          .append(",\"_primary_term\":1,\"status\":201}}");
+    }
+    return ("{\"took\":12,\"errors\":false,\"items\":[" + items + "]}")
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] gzip(byte[] content) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(content);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+}
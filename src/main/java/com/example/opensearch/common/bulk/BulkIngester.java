@@ -0,0 +1,547 @@
+package com.example.opensearch.common.bulk;
+
+import com.example.opensearch.common.concurrent.ThreadFactories;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.config.resilience.TransientFailures;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.JsonpSerializable;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.generic.Body;
+import org.opensearch.client.opensearch.generic.OpenSearchGenericClient;
+import org.opensearch.client.opensearch.generic.Request;
+import org.opensearch.client.opensearch.generic.Requests;
+import org.opensearch.client.opensearch.generic.Response;
+
+/**
+ * 버퍼에 쌓인 BulkOperation을 _bulk 요청으로 모아서 전송하는 Ingester
+ *
+ * <p>버퍼의 Document 수(maxActions), 크기(maxSize) 또는 시간(flushInterval) 조건 중
+ * 하나를 만족하면 _bulk 요청을 전송하고, 각 BulkOperation의 결과는 add()가 반환한
+ * CompletableFuture로 전달한다.</p>
+ *
+ * <p>BulkOperation은 add()에서 한 번만 _bulk 요청 본문(NDJSON)으로 직렬화하고, 버퍼 크기 계산과
+ * 전송(재전송 포함)에 그 바이트를 그대로 사용한다.</p>
+ *
+ * <p>버퍼(bufferCapacity)가 가득 차면 add()를 호출한 스레드는 offerTimeout 동안 대기하고,
+ * 그 안에 공간이 생기지 않으면 RejectedExecutionException으로 실패한다.</p>
+ *
+ * <p>클러스터의 write thread pool 대기열이 가득 차서 429(es_rejected_execution_exception)로 거절된
+ * Document는 retryBackoff * 2^(재시도 횟수 - 1)만큼 기다린 후 버퍼에 다시 넣어 maxRetries번까지 다시
+ * 보낸다. adaptiveConcurrency이면 거절이 있었던 _bulk 요청마다 동시 요청 수를 절반으로 줄이고,
+ * 거절 없이 성공할 때마다 maxConcurrentRequests까지 하나씩 늘린다(AIMD).</p>
+ */
+@Slf4j
+public class BulkIngester implements AutoCloseable {
+
+  private static final String NDJSON = "application/x-ndjson";
+
+  private final OpenSearchGenericClient genericClient;
+  private final JsonpMapper jsonpMapper;
+  private final OpenSearchProperties.Bulk properties;
+  private final String name;
+
+  private final Semaphore bufferPermits;
+  private final ConcurrencyLimit concurrencyLimit;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ScheduledExecutorService flushScheduler;
+  private final ExecutorService sender;
+
+  private List<Pending> buffer = new ArrayList<>();
+  private long bufferBytes;
+  // backoff가 지나기를 기다리는 재시도 묶음, lock을 잡고 사용
+  private final Set<List<Pending>> scheduledRetries =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+  private volatile boolean closed;
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private final AtomicLong retriedCount = new AtomicLong();
+
+  public BulkIngester(OpenSearchClient openSearchClient, OpenSearchProperties.Bulk properties,
+      String name) {
+    this(openSearchClient, properties, name, false);
+  }
+
+  /**
+   * BulkIngester 생성
+   *
+   * @param openSearchClient OpenSearchClient
+   * @param properties       Bulk 설정
+   * @param name             스레드 이름과 로그에 사용하는 이름
+   * @param virtualThreads   true이면 _bulk 요청을 가상 스레드에서 전송 (Java 21 이상)
+   */
+  public BulkIngester(OpenSearchClient openSearchClient, OpenSearchProperties.Bulk properties,
+      String name, boolean virtualThreads) {
+    this.genericClient = openSearchClient.generic()
+        .withClientOptions(OpenSearchGenericClient.ClientOptions.throwOnHttpErrors());
+    this.jsonpMapper = openSearchClient._transport().jsonpMapper();
+    this.properties = properties;
+    this.name = name;
+    this.bufferPermits = new Semaphore(properties.getBufferCapacity());
+    this.concurrencyLimit = new ConcurrencyLimit(properties.getMaxConcurrentRequests(),
+        properties.isAdaptiveConcurrency());
+    this.flushScheduler = Executors.newSingleThreadScheduledExecutor(
+        ThreadFactories.threadFactory(name + "-flush", false));
+    this.sender = Executors.newFixedThreadPool(properties.getMaxConcurrentRequests(),
+        ThreadFactories.threadFactory(name + "-sender", virtualThreads));
+
+    long flushIntervalMillis = properties.getFlushInterval().toMillis();
+    flushScheduler.scheduleWithFixedDelay(this::flush,
+        flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * BulkOperation을 버퍼에 추가
+   *
+   * @param operation 전송할 BulkOperation
+   * @return 해당 BulkOperation의 처리 결과, 항목 단위로 실패하면 BulkItemFailureException으로 완료
+   */
+  public CompletableFuture<BulkResponseItem> add(BulkOperation operation) {
+
+    CompletableFuture<BulkResponseItem> future = new CompletableFuture<>();
+
+    if (closed) {
+      future.completeExceptionally(
+          new RejectedExecutionException("BulkIngester [" + name + "] is closed"));
+      return future;
+    }
+
+    try {
+      if (!bufferPermits.tryAcquire(
+          properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        future.completeExceptionally(
+            new RejectedExecutionException("BulkIngester [" + name + "] buffer is full"));
+        return future;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.completeExceptionally(e);
+      return future;
+    }
+
+    Pending pending = new Pending(serialize(operation), future);
+    List<Pending> batch = null;
+
+    lock.lock();
+    try {
+      if (closed) {
+        bufferPermits.release();
+        future.completeExceptionally(
+            new RejectedExecutionException("BulkIngester [" + name + "] is closed"));
+        return future;
+      }
+      buffer.add(pending);
+      bufferBytes += pending.body.length;
+      if (buffer.size() >= properties.getMaxActions()
+          || bufferBytes >= properties.getMaxSize().toBytes()) {
+        batch = takeBuffer();
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    if (batch != null) {
+      dispatch(batch);
+    }
+
+    return future;
+  }
+
+  /**
+   * 버퍼에 쌓인 BulkOperation을 즉시 전송
+   */
+  public void flush() {
+
+    List<Pending> batch;
+
+    lock.lock();
+    try {
+      batch = takeBuffer();
+    } finally {
+      lock.unlock();
+    }
+
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+  }
+
+  /**
+   * 새로운 BulkOperation을 거절하고, 버퍼에 남은 BulkOperation을 모두 전송한 뒤 종료
+   *
+   * <p>429로 거절되어 backoff를 기다리던 Document도 기다리지 않고 함께 전송하며, 종료 중에 다시 429로
+   * 거절된 Document는 더 보내지 않고 RejectedExecutionException으로 실패한다.</p>
+   */
+  @Override
+  public void close() {
+
+    List<List<Pending>> retries;
+
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      retries = new ArrayList<>(scheduledRetries);
+      scheduledRetries.clear();
+    } finally {
+      lock.unlock();
+    }
+
+    // 실행 중인 flush, requeue가 끝난 뒤 sender를 닫아야 버퍼에 넣은 Document가 거절되지 않음
+    flushScheduler.shutdownNow();
+    try {
+      flushScheduler.awaitTermination(
+          properties.getCloseTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    flush();
+    for (List<Pending> batch : retries) {
+      log.info("BulkIngester [{}] sending delayed retries on close : [{}]", name, batch.size());
+      dispatch(batch);
+    }
+    sender.shutdown();
+
+    try {
+      if (!sender.awaitTermination(
+          properties.getCloseTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        log.warn("BulkIngester [{}] did not drain within [{}]",
+            name, properties.getCloseTimeout());
+        sender.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      sender.shutdownNow();
+    }
+  }
+
+  /**
+   * 버퍼와 전송 중인 BulkOperation 수
+   *
+   * @return 아직 결과를 받지 못한 BulkOperation 수
+   */
+  public int pendingCount() {
+    return properties.getBufferCapacity() - bufferPermits.availablePermits();
+  }
+
+  /**
+   * 현재 동시에 보낼 수 있는 _bulk 요청 수
+   *
+   * @return adaptiveConcurrency이면 1부터 maxConcurrentRequests 사이에서 바뀌는 값
+   */
+  public int concurrencyLimit() {
+    return concurrencyLimit.limit();
+  }
+
+  /**
+   * 클러스터가 429로 거절한 Document 수, 다시 보내서 성공한 Document도 포함
+   *
+   * @return 거절된 Document 수
+   */
+  public long rejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * 거절된 후 다시 보낸 Document 수
+   *
+   * @return 다시 보낸 Document 수
+   */
+  public long retriedCount() {
+    return retriedCount.get();
+  }
+
+  private List<Pending> takeBuffer() {
+    List<Pending> batch = buffer;
+    buffer = new ArrayList<>();
+    bufferBytes = 0;
+    return batch;
+  }
+
+  private void dispatch(List<Pending> batch) {
+    try {
+      sender.execute(() -> send(batch));
+    } catch (RejectedExecutionException e) {
+      // close() 이후에 도착한 flush 요청
+      complete(batch, e);
+      bufferPermits.release(batch.size());
+    }
+  }
+
+  private void send(List<Pending> batch) {
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    for (Pending pending : batch) {
+      body.writeBytes(pending.body);
+    }
+
+    try {
+      concurrencyLimit.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      complete(batch, e);
+      bufferPermits.release(batch.size());
+      return;
+    }
+
+    List<Pending> retries = new ArrayList<>();
+    boolean rejected = false;
+    try {
+      BulkResponse bulkResponse = executeBulk(body.toByteArray());
+      log.debug("BulkIngester [{}] operations : [{}], took : [{}], errors : [{}]",
+          name, batch.size(), bulkResponse.took(), bulkResponse.errors());
+
+      List<BulkResponseItem> items = bulkResponse.items();
+      for (int i = 0; i < batch.size(); i++) {
+        BulkResponseItem item = items.get(i);
+        Pending pending = batch.get(i);
+        if (item.error() == null) {
+          pending.future.complete(item);
+          continue;
+        }
+        if (item.status() == TransientFailures.TOO_MANY_REQUESTS) {
+          rejected = true;
+          rejectedCount.incrementAndGet();
+          if (pending.attempts < properties.getMaxRetries()) {
+            retries.add(pending);
+            continue;
+          }
+        }
+        log.error("BulkIngester [{}] index : [{}], id : [{}], status : [{}], error : [{}]",
+            name, item.index(), item.id(), item.status(), item.error().reason());
+        pending.future.completeExceptionally(new BulkItemFailureException(item));
+      }
+    } catch (Exception e) {
+      // 요청 전체가 429로 거절되면 어떤 Document도 저장되지 않았으므로 모두 다시 보냄
+      if (TransientFailures.status(e) == TransientFailures.TOO_MANY_REQUESTS) {
+        rejected = true;
+        rejectedCount.addAndGet(batch.size());
+        for (Pending pending : batch) {
+          if (pending.attempts < properties.getMaxRetries()) {
+            retries.add(pending);
+          } else {
+            pending.future.completeExceptionally(e);
+          }
+        }
+      } else {
+        complete(batch, e);
+      }
+      if (retries.isEmpty()) {
+        log.error("BulkIngester [{}] operations : [{}]", name, batch.size(), e);
+      }
+    } finally {
+      concurrencyLimit.release(rejected);
+      bufferPermits.release(batch.size() - retries.size());
+    }
+
+    if (!retries.isEmpty()) {
+      scheduleRetry(retries);
+    }
+  }
+
+  /**
+   * 거절된 Document를 기다린 후 버퍼에 다시 넣음, 버퍼 공간(bufferPermits)은 계속 차지
+   */
+  private void scheduleRetry(List<Pending> retries) {
+
+    int attempts = 0;
+    for (Pending pending : retries) {
+      pending.attempts++;
+      attempts = Math.max(attempts, pending.attempts);
+    }
+    long backoffMillis = properties.getRetryBackoff().toMillis() << Math.min(attempts - 1, 20);
+
+    boolean rejected;
+    lock.lock();
+    try {
+      rejected = closed;
+      if (!rejected) {
+        scheduledRetries.add(retries);
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    if (rejected) {
+      // close() 이후에 거절된 Document는 종료를 늦추지 않도록 다시 보내지 않음
+      log.error("BulkIngester [{}] rejected operations after close : [{}]",
+          name, retries.size());
+      complete(retries, new RejectedExecutionException("BulkIngester [" + name + "] is closed"));
+      bufferPermits.release(retries.size());
+      return;
+    }
+
+    retriedCount.addAndGet(retries.size());
+    log.warn("BulkIngester [{}] rejected operations : [{}], retry after : [{}]ms",
+        name, retries.size(), backoffMillis);
+
+    try {
+      flushScheduler.schedule(() -> requeue(retries), backoffMillis, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // close()가 먼저 가져갔으면 close()가 전송
+    }
+  }
+
+  private void requeue(List<Pending> retries) {
+
+    List<Pending> batch = null;
+
+    lock.lock();
+    try {
+      // close()가 이미 가져간 묶음
+      if (!scheduledRetries.remove(retries)) {
+        return;
+      }
+      for (Pending pending : retries) {
+        buffer.add(pending);
+        bufferBytes += pending.body.length;
+      }
+      if (buffer.size() >= properties.getMaxActions()
+          || bufferBytes >= properties.getMaxSize().toBytes()) {
+        batch = takeBuffer();
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    if (batch != null) {
+      dispatch(batch);
+    }
+  }
+
+  private void complete(List<Pending> batch, Throwable throwable) {
+    for (Pending pending : batch) {
+      pending.future.completeExceptionally(throwable);
+    }
+  }
+
+  /**
+   * 직렬화해 둔 _bulk 요청 본문을 전송하고 응답을 BulkResponse로 변환
+   */
+  private BulkResponse executeBulk(byte[] body) throws IOException {
+
+    Request request = Requests.builder()
+        .method("POST")
+        .endpoint("/_bulk")
+        .body(Body.from(body, NDJSON))
+        .build();
+
+    try (Response response = genericClient.execute(request);
+        Body responseBody = response.getBody()
+            .orElseThrow(() -> new IOException("Empty response"));
+        JsonParser parser = jsonpMapper.jsonProvider().createParser(responseBody.body())) {
+      return BulkResponse._DESERIALIZER.deserialize(parser, jsonpMapper);
+    }
+  }
+
+  /**
+   * BulkOperation을 _bulk 요청 본문(action 줄과 Document 줄)으로 직렬화
+   */
+  private byte[] serialize(BulkOperation operation) {
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Iterator<?> serializables = operation._serializables();
+    while (serializables.hasNext()) {
+      Object serializable = serializables.next();
+      try (JsonGenerator generator = jsonpMapper.jsonProvider().createGenerator(out)) {
+        if (serializable instanceof JsonpSerializable) {
+          ((JsonpSerializable) serializable).serialize(generator, jsonpMapper);
+        } else {
+          jsonpMapper.serialize(serializable, generator);
+        }
+      }
+      out.write('\n');
+    }
+
+    return out.toByteArray();
+  }
+
+  private static final class Pending {
+
+    // _bulk 요청 본문에 들어갈 action 줄과 Document 줄
+    private final byte[] body;
+    private final CompletableFuture<BulkResponseItem> future;
+    // 429로 거절되어 다시 보낸 횟수
+    private int attempts;
+
+    private Pending(byte[] body, CompletableFuture<BulkResponseItem> future) {
+      this.body = body;
+      this.future = future;
+    }
+  }
+
+  /**
+   * 동시에 전송 중인 _bulk 요청 수를 제한, adaptive이면 거절 여부에 따라 한도를 조절
+   *
+   * <p>가상 스레드가 기다리는 동안 캐리어 스레드를 점유하지 않도록 ReentrantLock과 Condition을 사용</p>
+   */
+  private static final class ConcurrencyLimit {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final int max;
+    private final boolean adaptive;
+    private volatile int limit;
+    private int inFlight;
+
+    private ConcurrencyLimit(int max, boolean adaptive) {
+      this.max = max;
+      this.adaptive = adaptive;
+      this.limit = max;
+    }
+
+    private void acquire() throws InterruptedException {
+      lock.lock();
+      try {
+        while (inFlight >= limit) {
+          available.await();
+        }
+        inFlight++;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void release(boolean rejected) {
+      lock.lock();
+      try {
+        inFlight--;
+        if (adaptive) {
+          limit = rejected ? Math.max(1, limit / 2) : Math.min(max, limit + 1);
+        }
+        available.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private int limit() {
+      return limit;
+    }
+  }
+}
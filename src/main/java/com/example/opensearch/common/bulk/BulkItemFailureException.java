@@ -0,0 +1,28 @@
+package com.example.opensearch.common.bulk;
+
+import lombok.Getter;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+
+/**
+ * _bulk 요청은 성공했지만 개별 항목의 처리가 실패했을 때 발생하는 예외
+ */
+@Getter
+public class BulkItemFailureException extends RuntimeException {
+
+  private final transient BulkResponseItem item;
+
+  public BulkItemFailureException(BulkResponseItem item) {
+    super("[" + item.status() + "] " + item.index() + "/" + item.id() + " : "
+        + (item.error() != null ? item.error().reason() : null));
+    this.item = item;
+  }
+
+  /**
+   * 응답 상태 코드
+   *
+   * @return 개별 항목의 HTTP 상태 코드
+   */
+  public int status() {
+    return item.status();
+  }
+}
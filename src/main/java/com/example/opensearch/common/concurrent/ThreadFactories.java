@@ -0,0 +1,38 @@
+package com.example.opensearch.common.concurrent;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * 작업 스레드를 만드는 ThreadFactory
+ *
+ * <p>가상 스레드는 Java 21 이상에서만 만들 수 있으며, Java 17에서 요청하면
+ * UnsupportedOperationException이 발생하므로 Threading.VIRTUAL.isActive()로 확인한 후 사용</p>
+ */
+public final class ThreadFactories {
+
+  private ThreadFactories() {
+  }
+
+  /**
+   * 이름이 {prefix}-{n}인 스레드를 만드는 ThreadFactory
+   *
+   * @param prefix         스레드 이름 접두사
+   * @param virtualThreads true이면 가상 스레드, false이면 데몬 플랫폼 스레드
+   * @return ThreadFactory
+   */
+  public static ThreadFactory threadFactory(String prefix, boolean virtualThreads) {
+
+    if (virtualThreads) {
+      return new VirtualThreadTaskExecutor(prefix + "-").getVirtualThreadFactory();
+    }
+
+    AtomicInteger sequence = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,460 @@
+package com.example.opensearch.common.reindex;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.Conflicts;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.Script;
+import org.opensearch.client.opensearch._types.Time;
+import org.opensearch.client.opensearch._types.VersionType;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+import org.opensearch.client.opensearch.core.IndexRequest;
+import org.opensearch.client.opensearch.generic.Body;
+import org.opensearch.client.opensearch.generic.OpenSearchGenericClient;
+import org.opensearch.client.opensearch.generic.Requests;
+import org.opensearch.client.opensearch.generic.Response;
+import org.opensearch.client.opensearch.indices.IndexSettings;
+import org.opensearch.client.opensearch.indices.IndexState;
+import org.opensearch.client.opensearch.indices.update_aliases.Action;
+
+/**
+ * 읽기를 멈추지 않고 Index를 새 Index로 재색인한 뒤 alias를 교체하는 도구
+ *
+ * <p>재색인 순서</p>
+ * <ol>
+ *   <li>대상 Index를 만들고, 템플릿이 붙인 alias를 떼어 복사 중에는 조회되지 않도록 함</li>
+ *   <li>복사하는 동안 refresh와 replica를 끄고, 이후 저장되는 Document는 mirror()로 대상 Index에도 저장</li>
+ *   <li>원본의 primary shard 수만큼 나눈 sliced _reindex를 비동기 작업으로 실행하고 진행 상황을 주기적으로 조회</li>
+ *   <li>복사가 끝나면 원본 쓰기를 막고(index.blocks.write) 진행 중인 이중 저장이 끝나기를 기다린 뒤,
+ *   설정을 되돌리고 Document 수를 확인하여 한 번의 _aliases 요청으로 alias를 교체</li>
+ * </ol>
+ *
+ * <p>쓰기는 alias를 교체하는 동안에만 403(cluster_block_exception)으로 거절되며, 교체 후에는 alias가
+ * 가리키는 대상 Index에 저장된다. 원본 Index가 남는 경우(이름이 alias였던 경우) 쓰기는 막힌 채로 둔다.</p>
+ *
+ * <p>_reindex와 mirror() 모두 원본의 version을 external version으로 저장하므로, 어느 쪽이 먼저
+ * 도착하든 대상 Index에는 최신 Document가 남는다. 중간에 실패하면 작업을 취소하고 대상 Index를
+ * 삭제하여 원래 상태로 되돌린다. 복사 중에 삭제된 Document는 대상 Index에 반영되지 않는다.</p>
+ */
+@Slf4j
+public class IndexReindexer implements AutoCloseable {
+
+  private static final int HTTP_CONFLICT = 409;
+
+  private final OpenSearchClient openSearchClient;
+  private final OpenSearchAsyncClient openSearchAsyncClient;
+  private final OpenSearchGenericClient genericClient;
+  private final OpenSearchProperties.Reindex properties;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ScheduledExecutorService scheduler;
+
+  // 이중 저장 중인 이름(원본 Index 이름과 alias)별 재색인 작업
+  private final Map<String, ReindexJob> dualWrites = new ConcurrentHashMap<>();
+
+  public IndexReindexer(OpenSearchClient openSearchClient,
+      OpenSearchAsyncClient openSearchAsyncClient, OpenSearchProperties.Reindex properties) {
+    this.openSearchClient = openSearchClient;
+    this.openSearchAsyncClient = openSearchAsyncClient;
+    this.genericClient = openSearchClient.generic()
+        .withClientOptions(OpenSearchGenericClient.ClientOptions.throwOnHttpErrors());
+    this.properties = properties;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "index-reindexer");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * 재색인 시작
+   *
+   * @param name        재색인할 Index 이름 또는 Index 하나를 가리키는 alias
+   * @param targetIndex 새로 만들 Index 이름
+   * @param settings    새 Index 설정, null이면 기본 설정
+   * @param mappings    새 Index 매핑, null이면 dynamic 매핑
+   * @return ReindexJob 진행 상황, completion()으로 완료를 기다릴 수 있음
+   * @throws IOException 원본 Index 조회에 실패한 경우
+   */
+  public ReindexJob reindex(String name, String targetIndex, IndexSettings settings,
+      TypeMapping mappings) throws IOException {
+    return reindex(name, targetIndex, settings, mappings, null);
+  }
+
+  /**
+   * 재색인 시작
+   *
+   * <p>script가 있으면 _reindex가 복사하는 Document를 script로 바꾸어 저장. mirror()로 저장하는
+   * Document는 바꾸지 않으므로 대상 Index 형식으로 저장해야 함</p>
+   *
+   * @param name        재색인할 Index 이름 또는 Index 하나를 가리키는 alias
+   * @param targetIndex 새로 만들 Index 이름
+   * @param settings    새 Index 설정, null이면 기본 설정
+   * @param mappings    새 Index 매핑, null이면 dynamic 매핑
+   * @param script      복사하는 Document를 바꾸는 script, null이면 그대로 복사
+   * @return ReindexJob 진행 상황, completion()으로 완료를 기다릴 수 있음
+   * @throws IOException 원본 Index 조회에 실패한 경우
+   */
+  public ReindexJob reindex(String name, String targetIndex, IndexSettings settings,
+      TypeMapping mappings, Script script) throws IOException {
+
+    Map<String, IndexState> sources = openSearchClient.indices().get(g -> g.index(name)).result();
+    if (sources.size() != 1) {
+      throw new IllegalArgumentException(
+          "[" + name + "] must resolve to exactly one index : " + sources.keySet());
+    }
+
+    String sourceIndex = sources.keySet().iterator().next();
+    IndexState source = sources.get(sourceIndex);
+    Set<String> aliases = new TreeSet<>(source.aliases().keySet());
+    aliases.add(name);
+
+    ReindexJob job = new ReindexJob(name, sourceIndex, targetIndex, aliases);
+    if (dualWrites.putIfAbsent(sourceIndex, job) != null) {
+      throw new IllegalStateException("[" + sourceIndex + "] is already being reindexed");
+    }
+    dualWrites.put(name, job);
+
+    try {
+      createTarget(job, settings, mappings);
+
+      job.started(startReindex(job, slices(source.settings()), script));
+      log.info("reindex name : [{}], sourceIndex : [{}], targetIndex : [{}], taskId : [{}]",
+          name, sourceIndex, targetIndex, job.getTaskId());
+
+      schedulePoll(job, settings, source.settings());
+    } catch (Exception e) {
+      rollback(job, e);
+    }
+
+    return job;
+  }
+
+  /**
+   * 재색인 중인 Index에 저장한 Document를 대상 Index에도 저장
+   *
+   * <p>재색인 중이 아니면 아무것도 하지 않는다. 원본에 저장된 version을 external version으로 사용하므로
+   * 순서가 바뀌어 도착한 이전 version은 무시된다.</p>
+   *
+   * @param indexName 저장한 Index 이름, 응답의 _index 또는 요청한 이름
+   * @param id        저장된 Document id
+   * @param routing   routing 값, 없으면 null
+   * @param version   원본에 저장된 version
+   * @param document  저장한 Document
+   */
+  public void mirror(String indexName, String id, String routing, long version,
+      Object document) {
+
+    ReindexJob job = dualWrites.get(indexName);
+    if (job == null) {
+      return;
+    }
+
+    job.mirrorStarted();
+    try {
+      openSearchAsyncClient.index(IndexRequest.of(r -> r
+              .index(job.getTargetIndex())
+              .id(id)
+              .routing(routing)
+              .versionType(VersionType.External)
+              .version(version)
+              .document(document)))
+          .whenComplete((indexResponse, e) -> {
+            if (e != null && !isConflict(e)) {
+              job.mirrorFailed();
+              log.error("mirror targetIndex : [{}], id : [{}]", job.getTargetIndex(), id, e);
+            }
+            job.mirrorFinished();
+          });
+    } catch (Exception e) {
+      job.mirrorFailed();
+      job.mirrorFinished();
+      log.error("mirror targetIndex : [{}], id : [{}]", job.getTargetIndex(), id, e);
+    }
+  }
+
+  /**
+   * 진행 상황 조회를 멈춤, 진행 중인 _reindex 작업은 클러스터에서 계속 실행됨
+   */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  private void createTarget(ReindexJob job, IndexSettings settings, TypeMapping mappings)
+      throws IOException {
+
+    String targetIndex = job.getTargetIndex();
+    openSearchClient.indices().create(c -> c
+        .index(targetIndex)
+        .settings(settings)
+        .mappings(mappings));
+    job.targetCreated();
+
+    // 템플릿이 붙인 읽기 alias로 복사 중인 Document가 중복 조회되지 않도록 함
+    Set<String> templateAliases = openSearchClient.indices()
+        .getAlias(g -> g.index(targetIndex))
+        .result().get(targetIndex).aliases().keySet();
+    if (!templateAliases.isEmpty()) {
+      List<Action> actions = new ArrayList<>();
+      for (String alias : templateAliases) {
+        actions.add(Action.of(a -> a.remove(r -> r.index(targetIndex).alias(alias))));
+      }
+      openSearchClient.indices().updateAliases(u -> u.actions(actions));
+    }
+
+    // 복사하는 동안에는 refresh와 replica 복제를 하지 않음
+    openSearchClient.indices().putSettings(p -> p
+        .index(targetIndex)
+        .settings(s -> s
+            .refreshInterval(t -> t.time("-1"))
+            .numberOfReplicas("0")));
+  }
+
+  private String startReindex(ReindexJob job, long slices, Script script) throws IOException {
+
+    return openSearchClient.reindex(r -> r
+            .source(s -> s
+                .index(job.getSourceIndex())
+                .size(properties.getBatchSize()))
+            .dest(d -> d
+                .index(job.getTargetIndex())
+                .versionType(VersionType.External))
+            .script(script)
+            .conflicts(Conflicts.Proceed)
+            .slices(slices)
+            .waitForCompletion(false))
+        .task();
+  }
+
+  private void schedulePoll(ReindexJob job, IndexSettings settings, IndexSettings sourceSettings) {
+    scheduler.schedule(() -> poll(job, settings, sourceSettings),
+        properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void poll(ReindexJob job, IndexSettings settings, IndexSettings sourceSettings) {
+
+    try {
+      JsonNode task = getJson("GET", "/_tasks/" + job.getTaskId());
+      boolean completed = task.path("completed").asBoolean();
+      JsonNode status = completed && task.has("response")
+          ? task.path("response") : task.path("task").path("status");
+      job.progress(status.path("total").asLong(), processed(status));
+
+      if (!completed) {
+        log.info("reindex targetIndex : [{}], processed : [{}/{}], docs/sec : [{}], eta : [{}]",
+            job.getTargetIndex(), job.getProcessed(), job.getTotal(),
+            String.format("%.1f", job.docsPerSecond()), job.eta());
+        schedulePoll(job, settings, sourceSettings);
+        return;
+      }
+
+      if (task.has("error")) {
+        throw new IllegalStateException("_reindex failed : " + task.path("error"));
+      }
+      if (!task.path("response").path("failures").isEmpty()) {
+        throw new IllegalStateException(
+            "_reindex failures : " + task.path("response").path("failures").get(0));
+      }
+
+      swap(job, settings, sourceSettings);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      rollback(job, e);
+    } catch (Exception e) {
+      rollback(job, e);
+    }
+  }
+
+  /**
+   * 원본 쓰기를 막고 이중 저장이 끝나기를 기다린 뒤, 대상 Index 설정을 되돌리고 Document 수를 확인하여
+   * alias를 교체
+   *
+   * <p>원본에 저장된 뒤 아직 mirror()를 호출하지 않은 Document도 대상 Index에 저장되도록, 교체 후
+   * pollInterval 동안은 원본 이름으로 호출한 mirror()를 계속 대상 Index에 저장</p>
+   */
+  private void swap(ReindexJob job, IndexSettings settings, IndexSettings sourceSettings)
+      throws IOException, InterruptedException {
+
+    job.swapping();
+    String sourceIndex = job.getSourceIndex();
+    String targetIndex = job.getTargetIndex();
+
+    // 막은 뒤에는 원본에 새 Document가 저장되지 않으므로 진행 중인 이중 저장만 끝나면 두 Index가 같아짐
+    openSearchClient.indices().putSettings(p -> p
+        .index(sourceIndex)
+        .settings(s -> s.blocks(b -> b.write(true))));
+    job.sourceWriteBlocked();
+    if (!job.awaitMirrors(properties.getMirrorDrainTimeout())) {
+      throw new IllegalStateException("Mirrors in flight : " + job.inFlightMirrors());
+    }
+
+    String refreshInterval = firstNonNull(refreshInterval(settings),
+        refreshInterval(sourceSettings), "1s");
+    String numberOfReplicas = firstNonNull(numberOfReplicas(settings),
+        numberOfReplicas(sourceSettings), "1");
+    openSearchClient.indices().putSettings(p -> p
+        .index(targetIndex)
+        .settings(s -> s
+            .refreshInterval(t -> t.time(refreshInterval))
+            .numberOfReplicas(numberOfReplicas)));
+
+    openSearchClient.indices().refresh(r -> r.index(sourceIndex, targetIndex));
+    long sourceCount = openSearchClient.count(c -> c.index(sourceIndex)).count();
+    long targetCount = openSearchClient.count(c -> c.index(targetIndex)).count();
+    if (targetCount < sourceCount) {
+      throw new IllegalStateException("Document count mismatch, source : " + sourceCount
+          + ", target : " + targetCount);
+    }
+    if (job.mirrorFailures() > 0) {
+      throw new IllegalStateException("Mirror failures : " + job.mirrorFailures());
+    }
+
+    List<Action> actions = new ArrayList<>();
+    for (String alias : job.getAliases()) {
+      if (!alias.equals(sourceIndex)) {
+        actions.add(Action.of(a -> a.add(ad -> ad.index(targetIndex).alias(alias))));
+        actions.add(Action.of(a -> a.remove(r -> r.index(sourceIndex).alias(alias))));
+      }
+    }
+    if (job.getName().equals(sourceIndex)) {
+      // 이름이 Index였다면 같은 이름의 alias로 바꾸기 위해 원본 Index를 같은 요청에서 삭제
+      actions.add(Action.of(a -> a.add(ad -> ad.index(targetIndex).alias(sourceIndex))));
+      actions.add(Action.of(a -> a.removeIndex(r -> r.index(sourceIndex))));
+    }
+    openSearchClient.indices().updateAliases(u -> u.actions(actions));
+
+    scheduler.schedule(() -> {
+      dualWrites.remove(job.getName(), job);
+      dualWrites.remove(sourceIndex, job);
+    }, properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+    job.completed();
+
+    log.info("reindex completed name : [{}], targetIndex : [{}], documents : [{}], "
+            + "docs/sec : [{}]", job.getName(), targetIndex, targetCount,
+        String.format("%.1f", job.docsPerSecond()));
+  }
+
+  /**
+   * _reindex 작업을 취소하고 대상 Index를 삭제
+   */
+  private void rollback(ReindexJob job, Exception cause) {
+
+    log.error("reindex rollback name : [{}], targetIndex : [{}]",
+        job.getName(), job.getTargetIndex(), cause);
+
+    dualWrites.remove(job.getName(), job);
+    dualWrites.remove(job.getSourceIndex(), job);
+
+    if (job.getTaskId() != null) {
+      try {
+        getJson("POST", "/_tasks/" + job.getTaskId() + "/_cancel");
+      } catch (Exception e) {
+        log.error("reindex rollback cancel taskId : [{}]", job.getTaskId(), e);
+      }
+    }
+
+    if (job.isTargetCreated()) {
+      try {
+        openSearchClient.indices().delete(d -> d.index(job.getTargetIndex()));
+      } catch (Exception e) {
+        log.error("reindex rollback delete targetIndex : [{}]", job.getTargetIndex(), e);
+      }
+    }
+
+    if (job.isSourceWriteBlocked()) {
+      try {
+        openSearchClient.indices().putSettings(p -> p
+            .index(job.getSourceIndex())
+            .settings(s -> s.blocks(b -> b.write(false))));
+      } catch (Exception e) {
+        log.error("reindex rollback unblock sourceIndex : [{}]", job.getSourceIndex(), e);
+      }
+    }
+
+    job.rolledBack(String.valueOf(cause.getMessage()));
+  }
+
+  private JsonNode getJson(String method, String endpoint) throws IOException {
+    try (Response response = genericClient.execute(Requests.builder()
+        .method(method)
+        .endpoint(endpoint)
+        .build())) {
+      Body body = response.getBody().orElseThrow(() -> new IOException("Empty response"));
+      try (body; InputStream in = body.body()) {
+        return objectMapper.readTree(in);
+      }
+    }
+  }
+
+  private long slices(IndexSettings sourceSettings) {
+
+    if (properties.getSlices() > 0) {
+      return properties.getSlices();
+    }
+
+    String numberOfShards = sourceSettings == null ? "1" : firstNonNull(
+        sourceSettings.numberOfShards(),
+        sourceSettings.index() != null ? sourceSettings.index().numberOfShards() : null, "1");
+    return Long.parseLong(numberOfShards);
+  }
+
+  private static long processed(JsonNode status) {
+    return status.path("created").asLong() + status.path("updated").asLong()
+        + status.path("deleted").asLong() + status.path("noops").asLong()
+        + status.path("version_conflicts").asLong();
+  }
+
+  private static String refreshInterval(IndexSettings settings) {
+
+    if (settings == null) {
+      return null;
+    }
+
+    Time refreshInterval = settings.refreshInterval() != null ? settings.refreshInterval()
+        : settings.index() != null ? settings.index().refreshInterval() : null;
+    return refreshInterval != null && refreshInterval.isTime() ? refreshInterval.time() : null;
+  }
+
+  private static String numberOfReplicas(IndexSettings settings) {
+
+    if (settings == null) {
+      return null;
+    }
+
+    return settings.numberOfReplicas() != null ? settings.numberOfReplicas()
+        : settings.index() != null ? settings.index().numberOfReplicas() : null;
+  }
+
+  private static boolean isConflict(Throwable throwable) {
+    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause() : throwable;
+    return cause instanceof OpenSearchException
+        && ((OpenSearchException) cause).status() == HTTP_CONFLICT;
+  }
+
+  @SafeVarargs
+  private static <T> T firstNonNull(T... values) {
+    for (T value : values) {
+      if (value != null) {
+        return value;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,182 @@
+package com.example.opensearch.common.reindex;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 진행 중이거나 끝난 재색인 작업의 상태
+ */
+@Getter
+@ToString
+public class ReindexJob {
+
+  /**
+   * 재색인 작업 단계
+   */
+  public enum State {
+    // 대상 Index 생성 및 _reindex 작업 실행 중
+    RUNNING,
+    // 복사가 끝나 alias를 교체하는 중
+    SWAPPING,
+    // alias 교체까지 완료
+    COMPLETED,
+    // 실패하여 대상 Index를 삭제하고 원래 상태로 되돌림
+    ROLLED_BACK
+  }
+
+  // 읽기, 쓰기에 사용하는 이름, 재색인이 끝나면 대상 Index를 가리킴
+  private final String name;
+  private final String sourceIndex;
+  private final String targetIndex;
+
+  // 재색인이 끝나면 대상 Index로 옮길 alias 목록
+  private final Set<String> aliases;
+  private final Instant startedAt = Instant.now();
+
+  @ToString.Exclude
+  @Getter(AccessLevel.NONE)
+  private final CompletableFuture<ReindexJob> completion = new CompletableFuture<>();
+
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong mirrorFailures = new AtomicLong();
+
+  // 응답을 기다리는 이중 저장 요청 수, this를 잡고 사용
+  @Getter(AccessLevel.NONE)
+  private int inFlightMirrors;
+
+  private volatile State state = State.RUNNING;
+  private volatile String taskId;
+  private volatile long total;
+  private volatile long processed;
+  private volatile String error;
+
+  @Getter(AccessLevel.PACKAGE)
+  private volatile boolean targetCreated;
+
+  @Getter(AccessLevel.PACKAGE)
+  private volatile boolean sourceWriteBlocked;
+
+  ReindexJob(String name, String sourceIndex, String targetIndex, Set<String> aliases) {
+    this.name = name;
+    this.sourceIndex = sourceIndex;
+    this.targetIndex = targetIndex;
+    this.aliases = aliases;
+  }
+
+  /**
+   * 초당 복사한 Document 수
+   *
+   * @return docs/sec
+   */
+  public double docsPerSecond() {
+    long millis = Math.max(Duration.between(startedAt, Instant.now()).toMillis(), 1);
+    return processed * 1000.0 / millis;
+  }
+
+  /**
+   * 남은 Document를 현재 속도로 복사하는 데 걸리는 예상 시간
+   *
+   * @return 예상 남은 시간, 아직 속도를 알 수 없으면 null
+   */
+  public Duration eta() {
+    double docsPerSecond = docsPerSecond();
+    if (total == 0 || docsPerSecond <= 0) {
+      return null;
+    }
+    return Duration.ofMillis((long) (Math.max(total - processed, 0) * 1000 / docsPerSecond));
+  }
+
+  /**
+   * 이중 저장에 실패한 Document 수
+   *
+   * @return 실패한 Document 수, 0보다 크면 alias를 교체하지 않고 되돌림
+   */
+  public long mirrorFailures() {
+    return mirrorFailures.get();
+  }
+
+  /**
+   * 재색인 작업이 끝나면 완료되는 CompletableFuture
+   *
+   * @return COMPLETED 또는 ROLLED_BACK 상태의 ReindexJob
+   */
+  public CompletableFuture<ReindexJob> completion() {
+    return completion;
+  }
+
+  void targetCreated() {
+    this.targetCreated = true;
+  }
+
+  void started(String taskId) {
+    this.taskId = taskId;
+  }
+
+  void progress(long total, long processed) {
+    this.total = total;
+    this.processed = processed;
+  }
+
+  void mirrorFailed() {
+    mirrorFailures.incrementAndGet();
+  }
+
+  synchronized void mirrorStarted() {
+    inFlightMirrors++;
+  }
+
+  synchronized void mirrorFinished() {
+    if (--inFlightMirrors == 0) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * 응답을 기다리는 이중 저장 요청이 모두 끝날 때까지 기다림
+   *
+   * @param timeout 최대 대기 시간
+   * @return 모두 끝났으면 true, 시간이 지났으면 false
+   * @throws InterruptedException 기다리는 중 인터럽트된 경우
+   */
+  synchronized boolean awaitMirrors(Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (inFlightMirrors > 0) {
+      long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remainingMillis <= 0) {
+        return false;
+      }
+      wait(remainingMillis);
+    }
+    return true;
+  }
+
+  synchronized int inFlightMirrors() {
+    return inFlightMirrors;
+  }
+
+  void sourceWriteBlocked() {
+    this.sourceWriteBlocked = true;
+  }
+
+  void swapping() {
+    this.state = State.SWAPPING;
+  }
+
+  void completed() {
+    this.state = State.COMPLETED;
+    completion.complete(this);
+  }
+
+  void rolledBack(String error) {
+    this.error = error;
+    this.state = State.ROLLED_BACK;
+    completion.complete(this);
+  }
+}
@@ -0,0 +1,209 @@
+package com.example.opensearch.common.search;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.Time;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.core.search.Pit;
+
+/**
+ * Point in Time(PIT)와 search_after로 검색 결과 전체를 페이지 단위로 순회하는 Iterator
+ *
+ * <p>한 페이지를 받으면 곧바로 다음 페이지를 비동기로 요청하므로, 호출자가 현재 페이지를 처리하는 동안
+ * 다음 페이지가 준비된다. 메모리에는 현재 페이지와 미리 요청한 페이지만 유지하므로 Index 크기와
+ * 관계없이 pageSize의 2배를 넘지 않는다.</p>
+ *
+ * <p>PIT를 지원하지 않는 클러스터(OpenSearch 2.4 미만)에서는 scroll로 대신 순회한다.
+ * 마지막 페이지까지 순회하거나 close()를 호출하면 PIT 또는 scroll을 해제하므로,
+ * stream()으로 받은 Stream은 try-with-resources로 닫아야 한다.</p>
+ *
+ * @param <T> Document 타입
+ */
+@Slf4j
+public class PointInTimeIterator<T> implements Iterator<T>, AutoCloseable {
+
+  private final OpenSearchAsyncClient openSearchAsyncClient;
+  private final Class<T> documentClass;
+  private final Query query;
+  private final String sortField;
+  private final int pageSize;
+  private final Time keepAlive;
+
+  private String pitId;
+  private String scrollId;
+
+  private Iterator<Hit<T>> page = Collections.emptyIterator();
+  private CompletableFuture<? extends SearchResponse<T>> nextPage;
+  private boolean closed;
+
+  /**
+   * PIT를 생성하고 첫 페이지를 요청
+   *
+   * @param openSearchAsyncClient OpenSearchAsyncClient
+   * @param indexName             순회할 인덱스명
+   * @param query                 검색 조건
+   * @param sortField             search_after 기준 필드, Document마다 값이 달라야 함
+   * @param pageSize              페이지 크기
+   * @param keepAlive             페이지 요청 사이에 PIT 또는 scroll을 유지하는 시간
+   * @param documentClass         Document 타입
+   */
+  public PointInTimeIterator(OpenSearchAsyncClient openSearchAsyncClient, String indexName,
+      Query query, String sortField, int pageSize, Time keepAlive, Class<T> documentClass) {
+
+    this.openSearchAsyncClient = openSearchAsyncClient;
+    this.documentClass = documentClass;
+    this.query = query;
+    this.sortField = sortField;
+    this.pageSize = pageSize;
+    this.keepAlive = keepAlive;
+
+    try {
+      this.pitId = openSearchAsyncClient
+          .createPit(p -> p.targetIndexes(indexName).keepAlive(keepAlive))
+          .join()
+          .pitId();
+      this.nextPage = searchAfter(null);
+    } catch (Exception e) {
+      log.warn("PointInTimeIterator indexName : [{}], PIT unavailable, fallback to scroll : [{}]",
+          indexName, e.getMessage());
+      this.nextPage = scroll(indexName);
+    }
+  }
+
+  /**
+   * Document를 하나씩 제공하는 Stream
+   *
+   * @return Stream, 닫으면 PIT 또는 scroll을 해제
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(this::close);
+  }
+
+  @Override
+  public boolean hasNext() {
+
+    while (!page.hasNext()) {
+      if (nextPage == null) {
+        close();
+        return false;
+      }
+
+      SearchResponse<T> searchResponse = nextPage.join();
+      List<Hit<T>> hits = searchResponse.hits().hits();
+      if (searchResponse.pitId() != null) {
+        pitId = searchResponse.pitId();
+      }
+      if (searchResponse.scrollId() != null) {
+        scrollId = searchResponse.scrollId();
+      }
+
+      // 현재 페이지를 처리하는 동안 다음 페이지를 미리 요청
+      nextPage = hits.size() < pageSize ? null : fetchNext(hits.get(hits.size() - 1));
+      page = hits.iterator();
+    }
+
+    return true;
+  }
+
+  @Override
+  public T next() {
+
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    return page.next().source();
+  }
+
+  /**
+   * 미리 요청한 페이지를 취소하고 PIT 또는 scroll을 해제
+   */
+  @Override
+  public void close() {
+
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    if (nextPage != null) {
+      nextPage.cancel(false);
+      nextPage = null;
+    }
+    page = Collections.emptyIterator();
+
+    try {
+      if (pitId != null) {
+        openSearchAsyncClient.deletePit(d -> d.pitId(List.of(pitId))).join();
+      } else if (scrollId != null) {
+        openSearchAsyncClient.clearScroll(c -> c.scrollId(scrollId)).join();
+      }
+    } catch (Exception e) {
+      log.error("PointInTimeIterator close pitId : [{}], scrollId : [{}]", pitId, scrollId, e);
+    }
+  }
+
+  private CompletableFuture<? extends SearchResponse<T>> fetchNext(Hit<T> lastHit) {
+    return pitId != null ? searchAfter(lastHit.sort()) : scrollNext();
+  }
+
+  private CompletableFuture<SearchResponse<T>> searchAfter(List<String> sortValues) {
+
+    SearchRequest.Builder builder = new SearchRequest.Builder()
+        .pit(Pit.of(p -> p.id(pitId).keepAlive(keepAlive.time())))
+        .query(query)
+        .sort(s -> s.field(f -> f.field(sortField).order(SortOrder.Asc)))
+        .size(pageSize)
+        .trackTotalHits(t -> t.enabled(false));
+    if (sortValues != null) {
+      builder.searchAfter(sortValues);
+    }
+
+    return send(() -> openSearchAsyncClient.search(builder.build(), documentClass));
+  }
+
+  private CompletableFuture<SearchResponse<T>> scroll(String indexName) {
+    return send(() -> openSearchAsyncClient.search(s -> s
+        .index(indexName)
+        .scroll(keepAlive)
+        .query(query)
+        .sort(so -> so.field(f -> f.field("_doc")))
+        .size(pageSize), documentClass));
+  }
+
+  private CompletableFuture<? extends SearchResponse<T>> scrollNext() {
+    return send(() -> openSearchAsyncClient.scroll(s -> s
+        .scrollId(scrollId)
+        .scroll(keepAlive), documentClass));
+  }
+
+  private <R> CompletableFuture<R> send(Request<R> request) {
+    try {
+      return request.send();
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Request<R> {
+
+    CompletableFuture<R> send() throws Exception;
+  }
+}
@@ -0,0 +1,531 @@
+package com.example.opensearch.common.spool;
+
+import com.example.opensearch.common.concurrent.ThreadFactories;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 레코드를 메모리 매핑된 세그먼트 파일에 순서대로 기록하고 읽는 로컬 Write-Ahead Log
+ *
+ * <p>세그먼트 파일(spool-{순번}.log)은 segmentSize 크기로 만들어 메모리에 매핑하고, 레코드는
+ * [본문 길이 4바이트][본문의 CRC32C 4바이트][본문] 형식으로 이어서 기록한다. 레코드가 현재 세그먼트에
+ * 들어가지 않으면 새 세그먼트를 만들며, 모든 세그먼트 크기의 합이 maxSize를 넘으면 append()가 거절한다.</p>
+ *
+ * <p>append()는 매핑된 메모리에 쓰고 바로 반환하므로 프로세스가 중단되어도 레코드는 페이지 캐시에 남는다.
+ * syncInterval마다 그 사이에 기록한 세그먼트를 한 번에 fsync하므로, OS가 중단되면 마지막 syncInterval
+ * 동안의 레코드가 유실될 수 있다.</p>
+ *
+ * <p>읽기 위치는 commit()할 때 checkpoint 파일에 기록하고, 다 읽은 세그먼트 파일은 삭제한다.
+ * 다시 열면 checkpoint부터 CRC를 확인하며 레코드를 세어 남은 레코드 수와 쓰기 위치를 복구하고,
+ * 쓰다가 중단되어 깨진 레코드가 있으면 그 세그먼트의 나머지를 버린다.</p>
+ *
+ * <p>읽기와 commit()은 하나의 스레드에서 호출해야 한다.</p>
+ */
+@Slf4j
+public class SegmentedSpool implements AutoCloseable {
+
+  // 본문 길이와 CRC32C
+  static final int HEADER_SIZE = 8;
+
+  static final String CHECKPOINT_FILE = "checkpoint";
+
+  private static final Pattern SEGMENT_FILE = Pattern.compile("spool-(\\d{20})\\.log");
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long maxSize;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ScheduledExecutorService syncScheduler;
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+  private Segment writeSegment;
+  private long readSegment;
+  private int readOffset;
+  private long pendingCount;
+  private boolean closed;
+
+  private final AtomicLong appendedCount = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  /**
+   * 스풀을 열고, 남아 있는 세그먼트 파일에서 읽기, 쓰기 위치를 복구
+   *
+   * @param directory    세그먼트 파일과 checkpoint 파일을 저장하는 디렉터리
+   * @param segmentSize  세그먼트 파일 하나의 크기
+   * @param maxSize      모든 세그먼트 파일 크기의 합
+   * @param syncInterval fsync 간격
+   * @throws IOException 디렉터리나 파일을 만들거나 매핑하지 못한 경우
+   */
+  public SegmentedSpool(Path directory, int segmentSize, long maxSize, Duration syncInterval)
+      throws IOException {
+
+    if (segmentSize <= HEADER_SIZE || maxSize < segmentSize) {
+      throw new IllegalArgumentException("segmentSize : " + segmentSize + ", maxSize : " + maxSize);
+    }
+
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSize = maxSize;
+
+    Files.createDirectories(directory);
+    recover();
+
+    this.syncScheduler = Executors.newSingleThreadScheduledExecutor(
+        ThreadFactories.threadFactory("spool-sync", false));
+    long syncIntervalMillis = Math.max(1, syncInterval.toMillis());
+    syncScheduler.scheduleWithFixedDelay(this::sync,
+        syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * 레코드를 스풀 끝에 기록
+   *
+   * @param payload 레코드 본문
+   * @return 기록했으면 true, 스풀이 maxSize만큼 차서 거절했으면 false
+   * @throws IOException 새 세그먼트 파일을 만들지 못한 경우
+   */
+  public boolean append(byte[] payload) throws IOException {
+
+    int recordSize = HEADER_SIZE + payload.length;
+    if (payload.length == 0 || recordSize > segmentSize) {
+      throw new IllegalArgumentException("record size : " + recordSize);
+    }
+
+    CRC32C crc = new CRC32C();
+    crc.update(payload);
+
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("spool [" + directory + "] is closed");
+      }
+      if (writeSegment.end + recordSize > writeSegment.capacity()) {
+        if ((long) (segments.size() + 1) * segmentSize > maxSize) {
+          rejectedCount.incrementAndGet();
+          return false;
+        }
+        roll();
+      }
+
+      // 본문을 먼저 쓰고 길이를 마지막에 써서, 길이가 보이는 레코드는 본문도 기록된 상태가 되도록 함
+      MappedByteBuffer buffer = writeSegment.buffer;
+      int offset = writeSegment.end;
+      buffer.put(offset + HEADER_SIZE, payload);
+      buffer.putInt(offset + 4, (int) crc.getValue());
+      buffer.putInt(offset, payload.length);
+      writeSegment.end = offset + recordSize;
+      writeSegment.dirty = true;
+      pendingCount++;
+    } finally {
+      lock.unlock();
+    }
+
+    appendedCount.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * 읽기 위치부터 기록된 순서대로 레코드를 읽음, 읽기 위치는 commit()을 호출해야 옮겨짐
+   *
+   * @param maxRecords 읽을 최대 레코드 수
+   * @return 레코드 목록, 남은 레코드가 없으면 빈 목록
+   */
+  public List<Entry> read(int maxRecords) {
+
+    List<Entry> entries = new ArrayList<>();
+
+    lock.lock();
+    try {
+      long segmentNo = readSegment;
+      int offset = readOffset;
+      while (entries.size() < maxRecords && !closed) {
+        Segment segment = segments.get(segmentNo);
+        if (offset >= segment.end) {
+          Long next = segments.higherKey(segmentNo);
+          if (next == null) {
+            break;
+          }
+          segmentNo = next;
+          offset = 0;
+          continue;
+        }
+        int length = segment.buffer.getInt(offset);
+        byte[] payload = new byte[length];
+        segment.buffer.get(offset + HEADER_SIZE, payload);
+        offset += HEADER_SIZE + length;
+        entries.add(new Entry(payload, segmentNo, offset));
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    return entries;
+  }
+
+  /**
+   * read()로 읽은 레코드를 처리했음을 기록하고 읽기 위치를 그 뒤로 옮김
+   *
+   * <p>다 읽은 세그먼트 파일은 삭제</p>
+   *
+   * @param entries read()가 반환한 레코드 목록, 순서대로 처리한 앞부분만 전달할 수 있음
+   * @throws IOException checkpoint 파일을 쓰지 못한 경우
+   */
+  public void commit(List<Entry> entries) throws IOException {
+
+    if (entries.isEmpty()) {
+      return;
+    }
+    Entry last = entries.get(entries.size() - 1);
+
+    lock.lock();
+    try {
+      readSegment = last.segment();
+      readOffset = last.nextOffset();
+      pendingCount -= entries.size();
+      Segment current = segments.get(readSegment);
+      if (current != writeSegment && readOffset >= current.end) {
+        // 다 읽은 세그먼트도 바로 삭제되도록 다음 세그먼트의 처음으로 옮김
+        readSegment = segments.higherKey(readSegment);
+        readOffset = 0;
+      }
+      writeCheckpoint();
+
+      Iterator<Map.Entry<Long, Segment>> iterator = segments.headMap(readSegment).entrySet()
+          .iterator();
+      while (iterator.hasNext()) {
+        Segment segment = iterator.next().getValue();
+        iterator.remove();
+        segment.channel.close();
+        Files.deleteIfExists(segment.path);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 아직 commit()하지 않은 레코드 수
+   *
+   * @return 남은 레코드 수
+   */
+  public long pendingCount() {
+    lock.lock();
+    try {
+      return pendingCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 세그먼트 파일이 차지하는 디스크 크기
+   *
+   * @return 모든 세그먼트 파일 크기의 합
+   */
+  public long sizeBytes() {
+    lock.lock();
+    try {
+      return (long) segments.size() * segmentSize;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 열린 후 기록한 레코드 수
+   *
+   * @return 기록한 레코드 수
+   */
+  public long appendedCount() {
+    return appendedCount.get();
+  }
+
+  /**
+   * 스풀이 가득 차서 거절한 레코드 수
+   *
+   * @return 거절한 레코드 수
+   */
+  public long rejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * 마지막 fsync 이후 기록한 레코드를 디스크에 기록
+   */
+  public void sync() {
+
+    List<MappedByteBuffer> dirty = new ArrayList<>();
+
+    lock.lock();
+    try {
+      for (Segment segment : segments.values()) {
+        if (segment.dirty) {
+          segment.dirty = false;
+          dirty.add(segment.buffer);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    // fsync하는 동안 append()가 기다리지 않도록 잠금 밖에서 실행
+    for (MappedByteBuffer buffer : dirty) {
+      buffer.force();
+    }
+  }
+
+  /**
+   * fsync 후 세그먼트 파일을 닫음
+   */
+  @Override
+  public void close() {
+
+    syncScheduler.shutdown();
+    try {
+      syncScheduler.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      for (Segment segment : segments.values()) {
+        segment.buffer.force();
+        try {
+          segment.channel.close();
+        } catch (IOException e) {
+          log.warn("spool [{}] close segment : [{}]", directory, segment.path, e);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * checkpoint와 세그먼트 파일에서 읽기, 쓰기 위치와 남은 레코드 수를 복구
+   */
+  private void recover() throws IOException {
+
+    List<Long> segmentNos = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      files.forEach(file -> {
+        Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+          segmentNos.add(Long.parseLong(matcher.group(1)));
+        }
+      });
+    }
+    segmentNos.sort(null);
+
+    long[] checkpoint = readCheckpoint();
+    readSegment = checkpoint != null ? checkpoint[0]
+        : segmentNos.isEmpty() ? 0 : segmentNos.get(0);
+    readOffset = checkpoint != null ? (int) checkpoint[1] : 0;
+
+    for (long segmentNo : segmentNos) {
+      Path path = segmentPath(segmentNo);
+      if (segmentNo < readSegment) {
+        // commit()이 checkpoint를 쓴 후 세그먼트 파일을 지우기 전에 중단된 경우
+        Files.deleteIfExists(path);
+        continue;
+      }
+      Segment segment = open(path, Files.size(path));
+      segments.put(segmentNo, segment);
+      pendingCount += scan(segment, segmentNo == readSegment ? readOffset : 0);
+    }
+
+    if (segments.isEmpty() || !segments.containsKey(readSegment)) {
+      if (!segments.isEmpty()) {
+        log.warn("spool [{}] checkpoint segment : [{}] not found, read from : [{}]",
+            directory, readSegment, segments.firstKey());
+        readSegment = segments.firstKey();
+      } else {
+        segments.put(readSegment, open(segmentPath(readSegment), segmentSize));
+      }
+      readOffset = 0;
+    }
+    writeSegment = segments.lastEntry().getValue();
+
+    log.info("spool [{}] recovered segments : [{}], pending : [{}]",
+        directory, segments.size(), pendingCount);
+  }
+
+  /**
+   * 세그먼트의 레코드를 CRC로 확인하며 끝을 찾음
+   *
+   * @return from 이후의 레코드 수
+   */
+  private int scan(Segment segment, int from) {
+
+    MappedByteBuffer buffer = segment.buffer;
+    int capacity = segment.capacity();
+    int offset = 0;
+    int count = 0;
+    CRC32C crc = new CRC32C();
+
+    while (offset + HEADER_SIZE <= capacity) {
+      int length = buffer.getInt(offset);
+      if (length == 0) {
+        break;
+      }
+      if (length < 0 || offset + HEADER_SIZE + length > capacity) {
+        log.warn("spool [{}] invalid record length : [{}] at [{}]", segment.path, length, offset);
+        break;
+      }
+      crc.reset();
+      crc.update(buffer.slice(offset + HEADER_SIZE, length));
+      if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+        log.warn("spool [{}] checksum mismatch at [{}]", segment.path, offset);
+        break;
+      }
+      if (offset >= from) {
+        count++;
+      }
+      offset += HEADER_SIZE + length;
+    }
+
+    segment.end = offset;
+
+    // 깨진 레코드를 지워서 이어서 기록한 레코드 뒤에 이전 레코드가 남지 않도록 함
+    if (offset + 4 <= capacity && buffer.getInt(offset) != 0) {
+      byte[] zeros = new byte[capacity - offset];
+      buffer.put(offset, zeros);
+      buffer.force();
+    }
+
+    return count;
+  }
+
+  private void roll() throws IOException {
+    writeSegment.buffer.force();
+    writeSegment.dirty = false;
+    long segmentNo = segments.lastKey() + 1;
+    writeSegment = open(segmentPath(segmentNo), segmentSize);
+    segments.put(segmentNo, writeSegment);
+  }
+
+  private Segment open(Path path, long size) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * checkpoint 파일에 읽기 위치를 기록, 임시 파일을 쓴 후 이름을 바꿔서 중간에 중단되어도 이전 위치가 남도록 함
+   */
+  private void writeCheckpoint() throws IOException {
+
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    buffer.putLong(readSegment).putInt(readOffset);
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.array(), 0, 12);
+    buffer.putInt((int) crc.getValue()).flip();
+
+    Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * checkpoint 파일의 세그먼트 순번과 위치, 없거나 깨졌으면 null
+   */
+  private long[] readCheckpoint() throws IOException {
+
+    Path path = directory.resolve(CHECKPOINT_FILE);
+    if (!Files.exists(path)) {
+      return null;
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    if (buffer.remaining() != 16) {
+      log.warn("spool [{}] invalid checkpoint size : [{}]", directory, buffer.remaining());
+      return null;
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.array(), 0, 12);
+    long segmentNo = buffer.getLong();
+    int offset = buffer.getInt();
+    if ((int) crc.getValue() != buffer.getInt()) {
+      log.warn("spool [{}] checkpoint checksum mismatch", directory);
+      return null;
+    }
+
+    return new long[]{segmentNo, offset};
+  }
+
+  private Path segmentPath(long segmentNo) {
+    return directory.resolve(String.format("spool-%020d.log", segmentNo));
+  }
+
+  /**
+   * 스풀에서 읽은 레코드
+   *
+   * @param payload    레코드 본문
+   * @param segment    레코드가 기록된 세그먼트 순번
+   * @param nextOffset 세그먼트에서 다음 레코드의 위치
+   */
+  public record Entry(byte[] payload, long segment, int nextOffset) {
+
+  }
+
+  private static final class Segment {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    // 마지막 레코드의 끝
+    private int end;
+    // 마지막 fsync 이후 기록한 레코드가 있는지 여부
+    private boolean dirty;
+
+    private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+      this.path = path;
+      this.channel = channel;
+      this.buffer = buffer;
+    }
+
+    private int capacity() {
+      return buffer.capacity();
+    }
+  }
+}
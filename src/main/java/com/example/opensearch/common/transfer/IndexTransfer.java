@@ -0,0 +1,689 @@
+package com.example.opensearch.common.transfer;
+
+import com.example.opensearch.common.concurrent.ThreadFactories;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.config.resilience.TransientFailures;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.generic.Body;
+import org.opensearch.client.opensearch.generic.OpenSearchClientException;
+import org.opensearch.client.opensearch.generic.OpenSearchGenericClient;
+import org.opensearch.client.opensearch.generic.Request;
+import org.opensearch.client.opensearch.generic.Requests;
+import org.opensearch.client.opensearch.generic.Response;
+
+/**
+ * Index를 gzip 압축된 NDJSON 파일로 내보내고, 파일을 다시 Index로 가져오는 도구
+ *
+ * <p>내보내기는 sliced scroll로 슬라이스마다 파일 하나를 병렬로 작성한다. 검색 응답은 DTO로 변환하지
+ * 않고 스트리밍 파서로 읽으며, 각 Hit의 _index, _id, _routing, _source만 한 줄씩 FileChannel에
+ * 기록한다.</p>
+ *
+ * <p>가져오기는 파일마다 한 스레드가 읽으면서 _bulk 요청 본문을 만들고, 최대 maxConcurrentRequests개의
+ * _bulk 요청을 동시에 전송한다. 전송 중인 요청이 가득 차면 파일 읽기를 멈춘다. 429, 502, 503, 504로
+ * 거절된 Document(요청 전체가 429로 거절된 경우 포함)는 retryBackoff * 2^(재시도 횟수 - 1)만큼 기다린
+ * 후 maxRetries번까지 다시 보내며, 기다리는 동안 전송 자리를 차지하므로 파일 읽기도 느려진다.</p>
+ */
+@Slf4j
+public class IndexTransfer {
+
+  private static final String FILE_SUFFIX = ".ndjson.gz";
+  private static final String NDJSON = "application/x-ndjson";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final OpenSearchGenericClient genericClient;
+  private final OpenSearchProperties.Transfer properties;
+  private final JsonFactory jsonFactory = new JsonFactory();
+  private final boolean virtualThreads;
+
+  public IndexTransfer(OpenSearchClient openSearchClient,
+      OpenSearchProperties.Transfer properties) {
+    this(openSearchClient, properties, false);
+  }
+
+  /**
+   * IndexTransfer 생성
+   *
+   * @param openSearchClient OpenSearchClient
+   * @param properties       내보내기, 가져오기 설정
+   * @param virtualThreads   true이면 slice별 조회와 _bulk 전송을 가상 스레드에서 실행 (Java 21 이상)
+   */
+  public IndexTransfer(OpenSearchClient openSearchClient,
+      OpenSearchProperties.Transfer properties, boolean virtualThreads) {
+    this.genericClient = openSearchClient.generic()
+        .withClientOptions(OpenSearchGenericClient.ClientOptions.throwOnHttpErrors());
+    this.properties = properties;
+    this.virtualThreads = virtualThreads;
+  }
+
+  /**
+   * Index의 모든 Document를 directory에 {indexName}.slice-{n}.ndjson.gz 파일로 내보내기
+   *
+   * @param indexName 내보낼 인덱스명 또는 alias
+   * @param directory 파일을 저장할 디렉터리
+   * @return TransferReport 내보낸 Document 수와 처리량
+   * @throws IOException 조회 또는 파일 쓰기에 실패한 경우
+   */
+  public TransferReport exportIndex(String indexName, Path directory) throws IOException {
+
+    Files.createDirectories(directory);
+    int slices = Math.max(1, properties.getSlices());
+    ExecutorService executor = Executors.newFixedThreadPool(slices,
+        ThreadFactories.threadFactory("export-" + indexName, virtualThreads));
+
+    long start = System.nanoTime();
+    List<Path> files = new ArrayList<>();
+    List<Future<SliceResult>> futures = new ArrayList<>();
+    for (int slice = 0; slice < slices; slice++) {
+      int sliceId = slice;
+      Path file = directory.resolve(indexName + ".slice-" + slice + FILE_SUFFIX);
+      files.add(file);
+      futures.add(executor.submit(() -> exportSlice(indexName, sliceId, slices, file)));
+    }
+
+    long documents = 0;
+    long bytes = 0;
+    try {
+      for (Future<SliceResult> future : futures) {
+        SliceResult result = await(future);
+        documents += result.documents();
+        bytes += result.bytes();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    TransferReport report = TransferReport.builder()
+        .operation("export")
+        .indexName(indexName)
+        .files(files)
+        .documents(documents)
+        .bytes(bytes)
+        .elapsed(Duration.ofNanos(System.nanoTime() - start))
+        .build();
+    log(report);
+
+    return report;
+  }
+
+  /**
+   * exportIndex()로 내보낸 파일을 모두 가져오기
+   *
+   * @param directory       파일이 저장된 디렉터리
+   * @param sourceIndexName 내보낼 때 사용한 인덱스명
+   * @param targetIndexName 저장할 인덱스명, null이면 내보낸 Document의 _index에 저장
+   * @return TransferReport 가져온 Document 수와 처리량
+   * @throws IOException 파일 읽기에 실패한 경우
+   */
+  public TransferReport importIndex(Path directory, String sourceIndexName,
+      String targetIndexName) throws IOException {
+
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+        sourceIndexName + ".slice-*" + FILE_SUFFIX)) {
+      stream.forEach(files::add);
+    }
+    files.sort(null);
+
+    return importFiles(files, targetIndexName);
+  }
+
+  /**
+   * NDJSON 파일을 병렬 _bulk 요청으로 가져오기
+   *
+   * @param files           가져올 파일 목록
+   * @param targetIndexName 저장할 인덱스명, null이면 내보낸 Document의 _index에 저장
+   * @return TransferReport 가져온 Document 수, 저장에 실패한 Document 수와 처리량
+   * @throws IOException 파일 읽기에 실패한 경우
+   */
+  public TransferReport importFiles(List<Path> files, String targetIndexName)
+      throws IOException {
+
+    int maxConcurrentRequests = Math.max(1, properties.getMaxConcurrentRequests());
+    ExecutorService readers = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(files.size(), maxConcurrentRequests)),
+        ThreadFactories.threadFactory("import-reader", virtualThreads));
+    ExecutorService senders = Executors.newFixedThreadPool(maxConcurrentRequests,
+        ThreadFactories.threadFactory("import-sender", virtualThreads));
+    BulkSender bulkSender = new BulkSender(senders, maxConcurrentRequests);
+
+    long start = System.nanoTime();
+    List<Future<SliceResult>> futures = new ArrayList<>();
+    for (Path file : files) {
+      futures.add(readers.submit(() -> importFile(file, targetIndexName, bulkSender)));
+    }
+
+    long documents = 0;
+    long bytes = 0;
+    try {
+      for (Future<SliceResult> future : futures) {
+        SliceResult result = await(future);
+        documents += result.documents();
+        bytes += result.bytes();
+      }
+      bulkSender.awaitAll();
+    } finally {
+      readers.shutdownNow();
+      senders.shutdownNow();
+    }
+
+    TransferReport report = TransferReport.builder()
+        .operation("import")
+        .indexName(targetIndexName)
+        .files(files)
+        .documents(documents)
+        .failedDocuments(bulkSender.failed.get())
+        .bytes(bytes)
+        .elapsed(Duration.ofNanos(System.nanoTime() - start))
+        .build();
+    log(report);
+
+    return report;
+  }
+
+  private SliceResult exportSlice(String indexName, int slice, int slices, Path file)
+      throws IOException {
+
+    long documents = 0;
+    String scrollId = null;
+    CountingOutputStream out = null;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+      out = new CountingOutputStream(
+          new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+      try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+        generator.setRootValueSeparator(null);
+
+        Request request = Requests.builder()
+            .method("POST")
+            .endpoint("/" + indexName + "/_search")
+            .query(Map.of("scroll", keepAlive()))
+            .json(firstPageBody(slice, slices))
+            .build();
+
+        while (true) {
+          Page page;
+          try (Response response = genericClient.execute(request)) {
+            page = copyHits(response, generator);
+          }
+          if (page.scrollId() != null) {
+            scrollId = page.scrollId();
+          }
+          documents += page.hits();
+          if (page.hits() < properties.getPageSize()) {
+            break;
+          }
+          request = Requests.builder()
+              .method("POST")
+              .endpoint("/_search/scroll")
+              .json("{\"scroll\":\"" + keepAlive() + "\",\"scroll_id\":\"" + scrollId + "\"}")
+              .build();
+        }
+      }
+    } finally {
+      clearScroll(scrollId);
+    }
+
+    log.debug("exportSlice indexName : [{}], slice : [{}], documents : [{}]",
+        indexName, slice, documents);
+
+    return new SliceResult(documents, out.count);
+  }
+
+  private String firstPageBody(int slice, int slices) {
+    return "{\"size\":" + properties.getPageSize() + ",\"sort\":[\"_doc\"]"
+        + (slices > 1 ? ",\"slice\":{\"id\":" + slice + ",\"max\":" + slices + "}" : "")
+        + "}";
+  }
+
+  /**
+   * 검색 응답의 Hit을 한 줄씩 generator에 복사
+   */
+  private Page copyHits(Response response, JsonGenerator generator) throws IOException {
+
+    String scrollId = null;
+    int hits = 0;
+
+    try (Body body = response.getBody().orElseThrow(() -> new IOException("Empty response"));
+        JsonParser parser = jsonFactory.createParser(body.body())) {
+      parser.nextToken();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        if ("_scroll_id".equals(field)) {
+          scrollId = parser.getText();
+        } else if ("hits".equals(field)) {
+          hits = copyHitsObject(parser, generator);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    return new Page(scrollId, hits);
+  }
+
+  private int copyHitsObject(JsonParser parser, JsonGenerator generator) throws IOException {
+
+    int hits = 0;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      if ("hits".equals(field)) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          copyHit(parser, generator);
+          hits++;
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    return hits;
+  }
+
+  private void copyHit(JsonParser parser, JsonGenerator generator) throws IOException {
+
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      if ("_index".equals(field) || "_id".equals(field) || "_routing".equals(field)) {
+        generator.writeStringField(field, parser.getText());
+      } else if ("_source".equals(field)) {
+        generator.writeFieldName(field);
+        generator.copyCurrentStructure(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  private SliceResult importFile(Path file, String targetIndexName, BulkSender bulkSender)
+      throws IOException {
+
+    long documents = 0;
+    long maxSize = properties.getBulkMaxSize().toBytes();
+    ByteArrayOutputStream source = new ByteArrayOutputStream();
+    BulkBatch batch = new BulkBatch();
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        CountingInputStream in = new CountingInputStream(new BufferedInputStream(
+            new GZIPInputStream(Channels.newInputStream(channel), BUFFER_SIZE), BUFFER_SIZE));
+        JsonParser parser = jsonFactory.createParser(in)) {
+
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        String index = targetIndexName;
+        String id = null;
+        String routing = null;
+        source.reset();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.currentName();
+          parser.nextToken();
+          if ("_index".equals(field)) {
+            index = targetIndexName != null ? targetIndexName : parser.getText();
+          } else if ("_id".equals(field)) {
+            id = parser.getText();
+          } else if ("_routing".equals(field)) {
+            routing = parser.getText();
+          } else if ("_source".equals(field)) {
+            try (JsonGenerator generator = jsonFactory.createGenerator(source)) {
+              generator.copyCurrentStructure(parser);
+            }
+          } else {
+            parser.skipChildren();
+          }
+        }
+
+        batch.add(index, id, routing, source);
+        documents++;
+        if (batch.count >= properties.getBulkMaxActions() || batch.out.size() >= maxSize) {
+          bulkSender.send(batch);
+          batch = new BulkBatch();
+        }
+      }
+
+      if (batch.count > 0) {
+        bulkSender.send(batch);
+      }
+
+      return new SliceResult(documents, in.count);
+    }
+  }
+
+  private void clearScroll(String scrollId) {
+
+    if (scrollId == null) {
+      return;
+    }
+
+    try (Response response = genericClient.execute(Requests.builder()
+        .method("DELETE")
+        .endpoint("/_search/scroll")
+        .json("{\"scroll_id\":[\"" + scrollId + "\"]}")
+        .build())) {
+      log.debug("clearScroll status : [{}]", response.getStatus());
+    } catch (Exception e) {
+      log.error("clearScroll scrollId : [{}]", scrollId, e);
+    }
+  }
+
+  private String keepAlive() {
+    return properties.getKeepAlive().toMillis() + "ms";
+  }
+
+  private static <T> T await(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted", e);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException
+          ? (IOException) e.getCause() : new IOException(e.getCause());
+    }
+  }
+
+  private static void log(TransferReport report) {
+    log.info("{} indexName : [{}], files : [{}], documents : [{}], failed : [{}], "
+            + "elapsed : [{}], docs/sec : [{}], MB/sec : [{}]",
+        report.getOperation(), report.getIndexName(), report.getFiles().size(),
+        report.getDocuments(), report.getFailedDocuments(), report.getElapsed(),
+        String.format("%.1f", report.docsPerSecond()),
+        String.format("%.2f", report.megabytesPerSecond()));
+  }
+
+  /**
+   * 동시에 전송하는 _bulk 요청 수를 제한하며 전송
+   */
+  private final class BulkSender {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Queue<CompletableFuture<Void>> futures = new ConcurrentLinkedQueue<>();
+    private final AtomicLong failed = new AtomicLong();
+
+    private BulkSender(ExecutorService executor, int maxConcurrentRequests) {
+      this.executor = executor;
+      this.permits = new Semaphore(maxConcurrentRequests);
+    }
+
+    private void send(BulkBatch batch) throws IOException {
+
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted", e);
+      }
+
+      futures.add(CompletableFuture.runAsync(() -> {
+        try {
+          failed.addAndGet(sendBulk(batch));
+        } catch (Exception e) {
+          log.error("importFiles _bulk documents : [{}]", batch.count, e);
+          failed.addAndGet(batch.count);
+        } finally {
+          permits.release();
+        }
+      }, executor));
+    }
+
+    private void awaitAll() {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+  }
+
+  /**
+   * _bulk 요청을 전송하고 저장에 실패한 Document 수를 반환
+   *
+   * <p>일시적인 오류로 거절된 Document만 모아 backoff 후 다시 보내고, maxRetries번 다시 보내도 거절되면
+   * 실패로 셈</p>
+   */
+  private long sendBulk(BulkBatch batch) throws IOException {
+
+    long failed = 0;
+    for (int retries = 0; ; retries++) {
+      BulkResult result;
+      try {
+        result = executeBulk(batch);
+      } catch (IOException | OpenSearchClientException e) {
+        // 요청 전체가 429로 거절되면 어떤 Document도 저장되지 않았으므로 모두 다시 보냄
+        if (TransientFailures.status(e) != TransientFailures.TOO_MANY_REQUESTS
+            || retries >= properties.getMaxRetries()) {
+          throw e;
+        }
+        backoff(retries + 1, batch.count);
+        continue;
+      }
+
+      failed += result.failed();
+      if (result.rejected().isEmpty()) {
+        return failed;
+      }
+      if (retries >= properties.getMaxRetries()) {
+        return failed + result.rejected().size();
+      }
+      batch = batch.select(result.rejected());
+      backoff(retries + 1, batch.count);
+    }
+  }
+
+  /**
+   * _bulk 요청을 한 번 전송하고 일시적이지 않은 오류로 실패한 Document 수와 다시 보낼 항목 번호를 반환
+   */
+  private BulkResult executeBulk(BulkBatch batch) throws IOException {
+
+    Request request = Requests.builder()
+        .method("POST")
+        .endpoint("/_bulk")
+        .body(Body.from(batch.out.toByteArray(), NDJSON))
+        .build();
+
+    try (Response response = genericClient.execute(request);
+        Body body = response.getBody().orElseThrow(() -> new IOException("Empty response"));
+        JsonParser parser = jsonFactory.createParser(body.body())) {
+
+      long failed = 0;
+      List<Integer> rejected = new ArrayList<>();
+      parser.nextToken();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        if ("errors".equals(field) && !parser.getBooleanValue()) {
+          return new BulkResult(0, List.of());
+        } else if ("items".equals(field)) {
+          int item = 0;
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            parser.nextToken();
+            parser.nextToken();
+            int status = 0;
+            boolean error = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+              String itemField = parser.currentName();
+              parser.nextToken();
+              if ("error".equals(itemField)) {
+                error = true;
+              } else if ("status".equals(itemField)) {
+                status = parser.getIntValue();
+              }
+              parser.skipChildren();
+            }
+            parser.nextToken();
+            if (error && TransientFailures.isTransientStatus(status)) {
+              rejected.add(item);
+            } else if (error) {
+              failed++;
+            }
+            item++;
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+
+      return new BulkResult(failed, rejected);
+    }
+  }
+
+  private void backoff(int retries, int documents) throws IOException {
+
+    long backoffMillis = properties.getRetryBackoff().toMillis() << Math.min(retries - 1, 20);
+    log.warn("importFiles rejected documents : [{}], retry after : [{}]ms",
+        documents, backoffMillis);
+    try {
+      Thread.sleep(backoffMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted", e);
+    }
+  }
+
+  /**
+   * _bulk 요청 본문
+   */
+  private final class BulkBatch {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // Document별 action 줄의 시작 위치
+    private final List<Integer> offsets = new ArrayList<>();
+    private int count;
+
+    private void add(String index, String id, String routing, ByteArrayOutputStream source)
+        throws IOException {
+
+      offsets.add(out.size());
+      try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("index");
+        generator.writeStringField("_index", index);
+        if (id != null) {
+          generator.writeStringField("_id", id);
+        }
+        if (routing != null) {
+          generator.writeStringField("routing", routing);
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+      }
+      out.write('\n');
+      source.writeTo(out);
+      out.write('\n');
+      count++;
+    }
+
+    /**
+     * items 번째 Document만 담은 요청 본문
+     */
+    private BulkBatch select(List<Integer> items) {
+
+      byte[] bytes = out.toByteArray();
+      BulkBatch batch = new BulkBatch();
+      for (int item : items) {
+        int from = offsets.get(item);
+        int to = item + 1 < offsets.size() ? offsets.get(item + 1) : bytes.length;
+        batch.offsets.add(batch.out.size());
+        batch.out.write(bytes, from, to - from);
+        batch.count++;
+      }
+      return batch;
+    }
+  }
+
+  private record SliceResult(long documents, long bytes) {
+
+  }
+
+  private record BulkResult(long failed, List<Integer> rejected) {
+
+  }
+
+  private record Page(String scrollId, int hits) {
+
+  }
+
+  private static final class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    private CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
+
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    private CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = in.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+  }
+}
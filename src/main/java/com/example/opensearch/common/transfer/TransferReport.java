@@ -0,0 +1,51 @@
+package com.example.opensearch.common.transfer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Index 내보내기, 가져오기 결과와 처리량
+ */
+@Getter
+@Builder
+@ToString
+public class TransferReport {
+
+  // export 또는 import
+  private final String operation;
+  private final String indexName;
+  private final List<Path> files;
+
+  private final long documents;
+  private final long failedDocuments;
+
+  // 압축 전 NDJSON 크기
+  private final long bytes;
+  private final Duration elapsed;
+
+  /**
+   * 초당 처리한 Document 수
+   *
+   * @return docs/sec
+   */
+  public double docsPerSecond() {
+    return documents / seconds();
+  }
+
+  /**
+   * 초당 처리한 압축 전 NDJSON 크기
+   *
+   * @return MB/sec
+   */
+  public double megabytesPerSecond() {
+    return bytes / (1024.0 * 1024.0) / seconds();
+  }
+
+  private double seconds() {
+    return Math.max(elapsed.toNanos(), 1) / 1_000_000_000.0;
+  }
+}
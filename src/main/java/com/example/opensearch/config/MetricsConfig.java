@@ -0,0 +1,24 @@
+package com.example.opensearch.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+  // @Timed가 붙은 서비스 메서드의 응답 시간 Timer 이름, class, method tag로 구분
+  public static final String SERVICE_TIMER = "opensearch.service";
+
+  /**
+   * @Timed 애노테이션을 처리하는 TimedAspect Bean 설정
+   *
+   * @param meterRegistry MeterRegistry
+   * @return TimedAspect
+   */
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+    return new TimedAspect(meterRegistry);
+  }
+}
@@ -1,45 +1,407 @@
 package com.example.opensearch.config;
 
+import com.example.opensearch.common.bulk.BulkIngester;
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.common.transfer.IndexTransfer;
+import com.example.opensearch.config.concurrency.CoalescingOpenSearchTransport;
+import com.example.opensearch.config.concurrency.ConcurrencyLimitedOpenSearchTransport;
+import com.example.opensearch.config.json.DtoJsonpMapper;
+import com.example.opensearch.config.metrics.ConnectionPoolMetrics;
+import com.example.opensearch.config.metrics.MeteredOpenSearchTransport;
+import com.example.opensearch.config.metrics.TrafficMetricsInterceptor;
+import com.example.opensearch.config.node.CircuitBreakerInterceptor;
+import com.example.opensearch.config.node.NodeHealthChecker;
+import com.example.opensearch.config.node.NodeStates;
+import com.example.opensearch.config.node.OpenSearchNodeSelector;
+import com.example.opensearch.config.node.OutstandingRequestsInterceptor;
+import com.example.opensearch.config.resilience.HedgingOpenSearchTransport;
+import com.example.opensearch.config.resilience.RetryingOpenSearchTransport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.auth.AuthScope;
 import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
 import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
 import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5Transport.FailureListener;
 import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+import org.opensearch.client.transport.httpclient5.internal.Node;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 @Configuration
+@EnableConfigurationProperties(OpenSearchProperties.class)
 public class OpenSearchConfig {
 
-  private static final String SCHEME = "http";
-  private static final String HOST = "localhost";
-  private static final int PORT = 9200;
-  private static final String USERNAME = "admin";
-  private static final String PASSWORD = "admin";
+  /**
+   * OpenSearch 노드별 상태 Bean 설정
+   *
+   * <p>circuit-breaker.enabled이면 연속으로 failure-threshold번 실패한 노드를 open-duration 동안
+   * 노드 선택에서 제외</p>
+   *
+   * @param openSearchProperties OpenSearch 설정
+   * @param meterRegistry        MeterRegistry
+   * @return NodeStates
+   */
+  @Bean
+  public NodeStates nodeStates(OpenSearchProperties openSearchProperties,
+      MeterRegistry meterRegistry) {
+
+    List<HttpHost> httpHosts = httpHosts(openSearchProperties);
+    OpenSearchProperties.CircuitBreaker circuitBreaker = openSearchProperties.getCircuitBreaker();
+    NodeStates nodeStates = new NodeStates(httpHosts,
+        circuitBreaker.isEnabled() ? circuitBreaker.getFailureThreshold() : 0,
+        circuitBreaker.getOpenDuration());
+
+    for (HttpHost httpHost : httpHosts) {
+      Gauge.builder("opensearch.client.circuit.open", nodeStates,
+              states -> states.isCircuitOpen(httpHost) ? 1 : 0)
+          .tag("node", httpHost.toHostString())
+          .register(meterRegistry);
+      FunctionCounter.builder("opensearch.client.circuit.opened", nodeStates,
+              states -> states.circuitOpenedCount(httpHost))
+          .tag("node", httpHost.toHostString())
+          .register(meterRegistry);
+    }
+
+    return nodeStates;
+  }
 
   /**
-   * OpenSearchClient Bean 설정
+   * OpenSearch 노드 상태 확인 Bean 설정
    *
-   * @return OpenSearchClient
+   * @param openSearchProperties OpenSearch 설정
+   * @param nodeStates           OpenSearch 노드별 상태
+   * @return NodeHealthChecker
+   */
+  @Bean(destroyMethod = "close")
+  public NodeHealthChecker nodeHealthChecker(OpenSearchProperties openSearchProperties,
+      NodeStates nodeStates) {
+
+    NodeHealthChecker nodeHealthChecker = new NodeHealthChecker(
+        httpHosts(openSearchProperties), nodeStates, openSearchProperties);
+    if (openSearchProperties.getHealthCheck().isEnabled()) {
+      nodeHealthChecker.start();
+    }
+
+    return nodeHealthChecker;
+  }
+
+  /**
+   * OpenSearch 요청, 응답 본문을 변환하는 JsonpMapper Bean 설정
+   *
+   * @param environment spring.threads.virtual.enabled 확인
+   * @return JsonpMapper
    */
   @Bean
-  public OpenSearchClient openSearchClient() {
+  public JsonpMapper jsonpMapper(Environment environment) {
+    return DtoJsonpMapper.create(Threading.VIRTUAL.isActive(environment));
+  }
 
-    final HttpHost httpHost = new HttpHost(SCHEME, HOST, PORT);
+  /**
+   * OpenSearchTransport Bean 설정
+   *
+   * <p>OpenSearchClient와 OpenSearchAsyncClient가 같은 Transport(커넥션 풀)를 공유</p>
+   * <p>요청별 응답 시간, 오류, 전송 바이트 수, 커넥션 풀 상태를 MeterRegistry에 기록</p>
+   * <p>동시에 전송 중인 요청 수를 concurrency.max-requests개로 제한하며, 응답 시간에는 순서를 기다린
+   * 시간도 포함</p>
+   * <p>http 설정으로 gzip 압축, HTTP/2 사용 여부, I/O Reactor 스레드 수와 소켓 버퍼 크기를 지정.
+   * HTTP/2를 사용하면 노드별 커넥션 하나에서 여러 요청을 동시에 처리</p>
+   * <p>coalescing.enabled이면 동시에 들어온 같은 검색 요청을 하나로 합쳐서 전송</p>
+   * <p>retry.enabled이면 429, 502, 503, 504와 연결 오류로 실패한 읽기 요청을 백오프 후 다시 보내고,
+   * hedge.enabled이면 응답이 늦는 검색 요청을 한 번 더 보냄. 재시도와 추가 요청도 동시 요청 수 제한을
+   * 따르며, 합쳐진 요청은 한 번만 재시도</p>
+   *
+   * @param openSearchProperties OpenSearch 설정
+   * @param nodeStates           OpenSearch 노드별 상태
+   * @param jsonpMapper          요청, 응답 본문을 변환하는 JsonpMapper
+   * @param meterRegistry        MeterRegistry
+   * @return OpenSearchTransport
+   */
+  @Bean
+  public OpenSearchTransport openSearchTransport(OpenSearchProperties openSearchProperties,
+      NodeStates nodeStates, JsonpMapper jsonpMapper, MeterRegistry meterRegistry) {
+
+    final HttpHost[] httpHosts = httpHosts(openSearchProperties).toArray(new HttpHost[0]);
+    final OpenSearchProperties.Pool pool = openSearchProperties.getPool();
+    final OpenSearchProperties.Http http = openSearchProperties.getHttp();
 
     // 인증 정보를 설정
     BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-    credentialsProvider.setCredentials(new AuthScope(httpHost),
-        new UsernamePasswordCredentials(USERNAME, PASSWORD.toCharArray()));
+    for (HttpHost httpHost : httpHosts) {
+      credentialsProvider.setCredentials(new AuthScope(httpHost),
+          new UsernamePasswordCredentials(openSearchProperties.getUsername(),
+              openSearchProperties.getPassword().toCharArray()));
+    }
+
+    // 커넥션 풀 크기와 커넥션 수명을 설정
+    PoolingAsyncClientConnectionManager connectionManager =
+        PoolingAsyncClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(pool.getMaxConnTotal())
+            .setMaxConnPerRoute(pool.getMaxConnPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(pool.getConnectTimeout()))
+                .setTimeToLive(TimeValue.of(pool.getConnectionTtl()))
+                .build())
+            .setDefaultTlsConfig(TlsConfig.custom()
+                .setVersionPolicy(http.getVersionPolicy())
+                .build())
+            .build();
+    new ConnectionPoolMetrics(connectionManager).bindTo(meterRegistry);
 
     // OpenSearch와 통신하기 위한 OpenSearchTransport 객체를 생성
-    final OpenSearchTransport transport =
-        ApacheHttpClient5TransportBuilder.builder(httpHost)
-            .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder
-                .setDefaultCredentialsProvider(credentialsProvider)).build();
+    OpenSearchTransport apacheTransport = ApacheHttpClient5TransportBuilder.builder(httpHosts)
+        .setNodeSelector(
+            new OpenSearchNodeSelector(nodeStates, openSearchProperties.getNodeSelector()))
+        .setFailureListener(new FailureListener() {
+          @Override
+          public void onFailure(Node node) {
+            nodeStates.markDead(node.getHost());
+          }
+        })
+        .setMapper(jsonpMapper)
+        .setCompressionEnabled(http.isCompression())
+        .setRequestConfigCallback(requestConfigBuilder -> requestConfigBuilder
+            .setResponseTimeout(Timeout.of(pool.getResponseTimeout())))
+        .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder
+            .setDefaultCredentialsProvider(credentialsProvider)
+            .setConnectionManager(connectionManager)
+            .setIOReactorConfig(ioReactorConfig(http))
+            .setH2Config(H2Config.custom()
+                .setMaxConcurrentStreams(http.getMaxConcurrentStreams())
+                .build())
+            .setKeepAliveStrategy(keepAliveStrategy(pool.getKeepAlive()))
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(pool.getIdleTimeout()))
+            .addExecInterceptorFirst(OutstandingRequestsInterceptor.NAME,
+                new OutstandingRequestsInterceptor(nodeStates))
+            .addExecInterceptorFirst(CircuitBreakerInterceptor.NAME,
+                new CircuitBreakerInterceptor(nodeStates))
+            .addExecInterceptorLast(TrafficMetricsInterceptor.NAME,
+                new TrafficMetricsInterceptor(meterRegistry)))
+        .build();
+
+    // 가상 스레드로 요청을 처리해도 클러스터로 한꺼번에 몰리지 않도록 동시 요청 수를 제한
+    OpenSearchProperties.Concurrency concurrency = openSearchProperties.getConcurrency();
+    ConcurrencyLimitedOpenSearchTransport limitedTransport =
+        new ConcurrencyLimitedOpenSearchTransport(apacheTransport,
+            concurrency.getMaxRequests() > 0 ? concurrency.getMaxRequests()
+                : pool.getMaxConnTotal(),
+            concurrency.getAcquireTimeout());
+    Gauge.builder("opensearch.client.concurrency.available", limitedTransport,
+            ConcurrencyLimitedOpenSearchTransport::availablePermits)
+        .register(meterRegistry);
+    Gauge.builder("opensearch.client.concurrency.waiting", limitedTransport,
+            ConcurrencyLimitedOpenSearchTransport::waitingRequests)
+        .register(meterRegistry);
+
+    // 응답이 늦는 검색 요청은 budget 안에서 한 번 더 보냄
+    OpenSearchTransport transport = limitedTransport;
+    if (openSearchProperties.getHedge().isEnabled()) {
+      transport = new HedgingOpenSearchTransport(transport, openSearchProperties.getHedge(),
+          meterRegistry);
+    }
+
+    // 일시적인 오류로 실패한 읽기 요청은 백오프 후 다시 보냄
+    if (openSearchProperties.getRetry().isEnabled()) {
+      transport = new RetryingOpenSearchTransport(transport, openSearchProperties.getRetry(),
+          meterRegistry);
+    }
+
+    // 같은 집계 요청이 동시에 몰려도 클러스터에는 한 번만 전송하며, 합쳐진 요청은 순서를 기다리지 않음
+    OpenSearchProperties.Coalescing coalescing = openSearchProperties.getCoalescing();
+    if (coalescing.isEnabled()) {
+      CoalescingOpenSearchTransport coalescingTransport = new CoalescingOpenSearchTransport(
+          transport, coalescing.getGraceWindow(), meterRegistry);
+      Gauge.builder("opensearch.client.coalescing.shared", coalescingTransport,
+              CoalescingOpenSearchTransport::sharedCalls)
+          .register(meterRegistry);
+      transport = coalescingTransport;
+    }
+
+    return new MeteredOpenSearchTransport(transport, meterRegistry);
+  }
+
+  /**
+   * OpenSearchClient Bean 설정
+   *
+   * <p>OpenSearchClient.shutdown()은 클러스터 API이므로 destroyMethod로 추론되지 않도록 비활성화</p>
+   *
+   * @param openSearchTransport OpenSearchTransport
+   * @return OpenSearchClient
+   */
+  @Bean(destroyMethod = "")
+  public OpenSearchClient openSearchClient(OpenSearchTransport openSearchTransport) {
+    return new OpenSearchClient(openSearchTransport);
+  }
+
+  /**
+   * OpenSearchAsyncClient Bean 설정
+   *
+   * @param openSearchTransport OpenSearchTransport
+   * @return OpenSearchAsyncClient
+   */
+  @Bean(destroyMethod = "")
+  public OpenSearchAsyncClient openSearchAsyncClient(OpenSearchTransport openSearchTransport) {
+    return new OpenSearchAsyncClient(openSearchTransport);
+  }
+
+  /**
+   * problem-records Index에 문항 풀이 내용을 Bulk로 저장하는 BulkIngester Bean 설정
+   *
+   * <p>애플리케이션 종료 시 close()를 호출하여 버퍼에 남은 Document를 모두 전송</p>
+   *
+   * @param openSearchClient     OpenSearchClient
+   * @param openSearchProperties OpenSearch 설정
+   * @param environment          spring.threads.virtual.enabled 확인
+   * @param meterRegistry        MeterRegistry
+   * @return BulkIngester
+   */
+  @Bean(destroyMethod = "close")
+  public BulkIngester problemBulkIngester(OpenSearchClient openSearchClient,
+      OpenSearchProperties openSearchProperties, Environment environment,
+      MeterRegistry meterRegistry) {
+    return bindMetrics(new BulkIngester(openSearchClient, openSearchProperties.getBulk(),
+        "problem-bulk", Threading.VIRTUAL.isActive(environment)), "problem-bulk", meterRegistry);
+  }
+
+  /**
+   * SampleService의 여러 Document 저장, 수정, 삭제 요청을 _bulk로 나누어 전송하는 BulkIngester Bean 설정
+   *
+   * @param openSearchClient     OpenSearchClient
+   * @param openSearchProperties OpenSearch 설정
+   * @param environment          spring.threads.virtual.enabled 확인
+   * @param meterRegistry        MeterRegistry
+   * @return BulkIngester
+   */
+  @Bean(destroyMethod = "close")
+  public BulkIngester sampleBulkIngester(OpenSearchClient openSearchClient,
+      OpenSearchProperties openSearchProperties, Environment environment,
+      MeterRegistry meterRegistry) {
+    return bindMetrics(new BulkIngester(openSearchClient, openSearchProperties.getBulk(),
+        "sample-bulk", Threading.VIRTUAL.isActive(environment)), "sample-bulk", meterRegistry);
+  }
+
+  /**
+   * Index를 NDJSON 파일로 내보내고 가져오는 IndexTransfer Bean 설정
+   *
+   * <p>Java 21 이상에서 spring.threads.virtual.enabled가 true이면 slice별 조회와 _bulk 전송을
+   * 가상 스레드에서 실행</p>
+   *
+   * @param openSearchClient     OpenSearchClient
+   * @param openSearchProperties OpenSearch 설정
+   * @param environment          spring.threads.virtual.enabled 확인
+   * @return IndexTransfer
+   */
+  @Bean
+  public IndexTransfer indexTransfer(OpenSearchClient openSearchClient,
+      OpenSearchProperties openSearchProperties, Environment environment) {
+    return new IndexTransfer(openSearchClient, openSearchProperties.getTransfer(),
+        Threading.VIRTUAL.isActive(environment));
+  }
+
+  /**
+   * Index를 무중단 재색인하는 IndexReindexer Bean 설정
+   *
+   * @param openSearchClient      OpenSearchClient
+   * @param openSearchAsyncClient OpenSearchAsyncClient
+   * @param openSearchProperties  OpenSearch 설정
+   * @return IndexReindexer
+   */
+  @Bean(destroyMethod = "close")
+  public IndexReindexer indexReindexer(OpenSearchClient openSearchClient,
+      OpenSearchAsyncClient openSearchAsyncClient, OpenSearchProperties openSearchProperties) {
+    return new IndexReindexer(openSearchClient, openSearchAsyncClient,
+        openSearchProperties.getReindex());
+  }
+
+  /**
+   * BulkIngester의 동시 요청 한도와 429로 거절, 재전송된 Document 수를 MeterRegistry에 기록
+   */
+  private static BulkIngester bindMetrics(BulkIngester bulkIngester, String name,
+      MeterRegistry meterRegistry) {
+
+    Gauge.builder("opensearch.bulk.concurrency.limit", bulkIngester,
+            BulkIngester::concurrencyLimit)
+        .tag("name", name)
+        .register(meterRegistry);
+    FunctionCounter.builder("opensearch.bulk.rejected", bulkIngester,
+            BulkIngester::rejectedCount)
+        .tag("name", name)
+        .register(meterRegistry);
+    FunctionCounter.builder("opensearch.bulk.retried", bulkIngester,
+            BulkIngester::retriedCount)
+        .tag("name", name)
+        .register(meterRegistry);
+
+    return bulkIngester;
+  }
+
+  /**
+   * 설정된 노드 목록을 HttpHost로 변환
+   */
+  static List<HttpHost> httpHosts(OpenSearchProperties openSearchProperties) {
+
+    List<HttpHost> httpHosts = new ArrayList<>();
+    for (String node : openSearchProperties.getNodes()) {
+      try {
+        httpHosts.add(HttpHost.create(node));
+      } catch (URISyntaxException e) {
+        throw new IllegalArgumentException("Invalid opensearch.nodes entry : " + node, e);
+      }
+    }
+
+    return httpHosts;
+  }
+
+  /**
+   * 서버가 알려준 Keep-Alive 시간과 설정된 최대 시간 중 짧은 시간만큼 커넥션을 유지
+   */
+  private static ConnectionKeepAliveStrategy keepAliveStrategy(Duration maxKeepAlive) {
+
+    TimeValue max = TimeValue.of(maxKeepAlive);
+
+    return (response, context) -> {
+      TimeValue keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+          .getKeepAliveDuration(response, context);
+      return TimeValue.isPositive(keepAlive) && keepAlive.compareTo(max) < 0 ? keepAlive : max;
+    };
+  }
+
+  /**
+   * I/O Reactor 스레드 수와 소켓 버퍼 크기, 0이면 기본값을 사용
+   */
+  private static IOReactorConfig ioReactorConfig(OpenSearchProperties.Http http) {
+
+    IOReactorConfig.Builder builder = IOReactorConfig.custom()
+        .setTcpNoDelay(true)
+        .setSndBufSize((int) http.getSendBufferSize().toBytes())
+        .setRcvBufSize((int) http.getReceiveBufferSize().toBytes());
+    if (http.getIoThreadCount() > 0) {
+      builder.setIoThreadCount(http.getIoThreadCount());
+    }
 
-    return new OpenSearchClient(transport);
+    return builder.build();
   }
 }
@@ -0,0 +1,445 @@
+package com.example.opensearch.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "opensearch")
+public class OpenSearchProperties {
+
+  // OpenSearch 노드 목록 (예: http://localhost:9200)
+  private List<String> nodes = new ArrayList<>(List.of("http://localhost:9200"));
+
+  private String username = "admin";
+
+  private String password = "admin";
+
+  // 요청을 보낼 노드를 선택하는 방식
+  private NodeSelectorType nodeSelector = NodeSelectorType.ROUND_ROBIN;
+
+  private Pool pool = new Pool();
+
+  private Http http = new Http();
+
+  private Concurrency concurrency = new Concurrency();
+
+  private Coalescing coalescing = new Coalescing();
+
+  private Retry retry = new Retry();
+
+  private Hedge hedge = new Hedge();
+
+  private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+  private HealthCheck healthCheck = new HealthCheck();
+
+  private Bulk bulk = new Bulk();
+
+  private Cache cache = new Cache();
+
+  private ProblemIndex problemIndex = new ProblemIndex();
+
+  private Scan scan = new Scan();
+
+  private Transfer transfer = new Transfer();
+
+  private Reindex reindex = new Reindex();
+
+  private Spool spool = new Spool();
+
+  private Rollup rollup = new Rollup();
+
+  /**
+   * 노드 선택 방식
+   */
+  public enum NodeSelectorType {
+
+    // 살아있는 노드를 순서대로 사용
+    ROUND_ROBIN,
+
+    // 처리 중인 요청이 가장 적은 노드를 사용
+    LEAST_OUTSTANDING
+  }
+
+  /**
+   * 커넥션 풀 설정
+   */
+  @Getter
+  @Setter
+  public static class Pool {
+
+    // 전체 최대 커넥션 수
+    private int maxConnTotal = 100;
+
+    // 노드별 최대 커넥션 수
+    private int maxConnPerRoute = 50;
+
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    // 커넥션의 최대 수명, 지난 커넥션은 재사용하지 않고 정리
+    private Duration connectionTtl = Duration.ofMinutes(5);
+
+    // 이 시간 이상 사용되지 않은 커넥션을 정리
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    // 서버가 Keep-Alive 헤더로 알려주지 않을 때 커넥션을 유지하는 최대 시간
+    private Duration keepAlive = Duration.ofSeconds(60);
+  }
+
+  /**
+   * HTTP 전송 설정
+   */
+  @Getter
+  @Setter
+  public static class Http {
+
+    // 요청 본문을 gzip으로 압축하고 Accept-Encoding: gzip으로 압축된 응답을 받음
+    private boolean compression = false;
+
+    // FORCE_HTTP_1, NEGOTIATE(TLS는 ALPN으로 협상, 평문은 HTTP/1.1), FORCE_HTTP_2(평문은 h2c prior knowledge)
+    private HttpVersionPolicy versionPolicy = HttpVersionPolicy.NEGOTIATE;
+
+    // HTTP/2 커넥션 하나에서 동시에 처리하는 최대 스트림 수
+    private int maxConcurrentStreams = 100;
+
+    // I/O Reactor 스레드 수, 0이면 CPU 코어 수
+    private int ioThreadCount = 0;
+
+    // 소켓 송신, 수신 버퍼 크기, 0이면 OS 기본값
+    private DataSize sendBufferSize = DataSize.ofBytes(0);
+
+    private DataSize receiveBufferSize = DataSize.ofBytes(0);
+  }
+
+  /**
+   * Transport 앞단의 동시 요청 수 제한 설정
+   */
+  @Getter
+  @Setter
+  public static class Concurrency {
+
+    // 동시에 전송 중인 최대 요청 수, 0이면 pool.max-conn-total을 사용
+    private int maxRequests = 0;
+
+    // 동기 요청이 전송 순서를 기다리는 최대 시간
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+  }
+
+  /**
+   * 같은 검색 요청을 하나로 합치는 설정
+   */
+  @Getter
+  @Setter
+  public static class Coalescing {
+
+    private boolean enabled = true;
+
+    // 응답을 받은 후에도 같은 요청에 그 응답을 돌려주는 시간, 0이면 진행 중인 요청만 합침
+    private Duration graceWindow = Duration.ZERO;
+  }
+
+  /**
+   * 일시적인 오류로 실패한 읽기 요청의 재시도 설정
+   */
+  @Getter
+  @Setter
+  public static class Retry {
+
+    private boolean enabled = true;
+
+    // 첫 요청을 포함한 최대 시도 횟수
+    private int maxAttempts = 3;
+
+    // 재시도 전 대기 시간의 상한은 initialBackoff * 2^(재시도 횟수 - 1)이고 maxBackoff를 넘지 않음,
+    // 실제 대기 시간은 0부터 상한 사이에서 무작위로 정함(full jitter)
+    private Duration initialBackoff = Duration.ofMillis(50);
+
+    private Duration maxBackoff = Duration.ofSeconds(1);
+  }
+
+  /**
+   * 느린 검색 요청을 다른 노드로 한 번 더 보내는(hedging) 설정
+   */
+  @Getter
+  @Setter
+  public static class Hedge {
+
+    private boolean enabled = false;
+
+    // 최근 검색 응답 시간의 이 백분위수만큼 기다려도 응답이 없으면 한 번 더 보냄
+    private double percentile = 0.95;
+
+    // 응답 시간 분포가 작아도 이 시간 전에는 보내지 않음
+    private Duration minDelay = Duration.ofMillis(20);
+
+    // 전체 검색 요청 대비 추가로 보낼 수 있는 요청의 최대 비율
+    private double budgetRatio = 0.05;
+  }
+
+  /**
+   * 노드별 서킷 브레이커 설정
+   */
+  @Getter
+  @Setter
+  public static class CircuitBreaker {
+
+    private boolean enabled = true;
+
+    // 연속으로 이 횟수만큼 실패(연결 오류, 5xx)하면 노드를 요청 대상에서 제외
+    private int failureThreshold = 5;
+
+    // 제외한 노드에 다시 요청을 보내보기까지의 시간
+    private Duration openDuration = Duration.ofSeconds(30);
+  }
+
+  /**
+   * 노드 상태 확인 설정
+   */
+  @Getter
+  @Setter
+  public static class HealthCheck {
+
+    private boolean enabled = true;
+
+    private Duration interval = Duration.ofSeconds(5);
+
+    private Duration timeout = Duration.ofSeconds(2);
+
+    private String path = "/";
+  }
+
+  /**
+   * Bulk 저장 설정
+   */
+  @Getter
+  @Setter
+  public static class Bulk {
+
+    // 하나의 _bulk 요청에 담을 최대 Document 수
+    private int maxActions = 1000;
+
+    // 하나의 _bulk 요청에 담을 최대 크기
+    private DataSize maxSize = DataSize.ofMegabytes(5);
+
+    // 버퍼에 쌓인 Document를 주기적으로 전송하는 간격
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // 동시에 전송 중일 수 있는 _bulk 요청 수
+    private int maxConcurrentRequests = 2;
+
+    // 전송 중인 Document를 포함하여 버퍼에 보관할 수 있는 최대 Document 수
+    private int bufferCapacity = 10000;
+
+    // 버퍼가 가득 찼을 때 빈 공간을 기다리는 최대 시간
+    private Duration offerTimeout = Duration.ofSeconds(5);
+
+    // 종료 시 버퍼에 남은 Document의 전송을 기다리는 최대 시간
+    private Duration closeTimeout = Duration.ofSeconds(30);
+
+    // 클러스터가 429(es_rejected_execution_exception)로 거절한 Document를 다시 보내는 최대 횟수
+    private int maxRetries = 3;
+
+    // 거절된 Document를 다시 보내기 전 대기 시간, 재시도마다 두 배로 늘어남
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    // 429를 받으면 동시 _bulk 요청 수를 절반으로 줄이고, 거절 없이 성공하면 하나씩 늘림
+    private boolean adaptiveConcurrency = true;
+  }
+
+  /**
+   * 배점 평균, 정답률 조회 결과 캐시 설정
+   */
+  @Getter
+  @Setter
+  public static class Cache {
+
+    private boolean enabled = true;
+
+    // 캐시에 보관할 최대 학생 수
+    private long maximumSize = 10000;
+
+    // 저장 후 이 시간이 지나면 OpenSearch에서 다시 조회
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+  }
+
+  /**
+   * problem-records Index 설정
+   */
+  @Getter
+  @Setter
+  public static class ProblemIndex {
+
+    // 학생 수 기준 수천만 건까지는 샤드 하나로 충분
+    private int numberOfShards = 1;
+
+    private int numberOfReplicas = 1;
+
+    // 저장 후 검색에 반영되기까지의 최대 시간
+    private Duration refreshInterval = Duration.ofSeconds(1);
+
+    // problemStartDtm 기준으로 Index를 나누는 단위
+    private PartitionInterval partitionInterval = PartitionInterval.MONTHLY;
+
+    private Maintenance maintenance = new Maintenance();
+  }
+
+  /**
+   * problem-records Index를 나누는 단위
+   */
+  public enum PartitionInterval {
+
+    // problem-records-yyyy.MM.dd
+    DAILY,
+
+    // problem-records-yyyy.MM
+    MONTHLY
+  }
+
+  /**
+   * 지난 problem-records 파티션 정리 작업 설정
+   */
+  @Getter
+  @Setter
+  public static class Maintenance {
+
+    private boolean enabled = true;
+
+    private String cron = "0 0 3 * * *";
+
+    // 현재 파티션을 포함하여 쓰기 가능한 상태로 남겨둘 파티션 수
+    private int writablePartitions = 2;
+
+    // force merge 후 샤드별 세그먼트 수
+    private long maxNumSegments = 1;
+  }
+
+  /**
+   * 검색 결과 전체 순회(PIT, search_after) 설정
+   */
+  @Getter
+  @Setter
+  public static class Scan {
+
+    // 한 번에 가져오는 Document 수
+    private int pageSize = 1000;
+
+    // 페이지 요청 사이에 PIT 또는 scroll을 유지하는 시간
+    private Duration keepAlive = Duration.ofMinutes(1);
+  }
+
+  /**
+   * Index 내보내기(NDJSON)와 가져오기(_bulk) 설정
+   */
+  @Getter
+  @Setter
+  public static class Transfer {
+
+    // 내보내기 시 병렬로 조회하는 sliced scroll 수, 슬라이스마다 파일 하나를 생성
+    private int slices = 4;
+
+    // 슬라이스별로 한 번에 가져오는 Document 수
+    private int pageSize = 1000;
+
+    // scroll 요청 사이에 검색 컨텍스트를 유지하는 시간
+    private Duration keepAlive = Duration.ofMinutes(1);
+
+    // 가져오기 시 _bulk 요청 하나에 담는 최대 Document 수와 크기
+    private int bulkMaxActions = 1000;
+
+    private DataSize bulkMaxSize = DataSize.ofMegabytes(5);
+
+    // 가져오기 시 동시에 전송하는 _bulk 요청 수
+    private int maxConcurrentRequests = 4;
+
+    // 가져오기 시 429, 502, 503, 504로 거절된 Document를 다시 보내는 최대 횟수
+    private int maxRetries = 3;
+
+    // 거절된 Document를 다시 보내기 전 대기 시간, 재시도마다 두 배로 늘어남
+    private Duration retryBackoff = Duration.ofMillis(200);
+  }
+
+  /**
+   * 무중단 재색인 설정
+   */
+  @Getter
+  @Setter
+  public static class Reindex {
+
+    // _reindex 슬라이스 수, 0이면 원본 Index의 primary shard 수
+    private int slices = 0;
+
+    // 슬라이스별로 한 번에 복사하는 Document 수
+    private int batchSize = 1000;
+
+    // _reindex 작업 진행 상황을 조회하는 간격
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    // alias를 교체하기 전 진행 중인 이중 저장이 끝나기를 기다리는 최대 시간
+    private Duration mirrorDrainTimeout = Duration.ofSeconds(30);
+  }
+
+  /**
+   * 클러스터에 저장하지 못한 문항 풀이 내용을 보관하는 로컬 스풀 설정
+   */
+  @Getter
+  @Setter
+  public static class Spool {
+
+    private boolean enabled = true;
+
+    // 세그먼트 파일과 체크포인트 파일을 저장하는 디렉터리
+    private String directory = "data/spool/problem-answers";
+
+    // 세그먼트 파일 하나의 크기, 레코드 하나는 이 크기보다 작아야 함
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+    // 모든 세그먼트 파일 크기의 합, 넘으면 새 레코드를 거절
+    private DataSize maxSize = DataSize.ofGigabytes(1);
+
+    // 기록한 레코드를 디스크에 fsync하는 간격, 프로세스가 아닌 OS가 중단되면 이 시간만큼 유실될 수 있음
+    private Duration syncInterval = Duration.ofMillis(100);
+
+    // 스풀에 남은 레코드를 클러스터로 다시 보내는 간격
+    private Duration replayInterval = Duration.ofSeconds(1);
+
+    // 한 번의 _bulk 요청으로 다시 보내는 최대 레코드 수
+    private int replayBatchSize = 500;
+
+    // 일부 항목이 429, 502, 503, 504로 거절된 묶음을 연속으로 다시 보내는 최대 횟수, 넘으면 거절된 항목을 버림
+    private int maxReplayAttempts = 10;
+  }
+
+  /**
+   * 학생별, 학습별, 전체 문항 풀이 집계(롤업) 설정
+   */
+  @Getter
+  @Setter
+  public static class Rollup {
+
+    private boolean enabled = true;
+
+    // 롤업 Document를 저장하는 Index, problem-records-* 템플릿에 포함되지 않는 이름이어야 함
+    private String indexName = "problem-rollups";
+
+    // 모아둔 증분을 _bulk scripted upsert로 반영하는 간격
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // 여러 인스턴스가 같은 롤업 Document를 동시에 갱신할 때 다시 시도하는 횟수
+    private int retryOnConflict = 3;
+
+    // 429, 502, 503, 504로 거절된 증분을 연속으로 다시 반영하는 최대 횟수, 넘으면 증분을 버림
+    private int maxFlushAttempts = 10;
+
+    // 재구성 시 동시에 집계하는 파티션 수
+    private int rebuildConcurrency = 4;
+  }
+}
@@ -0,0 +1,254 @@
+package com.example.opensearch.config.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.json.stream.JsonGenerator;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.opensearch.core.CountRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.transport.Endpoint;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.TransportOptions;
+
+/**
+ * 동시에 들어온 같은 검색 요청을 하나의 OpenSearch 요청으로 합치는 OpenSearchTransport
+ *
+ * <p>메서드, URL(Index 포함), 쿼리 파라미터, 키 순서를 정렬한 요청 본문이 같은 _search(scroll 제외), _count 요청은
+ * 먼저 들어온 요청(leader)의 응답을 함께 받음(follower). graceWindow가 있으면 응답을 받은 후에도
+ * graceWindow 동안 같은 요청에 그 응답을 돌려줌. 실패한 응답은 재사용하지 않음</p>
+ * <p>opensearch.client.coalescing 카운터의 role tag로 leader, follower, grace 요청 수를 기록하며,
+ * (follower + grace) / 전체가 합쳐진 요청의 비율</p>
+ */
+@Slf4j
+public class CoalescingOpenSearchTransport implements OpenSearchTransport {
+
+  public static final String COALESCING = "opensearch.client.coalescing";
+
+  // 요청 본문의 객체 키를 정렬하여 같은 내용이면 같은 문자열이 되도록 함
+  private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+      .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+  private final OpenSearchTransport delegate;
+  private final Duration graceWindow;
+  private final ConcurrentMap<String, SharedCall> calls = new ConcurrentHashMap<>();
+  private final Counter leaders;
+  private final Counter followers;
+  private final Counter graces;
+
+  public CoalescingOpenSearchTransport(OpenSearchTransport delegate, Duration graceWindow,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.graceWindow = graceWindow;
+    this.leaders = counter(meterRegistry, "leader");
+    this.followers = counter(meterRegistry, "follower");
+    this.graces = counter(meterRegistry, "grace");
+  }
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+      Endpoint<RequestT, ResponseT, ErrorT> endpoint, TransportOptions options)
+      throws IOException {
+
+    String key = key(request, endpoint, options);
+    if (key == null) {
+      return delegate.performRequest(request, endpoint, options);
+    }
+
+    SharedCall call = new SharedCall();
+    SharedCall shared = join(key, call);
+    if (shared != call) {
+      return await(shared.future);
+    }
+
+    try {
+      ResponseT response = delegate.performRequest(request, endpoint, options);
+      complete(key, call, response, null);
+      return response;
+    } catch (IOException | RuntimeException e) {
+      complete(key, call, null, e);
+      throw e;
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(
+      RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+      TransportOptions options) {
+
+    String key = key(request, endpoint, options);
+    if (key == null) {
+      return delegate.performRequestAsync(request, endpoint, options);
+    }
+
+    SharedCall call = new SharedCall();
+    SharedCall shared = join(key, call);
+    if (shared == call) {
+      try {
+        delegate.performRequestAsync(request, endpoint, options)
+            .whenComplete((response, error) -> complete(key, call, response, error));
+      } catch (RuntimeException e) {
+        // 완료되지 않은 요청이 남으면 이후의 같은 요청이 계속 기다리므로 실패로 완료하고 제거
+        complete(key, call, null, e);
+      }
+    }
+
+    // 호출한 쪽이 취소해도 다른 요청이 받을 응답에는 영향을 주지 않도록 새 CompletableFuture로 전달
+    return shared.future.thenApply(response -> (ResponseT) response);
+  }
+
+  /**
+   * 진행 중이거나 graceWindow 안에 끝난 요청 수
+   *
+   * @return 공유 중인 요청 수
+   */
+  public int sharedCalls() {
+    return calls.size();
+  }
+
+  @Override
+  public JsonpMapper jsonpMapper() {
+    return delegate.jsonpMapper();
+  }
+
+  @Override
+  public TransportOptions options() {
+    return delegate.options();
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  /**
+   * 같은 키의 요청이 있으면 그 요청을, 없거나 graceWindow가 지났으면 call을 등록하고 반환
+   */
+  private SharedCall join(String key, SharedCall call) {
+
+    while (true) {
+      SharedCall existing = calls.putIfAbsent(key, call);
+      if (existing == null) {
+        leaders.increment();
+        return call;
+      }
+      if (existing.expired()) {
+        if (calls.replace(key, existing, call)) {
+          leaders.increment();
+          return call;
+        }
+        continue;
+      }
+      (existing.future.isDone() ? graces : followers).increment();
+      return existing;
+    }
+  }
+
+  private void complete(String key, SharedCall call, Object response, Throwable error) {
+
+    if (error != null || graceWindow.isZero() || graceWindow.isNegative()) {
+      calls.remove(key, call);
+    } else {
+      call.expiresAt = System.nanoTime() + graceWindow.toNanos();
+      CompletableFuture.delayedExecutor(graceWindow.toNanos(), TimeUnit.NANOSECONDS)
+          .execute(() -> calls.remove(key, call));
+    }
+
+    if (error != null) {
+      call.future.completeExceptionally(error);
+    } else {
+      call.future.complete(response);
+    }
+  }
+
+  /**
+   * 합칠 수 있는 요청이면 메서드, URL, 정렬한 쿼리 파라미터와 요청 본문으로 키를 만들고, 아니면 null
+   *
+   * <p>scroll을 여는 검색은 응답의 scroll_id를 함께 받으면 서로의 cursor를 옮기거나 지우므로 합치지 않음</p>
+   */
+  private <RequestT> String key(RequestT request, Endpoint<RequestT, ?, ?> endpoint,
+      TransportOptions options) {
+
+    if (!((request instanceof SearchRequest searchRequest && searchRequest.scroll() == null)
+        || request instanceof CountRequest)) {
+      return null;
+    }
+
+    StringBuilder key = new StringBuilder()
+        .append(endpoint.method(request)).append(' ')
+        .append(endpoint.requestUrl(request))
+        .append(new TreeMap<>(endpoint.queryParameters(request)));
+    if (options != null) {
+      key.append(options.headers()).append(new TreeMap<>(options.queryParameters()));
+    }
+
+    if (endpoint.hasRequestBody()) {
+      try {
+        StringWriter body = new StringWriter();
+        JsonpMapper mapper = delegate.jsonpMapper();
+        try (JsonGenerator generator = mapper.jsonProvider().createGenerator(body)) {
+          mapper.serialize(request, generator);
+        }
+        key.append('\n').append(CANONICAL_MAPPER.writeValueAsString(
+            CANONICAL_MAPPER.readValue(body.toString(), Object.class)));
+      } catch (Exception e) {
+        log.warn("Failed to build coalescing key, sending without coalescing", e);
+        return null;
+      }
+    }
+
+    return key.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <ResponseT> ResponseT await(CompletableFuture<Object> future)
+      throws IOException {
+    try {
+      return (ResponseT) future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for coalesced OpenSearch request", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException ioException) {
+        throw ioException;
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String role) {
+    return Counter.builder(COALESCING)
+        .description("Coalesced OpenSearch search requests by role")
+        .tag("role", role)
+        .register(meterRegistry);
+  }
+
+  /**
+   * 같은 요청이 함께 기다리는 응답
+   */
+  private static final class SharedCall {
+
+    private final CompletableFuture<Object> future = new CompletableFuture<>();
+    private volatile long expiresAt = Long.MAX_VALUE;
+
+    private boolean expired() {
+      return future.isDone() && System.nanoTime() - expiresAt >= 0;
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.example.opensearch.config.concurrency;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.transport.Endpoint;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.TransportOptions;
+
+/**
+ * 동시에 전송 중인 요청 수를 maxRequests개로 제한하는 OpenSearchTransport
+ *
+ * <p>가상 스레드로 요청을 처리하면 요청 스레드 수가 더 이상 동시 요청 수를 제한하지 않으므로,
+ * 커넥션 풀 앞에서 Semaphore로 제한하여 한꺼번에 클러스터로 몰리지 않도록 함</p>
+ * <p>동기 요청은 acquireTimeout까지 기다린 후 RejectedExecutionException으로 실패하고,
+ * 비동기 요청은 호출 스레드를 막지 않도록 대기열에 넣었다가 앞선 요청이 끝나면 전송</p>
+ * <p>Semaphore와 ConcurrentLinkedQueue만 사용하므로 가상 스레드가 기다리는 동안 캐리어 스레드를
+ * 점유(pinning)하지 않음</p>
+ */
+public class ConcurrencyLimitedOpenSearchTransport implements OpenSearchTransport {
+
+  private final OpenSearchTransport delegate;
+  private final int maxRequests;
+  private final Duration acquireTimeout;
+  private final Semaphore permits;
+  private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+  public ConcurrencyLimitedOpenSearchTransport(OpenSearchTransport delegate, int maxRequests,
+      Duration acquireTimeout) {
+    this.delegate = delegate;
+    this.maxRequests = maxRequests;
+    this.acquireTimeout = acquireTimeout;
+    this.permits = new Semaphore(maxRequests, true);
+  }
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+      Endpoint<RequestT, ResponseT, ErrorT> endpoint, TransportOptions options)
+      throws IOException {
+
+    try {
+      if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+        throw new RejectedExecutionException("OpenSearch concurrency limit [" + maxRequests
+            + "] reached, waited " + acquireTimeout.toMillis() + "ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for OpenSearch concurrency permit", e);
+    }
+
+    try {
+      return delegate.performRequest(request, endpoint, options);
+    } finally {
+      release();
+    }
+  }
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(
+      RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+      TransportOptions options) {
+
+    CompletableFuture<ResponseT> future = new CompletableFuture<>();
+    Supplier<CompletableFuture<ResponseT>> send =
+        () -> delegate.performRequestAsync(request, endpoint, options);
+
+    pending.add(() -> {
+      CompletableFuture<ResponseT> response;
+      try {
+        response = send.get();
+      } catch (RuntimeException e) {
+        release();
+        future.completeExceptionally(e);
+        return;
+      }
+      response.whenComplete((result, error) -> {
+        release();
+        if (error != null) {
+          future.completeExceptionally(error);
+        } else {
+          future.complete(result);
+        }
+      });
+    });
+    drain();
+
+    return future;
+  }
+
+  /**
+   * 사용 가능한 허가 수
+   *
+   * @return 지금 바로 전송할 수 있는 요청 수
+   */
+  public int availablePermits() {
+    return permits.availablePermits();
+  }
+
+  /**
+   * 동기 요청과 비동기 대기열에서 순서를 기다리는 요청 수
+   *
+   * @return 대기 중인 요청 수
+   */
+  public int waitingRequests() {
+    return permits.getQueueLength() + pending.size();
+  }
+
+  @Override
+  public JsonpMapper jsonpMapper() {
+    return delegate.jsonpMapper();
+  }
+
+  @Override
+  public TransportOptions options() {
+    return delegate.options();
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  private void release() {
+    permits.release();
+    drain();
+  }
+
+  /**
+   * 허가가 남아 있는 동안 비동기 대기열의 요청을 전송
+   */
+  private void drain() {
+    while (!pending.isEmpty() && permits.tryAcquire()) {
+      Runnable next = pending.poll();
+      if (next == null) {
+        permits.release();
+        // release와 poll 사이에 다른 스레드가 추가했을 수 있으므로 다시 확인
+        if (pending.isEmpty()) {
+          return;
+        }
+        continue;
+      }
+      next.run();
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.example.opensearch.config.json;
+
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.sample.service.dto.SampleDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.json.stream.JsonGenerator;
+import java.util.Map;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.JsonpSerializer;
+import org.opensearch.client.json.jackson.JacksonJsonpMapper;
+
+/**
+ * 자주 저장하는 DTO를 직접 작성한 JsonpSerializer로 직렬화하는 JsonpMapper
+ *
+ * <p>ProblemDto.AnswerDocument, SampleDto.Document는 ObjectMapper를 거치지 않고 필드를 JsonGenerator에 바로 씀.
+ * 요청마다 만들어지는 SerializerProvider와 리플렉션 호출이 없으며 출력은 기본 JacksonJsonpMapper와 같음
+ * (null 필드 제외). 나머지 타입과 역직렬화는 기본 JacksonJsonpMapper와 같은 설정의 ObjectMapper를 사용</p>
+ * <p>Jackson이 직렬화에 쓰는 버퍼는 플랫폼 스레드에서는 스레드별로 재사용하고, 가상 스레드는 작업마다
+ * 스레드가 바뀌어 스레드별 재사용이 되지 않으므로 모든 스레드가 공유하는 Pool에서 재사용</p>
+ * <p>DTO에 필드를 추가하면 아래 Serializer에도 추가해야 함</p>
+ */
+public class DtoJsonpMapper extends JacksonJsonpMapper {
+
+  private static final Map<Class<?>, JsonpSerializer<?>> SERIALIZERS = Map.of(
+      ProblemDto.AnswerDocument.class,
+      (JsonpSerializer<ProblemDto.AnswerDocument>) DtoJsonpMapper::serializeAnswerDocument,
+      SampleDto.Document.class,
+      (JsonpSerializer<SampleDto.Document>) DtoJsonpMapper::serializeDocument);
+
+  public DtoJsonpMapper(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  /**
+   * DtoJsonpMapper 생성
+   *
+   * @param virtualThreads true이면 버퍼를 공유 Pool에서, false이면 스레드별로 재사용
+   * @return DtoJsonpMapper
+   */
+  public static DtoJsonpMapper create(boolean virtualThreads) {
+
+    JsonFactory jsonFactory = JsonFactory.builder()
+        .recyclerPool(virtualThreads ? JsonRecyclerPools.sharedConcurrentDequePool()
+            : JsonRecyclerPools.threadLocalPool())
+        .build();
+
+    return new DtoJsonpMapper(JsonMapper.builder(jsonFactory)
+        .disable(SerializationFeature.INDENT_OUTPUT)
+        .serializationInclusion(JsonInclude.Include.NON_NULL)
+        .build());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> void serialize(T value, JsonGenerator generator) {
+
+    JsonpSerializer<T> serializer = value == null ? null
+        : (JsonpSerializer<T>) SERIALIZERS.get(value.getClass());
+    if (serializer == null) {
+      super.serialize(value, generator);
+      return;
+    }
+
+    serializer.serialize(value, generator, this);
+  }
+
+  private static void serializeAnswerDocument(ProblemDto.AnswerDocument answer,
+      JsonGenerator generator, JsonpMapper mapper) {
+    generator.writeStartObject();
+    write(generator, "studyId", answer.getStudyId());
+    write(generator, "studyStructureId", answer.getStudyStructureId());
+    write(generator, "studentId", answer.getStudentId());
+    write(generator, "problemNo", answer.getProblemNo());
+    write(generator, "correctYn", answer.getCorrectYn());
+    write(generator, "problemStartDtm", answer.getProblemStartDtm());
+    write(generator, "durationMs", answer.getDurationMs());
+    write(generator, "dsscValue", answer.getDsscValue());
+    generator.writeEnd();
+  }
+
+  private static void serializeDocument(SampleDto.Document document, JsonGenerator generator,
+      JsonpMapper mapper) {
+    generator.writeStartObject();
+    write(generator, "id", document.getId());
+    write(generator, "firstName", document.getFirstName());
+    write(generator, "lastName", document.getLastName());
+    generator.writeEnd();
+  }
+
+  private static void write(JsonGenerator generator, String name, Long value) {
+    if (value != null) {
+      generator.write(name, value.longValue());
+    }
+  }
+
+  private static void write(JsonGenerator generator, String name, Integer value) {
+    if (value != null) {
+      generator.write(name, value.intValue());
+    }
+  }
+
+  private static void write(JsonGenerator generator, String name, Boolean value) {
+    if (value != null) {
+      generator.write(name, value.booleanValue());
+    }
+  }
+
+  private static void write(JsonGenerator generator, String name, String value) {
+    if (value != null) {
+      generator.write(name, value);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.opensearch.config.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+
+/**
+ * OpenSearch 커넥션 풀의 leased, pending, available, max 커넥션 수 Gauge
+ */
+@RequiredArgsConstructor
+public class ConnectionPoolMetrics implements MeterBinder {
+
+  public static final String CONNECTIONS = "opensearch.client.pool.connections";
+
+  private final PoolingAsyncClientConnectionManager connectionManager;
+
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    gauge(meterRegistry, "leased", PoolStats::getLeased);
+    gauge(meterRegistry, "pending", PoolStats::getPending);
+    gauge(meterRegistry, "available", PoolStats::getAvailable);
+    gauge(meterRegistry, "max", PoolStats::getMax);
+  }
+
+  private void gauge(MeterRegistry meterRegistry, String state,
+      ToDoubleFunction<PoolStats> value) {
+    Gauge.builder(CONNECTIONS, connectionManager,
+            manager -> value.applyAsDouble(manager.getTotalStats()))
+        .description("OpenSearch connection pool connections by state")
+        .tag("state", state)
+        .register(meterRegistry);
+  }
+}
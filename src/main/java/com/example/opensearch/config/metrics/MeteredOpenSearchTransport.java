@@ -0,0 +1,179 @@
+package com.example.opensearch.config.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.MsearchResponse;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.transport.Endpoint;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.TransportOptions;
+
+/**
+ * 요청마다 클라이언트에서 측정한 응답 시간, 서버가 알려준 took, 예외 종류를 Micrometer에 기록하는 OpenSearchTransport
+ *
+ * <p>operation은 요청 클래스 이름(Search, Bulk, Index 등), index는 URL의 첫 번째 경로에서 가져오며
+ * 날짜 파티션 Index는 tag 수가 늘어나지 않도록 날짜 부분을 *로 바꿔 기록</p>
+ */
+@RequiredArgsConstructor
+public class MeteredOpenSearchTransport implements OpenSearchTransport {
+
+  public static final String REQUESTS = "opensearch.client.requests";
+  public static final String ERRORS = "opensearch.client.errors";
+  public static final String SERVER_TOOK = "opensearch.server.took";
+
+  // problem-records-2024.07, problem-records-2024.07.01.v2 같은 날짜 파티션 접미사
+  private static final Pattern PARTITION_SUFFIX =
+      Pattern.compile("\\d{4}\\.\\d{2}(\\.\\d{2})?(\\.v\\d+)?$");
+
+  private final OpenSearchTransport delegate;
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+      Endpoint<RequestT, ResponseT, ErrorT> endpoint, TransportOptions options)
+      throws IOException {
+
+    long start = System.nanoTime();
+    try {
+      ResponseT response = delegate.performRequest(request, endpoint, options);
+      record(request, endpoint, response, null, start);
+      return response;
+    } catch (IOException | RuntimeException e) {
+      record(request, endpoint, null, e, start);
+      throw e;
+    }
+  }
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(
+      RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+      TransportOptions options) {
+
+    long start = System.nanoTime();
+    return delegate.performRequestAsync(request, endpoint, options)
+        .whenComplete((response, error) -> record(request, endpoint, response, error, start));
+  }
+
+  @Override
+  public JsonpMapper jsonpMapper() {
+    return delegate.jsonpMapper();
+  }
+
+  @Override
+  public TransportOptions options() {
+    return delegate.options();
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  /**
+   * 요청 하나의 결과를 기록
+   */
+  private <RequestT> void record(RequestT request, Endpoint<RequestT, ?, ?> endpoint,
+      Object response, Throwable error, long start) {
+
+    long elapsed = System.nanoTime() - start;
+    Tags tags = Tags.of("operation", operation(request),
+        "index", index(endpoint.requestUrl(request)));
+    Throwable cause = unwrap(error);
+    String exception = cause == null ? "none" : cause.getClass().getSimpleName();
+
+    Timer.builder(REQUESTS)
+        .description("Client observed OpenSearch request latency")
+        .tags(tags)
+        .tag("outcome", cause == null ? "success" : "error")
+        .tag("exception", exception)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(elapsed, TimeUnit.NANOSECONDS);
+
+    if (cause != null) {
+      Counter.builder(ERRORS)
+          .description("OpenSearch request failures by exception type")
+          .tags(tags)
+          .tag("exception", exception)
+          .register(meterRegistry)
+          .increment();
+      return;
+    }
+
+    Long took = took(response);
+    if (took != null) {
+      Timer.builder(SERVER_TOOK)
+          .description("Server side took reported by OpenSearch")
+          .tags(tags)
+          .publishPercentileHistogram()
+          .register(meterRegistry)
+          .record(took, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * 요청 클래스 이름에서 operation 이름을 만듦
+   */
+  static String operation(Object request) {
+    String name = request.getClass().getSimpleName();
+    return name.endsWith("Request") && name.length() > "Request".length()
+        ? name.substring(0, name.length() - "Request".length())
+        : name;
+  }
+
+  /**
+   * 요청 URL의 첫 번째 경로를 Index 이름으로 사용, _search처럼 API 경로로 시작하면 none
+   */
+  static String index(String requestUrl) {
+
+    String path = requestUrl.startsWith("/") ? requestUrl.substring(1) : requestUrl;
+    int end = path.indexOf('/');
+    String first = URLDecoder.decode(end < 0 ? path : path.substring(0, end),
+        StandardCharsets.UTF_8);
+    if (first.isEmpty() || first.startsWith("_")) {
+      return "none";
+    }
+
+    return Arrays.stream(first.split(","))
+        .map(index -> PARTITION_SUFFIX.matcher(index).replaceFirst("*"))
+        .distinct()
+        .sorted()
+        .collect(Collectors.joining(","));
+  }
+
+  private static Long took(Object response) {
+    if (response instanceof SearchResponse<?> searchResponse) {
+      return searchResponse.took();
+    }
+    if (response instanceof MsearchResponse<?> msearchResponse) {
+      return msearchResponse.took();
+    }
+    if (response instanceof BulkResponse bulkResponse) {
+      return bulkResponse.took();
+    }
+    return null;
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    while ((error instanceof CompletionException || error instanceof ExecutionException)
+        && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+}
@@ -0,0 +1,219 @@
+package com.example.opensearch.config.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+/**
+ * 노드별 요청, 응답 본문 크기를 Micrometer에 기록하는 HttpAsyncClient Exec Interceptor
+ *
+ * <p>응답 크기는 압축을 푸는 단계 앞에서 수신한 바이트 수를 그대로 셈. 길이를 모르는 요청 본문(gzip 압축)은
+ * 전송한 바이트 수를 셈</p>
+ */
+@RequiredArgsConstructor
+public class TrafficMetricsInterceptor implements AsyncExecChainHandler {
+
+  public static final String NAME = "traffic-metrics";
+  public static final String REQUEST_SIZE = "opensearch.client.request.size";
+  public static final String RESPONSE_SIZE = "opensearch.client.response.size";
+
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public void execute(HttpRequest request, AsyncEntityProducer entityProducer,
+      AsyncExecChain.Scope scope, AsyncExecChain chain, AsyncExecCallback asyncExecCallback)
+      throws HttpException, IOException {
+
+    String node = scope.route.getTargetHost().toHostString();
+    AsyncEntityProducer producer = entityProducer;
+    if (entityProducer != null && entityProducer.getContentLength() >= 0) {
+      summary(REQUEST_SIZE, node).record(entityProducer.getContentLength());
+    } else if (entityProducer != null) {
+      producer = new CountingEntityProducer(entityProducer, summary(REQUEST_SIZE, node));
+    }
+
+    chain.proceed(request, producer, scope, new AsyncExecCallback() {
+
+      @Override
+      public AsyncDataConsumer handleResponse(HttpResponse response,
+          EntityDetails entityDetails) throws HttpException, IOException {
+        AsyncDataConsumer dataConsumer = asyncExecCallback.handleResponse(response,
+            entityDetails);
+        if (dataConsumer == null) {
+          summary(RESPONSE_SIZE, node).record(0);
+          return null;
+        }
+        return new CountingDataConsumer(dataConsumer, summary(RESPONSE_SIZE, node));
+      }
+
+      @Override
+      public void handleInformationResponse(HttpResponse response)
+          throws HttpException, IOException {
+        asyncExecCallback.handleInformationResponse(response);
+      }
+
+      @Override
+      public void completed() {
+        asyncExecCallback.completed();
+      }
+
+      @Override
+      public void failed(Exception cause) {
+        asyncExecCallback.failed(cause);
+      }
+    });
+  }
+
+  private DistributionSummary summary(String name, String node) {
+    return DistributionSummary.builder(name)
+        .baseUnit("bytes")
+        .tag("node", node)
+        .register(meterRegistry);
+  }
+
+  /**
+   * 응답 본문을 전달하면서 받은 바이트 수를 기록하는 AsyncDataConsumer
+   */
+  @RequiredArgsConstructor
+  private static class CountingDataConsumer implements AsyncDataConsumer {
+
+    private final AsyncDataConsumer delegate;
+    private final DistributionSummary responseSize;
+    private final AtomicLong received = new AtomicLong();
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+      delegate.updateCapacity(capacityChannel);
+    }
+
+    @Override
+    public void consume(ByteBuffer src) throws IOException {
+      received.addAndGet(src.remaining());
+      delegate.consume(src);
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+      // 호출한 쪽이 응답을 받기 전에 기록되도록 본문 수신이 끝나는 시점에 기록
+      responseSize.record(received.get());
+      delegate.streamEnd(trailers);
+    }
+
+    @Override
+    public void releaseResources() {
+      delegate.releaseResources();
+    }
+  }
+
+  /**
+   * 요청 본문을 전송하면서 보낸 바이트 수를 기록하는 AsyncEntityProducer
+   */
+  @RequiredArgsConstructor
+  private static class CountingEntityProducer implements AsyncEntityProducer {
+
+    private final AsyncEntityProducer delegate;
+    private final DistributionSummary requestSize;
+
+    @Override
+    public boolean isRepeatable() {
+      return delegate.isRepeatable();
+    }
+
+    @Override
+    public void failed(Exception cause) {
+      delegate.failed(cause);
+    }
+
+    @Override
+    public long getContentLength() {
+      return delegate.getContentLength();
+    }
+
+    @Override
+    public String getContentType() {
+      return delegate.getContentType();
+    }
+
+    @Override
+    public String getContentEncoding() {
+      return delegate.getContentEncoding();
+    }
+
+    @Override
+    public boolean isChunked() {
+      return delegate.isChunked();
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+      return delegate.getTrailerNames();
+    }
+
+    @Override
+    public int available() {
+      return delegate.available();
+    }
+
+    @Override
+    public void produce(DataStreamChannel channel) throws IOException {
+      delegate.produce(new CountingDataStreamChannel(channel, requestSize));
+    }
+
+    @Override
+    public void releaseResources() {
+      delegate.releaseResources();
+    }
+  }
+
+  /**
+   * 쓴 바이트 수를 세고 본문 전송이 끝나면 기록하는 DataStreamChannel
+   */
+  @RequiredArgsConstructor
+  private static class CountingDataStreamChannel implements DataStreamChannel {
+
+    private final DataStreamChannel delegate;
+    private final DistributionSummary requestSize;
+    private final AtomicLong sent = new AtomicLong();
+
+    @Override
+    public void requestOutput() {
+      delegate.requestOutput();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      int written = delegate.write(src);
+      sent.addAndGet(written);
+      return written;
+    }
+
+    @Override
+    public void endStream() throws IOException {
+      requestSize.record(sent.get());
+      delegate.endStream();
+    }
+
+    @Override
+    public void endStream(List<? extends Header> trailers) throws IOException {
+      requestSize.record(sent.get());
+      delegate.endStream(trailers);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.opensearch.config.node;
+
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+
+/**
+ * 노드별 요청 결과를 NodeStates의 서킷 브레이커에 기록하는 HttpAsyncClient Exec Interceptor
+ *
+ * <p>연결 오류, 응답 시간 초과와 5xx 응답을 실패로, 그 밖의 응답을 성공으로 기록. 429는 노드가 살아서
+ * 부하를 조절하는 중이므로 실패로 보지 않음</p>
+ *
+ * <p>서킷이 열린 노드로 전송하는 요청은 NodeStates.claimProbe()로 보내보는 요청인지 표시해 두고,
+ * 그 요청의 결과로만 서킷을 닫거나 다시 열도록 함</p>
+ */
+@RequiredArgsConstructor
+public class CircuitBreakerInterceptor implements AsyncExecChainHandler {
+
+  public static final String NAME = "circuit-breaker";
+
+  private final NodeStates nodeStates;
+
+  @Override
+  public void execute(HttpRequest request, AsyncEntityProducer entityProducer,
+      AsyncExecChain.Scope scope, AsyncExecChain chain, AsyncExecCallback asyncExecCallback)
+      throws HttpException, IOException {
+
+    HttpHost host = scope.route.getTargetHost();
+    boolean probe = nodeStates.claimProbe(host);
+
+    try {
+      chain.proceed(request, entityProducer, scope, new AsyncExecCallback() {
+
+        @Override
+        public AsyncDataConsumer handleResponse(HttpResponse response,
+            EntityDetails entityDetails) throws HttpException, IOException {
+          if (response.getCode() >= 500) {
+            nodeStates.recordFailure(host, probe);
+          } else {
+            nodeStates.recordSuccess(host, probe);
+          }
+          return asyncExecCallback.handleResponse(response, entityDetails);
+        }
+
+        @Override
+        public void handleInformationResponse(HttpResponse response)
+            throws HttpException, IOException {
+          asyncExecCallback.handleInformationResponse(response);
+        }
+
+        @Override
+        public void completed() {
+          asyncExecCallback.completed();
+        }
+
+        @Override
+        public void failed(Exception cause) {
+          nodeStates.recordFailure(host, probe);
+          asyncExecCallback.failed(cause);
+        }
+      });
+    } catch (HttpException | IOException | RuntimeException e) {
+      nodeStates.recordFailure(host, probe);
+      throw e;
+    }
+  }
+}
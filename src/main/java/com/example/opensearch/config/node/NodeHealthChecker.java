@@ -0,0 +1,94 @@
+package com.example.opensearch.config.node;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.HttpHost;
+
+/**
+ * 주기적으로 각 노드에 요청을 보내 NodeStates의 생존 여부를 갱신
+ *
+ * <p>응답이 없거나 5xx로 응답한 노드는 죽은 것으로 표시하고, 다시 응답하면 되살린다.</p>
+ */
+@Slf4j
+public class NodeHealthChecker implements AutoCloseable {
+
+  private final List<HttpHost> hosts;
+  private final NodeStates nodeStates;
+  private final OpenSearchProperties.HealthCheck properties;
+  private final String authorization;
+  private final HttpClient httpClient;
+  private final ScheduledExecutorService scheduler;
+
+  public NodeHealthChecker(List<HttpHost> hosts, NodeStates nodeStates,
+      OpenSearchProperties openSearchProperties) {
+    this.hosts = hosts;
+    this.nodeStates = nodeStates;
+    this.properties = openSearchProperties.getHealthCheck();
+    this.authorization = "Basic " + Base64.getEncoder().encodeToString(
+        (openSearchProperties.getUsername() + ":" + openSearchProperties.getPassword())
+            .getBytes(StandardCharsets.UTF_8));
+    this.httpClient = HttpClient.newBuilder()
+        .connectTimeout(properties.getTimeout())
+        .build();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "opensearch-health-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * 상태 확인을 시작
+   */
+  public void start() {
+    long intervalMillis = properties.getInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(this::checkAll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * 모든 노드의 상태를 한 번 확인
+   */
+  public void checkAll() {
+    for (HttpHost host : hosts) {
+      if (check(host)) {
+        nodeStates.markAlive(host);
+      } else {
+        nodeStates.markDead(host);
+      }
+    }
+  }
+
+  private boolean check(HttpHost host) {
+    try {
+      HttpRequest request = HttpRequest.newBuilder(URI.create(host.toURI() + properties.getPath()))
+          .timeout(properties.getTimeout())
+          .header("Authorization", authorization)
+          .GET()
+          .build();
+      HttpResponse<Void> response = httpClient.send(request,
+          HttpResponse.BodyHandlers.discarding());
+      return response.statusCode() < 500;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return nodeStates.isAlive(host);
+    } catch (Exception e) {
+      log.debug("health check failed host : [{}]", host, e);
+      return false;
+    }
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
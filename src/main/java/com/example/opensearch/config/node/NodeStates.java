@@ -0,0 +1,233 @@
+package com.example.opensearch.config.node;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.HttpHost;
+
+/**
+ * OpenSearch 노드별 상태(생존 여부, 처리 중인 요청 수, 서킷 브레이커)를 관리
+ *
+ * <p>NodeHealthChecker가 생존 여부를, OutstandingRequestsInterceptor가 처리 중인 요청 수를,
+ * CircuitBreakerInterceptor가 요청 결과를 갱신하고, OpenSearchNodeSelector가 이 값을 기준으로
+ * 요청을 보낼 노드를 고른다.</p>
+ *
+ * <p>상태 확인 경로(/)에는 응답하지만 실제 요청은 연속으로 실패하는 노드를 제외하기 위해,
+ * failureThreshold번 연속으로 실패하면 서킷을 열어 openDuration 동안 요청 대상에서 제외한다.
+ * openDuration이 지나면(half-open) tryAcquireProbe()로 한 요청만 보내보고, 그 요청이 성공할 때까지는
+ * 다른 요청의 대상에서 계속 제외한다. CircuitBreakerInterceptor가 claimProbe()로 보내본 요청을 표시하고,
+ * 그 요청이 성공하면 서킷을 닫고, 실패하면 다시 연다. 서킷을 열기 전에 보낸 요청의 결과로는 서킷을 닫거나
+ * 다시 열지 않는다. 보내본 요청의 결과가 openDuration 동안 기록되지 않으면 다른 요청으로 다시 보내본다.</p>
+ */
+@Slf4j
+public class NodeStates {
+
+  private final Map<String, State> states = new ConcurrentHashMap<>();
+  private final int failureThreshold;
+  private final long openDurationNanos;
+
+  public NodeStates(Collection<HttpHost> hosts) {
+    this(hosts, 0, Duration.ZERO);
+  }
+
+  /**
+   * NodeStates 생성
+   *
+   * @param hosts            노드 목록
+   * @param failureThreshold 서킷을 여는 연속 실패 횟수, 0이면 서킷 브레이커를 사용하지 않음
+   * @param openDuration     서킷을 연 후 다시 요청을 보내보기까지의 시간
+   */
+  public NodeStates(Collection<HttpHost> hosts, int failureThreshold, Duration openDuration) {
+    this.failureThreshold = failureThreshold;
+    this.openDurationNanos = openDuration.toNanos();
+    for (HttpHost host : hosts) {
+      states.put(key(host), new State());
+    }
+  }
+
+  public boolean isAlive(HttpHost host) {
+    State state = states.get(key(host));
+    return state == null || state.alive;
+  }
+
+  public void markDead(HttpHost host) {
+    State state = states.get(key(host));
+    if (state != null && state.alive) {
+      state.alive = false;
+      log.warn("node marked dead : [{}]", host);
+    }
+  }
+
+  public void markAlive(HttpHost host) {
+    State state = states.get(key(host));
+    if (state != null && !state.alive) {
+      state.alive = true;
+      log.info("node resurrected : [{}]", host);
+    }
+  }
+
+  /**
+   * 요청을 보낼 수 있는 노드인지 여부
+   *
+   * @param host 노드
+   * @return 살아 있고 서킷이 닫혀 있으면 true, half-open 상태이면 false
+   */
+  public boolean isAvailable(HttpHost host) {
+    State state = states.get(key(host));
+    return state == null || (state.alive && state.openedAt == 0);
+  }
+
+  /**
+   * 서킷이 열린 노드에 다시 요청을 보내볼 수 있는지 여부
+   *
+   * @param host 노드
+   * @return 살아 있고 서킷을 연 후 openDuration이 지났으며 보내보는 중인 요청이 없으면 true
+   */
+  public boolean isProbeDue(HttpHost host) {
+    State state = states.get(key(host));
+    return state != null && isProbeDue(state, System.nanoTime());
+  }
+
+  /**
+   * 서킷이 열린 노드에 다시 요청을 보내볼 권한을 얻음
+   *
+   * <p>동시에 여러 요청이 호출해도 하나만 true를 받으며, 이 요청의 결과로 서킷을 닫거나 다시 연다.</p>
+   *
+   * @param host 노드
+   * @return 이 요청을 보내봐야 하면 true
+   */
+  public boolean tryAcquireProbe(HttpHost host) {
+    State state = states.get(key(host));
+    if (state == null) {
+      return false;
+    }
+    long now = System.nanoTime();
+    long probeStartedAt = state.probeStartedAt.get();
+    if (isProbeDue(state, now)
+        && state.probeStartedAt.compareAndSet(probeStartedAt, now == 0 ? 1 : now)) {
+      state.probeClaimed.set(false);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * tryAcquireProbe()로 얻은 권한으로 보내는 요청임을 표시
+   *
+   * <p>권한을 얻은 후 노드로 처음 전송되는 요청 하나만 true를 받으며, recordSuccess()와
+   * recordFailure()에 이 값을 넘겨 보내본 요청의 결과로만 서킷을 닫거나 다시 열도록 한다.</p>
+   *
+   * @param host 노드
+   * @return 이 요청이 보내보는 요청이면 true
+   */
+  boolean claimProbe(HttpHost host) {
+    State state = states.get(key(host));
+    return state != null && state.openedAt != 0 && state.probeStartedAt.get() != 0
+        && state.probeClaimed.compareAndSet(false, true);
+  }
+
+  /**
+   * 서킷이 열려 있는지 여부
+   *
+   * @param host 노드
+   * @return 서킷이 열려 있으면 true, openDuration이 지나 다시 요청을 보내보는 중이어도 true
+   */
+  public boolean isCircuitOpen(HttpHost host) {
+    State state = states.get(key(host));
+    return state != null && state.openedAt != 0;
+  }
+
+  /**
+   * 서킷이 열린 횟수
+   *
+   * @param host 노드
+   * @return 서킷이 열린 횟수
+   */
+  public long circuitOpenedCount(HttpHost host) {
+    State state = states.get(key(host));
+    return state == null ? 0 : state.openedCount.get();
+  }
+
+  void recordSuccess(HttpHost host, boolean probe) {
+    State state = states.get(key(host));
+    if (state == null || failureThreshold <= 0) {
+      return;
+    }
+    if (state.openedAt == 0) {
+      state.consecutiveFailures.set(0);
+      return;
+    }
+    // 열려 있는 동안에는 보내본 요청이 성공해야 닫음, 보내보는 중에 끝난 다른 요청의 성공은 무시
+    if (probe && state.probeStartedAt.getAndSet(0) != 0) {
+      state.consecutiveFailures.set(0);
+      state.openedAt = 0;
+      log.info("node circuit closed : [{}]", host);
+    }
+  }
+
+  void recordFailure(HttpHost host, boolean probe) {
+    State state = states.get(key(host));
+    if (state == null || failureThreshold <= 0) {
+      return;
+    }
+    int failures = state.consecutiveFailures.incrementAndGet();
+    long now = System.nanoTime();
+    // half-open 상태에서 보내본 요청이 실패하면 바로 다시 열고, 닫힌 상태에서는 연속 실패 횟수가 넘으면 엶.
+    // 열려 있는 동안 끝난, 열기 전에 보낸 요청의 실패는 무시
+    if (state.openedAt != 0 ? probe && state.probeStartedAt.getAndSet(0) != 0
+        : failures >= failureThreshold) {
+      state.openedAt = now == 0 ? 1 : now;
+      state.openedCount.incrementAndGet();
+      log.warn("node circuit opened : [{}], consecutive failures : [{}]", host, failures);
+    }
+  }
+
+  public int outstanding(HttpHost host) {
+    State state = states.get(key(host));
+    return state == null ? 0 : state.outstanding.get();
+  }
+
+  void requestStarted(HttpHost host) {
+    State state = states.get(key(host));
+    if (state != null) {
+      state.outstanding.incrementAndGet();
+    }
+  }
+
+  void requestFinished(HttpHost host) {
+    State state = states.get(key(host));
+    if (state != null) {
+      state.outstanding.decrementAndGet();
+    }
+  }
+
+  private boolean isProbeDue(State state, long now) {
+    long openedAt = state.openedAt;
+    long probeStartedAt = state.probeStartedAt.get();
+    return state.alive && openedAt != 0 && now - openedAt >= openDurationNanos
+        && (probeStartedAt == 0 || now - probeStartedAt >= openDurationNanos);
+  }
+
+  private static String key(HttpHost host) {
+    return host.toURI();
+  }
+
+  private static final class State {
+
+    private volatile boolean alive = true;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedCount = new AtomicLong();
+    // 서킷을 연 시각(System.nanoTime), 0이면 닫힘
+    private volatile long openedAt;
+    // half-open 상태에서 요청을 보내본 시각(System.nanoTime), 0이면 보내보는 중인 요청이 없음
+    private final AtomicLong probeStartedAt = new AtomicLong();
+    // 보내볼 권한으로 전송한 요청이 이미 표시되었는지 여부
+    private final AtomicBoolean probeClaimed = new AtomicBoolean();
+  }
+}
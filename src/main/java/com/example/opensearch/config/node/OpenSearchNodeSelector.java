@@ -0,0 +1,78 @@
+package com.example.opensearch.config.node;
+
+import com.example.opensearch.config.OpenSearchProperties.NodeSelectorType;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.core5.http.HttpHost;
+import org.opensearch.client.transport.httpclient5.internal.Node;
+import org.opensearch.client.transport.httpclient5.internal.NodeSelector;
+
+/**
+ * NodeStates를 기준으로 요청을 보낼 노드를 선택
+ *
+ * <p>Transport는 살아있는 노드 목록을 요청마다 한 칸씩 회전시켜 전달하므로,
+ * 여기서 남긴 노드 중 첫 번째 노드로 요청을 보내고 나머지는 재시도에 사용한다.</p>
+ *
+ * <ul>
+ *   <li>NodeHealthChecker가 죽었다고 판단했거나 서킷이 열린 노드는 제외, 남는 노드가 없으면 그대로 둔다</li>
+ *   <li>openDuration이 지난 half-open 노드는 첫 번째로 남는 노드일 때만 probe 요청 하나를 보내도록 남긴다</li>
+ *   <li>LEAST_OUTSTANDING이면 처리 중인 요청이 가장 적은 노드만 남긴다</li>
+ * </ul>
+ */
+@RequiredArgsConstructor
+public class OpenSearchNodeSelector implements NodeSelector {
+
+  private final NodeStates nodeStates;
+  private final NodeSelectorType type;
+
+  @Override
+  public void select(Iterable<Node> nodes) {
+
+    boolean anyAlive = false;
+    int minOutstanding = Integer.MAX_VALUE;
+    for (Node node : nodes) {
+      if (nodeStates.isAvailable(node.getHost())) {
+        anyAlive = true;
+        minOutstanding = Math.min(minOutstanding, nodeStates.outstanding(node.getHost()));
+      } else if (nodeStates.isProbeDue(node.getHost())) {
+        anyAlive = true;
+      }
+    }
+
+    if (!anyAlive) {
+      return;
+    }
+
+    Set<Node> selected = new HashSet<>();
+    for (Node node : nodes) {
+      HttpHost host = node.getHost();
+      if (nodeStates.isAvailable(host)) {
+        if (type != NodeSelectorType.LEAST_OUTSTANDING
+            || nodeStates.outstanding(host) <= minOutstanding) {
+          selected.add(node);
+        }
+      } else if (selected.isEmpty() && nodeStates.tryAcquireProbe(host)) {
+        // probe 권한은 실제로 요청을 보낼 첫 번째 노드일 때만 얻어, 보내지 않은 probe가 노드를 막지 않도록 함
+        selected.add(node);
+      }
+    }
+
+    // 다른 요청이 먼저 probe 권한을 얻어 남는 노드가 없으면 그대로 둠
+    if (selected.isEmpty()) {
+      return;
+    }
+
+    for (Iterator<Node> iterator = nodes.iterator(); iterator.hasNext(); ) {
+      if (!selected.contains(iterator.next())) {
+        iterator.remove();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "OpenSearchNodeSelector{" + type + "}";
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.opensearch.config.node;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+
+/**
+ * 노드별로 처리 중인 요청 수를 NodeStates에 기록하는 HttpAsyncClient Exec Interceptor
+ */
+@RequiredArgsConstructor
+public class OutstandingRequestsInterceptor implements AsyncExecChainHandler {
+
+  public static final String NAME = "outstanding-requests";
+
+  private final NodeStates nodeStates;
+
+  @Override
+  public void execute(HttpRequest request, AsyncEntityProducer entityProducer,
+      AsyncExecChain.Scope scope, AsyncExecChain chain, AsyncExecCallback asyncExecCallback)
+      throws HttpException, IOException {
+
+    HttpHost host = scope.route.getTargetHost();
+    AtomicBoolean finished = new AtomicBoolean();
+    nodeStates.requestStarted(host);
+
+    try {
+      chain.proceed(request, entityProducer, scope, new AsyncExecCallback() {
+
+        @Override
+        public AsyncDataConsumer handleResponse(HttpResponse response,
+            EntityDetails entityDetails) throws HttpException, IOException {
+          return asyncExecCallback.handleResponse(response, entityDetails);
+        }
+
+        @Override
+        public void handleInformationResponse(HttpResponse response)
+            throws HttpException, IOException {
+          asyncExecCallback.handleInformationResponse(response);
+        }
+
+        @Override
+        public void completed() {
+          finish();
+          asyncExecCallback.completed();
+        }
+
+        @Override
+        public void failed(Exception cause) {
+          finish();
+          asyncExecCallback.failed(cause);
+        }
+
+        private void finish() {
+          if (finished.compareAndSet(false, true)) {
+            nodeStates.requestFinished(host);
+          }
+        }
+      });
+    } catch (HttpException | IOException | RuntimeException e) {
+      if (finished.compareAndSet(false, true)) {
+        nodeStates.requestFinished(host);
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package com.example.opensearch.config.resilience;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.opensearch.core.CountRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.transport.Endpoint;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.TransportOptions;
+
+/**
+ * 응답이 늦는 검색 요청을 한 번 더 보내고 먼저 도착한 응답을 사용하는 OpenSearchTransport
+ *
+ * <p>scroll이 없는 _search, _count 요청이 최근 응답 시간의 percentile 백분위수(최소 minDelay)만큼 기다려도 끝나지 않으면
+ * 같은 요청을 한 번 더 보냄. 노드 선택기가 요청마다 노드를 바꾸므로 보통 다른 노드로 전송되어, 느린 샤드
+ * 복제본 하나가 응답 시간의 꼬리를 정하지 않도록 함</p>
+ * <p>추가 요청은 검색 요청마다 budgetRatio만큼 쌓이는 budget 안에서만 보내므로 클러스터 부하가 그 비율
+ * 이상 늘지 않음. 응답 시간 표본이 MIN_SAMPLES개보다 적으면 보내지 않음. 늦게 도착한 응답은 버려지며
+ * 전송 중인 요청을 취소하지는 않음</p>
+ * <p>opensearch.client.hedge 카운터의 outcome tag로 sent(추가로 보낸 요청), won(추가 요청의 응답을
+ * 사용), throttled(budget이 없어 보내지 않음)를 기록</p>
+ */
+public class HedgingOpenSearchTransport implements OpenSearchTransport {
+
+  public static final String HEDGE = "opensearch.client.hedge";
+  public static final String LATENCY = "opensearch.client.hedge.latency";
+
+  // 이보다 적은 응답 시간 표본으로는 백분위수를 믿을 수 없음
+  static final long MIN_SAMPLES = 100;
+
+  // 백분위수를 다시 계산하는 간격
+  private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  // 추가 요청 하나에 필요한 budget, 검색 요청마다 budgetRatio * TOKEN씩 쌓임
+  private static final long TOKEN = 1000;
+  private static final long MAX_TOKENS = 10 * TOKEN;
+
+  private final OpenSearchTransport delegate;
+  private final long minDelayNanos;
+  private final long tokensPerRequest;
+  private final Timer latency;
+  private final AtomicLong tokens = new AtomicLong();
+  private final Counter sent;
+  private final Counter won;
+  private final Counter throttled;
+  private volatile long delayNanos = -1;
+  private volatile long delayRefreshedAt = System.nanoTime() - DELAY_REFRESH_NANOS;
+
+  public HedgingOpenSearchTransport(OpenSearchTransport delegate,
+      OpenSearchProperties.Hedge properties, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.minDelayNanos = properties.getMinDelay().toNanos();
+    this.tokensPerRequest = Math.round(properties.getBudgetRatio() * TOKEN);
+    this.latency = Timer.builder(LATENCY)
+        .description("Search latency used to decide when to hedge")
+        .publishPercentiles(properties.getPercentile())
+        .register(meterRegistry);
+    this.sent = counter(meterRegistry, "sent");
+    this.won = counter(meterRegistry, "won");
+    this.throttled = counter(meterRegistry, "throttled");
+  }
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+      Endpoint<RequestT, ResponseT, ErrorT> endpoint, TransportOptions options)
+      throws IOException {
+
+    if (!isHedgeable(request)) {
+      return delegate.performRequest(request, endpoint, options);
+    }
+
+    return await(performRequestAsync(request, endpoint, options));
+  }
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(
+      RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+      TransportOptions options) {
+
+    if (!isHedgeable(request)) {
+      return delegate.performRequestAsync(request, endpoint, options);
+    }
+
+    tokens.accumulateAndGet(tokensPerRequest, (current, add) -> Math.min(MAX_TOKENS,
+        current + add));
+
+    CompletableFuture<ResponseT> result = new CompletableFuture<>();
+    AtomicInteger legs = new AtomicInteger(1);
+    long start = System.nanoTime();
+    send(request, endpoint, options).whenComplete((response, error) -> {
+      if (error == null) {
+        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+      complete(result, legs, response, error, false);
+    });
+
+    long delay = hedgeDelayNanos();
+    if (delay >= 0) {
+      CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+        if (result.isDone()) {
+          return;
+        }
+        if (!tryAcquireToken()) {
+          throttled.increment();
+          return;
+        }
+        // 첫 요청이 실패로 끝났으면 결과가 이미 전달되었으므로 보내지 않음
+        legs.incrementAndGet();
+        if (result.isDone()) {
+          return;
+        }
+        sent.increment();
+        send(request, endpoint, options).whenComplete((response, error) ->
+            complete(result, legs, response, error, true));
+      });
+    }
+
+    return result;
+  }
+
+  @Override
+  public JsonpMapper jsonpMapper() {
+    return delegate.jsonpMapper();
+  }
+
+  @Override
+  public TransportOptions options() {
+    return delegate.options();
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  /**
+   * 추가 요청을 보내기 전에 기다리는 시간, 응답 시간 표본이 부족하면 -1
+   */
+  long hedgeDelayNanos() {
+
+    long now = System.nanoTime();
+    if (now - delayRefreshedAt >= DELAY_REFRESH_NANOS) {
+      delayRefreshedAt = now;
+      if (latency.count() >= MIN_SAMPLES) {
+        ValueAtPercentile[] percentiles = latency.takeSnapshot().percentileValues();
+        delayNanos = percentiles.length == 0 ? -1
+            : Math.max(minDelayNanos, (long) percentiles[0].value(TimeUnit.NANOSECONDS));
+      }
+    }
+
+    return delayNanos;
+  }
+
+  private static boolean isHedgeable(Object request) {
+    // scroll을 여는 검색은 두 번 보내면 scroll context가 하나 더 남으므로 제외
+    return (request instanceof SearchRequest searchRequest && searchRequest.scroll() == null)
+        || request instanceof CountRequest;
+  }
+
+  private boolean tryAcquireToken() {
+    while (true) {
+      long current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+      if (tokens.compareAndSet(current, current - TOKEN)) {
+        return true;
+      }
+    }
+  }
+
+  private <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> send(RequestT request,
+      Endpoint<RequestT, ResponseT, ErrorT> endpoint, TransportOptions options) {
+    try {
+      return delegate.performRequestAsync(request, endpoint, options);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * 먼저 성공한 응답으로 완료하고, 실패는 남은 요청이 없을 때만 전달
+   */
+  private <ResponseT> void complete(CompletableFuture<ResponseT> result, AtomicInteger legs,
+      ResponseT response, Throwable error, boolean hedge) {
+
+    int remaining = legs.decrementAndGet();
+    if (error == null) {
+      if (result.complete(response) && hedge) {
+        won.increment();
+      }
+    } else if (remaining == 0) {
+      result.completeExceptionally(error);
+    }
+  }
+
+  private static <ResponseT> ResponseT await(CompletableFuture<ResponseT> future)
+      throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for hedged OpenSearch request", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException ioException) {
+        throw ioException;
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder(HEDGE)
+        .description("Hedged OpenSearch search requests by outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
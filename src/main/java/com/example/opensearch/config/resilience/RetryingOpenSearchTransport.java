@@ -0,0 +1,184 @@
+package com.example.opensearch.config.resilience;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.opensearch.core.CountRequest;
+import org.opensearch.client.opensearch.core.MgetRequest;
+import org.opensearch.client.opensearch.core.MsearchRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.transport.Endpoint;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.TransportOptions;
+
+/**
+ * 일시적인 오류로 실패한 읽기 요청을 지수 백오프와 jitter를 두고 다시 보내는 OpenSearchTransport
+ *
+ * <p>GET, HEAD 요청과 본문을 POST로 보내는 검색(_search, _count, _msearch, _mget)만 다시 보내며,
+ * 저장, 수정, 삭제 요청은 처음 요청이 반영되었는지 알 수 없으므로 그대로 전달. _bulk의 429는
+ * BulkIngester가 Document 단위로 다시 보냄. scroll 요청은 처음 요청이 cursor를 이미 옮겼을 수 있어
+ * 다시 보내면 결과가 빠지므로 그대로 전달</p>
+ * <p>대기 시간은 0부터 min(maxBackoff, initialBackoff * 2^(재시도 횟수 - 1)) 사이에서 무작위로 정하여
+ * 여러 클라이언트가 같은 시각에 다시 몰리지 않도록 함(full jitter)</p>
+ * <p>opensearch.client.retry 카운터의 outcome tag로 retried(재시도한 횟수), recovered(재시도 후 성공),
+ * exhausted(최대 시도 횟수까지 실패)를 기록</p>
+ */
+@Slf4j
+public class RetryingOpenSearchTransport implements OpenSearchTransport {
+
+  public static final String RETRY = "opensearch.client.retry";
+
+  private final OpenSearchTransport delegate;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final Counter retried;
+  private final Counter recovered;
+  private final Counter exhausted;
+
+  public RetryingOpenSearchTransport(OpenSearchTransport delegate,
+      OpenSearchProperties.Retry properties, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.maxAttempts = Math.max(1, properties.getMaxAttempts());
+    this.initialBackoff = properties.getInitialBackoff();
+    this.maxBackoff = properties.getMaxBackoff();
+    this.retried = counter(meterRegistry, "retried");
+    this.recovered = counter(meterRegistry, "recovered");
+    this.exhausted = counter(meterRegistry, "exhausted");
+  }
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+      Endpoint<RequestT, ResponseT, ErrorT> endpoint, TransportOptions options)
+      throws IOException {
+
+    if (!isIdempotent(request, endpoint)) {
+      return delegate.performRequest(request, endpoint, options);
+    }
+
+    for (int attempt = 1; ; attempt++) {
+      try {
+        ResponseT response = delegate.performRequest(request, endpoint, options);
+        if (attempt > 1) {
+          recovered.increment();
+        }
+        return response;
+      } catch (IOException | RuntimeException e) {
+        if (!shouldRetry(e, attempt)) {
+          throw e;
+        }
+        long backoffNanos = backoffNanos(attempt);
+        log.debug("retry [{}] attempt : [{}], backoff : [{}]ms",
+            endpoint.requestUrl(request), attempt, TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+        try {
+          TimeUnit.NANOSECONDS.sleep(backoffNanos);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  @Override
+  public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(
+      RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+      TransportOptions options) {
+
+    if (!isIdempotent(request, endpoint)) {
+      return delegate.performRequestAsync(request, endpoint, options);
+    }
+
+    CompletableFuture<ResponseT> future = new CompletableFuture<>();
+    attempt(request, endpoint, options, 1, future);
+    return future;
+  }
+
+  @Override
+  public JsonpMapper jsonpMapper() {
+    return delegate.jsonpMapper();
+  }
+
+  @Override
+  public TransportOptions options() {
+    return delegate.options();
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  /**
+   * 다시 보내도 결과가 같은 요청인지 여부
+   */
+  static <RequestT> boolean isIdempotent(RequestT request, Endpoint<RequestT, ?, ?> endpoint) {
+    String method = endpoint.method(request);
+    return "GET".equals(method) || "HEAD".equals(method)
+        || request instanceof SearchRequest || request instanceof CountRequest
+        || request instanceof MsearchRequest || request instanceof MgetRequest;
+  }
+
+  private <RequestT, ResponseT, ErrorT> void attempt(RequestT request,
+      Endpoint<RequestT, ResponseT, ErrorT> endpoint, TransportOptions options, int attempt,
+      CompletableFuture<ResponseT> future) {
+
+    CompletableFuture<ResponseT> response;
+    try {
+      response = delegate.performRequestAsync(request, endpoint, options);
+    } catch (RuntimeException e) {
+      response = CompletableFuture.failedFuture(e);
+    }
+
+    response.whenComplete((result, error) -> {
+      if (error == null) {
+        if (attempt > 1) {
+          recovered.increment();
+        }
+        future.complete(result);
+      } else if (future.isDone() || !shouldRetry(error, attempt)) {
+        future.completeExceptionally(error);
+      } else {
+        CompletableFuture.delayedExecutor(backoffNanos(attempt), TimeUnit.NANOSECONDS)
+            .execute(() -> attempt(request, endpoint, options, attempt + 1, future));
+      }
+    });
+  }
+
+  private boolean shouldRetry(Throwable error, int attempt) {
+
+    if (!TransientFailures.isTransient(error) || Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    if (attempt >= maxAttempts) {
+      exhausted.increment();
+      return false;
+    }
+
+    retried.increment();
+    return true;
+  }
+
+  /**
+   * attempt번째 시도가 실패한 후 기다릴 시간
+   */
+  private long backoffNanos(int attempt) {
+    long ceiling = Math.min(maxBackoff.toNanos(),
+        initialBackoff.toNanos() << Math.min(attempt - 1, 20));
+    return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder(RETRY)
+        .description("Retried idempotent OpenSearch requests by outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.opensearch.config.resilience;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch.generic.OpenSearchClientException;
+import org.opensearch.client.transport.TransportException;
+import org.opensearch.client.transport.httpclient5.ResponseException;
+
+/**
+ * 다시 보내면 성공할 수 있는 일시적인 실패인지 판단
+ *
+ * <p>429(Too Many Requests), 502, 503, 504 응답과 연결 오류, 응답 시간 초과를 일시적인 실패로 봄.
+ * 인터럽트와 그 밖의 4xx, 5xx 응답은 다시 보내도 같은 결과이므로 제외</p>
+ */
+public final class TransientFailures {
+
+  public static final int TOO_MANY_REQUESTS = 429;
+
+  private TransientFailures() {
+  }
+
+  /**
+   * 일시적인 실패인지 여부
+   *
+   * @param error 요청이 실패한 원인, CompletionException으로 감싸져 있어도 됨
+   * @return 다시 보내도 되는 실패이면 true
+   */
+  public static boolean isTransient(Throwable error) {
+
+    Throwable cause = unwrap(error);
+    int status = status(cause);
+    if (status > 0) {
+      return isTransientStatus(status);
+    }
+
+    // 상태 코드가 없는 TransportException은 응답을 해석하지 못한 경우
+    return cause instanceof IOException && !(cause instanceof TransportException)
+        && (!(cause instanceof InterruptedIOException) || cause instanceof SocketTimeoutException);
+  }
+
+  /**
+   * 일시적인 실패를 나타내는 HTTP 상태 코드인지 여부
+   *
+   * @param status HTTP 상태 코드, _bulk 응답의 항목별 status도 포함
+   * @return 429, 502, 503, 504이면 true
+   */
+  public static boolean isTransientStatus(int status) {
+    return status == TOO_MANY_REQUESTS || status == 502 || status == 503 || status == 504;
+  }
+
+  /**
+   * 실패한 응답의 HTTP 상태 코드
+   *
+   * @param error 요청이 실패한 원인
+   * @return HTTP 상태 코드, 응답을 받지 못했으면 0
+   */
+  public static int status(Throwable error) {
+
+    // TransportException은 상태 코드를 담은 ResponseException을 원인으로 감싸서 던짐
+    for (Throwable cause = unwrap(error); cause != null; cause = cause.getCause()) {
+      if (cause instanceof OpenSearchException openSearchException) {
+        return openSearchException.status();
+      }
+      if (cause instanceof ResponseException responseException) {
+        return responseException.status();
+      }
+      if (cause instanceof OpenSearchClientException clientException) {
+        return clientException.status();
+      }
+    }
+
+    return 0;
+  }
+
+  static Throwable unwrap(Throwable error) {
+    while ((error instanceof CompletionException || error instanceof ExecutionException)
+        && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.opensearch.sample.controller;
+
+import com.example.opensearch.sample.service.ProblemService;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 학생 답안지 저장 API
+ *
+ * <p>Document ID가 답안지 내용으로 정해지므로 응답을 받지 못했거나 503을 받은 경우 같은 답안지를 그대로 다시 보내면 됨</p>
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/students/{studentId}/answer-sheets")
+public class AnswerSheetController {
+
+  private final ProblemService problemService;
+
+  /**
+   * 답안지 저장
+   *
+   * <p>curl -X POST http://localhost:8081/api/students/STU0000001/answer-sheets
+   * -H 'Content-Type: application/json'
+   * -d '{"studyId":1,"studyStructureId":10,"problemNos":[1,2],"correctYns":[true,false],
+   * "startInstant":"2024-07-01T10:00:00Z","duration":"PT30S","dsscValues":[10,0]}'</p>
+   *
+   * @param studentId          학생 아이디
+   * @param studentAnswerSheet 저장할 답안지
+   * @return 새로 저장한 문항이 있으면 201, 모두 이미 저장되어 있으면 200, 저장하지 못한 문항이 있으면 503
+   */
+  @PostMapping
+  public ResponseEntity<ProblemDto.AnswerSheetResult> insertAnswerSheet(
+      @PathVariable String studentId,
+      @RequestBody ProblemDto.StudentAnswerSheet studentAnswerSheet) {
+
+    ProblemDto.AnswerSheetResult answerSheetResult = problemService.insertAnswerSheet(studentId,
+        studentAnswerSheet);
+
+    if (answerSheetResult == null || !answerSheetResult.getFailedProblemNos().isEmpty()) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(answerSheetResult);
+    }
+    return ResponseEntity.status(answerSheetResult.getCreated() > 0 ? HttpStatus.CREATED
+        : HttpStatus.OK).body(answerSheetResult);
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+    return ResponseEntity.badRequest().body(e.getMessage());
+  }
+}
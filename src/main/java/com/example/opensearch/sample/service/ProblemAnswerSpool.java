@@ -0,0 +1,342 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.common.concurrent.ThreadFactories;
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.common.spool.SegmentedSpool;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.config.resilience.TransientFailures;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.springframework.stereotype.Component;
+
+/**
+ * 클러스터가 중단되었거나 저장 요청을 거절하여 저장하지 못한 문항 풀이 내용을 로컬 스풀에 보관하고,
+ * 클러스터가 복구되면 다시 저장하는 컴포넌트
+ *
+ * <p>문항 풀이 내용은 처음 저장할 때 정한 Document ID와 함께 SegmentedSpool에 기록한다.
+ * replayInterval마다 하나의 스레드가 기록된 순서대로 replayBatchSize개씩 _bulk로 다시 보내므로 학생별
+ * 저장 순서가 유지되며, 429, 502, 503, 504로 거절된 항목이 있으면 그 묶음 전체를 다음 주기에 다시
+ * 보낸다. 같은 Document ID로 덮어쓰므로 처음 요청이 응답만 받지 못하고 반영되었거나, 저장 후 commit
+ * 전에 중단되어 다시 보내도 중복 저장되지 않는다. 일시적이지 않은 오류(매핑 오류 등)로 거절된 항목은
+ * 다시 보내도 실패하므로 버린다.</p>
+ *
+ * <p>같은 묶음이 maxReplayAttempts번 연속으로 거절되면 계속 거절되는 항목이 뒤의 레코드를 막지 않도록
+ * 거절된 항목도 버린다. 클러스터에 연결하지 못해 _bulk 요청 자체가 실패한 경우는 횟수에 포함하지 않는다.</p>
+ *
+ * <p>opensearch.spool.depth(남은 레코드 수), opensearch.spool.size(디스크 사용량),
+ * opensearch.spool.appended, replayed, dropped, rejected(스풀이 가득 차서 거절) 카운터를 기록한다.</p>
+ */
+@Slf4j
+@Component
+public class ProblemAnswerSpool implements AutoCloseable {
+
+  private final OpenSearchClient openSearchClient;
+
+  private final ProblemStatisticsCache problemStatisticsCache;
+
+  private final ProblemRollups problemRollups;
+
+  private final IndexReindexer indexReindexer;
+
+  private final OpenSearchProperties openSearchProperties;
+
+  private final JsonpMapper jsonpMapper;
+
+  // spool.enabled가 false이면 null
+  private final SegmentedSpool spool;
+
+  private final ScheduledExecutorService replayScheduler;
+
+  private final AtomicLong replayedCount = new AtomicLong();
+
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  // 맨 앞 묶음이 일부 항목의 일시적인 오류로 연속으로 거절된 횟수, replay 스레드에서만 사용
+  private int rejectedReplays;
+
+  // 맨 앞 묶음에서 이미 집계에 반영한 Document ID, replay 스레드에서만 사용
+  private final Set<String> recordedIds = new HashSet<>();
+
+  public ProblemAnswerSpool(OpenSearchClient openSearchClient,
+      ProblemStatisticsCache problemStatisticsCache, ProblemRollups problemRollups,
+      IndexReindexer indexReindexer, OpenSearchProperties openSearchProperties,
+      MeterRegistry meterRegistry) throws IOException {
+
+    this.openSearchClient = openSearchClient;
+    this.problemStatisticsCache = problemStatisticsCache;
+    this.problemRollups = problemRollups;
+    this.indexReindexer = indexReindexer;
+    this.openSearchProperties = openSearchProperties;
+    this.jsonpMapper = openSearchClient._transport().jsonpMapper();
+
+    OpenSearchProperties.Spool properties = openSearchProperties.getSpool();
+    if (!properties.isEnabled()) {
+      this.spool = null;
+      this.replayScheduler = null;
+      return;
+    }
+
+    this.spool = new SegmentedSpool(Path.of(properties.getDirectory()),
+        (int) Math.min(Integer.MAX_VALUE, properties.getSegmentSize().toBytes()),
+        properties.getMaxSize().toBytes(), properties.getSyncInterval());
+    bindMetrics(meterRegistry);
+
+    this.replayScheduler = Executors.newSingleThreadScheduledExecutor(
+        ThreadFactories.threadFactory("spool-replay", false));
+    long replayIntervalMillis = properties.getReplayInterval().toMillis();
+    replayScheduler.scheduleWithFixedDelay(this::replay,
+        replayIntervalMillis, replayIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * 문항 풀이 Document를 스풀에 기록
+   *
+   * <p>처음 저장 요청이 반영되었는지 알 수 없는 경우에도 다시 보낼 때 같은 Document를 덮어쓰도록
+   * 처음 저장할 때 사용한 Document ID로 기록</p>
+   *
+   * @param id             처음 저장할 때 사용한 Document ID
+   * @param answerDocument 저장하지 못한 문항 풀이 Document
+   * @return 기록했으면 true, 스풀을 사용하지 않거나 가득 찼으면 false
+   */
+  public boolean offer(String id, ProblemDto.AnswerDocument answerDocument) {
+
+    if (spool == null) {
+      return false;
+    }
+
+    try {
+      return spool.append(encode(ProblemDto.SpooledAnswer.builder()
+          .id(id)
+          .document(answerDocument)
+          .build()));
+    } catch (Exception e) {
+      log.error("offer studentId : [{}], problemNo : [{}]",
+          answerDocument.getStudentId(), answerDocument.getProblemNo(), e);
+      return false;
+    }
+  }
+
+  /**
+   * 아직 클러스터에 저장하지 못한 레코드 수
+   *
+   * @return 스풀에 남은 레코드 수
+   */
+  public long pendingCount() {
+    return spool == null ? 0 : spool.pendingCount();
+  }
+
+  /**
+   * 스풀에 남은 레코드를 클러스터에 다시 저장
+   *
+   * <p>남은 레코드가 없어지거나 _bulk 요청이 실패할 때까지 replayBatchSize개씩 전송</p>
+   *
+   * @return 이번에 저장한 레코드 수
+   */
+  public int replay() {
+
+    if (spool == null) {
+      return 0;
+    }
+
+    int replayed = 0;
+    int batchSize = openSearchProperties.getSpool().getReplayBatchSize();
+
+    try {
+      while (true) {
+        List<SegmentedSpool.Entry> entries = spool.read(batchSize);
+        if (entries.isEmpty() || !replay(entries)) {
+          break;
+        }
+        spool.commit(entries);
+        rejectedReplays = 0;
+        recordedIds.clear();
+        replayed += entries.size();
+        replayedCount.addAndGet(entries.size());
+      }
+    } catch (Exception e) {
+      log.error("replay", e);
+    }
+
+    if (replayed > 0) {
+      log.info("replay replayed : [{}], pending : [{}]", replayed, spool.pendingCount());
+    }
+
+    return replayed;
+  }
+
+  /**
+   * 다시 보내기를 멈추고 스풀을 닫음, 남은 레코드는 다음에 시작할 때 다시 보냄
+   */
+  @Override
+  public void close() {
+
+    if (spool == null) {
+      return;
+    }
+
+    replayScheduler.shutdown();
+    try {
+      if (!replayScheduler.awaitTermination(
+          openSearchProperties.getBulk().getCloseTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        replayScheduler.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      replayScheduler.shutdownNow();
+    }
+
+    spool.close();
+  }
+
+  /**
+   * 레코드 묶음을 하나의 _bulk 요청으로 다시 저장
+   *
+   * @return commit해도 되면 true, 일시적인 오류로 묶음 전체를 다시 보내야 하면 false
+   */
+  private boolean replay(List<SegmentedSpool.Entry> entries) {
+
+    List<ProblemDto.SpooledAnswer> spooledAnswers = new ArrayList<>(entries.size());
+    for (SegmentedSpool.Entry entry : entries) {
+      try {
+        spooledAnswers.add(decode(entry.payload()));
+      } catch (Exception e) {
+        droppedCount.incrementAndGet();
+        log.error("replay decode segment : [{}], offset : [{}]",
+            entry.segment(), entry.nextOffset(), e);
+      }
+    }
+    if (spooledAnswers.isEmpty()) {
+      return true;
+    }
+
+    BulkResponse bulkResponse;
+    try {
+      bulkResponse = openSearchClient.bulk(replayRequest(spooledAnswers,
+          openSearchProperties.getProblemIndex().getPartitionInterval()));
+    } catch (Exception e) {
+      log.warn("replay deferred records : [{}], status : [{}], cause : [{}]",
+          spooledAnswers.size(), TransientFailures.status(e), e.toString());
+      return false;
+    }
+
+    // 이번에도 거절되면 최대 횟수에 도달하므로 거절된 항목을 버리고 commit
+    boolean lastAttempt =
+        rejectedReplays + 1 >= openSearchProperties.getSpool().getMaxReplayAttempts();
+    boolean retry = false;
+    List<BulkResponseItem> failedItems = new ArrayList<>();
+    List<BulkResponseItem> items = bulkResponse.items();
+    for (int i = 0; i < items.size(); i++) {
+      BulkResponseItem item = items.get(i);
+      ProblemDto.AnswerDocument answerDocument = spooledAnswers.get(i).getDocument();
+      if (item.error() == null) {
+        // 처음 요청이 응답만 받지 못하고 반영되었으면 updated이므로 결과와 관계없이 처음 성공할 때 반영
+        if (recordedIds.add(item.id())) {
+          problemStatisticsCache.record(answerDocument);
+          problemRollups.record(item.id(), answerDocument);
+        }
+        if (item.version() != null) {
+          indexReindexer.mirror(item.index(), item.id(), answerDocument.getStudentId(),
+              item.version(), answerDocument);
+        }
+      } else if (TransientFailures.isTransientStatus(item.status()) && !lastAttempt) {
+        retry = true;
+      } else {
+        failedItems.add(item);
+      }
+    }
+
+    if (retry) {
+      rejectedReplays++;
+      return false;
+    }
+
+    // 묶음 전체를 다시 보내는 동안에는 같은 항목을 여러 번 세지 않도록 commit할 때만 기록
+    for (BulkResponseItem item : failedItems) {
+      droppedCount.incrementAndGet();
+      log.error("replay dropped index : [{}], id : [{}], status : [{}], error : [{}]",
+          item.index(), item.id(), item.status(), item.error().reason());
+    }
+
+    return true;
+  }
+
+  /**
+   * 스풀에 기록한 문항 풀이 Document를 다시 저장하는 요청 생성
+   *
+   * @param spooledAnswers    스풀에서 읽은 문항 풀이 Document
+   * @param partitionInterval 파티션 단위
+   * @return BulkRequest
+   */
+  static BulkRequest replayRequest(List<ProblemDto.SpooledAnswer> spooledAnswers,
+      OpenSearchProperties.PartitionInterval partitionInterval) {
+
+    List<BulkOperation> operations = new ArrayList<>(spooledAnswers.size());
+    for (ProblemDto.SpooledAnswer spooledAnswer : spooledAnswers) {
+      ProblemDto.AnswerDocument answerDocument = spooledAnswer.getDocument();
+      operations.add(BulkOperation.of(op -> op
+          .index(idx -> idx
+              .index(ProblemIndexPartitions.partitionIndex(partitionInterval,
+                  answerDocument.getProblemStartDtm()))
+              .id(spooledAnswer.getId())
+              .routing(answerDocument.getStudentId())
+              .document(answerDocument))));
+    }
+
+    return BulkRequest.of(b -> b.operations(operations));
+  }
+
+  private byte[] encode(ProblemDto.SpooledAnswer spooledAnswer) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    try (JsonGenerator generator = jsonpMapper.jsonProvider().createGenerator(out)) {
+      jsonpMapper.serialize(spooledAnswer, generator);
+    }
+    return out.toByteArray();
+  }
+
+  private ProblemDto.SpooledAnswer decode(byte[] payload) {
+    try (JsonParser parser = jsonpMapper.jsonProvider()
+        .createParser(new ByteArrayInputStream(payload))) {
+      return jsonpMapper.deserialize(parser, ProblemDto.SpooledAnswer.class);
+    }
+  }
+
+  private void bindMetrics(MeterRegistry meterRegistry) {
+    Gauge.builder("opensearch.spool.depth", spool, SegmentedSpool::pendingCount)
+        .description("Answers waiting in the local spool")
+        .register(meterRegistry);
+    Gauge.builder("opensearch.spool.size", spool, SegmentedSpool::sizeBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    FunctionCounter.builder("opensearch.spool.appended", spool, SegmentedSpool::appendedCount)
+        .register(meterRegistry);
+    FunctionCounter.builder("opensearch.spool.rejected", spool, SegmentedSpool::rejectedCount)
+        .register(meterRegistry);
+    FunctionCounter.builder("opensearch.spool.replayed", replayedCount, AtomicLong::get)
+        .register(meterRegistry);
+    FunctionCounter.builder("opensearch.spool.dropped", droppedCount, AtomicLong::get)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,143 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.config.MetricsConfig;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import io.micrometer.core.annotation.Timed;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.core.IndexRequest;
+import org.opensearch.client.opensearch.core.IndexResponse;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * ProblemService의 Non-blocking 버전
+ *
+ * <p>모든 메서드는 요청을 전송한 즉시 CompletableFuture를 반환하며, 실패하면 예외로 완료된다.
+ * CompletableFuture를 취소하면 이후에 연결된 처리는 실행되지 않지만, 이미 전송된 HTTP 요청은
+ * 중단되지 않고 응답이 버려진다.</p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class ProblemAsyncService {
+
+  private final OpenSearchAsyncClient openSearchAsyncClient;
+
+  private final ProblemStatisticsCache problemStatisticsCache;
+
+  private final ProblemRollups problemRollups;
+
+  private final OpenSearchProperties openSearchProperties;
+
+  private final IndexReindexer indexReindexer;
+
+  /**
+   * 문항 풀이 내용 저장
+   *
+   * @param answerRequest 저장할 Document 정보를 담고 있는 ProblemDto.Answer 객체
+   * @return IndexResponse Document 저장에 대한 결과를 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<IndexResponse> insertProblemAnswer(ProblemDto.Answer answerRequest) {
+
+    try {
+      IndexRequest<ProblemDto.AnswerDocument> indexRequest =
+          ProblemService.insertProblemAnswerRequest(answerRequest,
+              openSearchProperties.getProblemIndex().getPartitionInterval());
+      return openSearchAsyncClient.index(indexRequest)
+          .whenComplete((indexResponse, e) -> {
+            if (e != null) {
+              log.error("insertProblemAnswer studentId : [{}], problemNo : [{}]",
+                  answerRequest.getStudentId(), answerRequest.getProblemNo(), e);
+            } else {
+              problemStatisticsCache.record(answerRequest);
+              problemRollups.record(indexResponse.id(), indexRequest.document());
+              indexReindexer.mirror(indexResponse.index(), indexResponse.id(),
+                  answerRequest.getStudentId(), indexResponse.version(), indexRequest.document());
+            }
+          });
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * 배점 평균를 조회
+   *
+   * @return 배점 평균을 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<Double> getAvgDsscValue() {
+    return problemStatisticsCache
+        .getAsync(ProblemStatisticsCache.ALL_STUDENTS,
+            () -> searchAnswerStats(ProblemService.avgDsscValueRequest()))
+        .thenApply(ProblemService::avgDsscValue);
+  }
+
+  /**
+   * 정답률를 조회
+   *
+   * @param studentId 학생 아이디
+   * @return 정답률을 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<Double> getCorrectTrueRate(String studentId) {
+    return problemStatisticsCache
+        .getAsync(studentId,
+            () -> searchAnswerStats(ProblemService.correctTrueRateRequest(studentId)))
+        .thenApply(ProblemService::correctTrueRate);
+  }
+
+  /**
+   * 배점 평균과 정답률을 동시에 조회
+   *
+   * <p>두 조회 요청을 동시에 전송하고, 둘 중 하나라도 timeout 안에 완료되지 않으면
+   * TimeoutException으로 완료</p>
+   *
+   * @param studentId 학생 아이디
+   * @param timeout   조회 제한 시간
+   * @return ProblemDto.Statistics 배점 평균과 정답률을 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<ProblemDto.Statistics> getStatistics(String studentId,
+      Duration timeout) {
+
+    CompletableFuture<Double> avgDsscValue = getAvgDsscValue();
+    CompletableFuture<Double> correctRate = getCorrectTrueRate(studentId);
+
+    return avgDsscValue
+        .thenCombine(correctRate, (avg, rate) -> ProblemDto.Statistics.builder()
+            .studentId(studentId)
+            .avgDsscValue(avg)
+            .correctRate(rate)
+            .build())
+        .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+        .whenComplete((statistics, e) -> {
+          if (e != null) {
+            // 남은 조회 요청의 후속 처리를 중단
+            avgDsscValue.cancel(false);
+            correctRate.cancel(false);
+          }
+        });
+  }
+
+  private CompletableFuture<ProblemDto.AnswerStats> searchAnswerStats(
+      SearchRequest searchRequest) {
+
+    try {
+      return openSearchAsyncClient.search(searchRequest, ProblemDto.Aggregation.class)
+          .thenApply(ProblemService::answerStats)
+          .whenComplete((answerStats, e) -> {
+            if (e != null) {
+              log.error("searchAnswerStats searchRequest : {}", searchRequest, e);
+            }
+          });
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+}
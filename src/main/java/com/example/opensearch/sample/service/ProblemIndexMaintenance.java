@@ -0,0 +1,163 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.indices.IndexSettings;
+import org.opensearch.client.opensearch.indices.IndexState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * problem-records 파티션 관리 작업
+ *
+ * <p>다음 파티션을 미리 생성하고, 쓰기가 끝난 지난 파티션은 best_compression 코덱으로 바꾼 뒤
+ * 쓰기를 막고 force merge 한다. 코덱은 닫힌 Index에서만 바꿀 수 있으므로 파티션을 잠시 닫았다가
+ * 다시 연다.</p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class ProblemIndexMaintenance {
+
+  static final String BEST_COMPRESSION = "best_compression";
+
+  private final OpenSearchClient openSearchClient;
+
+  private final ProblemService problemService;
+
+  private final ProblemRollups problemRollups;
+
+  private final OpenSearchProperties openSearchProperties;
+
+  /**
+   * 애플리케이션이 시작되면 Index 템플릿을 등록하여 자동 생성되는 파티션에도 매핑을 적용하고,
+   * 증분이 반영되기 전에 롤업 Index를 명시적 매핑으로 생성
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    problemService.putIndexTemplate();
+    problemRollups.createIndex();
+  }
+
+  /**
+   * 파티션 관리 작업 실행
+   *
+   * @return best_compression으로 정리한 파티션 목록
+   */
+  @Scheduled(cron = "${opensearch.problem-index.maintenance.cron:0 0 3 * * *}")
+  public List<String> maintain() {
+
+    List<String> compacted = new ArrayList<>();
+    OpenSearchProperties.ProblemIndex problemIndex = openSearchProperties.getProblemIndex();
+
+    if (!problemIndex.getMaintenance().isEnabled()) {
+      return compacted;
+    }
+
+    try {
+      createNextPartition(problemIndex.getPartitionInterval());
+
+      for (String indexName : sealablePartitions(problemIndex, Instant.now())) {
+        try {
+          compact(indexName, problemIndex.getMaintenance().getMaxNumSegments());
+          compacted.add(indexName);
+        } catch (Exception e) {
+          log.error("maintain compact indexName : [{}]", indexName, e);
+        }
+      }
+    } catch (Exception e) {
+      log.error("maintain", e);
+    }
+
+    log.info("maintain compacted : {}", compacted);
+
+    return compacted;
+  }
+
+  /**
+   * 다음 파티션을 미리 생성하여 파티션이 바뀌는 시점의 첫 저장이 Index 생성을 기다리지 않도록 함
+   */
+  private void createNextPartition(OpenSearchProperties.PartitionInterval interval)
+      throws Exception {
+
+    String indexName = ProblemIndexPartitions.partitionIndex(interval,
+        ProblemIndexPartitions.partitionStart(interval, Instant.now(), 1));
+
+    if (!openSearchClient.indices().exists(e -> e.index(indexName)).value()) {
+      openSearchClient.indices().create(c -> c.index(indexName));
+      log.info("createNextPartition indexName : [{}]", indexName);
+    }
+  }
+
+  /**
+   * 쓰기 가능한 파티션 수를 넘어선 지난 파티션 중 아직 정리되지 않은 파티션 목록
+   */
+  private List<String> sealablePartitions(OpenSearchProperties.ProblemIndex problemIndex,
+      Instant now) throws Exception {
+
+    Instant writableFrom = ProblemIndexPartitions.partitionStart(
+        problemIndex.getPartitionInterval(), now,
+        1L - problemIndex.getMaintenance().getWritablePartitions());
+
+    Map<String, IndexState> partitions = openSearchClient.indices()
+        .getSettings(g -> g
+            .index(ProblemIndexPartitions.INDEX_PATTERN)
+            .name("index.codec"))
+        .result();
+
+    List<String> sealable = new ArrayList<>();
+    for (String indexName : new TreeSet<>(partitions.keySet())) {
+      Optional<Instant> partitionStart = ProblemIndexPartitions.partitionStart(
+          problemIndex.getPartitionInterval(), indexName);
+      if (partitionStart.isPresent() && partitionStart.get().isBefore(writableFrom)
+          && !BEST_COMPRESSION.equals(codec(partitions.get(indexName)))) {
+        sealable.add(indexName);
+      }
+    }
+
+    return sealable;
+  }
+
+  /**
+   * 파티션을 best_compression 코덱으로 바꾸고 쓰기를 막은 뒤 force merge
+   */
+  private void compact(String indexName, long maxNumSegments) throws Exception {
+
+    openSearchClient.indices().close(c -> c.index(indexName));
+    try {
+      openSearchClient.indices().putSettings(p -> p
+          .index(indexName)
+          .settings(s -> s
+              .codec(BEST_COMPRESSION)
+              .blocks(b -> b.write(true))));
+    } finally {
+      openSearchClient.indices().open(o -> o.index(indexName));
+    }
+
+    // 새 코덱은 이후에 만들어지는 세그먼트부터 적용되므로 force merge로 세그먼트를 다시 작성
+    openSearchClient.indices().forcemerge(f -> f
+        .index(indexName)
+        .maxNumSegments(maxNumSegments));
+    log.info("compact indexName : [{}], maxNumSegments : [{}]", indexName, maxNumSegments);
+  }
+
+  private static String codec(IndexState indexState) {
+
+    if (indexState == null || indexState.settings() == null) {
+      return null;
+    }
+
+    IndexSettings settings = indexState.settings();
+    return settings.index() != null ? settings.index().codec() : settings.codec();
+  }
+}
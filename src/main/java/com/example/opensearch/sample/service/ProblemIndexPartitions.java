@@ -0,0 +1,160 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.OpenSearchProperties.PartitionInterval;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * problemStartDtm(UTC) 기준으로 나눈 problem-records 파티션 Index 이름 계산
+ *
+ * <p>MONTHLY는 problem-records-yyyy.MM, DAILY는 problem-records-yyyy.MM.dd 형식을 사용한다.
+ * 재색인한 파티션은 problem-records-yyyy.MM.v2처럼 매핑 버전을 붙인 Index에 저장되고, 원래 파티션
+ * 이름은 그 Index를 가리키는 alias가 된다.</p>
+ */
+final class ProblemIndexPartitions {
+
+  static final String INDEX_PREFIX = "problem-records-";
+
+  static final String INDEX_PATTERN = INDEX_PREFIX + "*";
+
+  // 조회 기간이 이보다 많은 파티션에 걸치면 읽기 alias 전체를 조회
+  static final int MAX_PRUNED_PARTITIONS = 100;
+
+  private static final Pattern VERSION_SUFFIX = Pattern.compile("\\.v\\d+$");
+
+  private static final DateTimeFormatter MONTHLY_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM");
+
+  private static final DateTimeFormatter DAILY_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+
+  private ProblemIndexPartitions() {
+  }
+
+  /**
+   * 시각이 속한 파티션 Index 이름
+   *
+   * @param interval 파티션 단위
+   * @param instant  시각
+   * @return 파티션 Index 이름
+   */
+  static String partitionIndex(PartitionInterval interval, Instant instant) {
+    ZonedDateTime dateTime = instant.atZone(ZoneOffset.UTC);
+    return INDEX_PREFIX + (interval == PartitionInterval.DAILY
+        ? DAILY_FORMAT.format(dateTime)
+        : MONTHLY_FORMAT.format(dateTime));
+  }
+
+  /**
+   * 문항 풀이 시작 시각이 속한 파티션 Index 이름
+   *
+   * @param interval        파티션 단위
+   * @param problemStartDtm 문항 풀이 시작 시각(ISO-8601), 없으면 현재 시각
+   * @return 파티션 Index 이름
+   */
+  static String partitionIndex(PartitionInterval interval, String problemStartDtm) {
+    return partitionIndex(interval,
+        problemStartDtm == null ? Instant.now() : Instant.parse(problemStartDtm));
+  }
+
+  /**
+   * 문항 풀이 시작 시각이 속한 파티션 Index 이름
+   *
+   * @param interval        파티션 단위
+   * @param problemStartDtm 문항 풀이 시작 시각(epoch millis), 없으면 현재 시각
+   * @return 파티션 Index 이름
+   */
+  static String partitionIndex(PartitionInterval interval, Long problemStartDtm) {
+    return partitionIndex(interval,
+        problemStartDtm == null ? Instant.now() : Instant.ofEpochMilli(problemStartDtm));
+  }
+
+  /**
+   * [from, to) 기간에 걸친 파티션 Index 이름 목록
+   *
+   * @param interval 파티션 단위
+   * @param from     시작 시각(포함)
+   * @param to       종료 시각(미포함)
+   * @return 파티션 Index 이름 목록, MAX_PRUNED_PARTITIONS를 넘으면 빈 목록
+   */
+  static List<String> partitionIndices(PartitionInterval interval, Instant from, Instant to) {
+
+    List<String> indices = new ArrayList<>();
+    ZonedDateTime cursor = partitionStart(interval, from);
+    ZonedDateTime end = to.atZone(ZoneOffset.UTC);
+
+    while (cursor.isBefore(end)) {
+      if (indices.size() == MAX_PRUNED_PARTITIONS) {
+        return List.of();
+      }
+      indices.add(partitionIndex(interval, cursor.toInstant()));
+      cursor = interval == PartitionInterval.DAILY ? cursor.plusDays(1) : cursor.plusMonths(1);
+    }
+
+    return indices;
+  }
+
+  /**
+   * 현재 파티션에서 offset만큼 떨어진 파티션의 시작 시각
+   *
+   * @param interval 파티션 단위
+   * @param now      현재 시각
+   * @param offset   이전 파티션은 음수, 다음 파티션은 양수
+   * @return 파티션 시작 시각
+   */
+  static Instant partitionStart(PartitionInterval interval, Instant now, long offset) {
+    ZonedDateTime start = partitionStart(interval, now);
+    return (interval == PartitionInterval.DAILY
+        ? start.plusDays(offset)
+        : start.plusMonths(offset)).toInstant();
+  }
+
+  /**
+   * 파티션 Index 이름에서 파티션 시작 시각을 추출
+   *
+   * @param interval  파티션 단위
+   * @param indexName Index 이름
+   * @return 파티션 시작 시각, 파티션 Index가 아니면 Optional.empty()
+   */
+  static Optional<Instant> partitionStart(PartitionInterval interval, String indexName) {
+
+    if (!indexName.startsWith(INDEX_PREFIX)) {
+      return Optional.empty();
+    }
+
+    String suffix = VERSION_SUFFIX.matcher(indexName.substring(INDEX_PREFIX.length()))
+        .replaceFirst("");
+    try {
+      LocalDate date = interval == PartitionInterval.DAILY
+          ? LocalDate.parse(suffix, DAILY_FORMAT)
+          : YearMonth.parse(suffix, MONTHLY_FORMAT).atDay(1);
+      return Optional.of(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+    } catch (DateTimeParseException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * 파티션을 재색인할 때 만드는 매핑 버전별 Index 이름
+   *
+   * @param partitionIndex 파티션 이름, 이미 버전이 붙은 Index 이름이어도 됨
+   * @param mappingVersion 매핑 버전
+   * @return {파티션}.v{mappingVersion}
+   */
+  static String versionedIndex(String partitionIndex, int mappingVersion) {
+    return VERSION_SUFFIX.matcher(partitionIndex).replaceFirst("") + ".v" + mappingVersion;
+  }
+
+  private static ZonedDateTime partitionStart(PartitionInterval interval, Instant instant) {
+    LocalDate date = instant.atZone(ZoneOffset.UTC).toLocalDate();
+    return (interval == PartitionInterval.DAILY ? date : date.withDayOfMonth(1))
+        .atStartOfDay(ZoneOffset.UTC);
+  }
+}
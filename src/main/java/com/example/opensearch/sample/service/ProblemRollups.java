@@ -0,0 +1,1220 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.common.concurrent.ThreadFactories;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.config.resilience.TransientFailures;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.Script;
+import org.opensearch.client.opensearch._types.aggregations.Aggregate;
+import org.opensearch.client.opensearch._types.aggregations.Aggregation;
+import org.opensearch.client.opensearch._types.aggregations.LongTermsBucket;
+import org.opensearch.client.opensearch._types.aggregations.StatsAggregate;
+import org.opensearch.client.opensearch._types.aggregations.StringTermsBucket;
+import org.opensearch.client.opensearch._types.mapping.DynamicMapping;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.GetResponse;
+import org.opensearch.client.opensearch.core.MgetResponse;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.core.mget.MultiGetResponseItem;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.core.search.Pit;
+import org.opensearch.client.opensearch.indices.get_mapping.IndexMappingRecord;
+import org.springframework.stereotype.Component;
+
+/**
+ * 학생별, 학습별, 전체 문항 풀이 집계(롤업)를 problem-rollups Index에 유지하는 컴포넌트
+ *
+ * <p>저장된 문항 풀이 내용은 record()로 롤업 Document ID(student_{studentId}, study_{studyId}, all)별
+ * 증분에 합쳐 두고, flushInterval마다 모아둔 증분 전체를 하나의 _bulk 요청의 scripted upsert로
+ * 반영한다. 정답률, 배점 평균 조회는 문항 풀이 내용을 집계하지 않고 롤업 Document 하나를 조회한다.</p>
+ *
+ * <p>증분 반영은 멱등이 아니므로 _bulk 요청이 timeout 후 실제로는 반영되었다면 같은 증분이 다시 더해질
+ * 수 있다. rebuild()는 문항 풀이 내용에서 모든 롤업을 다시 계산하며, 처음 재구성이 끝나기 전에는
+ * 롤업이 과거 풀이 내용을 포함하지 않으므로 isReady()가 false이고 조회는 집계 검색을 사용한다.
+ * checkConsistency()는 임의로 고른 롤업을 문항 풀이 내용 집계와 비교한다.</p>
+ *
+ * <p>opensearch.rollup.pending(반영 대기 중인 롤업 수), opensearch.rollup.flushed,
+ * opensearch.rollup.dropped 카운터를 기록한다.</p>
+ */
+@Slf4j
+@Component
+public class ProblemRollups implements AutoCloseable {
+
+  // 재구성이 끝난 시각을 기록하는 롤업 Index 매핑의 _meta 키
+  static final String REBUILT_AT = "rebuilt_at";
+
+  static final String STUDENT_SCOPE = "student";
+
+  static final String STUDY_SCOPE = "study";
+
+  static final String ALL_SCOPE = "all";
+
+  // 재구성 시 terms 집계 파티션 하나에 들어가는 평균 학생(학습) 수
+  static final int REBUILD_PARTITION_SIZE = ProblemService.STUDENT_BATCH_SIZE;
+
+  // 재구성 집계에 사용하는 point in time을 유지하는 시간, 검색할 때마다 연장
+  static final String REBUILD_KEEP_ALIVE = "5m";
+
+  // 재구성 전 롤업 Index의 _meta를 다시 확인하는 간격
+  private static final long READY_CHECK_INTERVAL_MILLIS = 60_000;
+
+  // 모아둔 증분을 롤업 Document에 더하는 스크립트, Document가 없으면 upsert로 증분을 그대로 저장
+  static final String INCREMENT_SCRIPT = """
+      def source = ctx._source;
+      source.totalCount += params.totalCount;
+      source.correctCount += params.correctCount;
+      source.dsscValueSum += params.dsscValueSum;
+      source.dsscValueCount += params.dsscValueCount;
+      source.durationSum += params.durationSum;
+      source.durationCount += params.durationCount;
+      if (params.durationMin != null
+          && (source.durationMin == null || params.durationMin < source.durationMin)) {
+        source.durationMin = params.durationMin;
+      }
+      if (params.durationMax != null
+          && (source.durationMax == null || params.durationMax > source.durationMax)) {
+        source.durationMax = params.durationMax;
+      }
+      """;
+
+  private final OpenSearchClient openSearchClient;
+
+  private final OpenSearchProperties openSearchProperties;
+
+  private final OpenSearchProperties.Rollup properties;
+
+  // 롤업 Document ID별 아직 반영하지 않은 증분
+  private final Map<String, ProblemDto.Rollup> pending = new ConcurrentHashMap<>();
+
+  // 증분 반영과 재구성 시작이 겹치지 않도록 함
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+  private final AtomicLong flushedCount = new AtomicLong();
+
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  // 롤업 Document ID별 증분이 연속으로 거절된 횟수, flushLock을 잡고 사용
+  private final Map<String, Integer> rejectedFlushes = new HashMap<>();
+
+  // 재구성 중에 기록된 Document ID별 풀이 내용, heldDocuments를 잡고 사용
+  private final Map<String, ProblemDto.AnswerDocument> heldDocuments = new LinkedHashMap<>();
+
+  // rollup.enabled가 false이면 null
+  private final ScheduledExecutorService flushScheduler;
+
+  // 재구성 중이면 true, 그동안 기록된 풀이 내용은 heldDocuments에 보관
+  private volatile boolean holding;
+
+  private volatile boolean ready;
+
+  private volatile long readyCheckedAt;
+
+  public ProblemRollups(OpenSearchClient openSearchClient,
+      OpenSearchProperties openSearchProperties, MeterRegistry meterRegistry) {
+
+    this.openSearchClient = openSearchClient;
+    this.openSearchProperties = openSearchProperties;
+    this.properties = openSearchProperties.getRollup();
+
+    if (!properties.isEnabled()) {
+      this.flushScheduler = null;
+      return;
+    }
+
+    bindMetrics(meterRegistry);
+    this.flushScheduler = Executors.newSingleThreadScheduledExecutor(
+        ThreadFactories.threadFactory("rollup-flush", false));
+    long flushIntervalMillis = properties.getFlushInterval().toMillis();
+    flushScheduler.scheduleWithFixedDelay(this::flush,
+        flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * 롤업 Index 생성
+   *
+   * <p>이미 있으면 만들지 않음</p>
+   *
+   * @return 새로 만들었으면 true
+   */
+  public boolean createIndex() {
+
+    if (!properties.isEnabled()) {
+      return false;
+    }
+
+    String indexName = properties.getIndexName();
+
+    try {
+      if (openSearchClient.indices().exists(e -> e.index(indexName)).value()) {
+        return false;
+      }
+      openSearchClient.indices().create(c -> c
+          .index(indexName)
+          .settings(s -> s
+              .numberOfShards("1")
+              .numberOfReplicas(String.valueOf(
+                  openSearchProperties.getProblemIndex().getNumberOfReplicas())))
+          .mappings(rollupIndexMappings()));
+      log.info("createIndex indexName : [{}]", indexName);
+      return true;
+    } catch (Exception e) {
+      log.error("createIndex indexName : [{}]", indexName, e);
+      return false;
+    }
+  }
+
+  /**
+   * 롤업 Index 삭제
+   *
+   * <p>반영하지 않은 증분도 버리며, 다시 재구성할 때까지 조회는 집계 검색을 사용</p>
+   *
+   * @throws IOException 삭제 요청이 실패한 경우
+   */
+  public void deleteIndex() throws IOException {
+
+    if (!properties.isEnabled()) {
+      return;
+    }
+
+    flushLock.lock();
+    try {
+      pending.clear();
+      rejectedFlushes.clear();
+      ready = false;
+      readyCheckedAt = 0;
+      openSearchClient.indices().delete(d -> d
+          .index(properties.getIndexName())
+          .ignoreUnavailable(true));
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * 저장된 문항 풀이 Document를 학생별, 학습별, 전체 롤업의 증분에 합침
+   *
+   * <p>재구성 중에는 보관했다가 재구성 집계에 포함되지 않은 풀이 내용만 증분에 합침</p>
+   *
+   * @param id             저장된 Document ID
+   * @param answerDocument 저장된 문항 풀이 Document
+   */
+  public void record(String id, ProblemDto.AnswerDocument answerDocument) {
+
+    if (!properties.isEnabled()) {
+      return;
+    }
+
+    if (holding) {
+      synchronized (heldDocuments) {
+        if (holding) {
+          heldDocuments.put(id, answerDocument);
+          return;
+        }
+      }
+    }
+
+    accumulate(answerDocument);
+  }
+
+  private void accumulate(ProblemDto.AnswerDocument answerDocument) {
+    if (answerDocument.getStudentId() != null) {
+      add(STUDENT_SCOPE, answerDocument.getStudentId(), answerDocument);
+    }
+    if (answerDocument.getStudyId() != null) {
+      add(STUDY_SCOPE, String.valueOf(answerDocument.getStudyId()), answerDocument);
+    }
+    add(ALL_SCOPE, null, answerDocument);
+  }
+
+  /**
+   * 반영 대기 중인 롤업 수
+   *
+   * @return 증분이 남은 롤업 Document 수
+   */
+  public int pendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * 모아둔 증분을 하나의 _bulk 요청으로 롤업 Document에 반영
+   *
+   * <p>재구성 중에는 반영하지 않고 모아둠. 클러스터에 연결하지 못했거나 429, 502, 503, 504로 거절된
+   * 증분은 다음 주기에 다시 반영하고, 그 외 오류로 거절된 증분은 버림. 같은 롤업의 증분이
+   * maxFlushAttempts번 연속으로 거절되면 버리며, 버린 증분은 rebuild()나 checkConsistency()로 보정</p>
+   *
+   * @return 이번에 반영한 롤업 Document 수
+   */
+  public int flush() {
+
+    if (!properties.isEnabled() || pending.isEmpty()) {
+      return 0;
+    }
+
+    flushLock.lock();
+    try {
+      if (rebuilding.get()) {
+        return 0;
+      }
+
+      // 하나씩 꺼내므로 꺼낸 뒤에 기록된 증분은 새 항목으로 남아 다음 주기에 반영
+      Map<String, ProblemDto.Rollup> increments = new LinkedHashMap<>();
+      for (String id : List.copyOf(pending.keySet())) {
+        ProblemDto.Rollup increment = pending.remove(id);
+        if (increment != null) {
+          increments.put(id, increment);
+        }
+      }
+      if (increments.isEmpty()) {
+        return 0;
+      }
+
+      return flush(increments);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * 롤업을 조회에 사용할 수 있는지 확인
+   *
+   * <p>rebuild()가 한 번 이상 끝나 롤업 Index의 _meta에 rebuilt_at이 기록되어 있어야 함</p>
+   *
+   * @return 롤업으로 조회할 수 있으면 true
+   */
+  public boolean isReady() {
+
+    if (!properties.isEnabled()) {
+      return false;
+    }
+    if (ready) {
+      return true;
+    }
+
+    long now = System.currentTimeMillis();
+    if (now - readyCheckedAt < READY_CHECK_INTERVAL_MILLIS) {
+      return false;
+    }
+    readyCheckedAt = now;
+
+    String indexName = properties.getIndexName();
+    try {
+      IndexMappingRecord mapping = openSearchClient.indices()
+          .getMapping(g -> g.index(indexName).ignoreUnavailable(true))
+          .result().get(indexName);
+      ready = mapping != null && mapping.mappings() != null
+          && mapping.mappings().meta().containsKey(REBUILT_AT);
+    } catch (Exception e) {
+      log.warn("isReady indexName : [{}], cause : [{}]", indexName, e.toString());
+    }
+
+    return ready;
+  }
+
+  /**
+   * 학생의 롤업을 조회
+   *
+   * <p>아직 반영하지 않은 이 인스턴스의 증분을 더해서 반환</p>
+   *
+   * @param studentId 학생 아이디
+   * @return ProblemDto.AnswerStats, 풀이 내용이 없으면 빈 집계
+   * @throws IOException 조회 요청이 실패한 경우
+   */
+  public ProblemDto.AnswerStats studentStats(String studentId) throws IOException {
+    return answerStats(getRollup(STUDENT_SCOPE, studentId));
+  }
+
+  /**
+   * 여러 학생의 롤업을 하나의 _mget 요청으로 조회
+   *
+   * @param studentIds 학생 아이디 목록
+   * @return 학생 아이디별 ProblemDto.AnswerStats, 롤업이 없는 학생은 포함하지 않음
+   * @throws IOException 조회 요청이 실패한 경우
+   */
+  public Map<String, ProblemDto.AnswerStats> studentStats(Collection<String> studentIds)
+      throws IOException {
+
+    List<String> ids = studentIds.stream().map(studentId -> id(STUDENT_SCOPE, studentId))
+        .toList();
+    MgetResponse<ProblemDto.Rollup> mgetResponse = openSearchClient.mget(m -> m
+        .index(properties.getIndexName())
+        .ids(ids), ProblemDto.Rollup.class);
+
+    Map<String, ProblemDto.AnswerStats> answerStatsMap = new HashMap<>();
+    for (MultiGetResponseItem<ProblemDto.Rollup> item : mgetResponse.docs()) {
+      if (!item.isResult()) {
+        throw new IllegalStateException("mget failure : " + item.failure().error().reason());
+      }
+      ProblemDto.Rollup rollup = merge(item.result().found() ? item.result().source() : null,
+          pending.get(item.result().id()));
+      if (rollup != null) {
+        answerStatsMap.put(rollup.getKey(), answerStats(rollup));
+      }
+    }
+
+    return answerStatsMap;
+  }
+
+  /**
+   * 전체 롤업을 조회
+   *
+   * @return ProblemDto.AnswerStats
+   * @throws IOException 조회 요청이 실패한 경우
+   */
+  public ProblemDto.AnswerStats totalStats() throws IOException {
+    return answerStats(getRollup(ALL_SCOPE, null));
+  }
+
+  /**
+   * 학습의 롤업을 조회
+   *
+   * @param studyId 학습 아이디
+   * @return ProblemDto.Rollup, 풀이 내용이 없으면 null
+   * @throws IOException 조회 요청이 실패한 경우
+   */
+  public ProblemDto.Rollup studyRollup(Long studyId) throws IOException {
+    return getRollup(STUDY_SCOPE, String.valueOf(studyId));
+  }
+
+  /**
+   * 문항 풀이 내용에서 모든 롤업을 다시 계산
+   *
+   * <p>studentId, studyId의 cardinality로 파티션 수를 정하고, terms 집계의 include.partition으로 나눈
+   * 파티션을 rebuildConcurrency개씩 동시에 집계하여 파티션마다 하나의 _bulk 요청으로 덮어씀.
+   * 끝나면 롤업 Index의 _meta에 rebuilt_at을 기록하고 조회에 롤업을 사용</p>
+   *
+   * <p>시작할 때 refresh한 뒤 문항 풀이 Index의 point in time을 만들고 모든 집계를 그 시점에서 실행.
+   * 시작 전에 모아둔 증분은 재구성 결과에 포함되므로 버리고, 재구성 중에 기록된 풀이 내용은 Document
+   * ID로 보관했다가 집계가 끝나면 point in time에서 ID로 검색하여 집계에 보이지 않은 풀이 내용만 증분에
+   * 합치므로, 저장 시각이나 풀이 시작 시각과 관계없이 같은 풀이 내용이 빠지거나 두 번 더해지지 않음</p>
+   *
+   * <p>이 인스턴스에 기록된 풀이 내용만 보정하므로 풀이 내용을 저장하는 애플리케이션 인스턴스가 하나라고
+   * 가정함. 다른 인스턴스가 재구성 중에 반영한 증분은 재구성 결과에 더해져 두 번 반영될 수 있으므로,
+   * 여러 인스턴스가 저장하는 경우 재구성 후 checkConsistency()로 확인</p>
+   *
+   * @return ProblemDto.RollupRebuild 재구성한 롤업 수
+   * @throws Exception 집계 또는 저장이 실패한 경우, 이미 재구성 중인 경우 IllegalStateException
+   */
+  public ProblemDto.RollupRebuild rebuild() throws Exception {
+
+    if (!properties.isEnabled()) {
+      throw new IllegalStateException("rollup is disabled");
+    }
+
+    flushLock.lock();
+    try {
+      if (!rebuilding.compareAndSet(false, true)) {
+        throw new IllegalStateException("rollup rebuild is already running");
+      }
+      synchronized (heldDocuments) {
+        holding = true;
+      }
+      pending.clear();
+      rejectedFlushes.clear();
+    } finally {
+      flushLock.unlock();
+    }
+
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max(1, properties.getRebuildConcurrency()),
+        ThreadFactories.threadFactory("rollup-rebuild", false));
+    String pitId = null;
+    boolean released = false;
+
+    try {
+      createIndex();
+      openSearchClient.indices().refresh(r -> r.index(ProblemIndexPartitions.INDEX_PATTERN)
+          .ignoreUnavailable(true).allowNoIndices(true));
+      pitId = openSearchClient.createPit(c -> c
+          .targetIndexes(ProblemIndexPartitions.INDEX_PATTERN)
+          .keepAlive(k -> k.time(REBUILD_KEEP_ALIVE))).pitId();
+
+      List<Future<Integer>> students = submitPartitions(executor, STUDENT_SCOPE, pitId);
+      List<Future<Integer>> studies = submitPartitions(executor, STUDY_SCOPE, pitId);
+      ProblemDto.Rollup all = rollup(ALL_SCOPE, null,
+          search(allRollupRequest(pitId)).aggregations());
+      write(List.of(all));
+
+      ProblemDto.RollupRebuild rollupRebuild = ProblemDto.RollupRebuild.builder()
+          .students(await(students))
+          .studies(await(studies))
+          .totalCount(all.getTotalCount())
+          .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+          .build();
+
+      releaseHeldDocuments(pitId);
+      released = true;
+      openSearchClient.indices().putMapping(m -> m
+          .index(properties.getIndexName())
+          .meta(REBUILT_AT, JsonData.of(System.currentTimeMillis())));
+      ready = true;
+      log.info("rebuild rollupRebuild : {}", rollupRebuild);
+
+      return rollupRebuild;
+    } finally {
+      executor.shutdownNow();
+      if (!released) {
+        // 재구성이 실패했으면 보관한 풀이 내용을 모두 증분에 합침
+        releaseHeldDocuments();
+      }
+      deletePit(pitId);
+      rebuilding.set(false);
+    }
+  }
+
+  /**
+   * 임의로 고른 롤업을 문항 풀이 내용 집계와 비교
+   *
+   * <p>모아둔 증분을 반영하고 refresh한 뒤 비교하며, 전체 롤업은 항상 비교함. 비교하는 동안 저장되는
+   * 풀이 내용이 있으면 불일치로 보일 수 있으므로 저장이 적은 시간에 실행</p>
+   *
+   * @param sampleSize 비교할 학생, 학습 롤업 수 (최대 STUDENT_BATCH_SIZE)
+   * @param repair     true이면 일치하지 않는 롤업을 집계 결과로 덮어씀
+   * @return ProblemDto.RollupConsistency 비교한 롤업 수와 일치하지 않는 롤업 Document ID
+   * @throws IOException 조회 또는 저장이 실패한 경우
+   */
+  public ProblemDto.RollupConsistency checkConsistency(int sampleSize, boolean repair)
+      throws IOException {
+
+    if (!properties.isEnabled()) {
+      throw new IllegalStateException("rollup is disabled");
+    }
+
+    flush();
+    openSearchClient.indices().refresh(r -> r
+        .index(properties.getIndexName(), ProblemIndexPartitions.INDEX_PATTERN)
+        .ignoreUnavailable(true).allowNoIndices(true));
+
+    Map<String, ProblemDto.Rollup> rollups = new LinkedHashMap<>();
+    SearchResponse<ProblemDto.Rollup> sample = openSearchClient.search(
+        sampleRequest(properties.getIndexName(),
+            Math.min(sampleSize, ProblemService.STUDENT_BATCH_SIZE)),
+        ProblemDto.Rollup.class);
+    for (Hit<ProblemDto.Rollup> hit : sample.hits().hits()) {
+      rollups.put(hit.id(), hit.source());
+    }
+    ProblemDto.Rollup all = getRollup(ALL_SCOPE, null);
+    rollups.put(id(ALL_SCOPE, null),
+        all != null ? all : ProblemDto.Rollup.builder().scope(ALL_SCOPE).build());
+
+    Map<String, ProblemDto.Rollup> expected = new HashMap<>();
+    for (ProblemDto.Rollup rollup : expectedRollups(rollups.values())) {
+      expected.put(id(rollup.getScope(), rollup.getKey()), rollup);
+    }
+
+    List<String> mismatchedIds = new ArrayList<>();
+    List<ProblemDto.Rollup> repairs = new ArrayList<>();
+    rollups.forEach((id, rollup) -> {
+      ProblemDto.Rollup actual = expected.getOrDefault(id, empty(rollup));
+      if (!sameCounts(rollup, actual)) {
+        mismatchedIds.add(id);
+        repairs.add(actual);
+        log.warn("checkConsistency id : [{}], rollup : {}, expected : {}", id, rollup, actual);
+      }
+    });
+
+    if (repair && !repairs.isEmpty()) {
+      write(repairs);
+    }
+
+    return ProblemDto.RollupConsistency.builder()
+        .checked(rollups.size())
+        .mismatchedIds(mismatchedIds)
+        .repaired(repair ? repairs.size() : 0)
+        .build();
+  }
+
+  /**
+   * 증분 반영을 멈추고 남은 증분을 반영
+   */
+  @Override
+  public void close() {
+
+    if (flushScheduler == null) {
+      return;
+    }
+
+    flushScheduler.shutdown();
+    try {
+      if (!flushScheduler.awaitTermination(
+          openSearchProperties.getBulk().getCloseTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        flushScheduler.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      flushScheduler.shutdownNow();
+    }
+
+    flush();
+  }
+
+  /**
+   * 재구성 중에 보관한 풀이 내용 중 point in time에 없어 재구성 집계에 포함되지 않은 것만 증분에 합침
+   *
+   * <p>확인하는 동안 기록된 풀이 내용도 보관되므로 더 남지 않을 때까지 반복한 뒤 보관을 멈춤</p>
+   *
+   * @param pitId 재구성 집계에 사용한 point in time ID
+   * @throws IOException 검색 요청이 실패한 경우
+   */
+  private void releaseHeldDocuments(String pitId) throws IOException {
+    while (true) {
+      Map<String, ProblemDto.AnswerDocument> held;
+      synchronized (heldDocuments) {
+        if (heldDocuments.isEmpty()) {
+          holding = false;
+          return;
+        }
+        held = new LinkedHashMap<>(heldDocuments);
+        heldDocuments.clear();
+      }
+
+      List<String> ids = List.copyOf(held.keySet());
+      for (int from = 0; from < ids.size(); from += REBUILD_PARTITION_SIZE) {
+        List<String> chunk = ids.subList(from, Math.min(from + REBUILD_PARTITION_SIZE,
+            ids.size()));
+        for (Hit<ProblemDto.Aggregation> hit : search(includedIdsRequest(pitId, chunk))
+            .hits().hits()) {
+          held.remove(hit.id());
+        }
+      }
+      held.values().forEach(this::accumulate);
+    }
+  }
+
+  /**
+   * 보관한 풀이 내용을 모두 증분에 합치고 보관을 멈춤
+   */
+  private void releaseHeldDocuments() {
+    synchronized (heldDocuments) {
+      holding = false;
+      heldDocuments.values().forEach(this::accumulate);
+      heldDocuments.clear();
+    }
+  }
+
+  private void deletePit(String pitId) {
+
+    if (pitId == null) {
+      return;
+    }
+
+    try {
+      openSearchClient.deletePit(d -> d.pitId(List.of(pitId)));
+    } catch (Exception e) {
+      // keep_alive가 지나면 삭제되므로 실패해도 재구성 결과에는 영향이 없음
+      log.warn("deletePit pitId : [{}], cause : [{}]", pitId, e.toString());
+    }
+  }
+
+  private void add(String scope, String key, ProblemDto.AnswerDocument answerDocument) {
+    pending.merge(id(scope, key), increment(scope, key, answerDocument), ProblemRollups::merge);
+  }
+
+  private int flush(Map<String, ProblemDto.Rollup> increments) {
+
+    BulkResponse bulkResponse;
+    try {
+      bulkResponse = openSearchClient.bulk(incrementRequest(increments,
+          properties.getIndexName(), properties.getRetryOnConflict()));
+    } catch (Exception e) {
+      if (!TransientFailures.isTransient(e)) {
+        // 스크립트 오류 등은 다시 보내도 실패하므로 버림
+        droppedCount.addAndGet(increments.size());
+        increments.keySet().forEach(rejectedFlushes::remove);
+        log.error("flush dropped rollups : [{}]", increments.size(), e);
+        return 0;
+      }
+      // 요청이 반영된 뒤 응답만 실패했다면 다시 반영한 증분이 두 번 더해짐
+      log.warn("flush deferred rollups : [{}], status : [{}], cause : [{}]",
+          increments.size(), TransientFailures.status(e), e.toString());
+      increments.forEach((id, increment) -> pending.merge(id, increment, ProblemRollups::merge));
+      return 0;
+    }
+
+    int flushed = 0;
+    int maxFlushAttempts = properties.getMaxFlushAttempts();
+    for (BulkResponseItem item : bulkResponse.items()) {
+      if (item.error() == null) {
+        flushed++;
+        rejectedFlushes.remove(item.id());
+      } else if (TransientFailures.isTransientStatus(item.status())
+          && rejectedFlushes.merge(item.id(), 1, Integer::sum) < maxFlushAttempts) {
+        pending.merge(item.id(), increments.get(item.id()), ProblemRollups::merge);
+      } else {
+        droppedCount.incrementAndGet();
+        rejectedFlushes.remove(item.id());
+        log.error("flush dropped id : [{}], status : [{}], error : [{}]",
+            item.id(), item.status(), item.error().reason());
+      }
+    }
+    flushedCount.addAndGet(flushed);
+
+    return flushed;
+  }
+
+  private ProblemDto.Rollup getRollup(String scope, String key) throws IOException {
+
+    String id = id(scope, key);
+    ProblemDto.Rollup rollup = null;
+    try {
+      GetResponse<ProblemDto.Rollup> getResponse = openSearchClient.get(g -> g
+          .index(properties.getIndexName())
+          .id(id), ProblemDto.Rollup.class);
+      rollup = getResponse.found() ? getResponse.source() : null;
+    } catch (IOException e) {
+      // 롤업 Document가 없는 경우
+      if (TransientFailures.status(e) != 404) {
+        throw e;
+      }
+    }
+
+    return merge(rollup, pending.get(id));
+  }
+
+  private List<Future<Integer>> submitPartitions(ExecutorService executor, String scope,
+      String pitId) throws IOException {
+
+    String field = field(scope);
+    long cardinality = search(cardinalityRequest(field, pitId)).aggregations().get("keys")
+        .cardinality().value();
+    int partitions = (int) Math.max(1,
+        (cardinality + REBUILD_PARTITION_SIZE - 1) / REBUILD_PARTITION_SIZE);
+
+    List<Future<Integer>> futures = new ArrayList<>(partitions);
+    for (int partition = 0; partition < partitions; partition++) {
+      int partitionId = partition;
+      futures.add(executor.submit(
+          () -> rebuildPartition(scope, partitionId, partitions, pitId)));
+    }
+
+    return futures;
+  }
+
+  private int rebuildPartition(String scope, int partition, int partitions, String pitId)
+      throws IOException {
+
+    Aggregate keys = search(partitionRequest(field(scope), partition, partitions, pitId))
+        .aggregations().get("keys");
+
+    List<ProblemDto.Rollup> rollups = new ArrayList<>();
+    long sumOtherDocCount;
+    if (keys.isSterms()) {
+      for (StringTermsBucket bucket : keys.sterms().buckets().array()) {
+        rollups.add(rollup(scope, bucket.key(), bucket.aggregations()));
+      }
+      sumOtherDocCount = keys.sterms().sumOtherDocCount();
+    } else if (keys.isLterms()) {
+      for (LongTermsBucket bucket : keys.lterms().buckets().array()) {
+        rollups.add(rollup(scope, bucket.key(), bucket.aggregations()));
+      }
+      sumOtherDocCount = keys.lterms().sumOtherDocCount();
+    } else {
+      // 문항 풀이 내용이 없는 경우
+      sumOtherDocCount = 0;
+    }
+    if (sumOtherDocCount > 0) {
+      throw new IllegalStateException("rollup partition truncated scope : " + scope
+          + ", partition : " + partition + "/" + partitions);
+    }
+
+    write(rollups);
+    log.debug("rebuildPartition scope : [{}], partition : [{}/{}], rollups : [{}]",
+        scope, partition, partitions, rollups.size());
+
+    return rollups.size();
+  }
+
+  private List<ProblemDto.Rollup> expectedRollups(Collection<ProblemDto.Rollup> rollups)
+      throws IOException {
+
+    List<String> studentIds = new ArrayList<>();
+    List<String> studyIds = new ArrayList<>();
+    for (ProblemDto.Rollup rollup : rollups) {
+      if (STUDENT_SCOPE.equals(rollup.getScope())) {
+        studentIds.add(rollup.getKey());
+      } else if (STUDY_SCOPE.equals(rollup.getScope())) {
+        studyIds.add(rollup.getKey());
+      }
+    }
+
+    Map<String, Aggregate> aggregations = search(expectedRollupsRequest(studentIds, studyIds))
+        .aggregations();
+
+    List<ProblemDto.Rollup> expected = new ArrayList<>();
+    expected.add(rollup(ALL_SCOPE, null, aggregations));
+    Aggregate students = aggregations.get(STUDENT_SCOPE).filter().aggregations().get("keys");
+    if (students.isSterms()) {
+      for (StringTermsBucket bucket : students.sterms().buckets().array()) {
+        expected.add(rollup(STUDENT_SCOPE, bucket.key(), bucket.aggregations()));
+      }
+    }
+    Aggregate studies = aggregations.get(STUDY_SCOPE).filter().aggregations().get("keys");
+    if (studies.isLterms()) {
+      for (LongTermsBucket bucket : studies.lterms().buckets().array()) {
+        expected.add(rollup(STUDY_SCOPE, bucket.key(), bucket.aggregations()));
+      }
+    }
+
+    return expected;
+  }
+
+  private void write(List<ProblemDto.Rollup> rollups) throws IOException {
+
+    if (rollups.isEmpty()) {
+      return;
+    }
+
+    BulkResponse bulkResponse = openSearchClient.bulk(
+        rebuildRequest(rollups, properties.getIndexName()));
+    if (bulkResponse.errors()) {
+      BulkResponseItem failed = bulkResponse.items().stream()
+          .filter(item -> item.error() != null)
+          .findFirst().orElseThrow();
+      throw new IllegalStateException("rollup write failure id : " + failed.id()
+          + ", reason : " + failed.error().reason());
+    }
+  }
+
+  private SearchResponse<ProblemDto.Aggregation> search(SearchRequest searchRequest)
+      throws IOException {
+    return openSearchClient.search(searchRequest, ProblemDto.Aggregation.class);
+  }
+
+  private static int await(List<Future<Integer>> futures) throws Exception {
+
+    int total = 0;
+    try {
+      for (Future<Integer> future : futures) {
+        total += future.get();
+      }
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    }
+
+    return total;
+  }
+
+  /**
+   * 롤업 Document ID
+   *
+   * @param scope student, study, all
+   * @param key   학생 아이디 또는 학습 아이디, all이면 null
+   * @return {scope}_{key}, all이면 all
+   */
+  static String id(String scope, String key) {
+    return key == null ? scope : scope + "_" + key;
+  }
+
+  private static String field(String scope) {
+    return STUDENT_SCOPE.equals(scope) ? "studentId" : "studyId";
+  }
+
+  /**
+   * 문항 풀이 Document 하나의 증분
+   */
+  static ProblemDto.Rollup increment(String scope, String key,
+      ProblemDto.AnswerDocument answerDocument) {
+
+    Long durationMs = answerDocument.getDurationMs();
+    Integer dsscValue = answerDocument.getDsscValue();
+
+    return ProblemDto.Rollup.builder()
+        .scope(scope)
+        .key(key)
+        .totalCount(answerDocument.getCorrectYn() == null ? 0 : 1)
+        .correctCount(Boolean.TRUE.equals(answerDocument.getCorrectYn()) ? 1 : 0)
+        .dsscValueSum(dsscValue == null ? 0 : dsscValue)
+        .dsscValueCount(dsscValue == null ? 0 : 1)
+        .durationSum(durationMs == null ? 0 : durationMs)
+        .durationCount(durationMs == null ? 0 : 1)
+        .durationMin(durationMs)
+        .durationMax(durationMs)
+        .build();
+  }
+
+  /**
+   * 두 롤업(또는 증분)을 합침
+   *
+   * @return 합친 롤업, 둘 다 null이면 null
+   */
+  static ProblemDto.Rollup merge(ProblemDto.Rollup a, ProblemDto.Rollup b) {
+
+    if (a == null || b == null) {
+      return a == null ? b : a;
+    }
+
+    return a.toBuilder()
+        .totalCount(a.getTotalCount() + b.getTotalCount())
+        .correctCount(a.getCorrectCount() + b.getCorrectCount())
+        .dsscValueSum(a.getDsscValueSum() + b.getDsscValueSum())
+        .dsscValueCount(a.getDsscValueCount() + b.getDsscValueCount())
+        .durationSum(a.getDurationSum() + b.getDurationSum())
+        .durationCount(a.getDurationCount() + b.getDurationCount())
+        .durationMin(a.getDurationMin() == null ? b.getDurationMin()
+            : b.getDurationMin() == null ? a.getDurationMin()
+                : Math.min(a.getDurationMin(), b.getDurationMin()))
+        .durationMax(a.getDurationMax() == null ? b.getDurationMax()
+            : b.getDurationMax() == null ? a.getDurationMax()
+                : Math.max(a.getDurationMax(), b.getDurationMax()))
+        .build();
+  }
+
+  /**
+   * 롤업에서 정답률, 배점 평균 계산에 쓰는 집계를 추출
+   *
+   * @param rollup 롤업, 없으면 null
+   * @return ProblemDto.AnswerStats, rollup이 null이면 빈 집계
+   */
+  static ProblemDto.AnswerStats answerStats(ProblemDto.Rollup rollup) {
+
+    if (rollup == null) {
+      return ProblemDto.AnswerStats.builder().build();
+    }
+
+    return ProblemDto.AnswerStats.builder()
+        .totalCount(rollup.getTotalCount())
+        .correctCount(rollup.getCorrectCount())
+        .dsscValueSum(rollup.getDsscValueSum())
+        .dsscValueCount(rollup.getDsscValueCount())
+        .build();
+  }
+
+  private static ProblemDto.Rollup empty(ProblemDto.Rollup rollup) {
+    return ProblemDto.Rollup.builder().scope(rollup.getScope()).key(rollup.getKey()).build();
+  }
+
+  private static boolean sameCounts(ProblemDto.Rollup a, ProblemDto.Rollup b) {
+    return a.getTotalCount() == b.getTotalCount()
+        && a.getCorrectCount() == b.getCorrectCount()
+        && a.getDsscValueSum() == b.getDsscValueSum()
+        && a.getDsscValueCount() == b.getDsscValueCount()
+        && a.getDurationSum() == b.getDurationSum()
+        && a.getDurationCount() == b.getDurationCount()
+        && Objects.equals(a.getDurationMin(), b.getDurationMin())
+        && Objects.equals(a.getDurationMax(), b.getDurationMax());
+  }
+
+  /**
+   * problem-rollups Index 매핑
+   *
+   * <p>롤업은 Document ID로만 조회하므로 scope만 색인하고 나머지 필드는 _source에서 읽음</p>
+   *
+   * @return TypeMapping
+   */
+  static TypeMapping rollupIndexMappings() {
+    return TypeMapping.of(m -> m
+        .dynamic(DynamicMapping.Strict)
+        .properties("scope", p -> p.keyword(k -> k))
+        .properties("key", p -> p.keyword(k -> k.index(false)))
+        .properties("totalCount", p -> p.long_(l -> l.index(false)))
+        .properties("correctCount", p -> p.long_(l -> l.index(false)))
+        .properties("dsscValueSum", p -> p.long_(l -> l.index(false)))
+        .properties("dsscValueCount", p -> p.long_(l -> l.index(false)))
+        .properties("durationSum", p -> p.long_(l -> l.index(false)))
+        .properties("durationCount", p -> p.long_(l -> l.index(false)))
+        .properties("durationMin", p -> p.long_(l -> l.index(false)))
+        .properties("durationMax", p -> p.long_(l -> l.index(false)))
+    );
+  }
+
+  /**
+   * 모아둔 증분을 롤업 Document에 반영하는 요청 생성
+   *
+   * <p>Document가 있으면 INCREMENT_SCRIPT로 증분을 더하고, 없으면 증분을 그대로 저장(upsert)</p>
+   *
+   * <p>Request Body</p>
+   * <p>curl -X POST http://localhost:9200/_bulk
+   * -d '{"update":{"_id":"student_STU0000001","_index":"problem-rollups","retry_on_conflict":3}}
+   * {"script":{"source":"...","params":{"totalCount":2,...}},"upsert":{"scope":"student",...}}'</p>
+   *
+   * @param increments      롤업 Document ID별 증분
+   * @param indexName       롤업 Index
+   * @param retryOnConflict 버전 충돌 시 다시 시도하는 횟수
+   * @return BulkRequest
+   */
+  static BulkRequest incrementRequest(Map<String, ProblemDto.Rollup> increments,
+      String indexName, int retryOnConflict) {
+
+    List<BulkOperation> operations = new ArrayList<>(increments.size());
+    increments.forEach((id, increment) -> {
+      Map<String, JsonData> params = new LinkedHashMap<>();
+      params.put("totalCount", JsonData.of(increment.getTotalCount()));
+      params.put("correctCount", JsonData.of(increment.getCorrectCount()));
+      params.put("dsscValueSum", JsonData.of(increment.getDsscValueSum()));
+      params.put("dsscValueCount", JsonData.of(increment.getDsscValueCount()));
+      params.put("durationSum", JsonData.of(increment.getDurationSum()));
+      params.put("durationCount", JsonData.of(increment.getDurationCount()));
+      if (increment.getDurationMin() != null) {
+        params.put("durationMin", JsonData.of(increment.getDurationMin()));
+        params.put("durationMax", JsonData.of(increment.getDurationMax()));
+      }
+
+      operations.add(BulkOperation.of(op -> op
+          .update(u -> u
+              .index(indexName)
+              .id(id)
+              .retryOnConflict(retryOnConflict)
+              .script(Script.of(s -> s.inline(i -> i
+                  .lang("painless")
+                  .source(INCREMENT_SCRIPT)
+                  .params(params))))
+              .upsert(increment))));
+    });
+
+    return BulkRequest.of(b -> b.operations(operations));
+  }
+
+  /**
+   * 다시 계산한 롤업으로 롤업 Document를 덮어쓰는 요청 생성
+   *
+   * @param rollups   다시 계산한 롤업
+   * @param indexName 롤업 Index
+   * @return BulkRequest
+   */
+  static BulkRequest rebuildRequest(List<ProblemDto.Rollup> rollups, String indexName) {
+
+    List<BulkOperation> operations = new ArrayList<>(rollups.size());
+    for (ProblemDto.Rollup rollup : rollups) {
+      operations.add(BulkOperation.of(op -> op
+          .index(idx -> idx
+              .index(indexName)
+              .id(id(rollup.getScope(), rollup.getKey()))
+              .document(rollup))));
+    }
+
+    return BulkRequest.of(b -> b.operations(operations));
+  }
+
+  /**
+   * 롤업 계산에 필요한 집계 생성
+   *
+   * <p>정답률 조회와 같은 집계에 풀이 시간 통계를 더함</p>
+   *
+   * @return 집계 이름별 Aggregation
+   */
+  static Map<String, Aggregation> rollupAggregations() {
+
+    Map<String, Aggregation> aggregations = new HashMap<>(
+        ProblemService.correctTrueRateAggregations());
+    aggregations.put("durationMs_stats", Aggregation.of(a -> a
+        .stats(st -> st
+            .field("durationMs"))));
+
+    return aggregations;
+  }
+
+  /**
+   * 집계 결과를 롤업으로 변환
+   *
+   * @param scope        student, study, all
+   * @param key          학생 아이디 또는 학습 아이디, all이면 null
+   * @param aggregations rollupAggregations()의 결과
+   * @return ProblemDto.Rollup
+   */
+  static ProblemDto.Rollup rollup(String scope, String key, Map<String, Aggregate> aggregations) {
+
+    ProblemDto.AnswerStats answerStats = ProblemService.answerStats(aggregations);
+    ProblemDto.Rollup.RollupBuilder builder = ProblemDto.Rollup.builder()
+        .scope(scope)
+        .key(key)
+        .totalCount(answerStats.getTotalCount())
+        .correctCount(answerStats.getCorrectCount())
+        .dsscValueSum(Math.round(answerStats.getDsscValueSum()))
+        .dsscValueCount(answerStats.getDsscValueCount());
+
+    Aggregate duration = aggregations.get("durationMs_stats");
+    if (duration != null && duration.stats().count() > 0) {
+      StatsAggregate stats = duration.stats();
+      builder.durationSum(Math.round(stats.sum()))
+          .durationCount(stats.count())
+          .durationMin(Math.round(stats.min()))
+          .durationMax(Math.round(stats.max()));
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * 재구성 집계에 사용하는 point in time
+   *
+   * @param pitId point in time ID
+   * @return Pit, 검색할 때마다 REBUILD_KEEP_ALIVE만큼 연장
+   */
+  static Pit rebuildPit(String pitId) {
+    return Pit.of(p -> p.id(pitId).keepAlive(REBUILD_KEEP_ALIVE));
+  }
+
+  /**
+   * 학생(학습) 수를 조회하는 요청 생성
+   *
+   * @param field studentId 또는 studyId
+   * @param pitId 재구성 집계에 사용하는 point in time ID
+   * @return SearchRequest
+   */
+  static SearchRequest cardinalityRequest(String field, String pitId) {
+    return SearchRequest.of(req -> req
+        .pit(rebuildPit(pitId))
+        .aggregations("keys", Aggregation.of(a -> a
+            .cardinality(c -> c.field(field))))
+        .size(0)
+    );
+  }
+
+  /**
+   * 재구성할 파티션 하나의 학생(학습)별 롤업 집계 요청 생성
+   *
+   * <p>파티션은 값의 해시로 나뉘므로 파티션 크기의 두 배까지 버킷을 받고, 넘치면(sum_other_doc_count)
+   * 재구성을 실패로 처리</p>
+   *
+   * @param field      studentId 또는 studyId
+   * @param partition  파티션 번호
+   * @param partitions 파티션 수
+   * @param pitId      재구성 집계에 사용하는 point in time ID
+   * @return SearchRequest
+   */
+  static SearchRequest partitionRequest(String field, int partition, int partitions,
+      String pitId) {
+    return SearchRequest.of(req -> req
+        .pit(rebuildPit(pitId))
+        .aggregations("keys", Aggregation.of(a -> a
+            .terms(t -> t
+                .field(field)
+                .size(REBUILD_PARTITION_SIZE * 2)
+                .include(i -> i.partition(p -> p
+                    .partition(partition)
+                    .numPartitions(partitions))))
+            .aggregations(rollupAggregations())))
+        .size(0)
+    );
+  }
+
+  /**
+   * 전체 롤업 집계 요청 생성
+   *
+   * @param pitId 재구성 집계에 사용하는 point in time ID
+   * @return SearchRequest
+   */
+  static SearchRequest allRollupRequest(String pitId) {
+    return SearchRequest.of(req -> req
+        .pit(rebuildPit(pitId))
+        .aggregations(rollupAggregations())
+        .size(0)
+    );
+  }
+
+  /**
+   * 재구성 중에 기록된 풀이 내용 중 재구성 집계에 포함된 Document ID를 조회하는 요청 생성
+   *
+   * @param pitId 재구성 집계에 사용한 point in time ID
+   * @param ids   재구성 중에 기록된 Document ID
+   * @return SearchRequest
+   */
+  static SearchRequest includedIdsRequest(String pitId, List<String> ids) {
+    return SearchRequest.of(req -> req
+        .pit(rebuildPit(pitId))
+        .query(q -> q
+            .ids(i -> i.values(ids)))
+        .source(src -> src.fetch(false))
+        .size(ids.size())
+    );
+  }
+
+  /**
+   * 비교할 학생, 학습 롤업을 임의로 고르는 요청 생성
+   *
+   * @param indexName  롤업 Index
+   * @param sampleSize 고를 롤업 수
+   * @return SearchRequest
+   */
+  static SearchRequest sampleRequest(String indexName, int sampleSize) {
+    return SearchRequest.of(req -> req
+        .index(indexName)
+        .query(q -> q
+            .functionScore(fs -> fs
+                .query(fq -> fq
+                    .terms(t -> t
+                        .field("scope")
+                        .terms(tv -> tv.value(List.of(FieldValue.of(STUDENT_SCOPE),
+                            FieldValue.of(STUDY_SCOPE))))))
+                .functions(f -> f.randomScore(r -> r))))
+        .size(sampleSize)
+    );
+  }
+
+  /**
+   * 고른 학생, 학습과 전체의 롤업을 문항 풀이 내용에서 집계하는 요청 생성
+   *
+   * @param studentIds 학생 아이디 목록
+   * @param studyIds   학습 아이디 목록
+   * @return SearchRequest
+   */
+  static SearchRequest expectedRollupsRequest(List<String> studentIds, List<String> studyIds) {
+
+    Map<String, Aggregation> aggregations = rollupAggregations();
+    aggregations.put(STUDENT_SCOPE, scopeAggregation("studentId", studentIds));
+    aggregations.put(STUDY_SCOPE, scopeAggregation("studyId", studyIds));
+
+    return SearchRequest.of(req -> req
+        .index(ProblemIndexPartitions.INDEX_PATTERN)
+        .ignoreUnavailable(true)
+        .allowNoIndices(true)
+        .aggregations(aggregations)
+        .size(0)
+    );
+  }
+
+  private static Aggregation scopeAggregation(String field, List<String> keys) {
+    return Aggregation.of(a -> a
+        .filter(f -> f
+            .terms(t -> t
+                .field(field)
+                .terms(tv -> tv.value(keys.stream().map(FieldValue::of).toList()))))
+        .aggregations("keys", Aggregation.of(ka -> ka
+            .terms(t -> t
+                .field(field)
+                .size(Math.max(1, keys.size())))
+            .aggregations(rollupAggregations()))));
+  }
+
+  private void bindMetrics(MeterRegistry meterRegistry) {
+    Gauge.builder("opensearch.rollup.pending", pending, Map::size)
+        .description("Rollup documents with increments waiting to be flushed")
+        .register(meterRegistry);
+    FunctionCounter.builder("opensearch.rollup.flushed", flushedCount, AtomicLong::get)
+        .register(meterRegistry);
+    FunctionCounter.builder("opensearch.rollup.dropped", droppedCount, AtomicLong::get)
+        .register(meterRegistry);
+  }
+}
@@ -1,52 +1,169 @@
 package com.example.opensearch.sample.service;
 
+import com.example.opensearch.common.bulk.BulkIngester;
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.common.reindex.ReindexJob;
+import com.example.opensearch.config.MetricsConfig;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.config.resilience.TransientFailures;
 import com.example.opensearch.sample.service.dto.ProblemDto;
+import io.micrometer.core.annotation.Timed;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
+import org.opensearch.client.json.JsonData;
 import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.Script;
+import org.opensearch.client.opensearch._types.aggregations.Aggregate;
 import org.opensearch.client.opensearch._types.aggregations.Aggregation;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregate;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregationSource;
+import org.opensearch.client.opensearch._types.aggregations.CompositeBucket;
+import org.opensearch.client.opensearch._types.aggregations.StatsAggregate;
+import org.opensearch.client.opensearch._types.aggregations.StringTermsBucket;
+import org.opensearch.client.opensearch._types.mapping.DynamicMapping;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
 import org.opensearch.client.opensearch.core.IndexRequest;
 import org.opensearch.client.opensearch.core.IndexResponse;
+import org.opensearch.client.opensearch.core.MsearchRequest;
+import org.opensearch.client.opensearch.core.MsearchResponse;
 import org.opensearch.client.opensearch.core.SearchRequest;
 import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.core.msearch.MultiSearchResponseItem;
+import org.opensearch.client.opensearch.core.msearch.RequestItem;
 import org.opensearch.client.opensearch.indices.CreateIndexRequest;
 import org.opensearch.client.opensearch.indices.CreateIndexRequest.Builder;
 import org.opensearch.client.opensearch.indices.CreateIndexResponse;
 import org.opensearch.client.opensearch.indices.DeleteIndexRequest;
 import org.opensearch.client.opensearch.indices.DeleteIndexResponse;
+import org.opensearch.client.opensearch.indices.IndexSettings;
+import org.opensearch.client.opensearch.indices.PutIndexTemplateRequest;
+import org.opensearch.client.opensearch.indices.PutIndexTemplateResponse;
+import org.opensearch.client.opensearch.indices.PutMappingRequest;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class ProblemService {
 
-  private final String INDEX_NAME = "problem-records";
+  // 모든 파티션을 가리키는 읽기 alias
+  private static final String INDEX_NAME = "problem-records";
+
+  private static final String INDEX_TEMPLATE_NAME = "problem-records-template";
+
+  private static final String STUDENT_ID_FIELD = "studentId";
+
+  private static final int HTTP_CONFLICT = 409;
+
+  // 매핑이 바뀌면 올리고, Index의 _meta.mapping_version으로 적용된 버전을 확인
+  static final int MAPPING_VERSION = 3;
+
+  // 이전 형식(ISO-8601 시각, problemEndDtm)의 Document를 epoch millis와 durationMs로 바꾸는 재색인 스크립트
+  static final String COMPACT_DOCUMENT_SCRIPT = """
+      def source = ctx._source;
+      if (source.problemStartDtm instanceof String) {
+        long start = ZonedDateTime.parse(source.problemStartDtm).toInstant().toEpochMilli();
+        source.problemStartDtm = start;
+        if (source.problemEndDtm != null) {
+          source.durationMs = ZonedDateTime.parse(source.problemEndDtm).toInstant()
+              .toEpochMilli() - start;
+        }
+      }
+      source.remove('problemEndDtm');
+      """;
+
+  // 학생별 정답률 일괄 조회 시 한 번의 검색에서 집계하는 최대 학생 수
+  static final int STUDENT_BATCH_SIZE = 1000;
 
   private final OpenSearchClient openSearchClient;
 
+  private final BulkIngester problemBulkIngester;
+
+  private final ProblemStatisticsCache problemStatisticsCache;
+
+  private final OpenSearchProperties openSearchProperties;
+
+  private final IndexReindexer indexReindexer;
+
+  private final ProblemAnswerSpool problemAnswerSpool;
+
+  private final ProblemRollups problemRollups;
+
+  /**
+   * Index 템플릿 등록
+   *
+   * <p>problem-records-* 파티션에 명시적 매핑(dynamic: strict)과 샤드, 레플리카, refresh 설정,
+   * 읽기 alias(problem-records)를 적용</p>
+   * <p>이미 만들어진 파티션에는 durationMs 필드를 추가하여 현재 형식의 Document도 저장할 수 있도록 함</p>
+   *
+   * <p>Request Body</p>
+   * <p>curl -X PUT http://localhost:9200/_index_template/problem-records-template
+   * -d '{"index_patterns":["problem-records-*"],"template":{...}}'</p>
+   *
+   * @return PutIndexTemplateResponse Index 템플릿 등록에 대한 응답을 담고 있는 객체
+   */
+  public PutIndexTemplateResponse putIndexTemplate() {
+
+    PutIndexTemplateResponse putIndexTemplateResponse = null;
+
+    try {
+      PutIndexTemplateRequest putIndexTemplateRequest = putIndexTemplateRequest(
+          openSearchProperties.getProblemIndex());
+      putIndexTemplateResponse = openSearchClient.indices()
+          .putIndexTemplate(putIndexTemplateRequest);
+      openSearchClient.indices().putMapping(partitionMappingRequest());
+    } catch (Exception e) {
+      log.error("putIndexTemplate templateName : [{}]", INDEX_TEMPLATE_NAME, e);
+    }
+
+    return putIndexTemplateResponse;
+  }
+
   /**
    * Index 생성
    *
+   * <p>Index 템플릿을 등록하고 현재 시각의 파티션을 생성, 이후 파티션은 저장 시 자동으로 생성</p>
+   *
    * <p>Request Body</p>
-   * <p>curl -X PUT http://localhost:9200/problem-records</p>
+   * <p>curl -X PUT http://localhost:9200/problem-records-yyyy.MM</p>
    *
-   * @return CreateIndexResponse Index 생성에 대한 응답을 담고 있는 객체
+   * @return CreateIndexResponse 현재 파티션 생성에 대한 응답을 담고 있는 객체
    */
   public CreateIndexResponse createIndex() {
 
     CreateIndexResponse createIndexResponse = null;
+    String indexName = ProblemIndexPartitions.partitionIndex(partitionInterval(), Instant.now());
 
     try {
 
+      putIndexTemplate();
+      problemRollups.createIndex();
       CreateIndexRequest createIndexRequest = new Builder()
-          .index(INDEX_NAME).build();
+          .index(indexName).build();
       createIndexResponse = openSearchClient.indices().create(createIndexRequest);
 
     } catch (Exception e) {
-      log.error("createIndex indexName : [{}]", INDEX_NAME, e);
+      log.error("createIndex indexName : [{}]", indexName, e);
     }
 
     return createIndexResponse;
@@ -55,8 +172,10 @@ public class ProblemService {
   /**
    * Index 삭제
    *
+   * <p>모든 파티션과 롤업 Index를 삭제하고, Index 템플릿은 남겨둠</p>
+   *
    * <p>Request Body</p>
-   * <p>curl -X DELETE http://localhost:9200/problem-records</p>
+   * <p>curl -X DELETE http://localhost:9200/problem-records-*</p>
    *
    * @return DeleteIndexResponse Index 삭제에 대한 응답을 담고 있는 객체
    */
@@ -66,143 +185,1041 @@ public class ProblemService {
 
     try {
       DeleteIndexRequest deleteIndexRequest = new DeleteIndexRequest.Builder()
-          .index(INDEX_NAME).build();
+          .index(ProblemIndexPartitions.INDEX_PATTERN).build();
       deleteIndexResponse = openSearchClient.indices().delete(deleteIndexRequest);
+      problemRollups.deleteIndex();
+      problemStatisticsCache.invalidateAll();
     } catch (Exception e) {
-      log.error("deleteIndex indexName : [{}]", INDEX_NAME, e);
+      log.error("deleteIndex indexName : [{}]", ProblemIndexPartitions.INDEX_PATTERN, e);
     }
 
     return deleteIndexResponse;
   }
 
+  /**
+   * 파티션을 현재 매핑으로 무중단 재색인
+   *
+   * <p>{파티션}.v{MAPPING_VERSION} Index를 만들어 복사한 뒤, 파티션 이름과 읽기 alias를 새 Index로 옮김</p>
+   * <p>복사 중에 저장한 문항 풀이 내용은 새 Index에도 저장</p>
+   * <p>이전 형식으로 저장된 Document는 COMPACT_DOCUMENT_SCRIPT로 현재 형식으로 바꾸어 복사</p>
+   *
+   * @param partitionIndex 재색인할 파티션 이름(예: problem-records-2024.07)
+   * @return ReindexJob 재색인 진행 상황
+   */
+  public ReindexJob reindexPartition(String partitionIndex) {
+
+    ReindexJob reindexJob = null;
+    String targetIndex = ProblemIndexPartitions.versionedIndex(partitionIndex, MAPPING_VERSION);
+
+    try {
+      reindexJob = indexReindexer.reindex(partitionIndex, targetIndex,
+          problemIndexSettings(openSearchProperties.getProblemIndex()), problemIndexMappings(),
+          Script.of(sc -> sc.inline(i -> i.lang("painless").source(COMPACT_DOCUMENT_SCRIPT))));
+    } catch (Exception e) {
+      log.error("reindexPartition partitionIndex : [{}], targetIndex : [{}]",
+          partitionIndex, targetIndex, e);
+    }
+
+    return reindexJob;
+  }
+
   /**
    * 문항 풀이 내용 저장
    *
+   * <p>problemStartDtm이 속한 파티션에 studentId로 라우팅하여 저장</p>
+   * <p>클러스터가 중단되었거나 저장 요청을 거절하면(429, 5xx, 연결 오류) ProblemAnswerSpool에 기록하고,
+   * 클러스터가 복구되면 다시 저장함. 스풀에 남은 풀이 내용이 있는 동안에는 학생별 저장 순서를 지키기 위해
+   * 새 풀이 내용도 스풀 뒤에 이어서 기록</p>
+   *
    * @param answerRequest 저장할 Document 정보를 담고 있는 ProblemDto.Answer 객체
-   * @return IndexResponse Document 저장에 대한 결과를 담고 있는 객체
+   * @return IndexResponse Document 저장에 대한 결과를 담고 있는 객체, 스풀에 기록했거나 저장하지 못했으면 null
    */
   public IndexResponse insertProblemAnswer(ProblemDto.Answer answerRequest) {
 
     IndexResponse indexResponse = null;
+    IndexRequest<ProblemDto.AnswerDocument> indexRequest = null;
 
     try {
-      IndexRequest<ProblemDto.Answer> indexRequest = new IndexRequest.Builder<ProblemDto.Answer>()
-          .index(INDEX_NAME)
-          .document(answerRequest).build();
+      // 스풀에서 다시 보낼 때도 같은 ID로 덮어쓰도록 처음 저장할 때 ID를 정함
+      indexRequest = insertProblemAnswerRequest(answerRequest, partitionInterval(),
+          UUID.randomUUID().toString());
+      if (problemAnswerSpool.pendingCount() > 0
+          && problemAnswerSpool.offer(indexRequest.id(), indexRequest.document())) {
+        return null;
+      }
       indexResponse = openSearchClient.index(indexRequest);
+      problemStatisticsCache.record(answerRequest);
+      problemRollups.record(indexResponse.id(), indexRequest.document());
+      indexReindexer.mirror(indexResponse.index(), indexResponse.id(),
+          answerRequest.getStudentId(), indexResponse.version(), indexRequest.document());
     } catch (Exception e) {
-      log.error("insertProblemAnswer indexName : [{}], answerRequest : [{}]"
-          , INDEX_NAME, answerRequest.toString(), e);
+      if (indexResponse == null && indexRequest != null && TransientFailures.isTransient(e)
+          && problemAnswerSpool.offer(indexRequest.id(), indexRequest.document())) {
+        log.warn("insertProblemAnswer spooled studentId : [{}], problemNo : [{}], cause : [{}]",
+            answerRequest.getStudentId(), answerRequest.getProblemNo(), e.toString());
+      } else {
+        log.error("insertProblemAnswer indexName : [{}], studentId : [{}], problemNo : [{}]"
+            , INDEX_NAME, answerRequest.getStudentId(), answerRequest.getProblemNo(), e);
+      }
     }
 
     return indexResponse;
   }
 
+  /**
+   * 문항 풀이 내용 Bulk 저장
+   *
+   * <p>문항 풀이 내용을 BulkIngester의 버퍼에 추가하고, 버퍼가 전송된 후 결과를 반환</p>
+   * <p>저장에 성공하면 ProblemStatisticsCache의 집계와 ProblemRollups에 반영</p>
+   *
+   * @param answerRequest 저장할 Document 정보를 담고 있는 ProblemDto.Answer 객체
+   * @return CompletableFuture Document 저장에 대한 결과를 담고 있는 객체
+   */
+  public CompletableFuture<BulkResponseItem> bulkInsertProblemAnswer(
+      ProblemDto.Answer answerRequest) {
+
+    BulkOperation bulkOperation;
+    ProblemDto.AnswerDocument answerDocument;
+    try {
+      answerDocument = answerDocument(answerRequest);
+      bulkOperation = BulkOperation.of(op -> op
+          .index(idx -> idx
+              .index(ProblemIndexPartitions.partitionIndex(partitionInterval(),
+                  answerDocument.getProblemStartDtm()))
+              .routing(answerRequest.getStudentId())
+              .document(answerDocument)));
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    return problemBulkIngester.add(bulkOperation)
+        .thenApply(bulkResponseItem -> {
+          problemStatisticsCache.record(answerRequest);
+          problemRollups.record(bulkResponseItem.id(), answerDocument);
+          if (bulkResponseItem.version() != null) {
+            indexReindexer.mirror(bulkResponseItem.index(), bulkResponseItem.id(),
+                answerRequest.getStudentId(), bulkResponseItem.version(), answerDocument);
+          }
+          return bulkResponseItem;
+        });
+  }
+
+  /**
+   * 답안지 저장
+   *
+   * <p>답안지의 문항별 풀이 내용을 하나의 _bulk 요청으로 저장. Document ID는
+   * {studyId}_{studyStructureId}_{studentId}_{problemNo}이고 op_type은 create이므로 같은 답안지를
+   * 다시 보내도 이미 저장된 문항은 409로 거절되어 중복 저장되지 않음</p>
+   * <p>i번째 문항의 풀이 시작 시각은 startInstant + i * duration, 풀이 시간은 duration</p>
+   * <p>새로 저장된 문항만 ProblemStatisticsCache의 집계와 ProblemRollups에 반영</p>
+   *
+   * <p>Request Body</p>
+   * <p>curl -X POST http://localhost:9200/_bulk
+   * -d '{"create":{"_index":"problem-records-yyyy.MM","_id":"1_10_STU0000001_1","routing":"STU0000001"}}
+   * {"studyId":1,"studyStructureId":10,"studentId":"STU0000001","problemNo":1,...}'</p>
+   *
+   * @param studentId          학생 아이디
+   * @param studentAnswerSheet 저장할 답안지
+   * @return ProblemDto.AnswerSheetResult 문항별 저장 결과, _bulk 요청이 실패하면 null
+   * @throws IllegalArgumentException 답안지의 문항 수와 정답 여부, 배점 수가 다르거나 시작 시각이 없는 경우
+   */
+  public ProblemDto.AnswerSheetResult insertAnswerSheet(String studentId,
+      ProblemDto.StudentAnswerSheet studentAnswerSheet) {
+
+    List<ProblemDto.AnswerDocument> answerDocuments = answerSheetDocuments(studentId,
+        studentAnswerSheet);
+    if (answerDocuments.isEmpty()) {
+      return ProblemDto.AnswerSheetResult.builder()
+          .studentId(studentId).failedProblemNos(List.of()).build();
+    }
+
+    ProblemDto.AnswerSheetResult answerSheetResult = null;
+
+    try {
+      BulkResponse bulkResponse = openSearchClient.bulk(
+          insertAnswerSheetRequest(answerDocuments, partitionInterval()));
+
+      int created = 0;
+      int duplicated = 0;
+      List<Long> failedProblemNos = new ArrayList<>();
+      List<BulkResponseItem> items = bulkResponse.items();
+      for (int i = 0; i < items.size(); i++) {
+        BulkResponseItem item = items.get(i);
+        ProblemDto.AnswerDocument answerDocument = answerDocuments.get(i);
+        if (item.error() == null) {
+          created++;
+          problemStatisticsCache.record(answerDocument);
+          problemRollups.record(item.id(), answerDocument);
+          if (item.version() != null) {
+            indexReindexer.mirror(item.index(), item.id(), studentId, item.version(),
+                answerDocument);
+          }
+        } else if (item.status() == HTTP_CONFLICT) {
+          duplicated++;
+        } else {
+          failedProblemNos.add(answerDocument.getProblemNo().longValue());
+          log.error("insertAnswerSheet indexName : [{}], id : [{}], error : [{}]",
+              item.index(), item.id(), item.error().reason());
+        }
+      }
+
+      answerSheetResult = ProblemDto.AnswerSheetResult.builder()
+          .studentId(studentId)
+          .created(created)
+          .duplicated(duplicated)
+          .failedProblemNos(failedProblemNos)
+          .build();
+    } catch (Exception e) {
+      log.error("insertAnswerSheet indexName : [{}], studentId : [{}], studyId : [{}]"
+          , INDEX_NAME, studentId, studentAnswerSheet.getStudyId(), e);
+    }
+
+    return answerSheetResult;
+  }
+
   /**
    * 배점 평균를 조회
    *
+   * <p>ProblemStatisticsCache에 집계가 있으면 OpenSearch에 조회하지 않음.
+   * 롤업이 재구성되어 있으면 전체 롤업 Document 하나를 조회하고, 아니면 모든 파티션을 집계</p>
+   *
    * @return 배점 평균
    */
   public double getAvgDsscValue() {
 
     double avgDsscValue = 0L;
 
-    SearchRequest searchRequest = SearchRequest.of(req -> req
-        .index(INDEX_NAME)
-        .aggregations(
-            "avg_dsscValue",
-            Aggregation.of(aggr -> aggr
-                .avg(avg -> avg
-                    .field("dsscValue"))
-            )
-        )
-        .size(0)
-    );
+    try {
+      ProblemDto.AnswerStats answerStats = problemStatisticsCache.get(
+          ProblemStatisticsCache.ALL_STUDENTS, this::loadAvgDsscValueStats);
+      avgDsscValue = avgDsscValue(answerStats);
+    } catch (Exception e) {
+      log.error("getAvgDsscValue", e);
+    }
+
+    return avgDsscValue;
+  }
+
+  /**
+   * 정답률를 조회
+   *
+   * <p>ProblemStatisticsCache에 학생의 집계가 있으면 OpenSearch에 조회하지 않음.
+   * 롤업이 재구성되어 있으면 학생의 롤업 Document 하나를 조회하고, 아니면 학생의 풀이 내용을 집계</p>
+   *
+   * @param studentId 학생 아이디
+   * @return 정답률
+   */
+  public double getCorrectTrueRate(String studentId) {
+
+    double correctRate = 0.0;
 
     try {
+      ProblemDto.AnswerStats answerStats = problemStatisticsCache.get(
+          studentId, () -> loadCorrectTrueRateStats(studentId));
+      correctRate = correctTrueRate(answerStats);
+    } catch (Exception e) {
+      log.error("getCorrectTrueRate studentId : [{}]", studentId, e);
+    }
 
-      SearchResponse<ProblemDto.Aggregation> searchResponse =
-          openSearchClient.search(searchRequest, ProblemDto.Aggregation.class);
-      log.debug("searchResponse : {}", searchResponse);
+    return correctRate;
+  }
 
-      if (ObjectUtils.isNotEmpty(searchResponse) &&
-          !searchResponse.aggregations().isEmpty()) {
-        avgDsscValue = searchResponse.aggregations().get("avg_dsscValue").avg().value();
-        log.debug("avgDsscValue : {}", avgDsscValue);
-      }
+  /**
+   * 기간 내 배점 평균를 조회
+   *
+   * <p>기간에 걸친 파티션만 조회하며, 결과는 캐시하지 않음</p>
+   *
+   * @param from 문항 풀이 시작 시각의 시작(포함)
+   * @param to   문항 풀이 시작 시각의 끝(미포함)
+   * @return 배점 평균
+   */
+  public double getAvgDsscValue(Instant from, Instant to) {
 
+    double avgDsscValue = 0L;
+
+    try {
+      SearchRequest searchRequest = avgDsscValueRequest(
+          partitionIndices(from, to), from, to);
+      avgDsscValue = avgDsscValue(searchAnswerStats(searchRequest));
     } catch (Exception e) {
-      log.error("getAvgDsscValue searchRequest : {}", searchRequest, e);
+      log.error("getAvgDsscValue from : [{}], to : [{}]", from, to, e);
     }
 
     return avgDsscValue;
   }
 
   /**
-   * 정답률를 조회
+   * 기간 내 정답률를 조회
+   *
+   * <p>기간에 걸친 파티션만 조회하며, 결과는 캐시하지 않음</p>
    *
    * @param studentId 학생 아이디
+   * @param from      문항 풀이 시작 시각의 시작(포함)
+   * @param to        문항 풀이 시작 시각의 끝(미포함)
    * @return 정답률
    */
-  public double getCorrectTrueRate(String studentId) {
+  public double getCorrectTrueRate(String studentId, Instant from, Instant to) {
 
     double correctRate = 0.0;
-    double correctTotalCount;
-    double correctTrueCount;
 
-    SearchRequest searchRequest = SearchRequest.of(req -> req
+    try {
+      SearchRequest searchRequest = correctTrueRateRequest(
+          partitionIndices(from, to), studentId, from, to);
+      correctRate = correctTrueRate(searchAnswerStats(searchRequest));
+    } catch (Exception e) {
+      log.error("getCorrectTrueRate studentId : [{}], from : [{}], to : [{}]",
+          studentId, from, to, e);
+    }
+
+    return correctRate;
+  }
+
+  /**
+   * 여러 학생의 정답률, 풀이 수, 배점 평균을 일괄 조회
+   *
+   * <p>ProblemStatisticsCache에 없는 학생만 STUDENT_BATCH_SIZE명씩 나누어 terms 집계로 조회하고,
+   * 나누어진 검색은 모두 하나의 _msearch 요청으로 전송. 롤업이 재구성되어 있으면 하나의 _mget 요청으로
+   * 학생별 롤업 Document를 조회</p>
+   * <p>풀이 내용이 없는 학생은 getCorrectTrueRate(studentId)와 같이 빈 집계로 계산</p>
+   *
+   * @param studentIds 학생 아이디 목록
+   * @return 학생 아이디별 ProblemDto.StudentStatistics, studentIds의 순서를 유지
+   */
+  public Map<String, ProblemDto.StudentStatistics> getCorrectTrueRates(
+      Collection<String> studentIds) {
+
+    Map<String, ProblemDto.AnswerStats> answerStatsMap = new LinkedHashMap<>();
+    List<String> missingStudentIds = new ArrayList<>();
+
+    for (String studentId : new LinkedHashSet<>(studentIds)) {
+      ProblemDto.AnswerStats cached = problemStatisticsCache.getIfPresent(studentId);
+      answerStatsMap.put(studentId, cached);
+      if (cached == null) {
+        missingStudentIds.add(studentId);
+      }
+    }
+
+    try {
+      if (!missingStudentIds.isEmpty()) {
+        Map<String, ProblemDto.AnswerStats> searched = problemRollups.isReady()
+            ? problemRollups.studentStats(missingStudentIds)
+            : searchCorrectTrueRateStats(missingStudentIds);
+        for (String studentId : missingStudentIds) {
+          ProblemDto.AnswerStats answerStats = searched.getOrDefault(studentId,
+              ProblemDto.AnswerStats.builder().build());
+          answerStatsMap.put(studentId, answerStats);
+          problemStatisticsCache.put(studentId, answerStats);
+        }
+      }
+    } catch (Exception e) {
+      log.error("getCorrectTrueRates studentIds.size() : [{}]", studentIds.size(), e);
+      return Map.of();
+    }
+
+    Map<String, ProblemDto.StudentStatistics> studentStatisticsMap = new LinkedHashMap<>();
+    answerStatsMap.forEach((studentId, answerStats) ->
+        studentStatisticsMap.put(studentId, studentStatistics(studentId, answerStats)));
+
+    return studentStatisticsMap;
+  }
+
+  /**
+   * 학습에 참여한 모든 학생의 정답률, 풀이 수, 배점 평균을 일괄 조회
+   *
+   * <p>composite 집계로 STUDENT_BATCH_SIZE명씩 after_key를 이어가며 조회</p>
+   *
+   * @param studyId 학습 아이디
+   * @return 학생 아이디별 ProblemDto.StudentStatistics, 학생 아이디 순으로 정렬
+   */
+  public Map<String, ProblemDto.StudentStatistics> getCorrectTrueRatesByStudyId(Long studyId) {
+
+    Map<String, ProblemDto.StudentStatistics> studentStatisticsMap = new LinkedHashMap<>();
+
+    try {
+      Map<String, String> afterKey = null;
+      do {
+        SearchRequest searchRequest = correctTrueRatesByStudyIdRequest(studyId, afterKey);
+        SearchResponse<ProblemDto.Aggregation> searchResponse =
+            openSearchClient.search(searchRequest, ProblemDto.Aggregation.class);
+        log.debug("searchResponse : {}", searchResponse);
+
+        CompositeAggregate composite = searchResponse.aggregations().get("students").composite();
+        for (CompositeBucket bucket : composite.buckets().array()) {
+          String studentId = bucket.key().get("studentId").to(String.class);
+          studentStatisticsMap.put(studentId,
+              studentStatistics(studentId, answerStats(bucket.aggregations())));
+        }
+
+        afterKey = composite.buckets().array().size() < STUDENT_BATCH_SIZE
+            || composite.afterKey() == null || composite.afterKey().isEmpty()
+            ? null
+            : composite.afterKey().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                    entry -> entry.getValue().to(String.class)));
+      } while (afterKey != null);
+    } catch (Exception e) {
+      log.error("getCorrectTrueRatesByStudyId studyId : [{}]", studyId, e);
+    }
+
+    return studentStatisticsMap;
+  }
+
+  /**
+   * 문항 풀이 내용에서 학생별, 학습별, 전체 롤업을 다시 계산
+   *
+   * <p>처음 재구성이 끝나면 getAvgDsscValue(), getCorrectTrueRate()가 롤업을 조회함</p>
+   *
+   * @return ProblemDto.RollupRebuild 재구성한 롤업 수, 실패하면 null
+   */
+  public ProblemDto.RollupRebuild rebuildRollups() {
+
+    ProblemDto.RollupRebuild rollupRebuild = null;
+
+    try {
+      rollupRebuild = problemRollups.rebuild();
+      problemStatisticsCache.invalidateAll();
+    } catch (Exception e) {
+      log.error("rebuildRollups", e);
+    }
+
+    return rollupRebuild;
+  }
+
+  /**
+   * 임의로 고른 롤업을 문항 풀이 내용 집계와 비교
+   *
+   * @param sampleSize 비교할 학생, 학습 롤업 수
+   * @param repair     true이면 일치하지 않는 롤업을 집계 결과로 덮어씀
+   * @return ProblemDto.RollupConsistency 비교 결과, 실패하면 null
+   */
+  public ProblemDto.RollupConsistency checkRollups(int sampleSize, boolean repair) {
+
+    ProblemDto.RollupConsistency rollupConsistency = null;
+
+    try {
+      rollupConsistency = problemRollups.checkConsistency(sampleSize, repair);
+      if (rollupConsistency.getRepaired() > 0) {
+        problemStatisticsCache.invalidateAll();
+      }
+    } catch (Exception e) {
+      log.error("checkRollups sampleSize : [{}], repair : [{}]", sampleSize, repair, e);
+    }
+
+    return rollupConsistency;
+  }
+
+  private ProblemDto.AnswerStats loadAvgDsscValueStats() throws IOException {
+    return problemRollups.isReady()
+        ? problemRollups.totalStats()
+        : searchAnswerStats(avgDsscValueRequest());
+  }
+
+  private ProblemDto.AnswerStats loadCorrectTrueRateStats(String studentId)
+      throws IOException {
+    return problemRollups.isReady()
+        ? problemRollups.studentStats(studentId)
+        : searchAnswerStats(correctTrueRateRequest(studentId));
+  }
+
+  private ProblemDto.AnswerStats searchAnswerStats(SearchRequest searchRequest)
+      throws IOException {
+
+    SearchResponse<ProblemDto.Aggregation> searchResponse =
+        openSearchClient.search(searchRequest, ProblemDto.Aggregation.class);
+    log.debug("searchResponse : {}", searchResponse);
+
+    return answerStats(searchResponse);
+  }
+
+  private Map<String, ProblemDto.AnswerStats> searchCorrectTrueRateStats(
+      List<String> studentIds) throws IOException {
+
+    MsearchRequest msearchRequest = correctTrueRatesRequest(studentIds);
+    MsearchResponse<ProblemDto.Aggregation> msearchResponse =
+        openSearchClient.msearch(msearchRequest, ProblemDto.Aggregation.class);
+
+    Map<String, ProblemDto.AnswerStats> answerStatsMap = new HashMap<>();
+    for (MultiSearchResponseItem<ProblemDto.Aggregation> item : msearchResponse.responses()) {
+      if (!item.isResult()) {
+        throw new IllegalStateException(
+            "msearch failure : " + item.failure().error().reason());
+      }
+      Aggregate students = item.result().aggregations().get("students");
+      for (StringTermsBucket bucket : students.sterms().buckets().array()) {
+        answerStatsMap.put(bucket.key(), answerStats(bucket.aggregations()));
+      }
+    }
+
+    return answerStatsMap;
+  }
+
+  private OpenSearchProperties.PartitionInterval partitionInterval() {
+    return openSearchProperties.getProblemIndex().getPartitionInterval();
+  }
+
+  /**
+   * 기간에 걸친 파티션 목록, 파티션이 너무 많으면 읽기 alias
+   */
+  private List<String> partitionIndices(Instant from, Instant to) {
+    List<String> indices = ProblemIndexPartitions.partitionIndices(partitionInterval(), from, to);
+    return indices.isEmpty() ? List.of(INDEX_NAME) : indices;
+  }
+
+  /**
+   * Index 템플릿 등록 요청 생성
+   *
+   * @param problemIndex problem-records Index 설정
+   * @return PutIndexTemplateRequest
+   */
+  static PutIndexTemplateRequest putIndexTemplateRequest(
+      OpenSearchProperties.ProblemIndex problemIndex) {
+    return PutIndexTemplateRequest.of(t -> t
+        .name(INDEX_TEMPLATE_NAME)
+        .indexPatterns(ProblemIndexPartitions.INDEX_PATTERN)
+        .version((long) MAPPING_VERSION)
+        .template(tm -> tm
+            .settings(problemIndexSettings(problemIndex))
+            .mappings(problemIndexMappings())
+            .aliases(INDEX_NAME, a -> a)
+        )
+    );
+  }
+
+  /**
+   * problem-records Index 설정
+   *
+   * @param problemIndex problem-records Index 설정
+   * @return IndexSettings
+   */
+  static IndexSettings problemIndexSettings(OpenSearchProperties.ProblemIndex problemIndex) {
+    return IndexSettings.of(s -> s
+        .numberOfShards(String.valueOf(problemIndex.getNumberOfShards()))
+        .numberOfReplicas(String.valueOf(problemIndex.getNumberOfReplicas()))
+        .refreshInterval(t -> t
+            .time(problemIndex.getRefreshInterval().toMillis() + "ms"))
+    );
+  }
+
+  /**
+   * problem-records Index 매핑
+   *
+   * <p>studentId는 term 필터와 집계에만 사용하므로 keyword, 시각은 epoch millis date로 저장하고
+   * 정의되지 않은 필드가 들어오면 저장을 거부</p>
+   * <p>조회 조건으로 쓰지 않는 필드는 index: false로 역색인을 만들지 않으며, 집계에 쓰는 필드는
+   * doc_values를 남김. studyStructureId, problemNo는 _source에서만 읽으므로 doc_values도 만들지 않음</p>
+   * <p>학생의 문항 풀이 내용이 한 샤드에 모이도록 studentId로 라우팅하며,
+   * 라우팅 값이 없는 저장은 거부</p>
+   *
+   * @return TypeMapping
+   */
+  static TypeMapping problemIndexMappings() {
+    return TypeMapping.of(m -> m
+        .dynamic(DynamicMapping.Strict)
+        .routing(r -> r.required(true))
+        .meta("mapping_version", JsonData.of(MAPPING_VERSION))
+        .properties("studyId", p -> p.long_(l -> l))
+        .properties("studyStructureId", p -> p.long_(l -> l.index(false).docValues(false)))
+        .properties(STUDENT_ID_FIELD, p -> p.keyword(k -> k))
+        .properties("problemNo", p -> p.integer(i -> i.index(false).docValues(false)))
+        .properties("correctYn", p -> p.boolean_(b -> b))
+        .properties("problemStartDtm", p -> p.date(d -> d
+            .format("epoch_millis||strict_date_optional_time")))
+        .properties("durationMs", p -> p.long_(l -> l.index(false)))
+        .properties("dsscValue", p -> p.integer(i -> i.index(false)))
+    );
+  }
+
+  /**
+   * 이미 만들어진 파티션에 현재 형식에서 추가된 필드의 매핑을 추가하는 요청 생성
+   *
+   * <p>이전 매핑의 파티션에도 현재 형식의 Document를 저장할 수 있도록 durationMs를 추가.
+   * problemStartDtm은 이전 매핑에서도 epoch_millis를 받음</p>
+   *
+   * @return PutMappingRequest
+   */
+  static PutMappingRequest partitionMappingRequest() {
+    return PutMappingRequest.of(m -> m
+        .index(ProblemIndexPartitions.INDEX_PATTERN)
+        .allowNoIndices(true)
+        .ignoreUnavailable(true)
+        .properties("durationMs", p -> p.long_(l -> l.index(false)))
+    );
+  }
+
+  /**
+   * 문항 풀이 내용을 저장할 Document로 변환
+   *
+   * <p>시각은 epoch millis로 바꾸고 problemEndDtm은 problemStartDtm과의 차이(durationMs)로 저장</p>
+   *
+   * @param answerRequest 문항 풀이 내용
+   * @return ProblemDto.AnswerDocument
+   */
+  static ProblemDto.AnswerDocument answerDocument(ProblemDto.Answer answerRequest) {
+
+    Long problemStartDtm = epochMillis(answerRequest.getProblemStartDtm());
+    Long problemEndDtm = epochMillis(answerRequest.getProblemEndDtm());
+
+    return ProblemDto.AnswerDocument.builder()
+        .studyId(answerRequest.getStudyId())
+        .studyStructureId(answerRequest.getStudyStructureId())
+        .studentId(answerRequest.getStudentId())
+        .problemNo(answerRequest.getProblemNo() == null ? null
+            : Math.toIntExact(answerRequest.getProblemNo()))
+        .correctYn(answerRequest.getCorrectYn())
+        .problemStartDtm(problemStartDtm)
+        .durationMs(problemStartDtm == null || problemEndDtm == null ? null
+            : problemEndDtm - problemStartDtm)
+        .dsscValue(answerRequest.getDsscValue() == null ? null
+            : Math.toIntExact(answerRequest.getDsscValue()))
+        .build();
+  }
+
+  private static Long epochMillis(String dateTime) {
+    return dateTime == null ? null : Instant.parse(dateTime).toEpochMilli();
+  }
+
+  /**
+   * 문항 풀이 내용 저장 요청 생성
+   *
+   * @param answerRequest     저장할 Document 정보를 담고 있는 ProblemDto.Answer 객체
+   * @param partitionInterval 파티션 단위
+   * @return IndexRequest
+   */
+  static IndexRequest<ProblemDto.AnswerDocument> insertProblemAnswerRequest(
+      ProblemDto.Answer answerRequest, OpenSearchProperties.PartitionInterval partitionInterval) {
+    return insertProblemAnswerRequest(answerRequest, partitionInterval, null);
+  }
+
+  /**
+   * Document ID를 지정한 문항 풀이 내용 저장 요청 생성
+   *
+   * @param answerRequest     저장할 Document 정보를 담고 있는 ProblemDto.Answer 객체
+   * @param partitionInterval 파티션 단위
+   * @param id                Document ID, null이면 OpenSearch가 생성
+   * @return IndexRequest
+   */
+  static IndexRequest<ProblemDto.AnswerDocument> insertProblemAnswerRequest(
+      ProblemDto.Answer answerRequest, OpenSearchProperties.PartitionInterval partitionInterval,
+      String id) {
+    ProblemDto.AnswerDocument answerDocument = answerDocument(answerRequest);
+    return new IndexRequest.Builder<ProblemDto.AnswerDocument>()
+        .index(ProblemIndexPartitions.partitionIndex(partitionInterval,
+            answerDocument.getProblemStartDtm()))
+        .id(id)
+        .routing(answerRequest.getStudentId())
+        .document(answerDocument).build();
+  }
+
+  /**
+   * 답안지를 문항별 Document로 펼침
+   *
+   * @param studentId          학생 아이디
+   * @param studentAnswerSheet 답안지
+   * @return 문항 순서대로의 ProblemDto.AnswerDocument 목록
+   */
+  static List<ProblemDto.AnswerDocument> answerSheetDocuments(String studentId,
+      ProblemDto.StudentAnswerSheet studentAnswerSheet) {
+
+    List<Long> problemNos = studentAnswerSheet.getProblemNos();
+    List<Boolean> correctYns = studentAnswerSheet.getCorrectYns();
+    List<Long> dsscValues = studentAnswerSheet.getDsscValues();
+    int size = problemNos == null ? 0 : problemNos.size();
+    if (size != (correctYns == null ? 0 : correctYns.size())
+        || (dsscValues != null && dsscValues.size() != size)) {
+      throw new IllegalArgumentException("problemNos, correctYns, dsscValues size mismatch");
+    }
+    if (size > 0 && studentAnswerSheet.getStartInstant() == null) {
+      // 시작 시각으로 파티션을 정하므로 없으면 다시 보낸 답안지가 다른 파티션에 저장될 수 있음
+      throw new IllegalArgumentException("startInstant is required");
+    }
+
+    List<ProblemDto.AnswerDocument> answerDocuments = new ArrayList<>(size);
+    long startMillis = size == 0 ? 0 : studentAnswerSheet.getStartInstant().toEpochMilli();
+    Long durationMs = studentAnswerSheet.getDuration() == null ? null
+        : studentAnswerSheet.getDuration().toMillis();
+
+    for (int i = 0; i < size; i++) {
+      Long dsscValue = dsscValues == null ? null : dsscValues.get(i);
+      answerDocuments.add(ProblemDto.AnswerDocument.builder()
+          .studyId(studentAnswerSheet.getStudyId())
+          .studyStructureId(studentAnswerSheet.getStudyStructureId())
+          .studentId(studentId)
+          .problemNo(Math.toIntExact(problemNos.get(i)))
+          .correctYn(correctYns.get(i))
+          .problemStartDtm(durationMs == null ? startMillis : startMillis + i * durationMs)
+          .durationMs(durationMs)
+          .dsscValue(dsscValue == null ? null : Math.toIntExact(dsscValue))
+          .build());
+    }
+
+    return answerDocuments;
+  }
+
+  /**
+   * 답안지 저장 요청 생성
+   *
+   * @param answerDocuments   문항별 Document
+   * @param partitionInterval 파티션 단위
+   * @return BulkRequest 문항별 create 요청
+   */
+  static BulkRequest insertAnswerSheetRequest(List<ProblemDto.AnswerDocument> answerDocuments,
+      OpenSearchProperties.PartitionInterval partitionInterval) {
+
+    List<BulkOperation> operations = new ArrayList<>(answerDocuments.size());
+    for (ProblemDto.AnswerDocument answerDocument : answerDocuments) {
+      operations.add(BulkOperation.of(op -> op
+          .create(c -> c
+              .index(ProblemIndexPartitions.partitionIndex(partitionInterval,
+                  answerDocument.getProblemStartDtm()))
+              .id(answerDocumentId(answerDocument))
+              .routing(answerDocument.getStudentId())
+              .document(answerDocument))));
+    }
+
+    return BulkRequest.of(b -> b.operations(operations));
+  }
+
+  /**
+   * 문항 풀이 Document ID
+   *
+   * @param answerDocument 문항 풀이 Document
+   * @return {studyId}_{studyStructureId}_{studentId}_{problemNo}
+   */
+  static String answerDocumentId(ProblemDto.AnswerDocument answerDocument) {
+    return answerDocument.getStudyId() + "_" + answerDocument.getStudyStructureId() + "_"
+        + answerDocument.getStudentId() + "_" + answerDocument.getProblemNo();
+  }
+
+  /**
+   * 배점 평균 조회 요청 생성
+   *
+   * @return SearchRequest
+   */
+  static SearchRequest avgDsscValueRequest() {
+    return SearchRequest.of(req -> req
         .index(INDEX_NAME)
+        .aggregations(
+            "dsscValue_stats",
+            Aggregation.of(aggr -> aggr
+                .stats(stats -> stats
+                    .field("dsscValue"))
+            )
+        )
+        .size(0)
+    );
+  }
+
+  /**
+   * 기간 내 배점 평균 조회 요청 생성
+   *
+   * @param indices 조회할 파티션 목록
+   * @param from    문항 풀이 시작 시각의 시작(포함)
+   * @param to      문항 풀이 시작 시각의 끝(미포함)
+   * @return SearchRequest
+   */
+  static SearchRequest avgDsscValueRequest(List<String> indices, Instant from, Instant to) {
+    return SearchRequest.of(req -> req
+        .index(indices)
+        .ignoreUnavailable(true)
+        .allowNoIndices(true)
         .query(q -> q
             .bool(b -> b
-                .must(m -> m
-                    .match(ma -> ma
-                        .field("studentId").query(FieldValue.of(studentId))
+                .filter(problemStartDtmRange(from, to))
+            )
+        )
+        .aggregations(
+            "dsscValue_stats",
+            Aggregation.of(aggr -> aggr
+                .stats(stats -> stats
+                    .field("dsscValue"))
+            )
+        )
+        .size(0)
+    );
+  }
+
+  /**
+   * 정답률 조회 요청 생성
+   *
+   * @param studentId 학생 아이디
+   * @return SearchRequest
+   */
+  static SearchRequest correctTrueRateRequest(String studentId) {
+    return SearchRequest.of(req -> req
+        .index(INDEX_NAME)
+        .routing(studentId)
+        .query(q -> q
+            .bool(b -> b
+                .filter(f -> f
+                    .term(t -> t
+                        .field(STUDENT_ID_FIELD).value(FieldValue.of(studentId))
                     )
                 )
             )
         )
-        .aggregations(
-            "correct_total_count",
-            Aggregation.of(a -> a
-                .valueCount(vc -> vc
-                    .field("correctYn"))
+        .aggregations(correctTrueRateAggregations())
+        .size(0)
+    );
+  }
 
+  /**
+   * 기간 내 정답률 조회 요청 생성
+   *
+   * @param indices   조회할 파티션 목록
+   * @param studentId 학생 아이디
+   * @param from      문항 풀이 시작 시각의 시작(포함)
+   * @param to        문항 풀이 시작 시각의 끝(미포함)
+   * @return SearchRequest
+   */
+  static SearchRequest correctTrueRateRequest(List<String> indices, String studentId,
+      Instant from, Instant to) {
+    return SearchRequest.of(req -> req
+        .index(indices)
+        .routing(studentId)
+        .ignoreUnavailable(true)
+        .allowNoIndices(true)
+        .query(q -> q
+            .bool(b -> b
+                .filter(f -> f
+                    .term(t -> t
+                        .field(STUDENT_ID_FIELD).value(FieldValue.of(studentId))
+                    )
+                )
+                .filter(problemStartDtmRange(from, to))
             )
         )
-        .aggregations(
-            "correct_true_count",
-            Aggregation.of(a -> a
+        .aggregations(correctTrueRateAggregations())
+        .size(0)
+    );
+  }
+
+  /**
+   * problemStartDtm이 [from, to) 기간에 속하는 Document 필터
+   */
+  private static Query problemStartDtmRange(Instant from, Instant to) {
+    return Query.of(q -> q
+        .range(r -> r
+            .field("problemStartDtm")
+            .gte(JsonData.of(from.toString()))
+            .lt(JsonData.of(to.toString()))
+        )
+    );
+  }
+
+  /**
+   * 여러 학생의 정답률 일괄 조회 요청 생성
+   *
+   * <p>학생 아이디를 STUDENT_BATCH_SIZE명씩 나누어 각각 terms 집계 검색으로 만들고,
+   * 하나의 _msearch 요청으로 묶음. 각 검색은 포함된 학생 아이디로 라우팅</p>
+   *
+   * @param studentIds 학생 아이디 목록
+   * @return MsearchRequest
+   */
+  static MsearchRequest correctTrueRatesRequest(List<String> studentIds) {
+
+    List<RequestItem> requestItems = new ArrayList<>();
+    for (int from = 0; from < studentIds.size(); from += STUDENT_BATCH_SIZE) {
+      List<String> chunkIds = studentIds
+          .subList(from, Math.min(from + STUDENT_BATCH_SIZE, studentIds.size()));
+      List<FieldValue> chunk = chunkIds.stream()
+          .map(FieldValue::of)
+          .toList();
+
+      // 학생 아이디가 저장된 샤드만 조회
+      requestItems.add(RequestItem.of(item -> item
+          .header(h -> h
+              .index(INDEX_NAME)
+              .routing(String.join(",", chunkIds)))
+          .body(body -> body
+              .query(q -> q
+                  .bool(b -> b
+                      .filter(f -> f
+                          .terms(t -> t
+                              .field(STUDENT_ID_FIELD)
+                              .terms(tv -> tv.value(chunk))
+                          )
+                      )
+                  )
+              )
+              .aggregations(
+                  "students",
+                  Aggregation.of(a -> a
+                      .terms(te -> te
+                          .field(STUDENT_ID_FIELD)
+                          .size(chunk.size()))
+                      .aggregations(correctTrueRateAggregations())
+                  )
+              )
+              .size(0)
+          )
+      ));
+    }
+
+    return MsearchRequest.of(req -> req.searches(requestItems));
+  }
+
+  /**
+   * 학습 아이디로 학생별 정답률 일괄 조회 요청 생성
+   *
+   * @param studyId  학습 아이디
+   * @param afterKey 이전 응답의 after_key, 첫 요청이면 null
+   * @return SearchRequest
+   */
+  static SearchRequest correctTrueRatesByStudyIdRequest(Long studyId,
+      Map<String, String> afterKey) {
+    return SearchRequest.of(req -> req
+        .index(INDEX_NAME)
+        .query(q -> q
+            .bool(b -> b
                 .filter(f -> f
                     .term(t -> t
-                        .field("correctYn").value(FieldValue.TRUE)
+                        .field("studyId").value(FieldValue.of(studyId))
                     )
                 )
             )
         )
+        .aggregations(
+            "students",
+            Aggregation.of(a -> a
+                .composite(c -> {
+                  c.size(STUDENT_BATCH_SIZE)
+                      .sources(List.of(Map.of("studentId", CompositeAggregationSource.of(cs -> cs
+                          .terms(t -> t.field(STUDENT_ID_FIELD))))));
+                  if (afterKey != null) {
+                    c.after(afterKey);
+                  }
+                  return c;
+                })
+                .aggregations(correctTrueRateAggregations())
+            )
+        )
         .size(0)
     );
+  }
 
-    try {
+  /**
+   * 정답률 계산에 필요한 집계 생성
+   *
+   * <p>학생 한 명의 조회와 일괄 조회, 롤업 재구성에서 같은 집계를 사용</p>
+   *
+   * @return 집계 이름별 Aggregation
+   */
+  static Map<String, Aggregation> correctTrueRateAggregations() {
+    return Map.of(
+        "correct_total_count",
+        Aggregation.of(a -> a
+            .valueCount(vc -> vc
+                .field("correctYn"))
+        ),
+        "correct_true_count",
+        Aggregation.of(a -> a
+            .filter(f -> f
+                .term(t -> t
+                    .field("correctYn").value(FieldValue.TRUE)
+                )
+            )
+        ),
+        "dsscValue_stats",
+        Aggregation.of(a -> a
+            .stats(st -> st
+                .field("dsscValue"))
+        )
+    );
+  }
+
+  /**
+   * 배점 평균, 정답률 조회 응답에서 집계를 추출
+   *
+   * <p>요청에 포함되지 않은 집계는 0으로 채움</p>
+   *
+   * @param searchResponse 배점 평균 또는 정답률 조회 응답
+   * @return ProblemDto.AnswerStats
+   */
+  static ProblemDto.AnswerStats answerStats(
+      SearchResponse<ProblemDto.Aggregation> searchResponse) {
+    return answerStats(ObjectUtils.isNotEmpty(searchResponse)
+        ? searchResponse.aggregations() : Map.of());
+  }
+
+  /**
+   * 검색 응답 또는 학생별 버킷의 하위 집계에서 집계를 추출
+   *
+   * <p>요청에 포함되지 않은 집계는 0으로 채움</p>
+   *
+   * @param aggregations 집계 이름별 Aggregate
+   * @return ProblemDto.AnswerStats
+   */
+  static ProblemDto.AnswerStats answerStats(Map<String, Aggregate> aggregations) {
 
-      SearchResponse<ProblemDto.Aggregation> searchResponse =
-          openSearchClient.search(searchRequest, ProblemDto.Aggregation.class);
-      log.debug("searchResponse : {}", searchResponse);
-
-      if (ObjectUtils.isNotEmpty(searchResponse) &&
-          !searchResponse.aggregations().isEmpty()) {
-        correctTotalCount = searchResponse.aggregations().get("correct_total_count")
-            .valueCount().value();
-        correctTrueCount = searchResponse.aggregations().get("correct_true_count").filter()
-            .docCount();
-        correctRate = (correctTrueCount / correctTotalCount) * 100;
-        log.debug("correctTotalCount : [{}], correctTrueCount : [{}], correctRate : [{}]",
-            correctTotalCount, correctTrueCount, correctRate);
+    ProblemDto.AnswerStats.AnswerStatsBuilder builder = ProblemDto.AnswerStats.builder();
+
+    if (ObjectUtils.isNotEmpty(aggregations)) {
+      if (aggregations.containsKey("correct_total_count")) {
+        builder.totalCount((long) aggregations.get("correct_total_count").valueCount().value());
+      }
+      if (aggregations.containsKey("correct_true_count")) {
+        builder.correctCount(aggregations.get("correct_true_count").filter().docCount());
       }
+      if (aggregations.containsKey("dsscValue_stats")) {
+        StatsAggregate stats = aggregations.get("dsscValue_stats").stats();
+        builder.dsscValueSum(stats.sum());
+        builder.dsscValueCount(stats.count());
+      }
+    }
 
-    } catch (Exception e) {
-      log.error("getCorrectTrueRate searchRequest : {}", searchRequest, e);
+    ProblemDto.AnswerStats answerStats = builder.build();
+    log.debug("answerStats : {}", answerStats);
+
+    return answerStats;
+  }
+
+  /**
+   * 집계에서 학생별 정답률, 풀이 수, 배점 평균을 계산
+   *
+   * @param studentId   학생 아이디
+   * @param answerStats 문항 풀이 집계
+   * @return ProblemDto.StudentStatistics
+   */
+  static ProblemDto.StudentStatistics studentStatistics(String studentId,
+      ProblemDto.AnswerStats answerStats) {
+    return ProblemDto.StudentStatistics.builder()
+        .studentId(studentId)
+        .totalCount(answerStats.getTotalCount())
+        .correctCount(answerStats.getCorrectCount())
+        .correctRate(correctTrueRate(answerStats))
+        .avgDsscValue(avgDsscValue(answerStats))
+        .build();
+  }
+
+  /**
+   * 집계에서 배점 평균을 계산
+   *
+   * @param answerStats 문항 풀이 집계
+   * @return 배점 평균, 배점이 하나도 없으면 0
+   */
+  static double avgDsscValue(ProblemDto.AnswerStats answerStats) {
+
+    if (answerStats.getDsscValueCount() == 0) {
+      return 0L;
     }
 
+    return answerStats.getDsscValueSum() / answerStats.getDsscValueCount();
+  }
+
+  /**
+   * 집계에서 정답률을 계산
+   *
+   * @param answerStats 문항 풀이 집계
+   * @return 정답률
+   */
+  static double correctTrueRate(ProblemDto.AnswerStats answerStats) {
+
+    double correctTotalCount = answerStats.getTotalCount();
+    double correctTrueCount = answerStats.getCorrectCount();
+    double correctRate = (correctTrueCount / correctTotalCount) * 100;
+    log.debug("correctTotalCount : [{}], correctTrueCount : [{}], correctRate : [{}]",
+        correctTotalCount, correctTrueCount, correctRate);
+
     return correctRate;
   }
 }
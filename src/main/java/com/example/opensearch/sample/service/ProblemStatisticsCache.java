@@ -0,0 +1,224 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 학생별, 전체 문항 풀이 집계(ProblemDto.AnswerStats) 캐시
+ *
+ * <p>W-TinyLFU로 최대 maximumSize개까지 보관하고 expireAfterWrite가 지나면 만료된다.
+ * 문항 풀이 내용이 저장되면 record()로 이미 캐시에 있는 집계의 카운터를 증가시키므로,
+ * 자주 조회되는 학생은 만료 전까지 OpenSearch에 다시 조회하지 않는다.</p>
+ *
+ * <p>집계 조회와 저장이 동시에 일어나면 refresh 주기만큼 카운터가 어긋날 수 있으며,
+ * 이 오차는 만료 시 OpenSearch에서 다시 조회하면서 보정된다.</p>
+ */
+@Slf4j
+@Component
+public class ProblemStatisticsCache {
+
+  // 전체 학생의 집계를 보관하는 키
+  static final String ALL_STUDENTS = "*";
+
+  // 캐시 meter의 cache tag
+  static final String CACHE_NAME = "problem-statistics";
+
+  private final boolean enabled;
+  private final AsyncCache<String, ProblemDto.AnswerStats> cache;
+
+  public ProblemStatisticsCache(OpenSearchProperties openSearchProperties,
+      MeterRegistry meterRegistry) {
+    OpenSearchProperties.Cache properties = openSearchProperties.getCache();
+    this.enabled = properties.isEnabled();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getExpireAfterWrite())
+        .recordStats()
+        .buildAsync();
+    // cache.gets(result=hit|miss), cache.evictions, cache.size 등을 cache=problem-statistics tag로 기록
+    CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+  }
+
+  /**
+   * 캐시된 집계를 조회하고, 없으면 loader로 조회하여 캐시에 저장
+   *
+   * @param key    학생 아이디 또는 ALL_STUDENTS
+   * @param loader OpenSearch 집계 조회
+   * @return ProblemDto.AnswerStats
+   * @throws Exception loader가 실패한 경우, 실패한 결과는 캐시하지 않음
+   */
+  public ProblemDto.AnswerStats get(String key, Callable<ProblemDto.AnswerStats> loader)
+      throws Exception {
+
+    if (!enabled) {
+      return loader.call();
+    }
+
+    try {
+      return cache.synchronous().get(key, k -> {
+        try {
+          return loader.call();
+        } catch (Exception e) {
+          throw new CompletionException(e);
+        }
+      });
+    } catch (CompletionException e) {
+      // 실패한 future는 완료 콜백에서 비동기로 제거되므로 바로 다시 조회해도 실패가 반환되지 않도록 직접 제거
+      cache.asMap().computeIfPresent(key,
+          (k, future) -> future.isCompletedExceptionally() ? null : future);
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    }
+  }
+
+  /**
+   * 캐시된 집계를 비동기로 조회하고, 없으면 loader로 조회하여 캐시에 저장
+   *
+   * @param key    학생 아이디 또는 ALL_STUDENTS
+   * @param loader OpenSearch 집계 비동기 조회
+   * @return ProblemDto.AnswerStats를 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<ProblemDto.AnswerStats> getAsync(String key,
+      Supplier<CompletableFuture<ProblemDto.AnswerStats>> loader) {
+
+    if (!enabled) {
+      return loader.get();
+    }
+
+    return cache.get(key, (k, executor) -> loader.get());
+  }
+
+  /**
+   * 캐시된 집계를 조회
+   *
+   * @param key 학생 아이디 또는 ALL_STUDENTS
+   * @return ProblemDto.AnswerStats, 캐시에 없거나 아직 조회 중이면 null
+   */
+  public ProblemDto.AnswerStats getIfPresent(String key) {
+
+    if (!enabled) {
+      return null;
+    }
+
+    CompletableFuture<ProblemDto.AnswerStats> future = cache.getIfPresent(key);
+    if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+      return null;
+    }
+
+    return future.join();
+  }
+
+  /**
+   * 조회한 집계를 캐시에 저장
+   *
+   * @param key   학생 아이디 또는 ALL_STUDENTS
+   * @param stats 저장할 집계
+   */
+  public void put(String key, ProblemDto.AnswerStats stats) {
+    if (enabled) {
+      cache.synchronous().put(key, stats);
+    }
+  }
+
+  /**
+   * 저장된 문항 풀이 내용을 캐시된 학생별, 전체 집계에 반영
+   *
+   * <p>캐시에 없는 집계는 기준값을 알 수 없으므로 새로 만들지 않고, 아직 조회 중인 집계는 기다리지 않고
+   * 캐시에서 제거한다.</p>
+   *
+   * @param answer 저장된 문항 풀이 내용
+   */
+  public void record(ProblemDto.Answer answer) {
+    record(answer.getStudentId(), answer.getCorrectYn(), answer.getDsscValue());
+  }
+
+  /**
+   * 저장된 문항 풀이 Document를 캐시된 학생별, 전체 집계에 반영
+   *
+   * @param answerDocument 저장된 문항 풀이 Document
+   */
+  public void record(ProblemDto.AnswerDocument answerDocument) {
+    record(answerDocument.getStudentId(), answerDocument.getCorrectYn(),
+        answerDocument.getDsscValue() == null ? null : answerDocument.getDsscValue().longValue());
+  }
+
+  /**
+   * 캐시 적중, 실패, 제거 통계
+   *
+   * @return CacheStats
+   */
+  public CacheStats stats() {
+    return cache.synchronous().stats();
+  }
+
+  /**
+   * 캐시에 보관 중인 집계 수
+   *
+   * @return 캐시 크기
+   */
+  public long size() {
+    return cache.synchronous().estimatedSize();
+  }
+
+  /**
+   * 캐시를 비움
+   */
+  public void invalidateAll() {
+    cache.synchronous().invalidateAll();
+  }
+
+  private void record(String studentId, Boolean correctYn, Long dsscValue) {
+
+    if (!enabled) {
+      return;
+    }
+
+    increment(ALL_STUDENTS, correctYn, dsscValue);
+    if (studentId != null) {
+      increment(studentId, correctYn, dsscValue);
+    }
+  }
+
+  private void increment(String key, Boolean correctYn, Long dsscValue) {
+
+    // synchronous() 뷰는 조회 중인 집계가 끝날 때까지 기다리므로 비동기 뷰에서 완료된 집계만 갱신
+    cache.asMap().computeIfPresent(key, (k, future) -> {
+      if (!future.isDone()) {
+        // 조회 중인 집계는 이 풀이 내용을 포함하는지 알 수 없으므로 제거하여 다음 조회에서 다시 집계
+        return null;
+      }
+      if (future.isCompletedExceptionally()) {
+        return future;
+      }
+      return CompletableFuture.completedFuture(add(future.join(), correctYn, dsscValue));
+    });
+  }
+
+  private static ProblemDto.AnswerStats add(ProblemDto.AnswerStats stats, Boolean correctYn,
+      Long dsscValue) {
+
+    ProblemDto.AnswerStats.AnswerStatsBuilder builder = stats.toBuilder();
+    if (correctYn != null) {
+      builder.totalCount(stats.getTotalCount() + 1);
+      if (correctYn) {
+        builder.correctCount(stats.getCorrectCount() + 1);
+      }
+    }
+    if (dsscValue != null) {
+      builder.dsscValueSum(stats.getDsscValueSum() + dsscValue);
+      builder.dsscValueCount(stats.getDsscValueCount() + 1);
+    }
+
+    return builder.build();
+  }
+}
@@ -0,0 +1,151 @@
+package com.example.opensearch.sample.service;
+
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.config.MetricsConfig;
+import com.example.opensearch.sample.service.dto.SampleDto;
+import io.micrometer.core.annotation.Timed;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.core.DeleteResponse;
+import org.opensearch.client.opensearch.core.IndexResponse;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.UpdateByQueryResponse;
+import org.opensearch.client.opensearch.indices.CreateIndexRequest;
+import org.opensearch.client.opensearch.indices.CreateIndexResponse;
+import org.springframework.stereotype.Service;
+
+/**
+ * SampleService의 Non-blocking 버전
+ *
+ * <p>모든 메서드는 요청을 전송한 즉시 CompletableFuture를 반환하며, 실패하면 예외로 완료된다.
+ * 제한 시간은 orTimeout()으로 지정할 수 있다.</p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class SampleAsyncService {
+
+  private final OpenSearchAsyncClient openSearchAsyncClient;
+
+  private final IndexReindexer indexReindexer;
+
+  /**
+   * Index 생성
+   *
+   * @param indexName 생성할 인덱스명
+   * @return CreateIndexResponse Index 생성에 대한 응답을 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<CreateIndexResponse> createIndex(String indexName) {
+
+    try {
+      return openSearchAsyncClient.indices()
+          .create(new CreateIndexRequest.Builder().index(indexName).build())
+          .whenComplete((createIndexResponse, e) -> {
+            if (e != null) {
+              log.error("createIndex indexName : [{}]", indexName, e);
+            }
+          });
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Document 저장
+   *
+   * @param indexName      저장할 Document의 인덱스명
+   * @param sampleDocument 저장할 Document 정보를 담고 있는 SampleDto.Document 객체
+   * @return IndexResponse Document 저장에 대한 결과를 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<IndexResponse> insertDocument(String indexName,
+      SampleDto.Document sampleDocument) {
+
+    try {
+      return openSearchAsyncClient
+          .index(SampleService.insertDocumentRequest(indexName, sampleDocument))
+          .whenComplete((indexResponse, e) -> {
+            if (e != null) {
+              log.error("insertDocument indexName : [{}], id : [{}]",
+                  indexName, sampleDocument.getId(), e);
+            } else {
+              indexReindexer.mirror(indexResponse.index(), indexResponse.id(), null,
+                  indexResponse.version(), sampleDocument);
+            }
+          });
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Document 조회
+   *
+   * @param indexName 조회할 Document의 인덱스명
+   * @return Document 조회에 대한 결과를 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<SearchResponse<SampleDto.Document>> searchDocument(String indexName) {
+
+    try {
+      return openSearchAsyncClient
+          .search(SampleService.searchDocumentRequest(indexName), SampleDto.Document.class)
+          .whenComplete((searchResponse, e) -> {
+            if (e != null) {
+              log.error("searchDocument indexName : [{}]", indexName, e);
+            }
+          });
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Document 수정
+   *
+   * @param indexName      수정할 Document의 인덱스명
+   * @param sampleDocument 수정할 Document 정보를 담고 있는 SampleDto.Document 객체
+   * @return UpdateByQueryResponse Document 수정에 대한 결과를 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<UpdateByQueryResponse> updateDocument(String indexName,
+      SampleDto.Document sampleDocument) {
+
+    try {
+      return openSearchAsyncClient
+          .updateByQuery(SampleService.updateDocumentRequest(indexName, sampleDocument))
+          .whenComplete((updateByQueryResponse, e) -> {
+            if (e != null) {
+              log.error("updateDocument indexName : [{}], id : [{}]",
+                  indexName, sampleDocument.getId(), e);
+            }
+          });
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Document 삭제
+   *
+   * @param indexName      삭제할 Document가 있는 인덱스명
+   * @param sampleDocument 삭제할 Document 정보를 담고 있는 SampleDto.Document 객체
+   * @return DeleteResponse Document 삭제에 대한 결과를 담고 있는 CompletableFuture
+   */
+  public CompletableFuture<DeleteResponse> deleteDocument(String indexName,
+      SampleDto.Document sampleDocument) {
+
+    try {
+      return openSearchAsyncClient
+          .delete(d -> d.index(indexName).id(sampleDocument.getId()))
+          .whenComplete((deleteResponse, e) -> {
+            if (e != null) {
+              log.error("deleteDocument indexName : [{}], id : [{}]",
+                  indexName, sampleDocument.getId(), e);
+            }
+          });
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+}
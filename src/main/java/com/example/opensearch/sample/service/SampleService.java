@@ -1,19 +1,46 @@
 package com.example.opensearch.sample.service;
 
+import com.example.opensearch.common.bulk.BulkIngester;
+import com.example.opensearch.common.bulk.BulkItemFailureException;
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.common.reindex.ReindexJob;
+import com.example.opensearch.common.search.PointInTimeIterator;
+import com.example.opensearch.config.MetricsConfig;
+import com.example.opensearch.config.OpenSearchProperties;
 import com.example.opensearch.sample.service.dto.SampleDto;
+import io.micrometer.core.annotation.Timed;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.json.JsonData;
 import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.opensearch._types.FieldValue;
 import org.opensearch.client.opensearch._types.InlineScript;
+import org.opensearch.client.opensearch._types.Result;
+import org.opensearch.client.opensearch._types.Time;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
 import org.opensearch.client.opensearch.core.DeleteResponse;
 import org.opensearch.client.opensearch.core.IndexRequest;
 import org.opensearch.client.opensearch.core.IndexResponse;
+import org.opensearch.client.opensearch.core.MgetRequest;
+import org.opensearch.client.opensearch.core.MgetResponse;
 import org.opensearch.client.opensearch.core.SearchRequest;
 import org.opensearch.client.opensearch.core.SearchResponse;
 import org.opensearch.client.opensearch.core.UpdateByQueryRequest;
 import org.opensearch.client.opensearch.core.UpdateByQueryResponse;
+import org.opensearch.client.opensearch.core.UpdateRequest;
+import org.opensearch.client.opensearch.core.UpdateResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.core.mget.MultiGetResponseItem;
 import org.opensearch.client.opensearch.indices.CreateIndexRequest;
 import org.opensearch.client.opensearch.indices.CreateIndexRequest.Builder;
 import org.opensearch.client.opensearch.indices.CreateIndexResponse;
@@ -26,10 +53,30 @@ import org.springframework.stereotype.Service;
 @Slf4j
 @RequiredArgsConstructor
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class SampleService {
 
+  // 전체 순회 시 search_after 기준 필드, Document의 id는 유일
+  private static final String SCAN_SORT_FIELD = "id.keyword";
+
+  // 수정할 값은 params로 전달하여 스크립트를 한 번만 컴파일하고 재사용, 값이 모두 같으면 noop 처리
+  private static final String UPDATE_FIELDS_SCRIPT = ""
+      + "boolean changed = false;"
+      + " for (String field : params.keySet()) {"
+      + " if (ctx._source[field] != params[field]) {"
+      + " ctx._source[field] = params[field]; changed = true; } }"
+      + " if (!changed) { ctx.op = 'noop'; }";
+
   private final OpenSearchClient openSearchClient;
 
+  private final OpenSearchAsyncClient openSearchAsyncClient;
+
+  private final OpenSearchProperties openSearchProperties;
+
+  private final BulkIngester sampleBulkIngester;
+
+  private final IndexReindexer indexReindexer;
+
   /**
    * Index 생성
    *
@@ -113,6 +160,30 @@ public class SampleService {
     return deleteIndexResponse;
   }
 
+  /**
+   * Index를 새 Index로 무중단 재색인
+   *
+   * <p>복사가 끝나면 indexName이 새 Index를 가리키는 alias로 바뀌며, 복사 중에 insertDocument(s)로
+   * 저장한 Document는 새 Index에도 저장</p>
+   *
+   * @param indexName       재색인할 Index 이름 또는 alias
+   * @param targetIndexName 새로 만들 Index 이름
+   * @return ReindexJob 재색인 진행 상황
+   */
+  public ReindexJob reindexIndex(String indexName, String targetIndexName) {
+
+    ReindexJob reindexJob = null;
+
+    try {
+      reindexJob = indexReindexer.reindex(indexName, targetIndexName, null, null);
+    } catch (Exception e) {
+      log.error("reindexIndex indexName : [{}], targetIndexName : [{}]",
+          indexName, targetIndexName, e);
+    }
+
+    return reindexJob;
+  }
+
   /**
    * Document 저장
    *
@@ -125,14 +196,14 @@ public class SampleService {
     IndexResponse indexResponse = null;
 
     try {
-      IndexRequest<SampleDto.Document> indexRequest = new IndexRequest.Builder<SampleDto.Document>()
-          .index(indexName)
-          .id(sampleDocument.getId())
-          .document(sampleDocument).build();
+      IndexRequest<SampleDto.Document> indexRequest =
+          insertDocumentRequest(indexName, sampleDocument);
       indexResponse = openSearchClient.index(indexRequest);
+      indexReindexer.mirror(indexResponse.index(), indexResponse.id(), null,
+          indexResponse.version(), sampleDocument);
     } catch (Exception e) {
-      log.error("insertDocument indexName : [{}], sampleDocument : [{}]"
-          , indexName, sampleDocument.toString(), e);
+      log.error("insertDocument indexName : [{}], id : [{}]"
+          , indexName, sampleDocument.getId(), e);
     }
 
     return indexResponse;
@@ -147,9 +218,7 @@ public class SampleService {
   public SearchResponse<SampleDto.Document> searchDocument(String indexName) {
     SearchResponse<SampleDto.Document> searchResponse = null;
     try {
-      SearchRequest searchRequest = SearchRequest.of(r -> r
-          .index(indexName)
-      );
+      SearchRequest searchRequest = searchDocumentRequest(indexName);
 
       searchResponse =
           openSearchClient.search(searchRequest, SampleDto.Document.class);
@@ -161,6 +230,43 @@ public class SampleService {
     return searchResponse;
   }
 
+  /**
+   * Document 전체 조회
+   *
+   * <p>PIT와 search_after로 opensearch.scan.page-size씩 나누어 조회하고,
+   * 현재 페이지를 처리하는 동안 다음 페이지를 미리 조회</p>
+   * <p>반환된 Stream은 try-with-resources로 닫아야 PIT가 해제됨</p>
+   *
+   * @param indexName 조회할 Document의 인덱스명
+   * @return Document를 순서대로 제공하는 Stream, 조회에 실패하면 빈 Stream
+   */
+  public Stream<SampleDto.Document> streamDocuments(String indexName) {
+    return streamDocuments(indexName, openSearchProperties.getScan().getPageSize());
+  }
+
+  /**
+   * Document 전체 조회
+   *
+   * @param indexName 조회할 Document의 인덱스명
+   * @param pageSize  한 번에 가져오는 Document 수
+   * @return Document를 순서대로 제공하는 Stream, 조회에 실패하면 빈 Stream
+   */
+  public Stream<SampleDto.Document> streamDocuments(String indexName, int pageSize) {
+
+    try {
+      Time keepAlive = Time.of(t -> t
+          .time(openSearchProperties.getScan().getKeepAlive().toMillis() + "ms"));
+      PointInTimeIterator<SampleDto.Document> iterator = new PointInTimeIterator<>(
+          openSearchAsyncClient, indexName, Query.of(q -> q.matchAll(m -> m)),
+          SCAN_SORT_FIELD, pageSize, keepAlive, SampleDto.Document.class);
+      return iterator.stream();
+    } catch (Exception e) {
+      log.error("streamDocuments indexName : [{}]", indexName, e);
+    }
+
+    return Stream.empty();
+  }
+
   /**
    * Document 수정
    *
@@ -173,36 +279,164 @@ public class SampleService {
     UpdateByQueryResponse updateByQueryResponse = null;
 
     try {
-      UpdateByQueryRequest updateByQueryRequest = UpdateByQueryRequest.of(r -> r
-          .index(indexName)
-          // Document의 수정 조건 id
-          .query(q -> q
-              .terms(t -> t
-                  .field("id")
-                  .terms(v -> v
-                      .value(List.of(FieldValue.of(sampleDocument.getId()))))
-              ))
-          // Document에서 수정할 내용 firstName, lastName
-          .script(s -> s
-              .inline(InlineScript.of(is -> is
-                  .lang("painless")
-                  .source(
-                      "ctx._source.firstName = '" + sampleDocument.getFirstName() + "'; "
-                          + "ctx._source.lastName = '" + sampleDocument.getLastName() + "';"))
-              )
-          )
-      );
+      UpdateByQueryRequest updateByQueryRequest =
+          updateDocumentRequest(indexName, sampleDocument);
 
       updateByQueryResponse = openSearchClient.updateByQuery(updateByQueryRequest);
 
     } catch (Exception e) {
-      log.error("updateDocument indexName : [{}], sampleDocument : [{}]",
-          indexName, sampleDocument.toString(), e);
+      log.error("updateDocument indexName : [{}], id : [{}]",
+          indexName, sampleDocument.getId(), e);
     }
 
     return updateByQueryResponse;
   }
 
+  /**
+   * id로 Document 부분 수정
+   *
+   * <p>값이 모두 같으면 Document를 다시 쓰지 않고 noop으로 응답(detect_noop)</p>
+   *
+   * @param indexName      수정할 Document의 인덱스명
+   * @param sampleDocument 수정할 Document 정보를 담고 있는 SampleDto.Document 객체, null인 필드는 유지
+   * @return SampleDto.ItemResult Document 수정 결과
+   */
+  public SampleDto.ItemResult updateDocumentById(String indexName,
+      SampleDto.Document sampleDocument) {
+
+    try {
+      UpdateResponse<SampleDto.Document> updateResponse = openSearchClient.update(
+          updateDocumentByIdRequest(indexName, sampleDocument), SampleDto.Document.class);
+
+      return SampleDto.ItemResult.builder()
+          .id(updateResponse.id())
+          .result(updateResponse.result().jsonValue())
+          .status(200)
+          .changed(updateResponse.result() == Result.Updated)
+          .build();
+    } catch (Exception e) {
+      log.error("updateDocumentById indexName : [{}], id : [{}]",
+          indexName, sampleDocument.getId(), e);
+
+      return errorResult(sampleDocument.getId(), e);
+    }
+  }
+
+  /**
+   * 여러 Document 저장
+   *
+   * <p>opensearch.bulk 설정의 maxActions, maxSize 단위로 나눈 _bulk 요청을 병렬로 전송</p>
+   *
+   * @param indexName       저장할 Document의 인덱스명
+   * @param sampleDocuments 저장할 Document 목록
+   * @return Document별 저장 결과, 요청 순서와 같음
+   */
+  public List<SampleDto.ItemResult> insertDocuments(String indexName,
+      List<SampleDto.Document> sampleDocuments) {
+
+    List<BulkOperation> operations = new ArrayList<>(sampleDocuments.size());
+    for (SampleDto.Document sampleDocument : sampleDocuments) {
+      operations.add(insertDocumentOperation(indexName, sampleDocument));
+    }
+
+    return bulk("insertDocuments", indexName, operations, ids(sampleDocuments),
+        sampleDocuments);
+  }
+
+  /**
+   * 여러 Document를 id로 조회
+   *
+   * <p>opensearch.bulk.max-actions개씩 나눈 _mget 요청을 병렬로 전송</p>
+   *
+   * @param indexName 조회할 Document의 인덱스명
+   * @param ids       조회할 Document id 목록
+   * @return id별 Document, 요청 순서와 같으며 존재하지 않거나 조회에 실패한 id는 제외
+   */
+  public Map<String, SampleDto.Document> getDocuments(String indexName, List<String> ids) {
+
+    int chunkSize = openSearchProperties.getBulk().getMaxActions();
+    List<List<String>> chunks = new ArrayList<>();
+    for (int from = 0; from < ids.size(); from += chunkSize) {
+      chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+    }
+
+    List<CompletableFuture<MgetResponse<SampleDto.Document>>> futures = new ArrayList<>();
+    for (List<String> chunk : chunks) {
+      try {
+        futures.add(openSearchAsyncClient.mget(
+            getDocumentsRequest(indexName, chunk), SampleDto.Document.class));
+      } catch (Exception e) {
+        futures.add(CompletableFuture.failedFuture(e));
+      }
+    }
+
+    Map<String, SampleDto.Document> found = new HashMap<>();
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        for (MultiGetResponseItem<SampleDto.Document> item : futures.get(i).join().docs()) {
+          if (item.isResult() && item.result().found()) {
+            found.put(item.result().id(), item.result().source());
+          } else if (item.isFailure()) {
+            log.error("getDocuments indexName : [{}], id : [{}], error : [{}]",
+                indexName, item.failure().id(), item.failure().error().reason());
+          }
+        }
+      } catch (Exception e) {
+        log.error("getDocuments indexName : [{}], size : [{}]", indexName, chunks.get(i).size(), e);
+      }
+    }
+
+    Map<String, SampleDto.Document> documents = new LinkedHashMap<>();
+    for (String id : ids) {
+      if (found.containsKey(id)) {
+        documents.put(id, found.get(id));
+      }
+    }
+
+    return documents;
+  }
+
+  /**
+   * 여러 Document를 id로 부분 수정
+   *
+   * <p>opensearch.bulk 설정 단위로 나눈 _bulk 요청을 병렬로 전송하며, Document별로 실제 변경 여부를 반환</p>
+   *
+   * @param indexName       수정할 Document의 인덱스명
+   * @param sampleDocuments 수정할 Document 목록, null인 필드는 유지
+   * @return Document별 수정 결과, 요청 순서와 같음
+   */
+  public List<SampleDto.ItemResult> updateDocuments(String indexName,
+      List<SampleDto.Document> sampleDocuments) {
+
+    List<BulkOperation> operations = new ArrayList<>(sampleDocuments.size());
+    for (SampleDto.Document sampleDocument : sampleDocuments) {
+      operations.add(updateDocumentOperation(indexName, sampleDocument));
+    }
+
+    return bulk("updateDocuments", indexName, operations, ids(sampleDocuments), null);
+  }
+
+  /**
+   * 여러 Document 삭제
+   *
+   * <p>opensearch.bulk 설정 단위로 나눈 _bulk 요청을 병렬로 전송</p>
+   *
+   * @param indexName       삭제할 Document가 있는 인덱스명
+   * @param sampleDocuments 삭제할 Document 목록
+   * @return Document별 삭제 결과, 요청 순서와 같음
+   */
+  public List<SampleDto.ItemResult> deleteDocuments(String indexName,
+      List<SampleDto.Document> sampleDocuments) {
+
+    List<BulkOperation> operations = new ArrayList<>(sampleDocuments.size());
+    for (SampleDto.Document sampleDocument : sampleDocuments) {
+      operations.add(BulkOperation.of(o -> o
+          .delete(d -> d.index(indexName).id(sampleDocument.getId()))));
+    }
+
+    return bulk("deleteDocuments", indexName, operations, ids(sampleDocuments), null);
+  }
+
   /**
    * Document 삭제
    *
@@ -218,10 +452,241 @@ public class SampleService {
       deleteResponse = openSearchClient
           .delete(d -> d.index(indexName).id(sampleDocument.getId()));
     } catch (Exception e) {
-      log.error("deleteDocument indexName : [{}], sampleDocument : [{}]"
-          , sampleDocument.toString(), e);
+      log.error("deleteDocument indexName : [{}], id : [{}]"
+          , indexName, sampleDocument.getId(), e);
     }
 
     return deleteResponse;
   }
+
+  /**
+   * Document 저장 요청 생성
+   *
+   * @param indexName      저장할 Document의 인덱스명
+   * @param sampleDocument 저장할 Document 정보를 담고 있는 SampleDto.Document 객체
+   * @return IndexRequest
+   */
+  static IndexRequest<SampleDto.Document> insertDocumentRequest(String indexName,
+      SampleDto.Document sampleDocument) {
+    return new IndexRequest.Builder<SampleDto.Document>()
+        .index(indexName)
+        .id(sampleDocument.getId())
+        .document(sampleDocument).build();
+  }
+
+  /**
+   * Document 조회 요청 생성
+   *
+   * @param indexName 조회할 Document의 인덱스명
+   * @return SearchRequest
+   */
+  static SearchRequest searchDocumentRequest(String indexName) {
+    return SearchRequest.of(r -> r
+        .index(indexName)
+    );
+  }
+
+  /**
+   * Document 수정 요청 생성
+   *
+   * @param indexName      수정할 Document의 인덱스명
+   * @param sampleDocument 수정할 Document 정보를 담고 있는 SampleDto.Document 객체
+   * @return UpdateByQueryRequest
+   */
+  static UpdateByQueryRequest updateDocumentRequest(String indexName,
+      SampleDto.Document sampleDocument) {
+    return UpdateByQueryRequest.of(r -> r
+        .index(indexName)
+        // Document의 수정 조건 id
+        .query(q -> q
+            .terms(t -> t
+                .field("id")
+                .terms(v -> v
+                    .value(List.of(FieldValue.of(sampleDocument.getId()))))
+            ))
+        // Document에서 수정할 내용 firstName, lastName
+        .script(s -> s
+            .inline(InlineScript.of(is -> is
+                .lang("painless")
+                .source(UPDATE_FIELDS_SCRIPT)
+                .params(updateNameParams(sampleDocument)))
+            )
+        )
+    );
+  }
+
+  /**
+   * id로 Document 부분 수정 요청 생성
+   *
+   * @param indexName      수정할 Document의 인덱스명
+   * @param sampleDocument 수정할 Document 정보를 담고 있는 SampleDto.Document 객체
+   * @return UpdateRequest
+   */
+  static UpdateRequest<SampleDto.Document, SampleDto.Document> updateDocumentByIdRequest(
+      String indexName, SampleDto.Document sampleDocument) {
+    return UpdateRequest.of(r -> r
+        .index(indexName)
+        .id(sampleDocument.getId())
+        .doc(sampleDocument)
+        .detectNoop(true)
+    );
+  }
+
+  /**
+   * Document 저장 BulkOperation 생성
+   *
+   * @param indexName      저장할 Document의 인덱스명
+   * @param sampleDocument 저장할 Document
+   * @return BulkOperation
+   */
+  static BulkOperation insertDocumentOperation(String indexName,
+      SampleDto.Document sampleDocument) {
+    return BulkOperation.of(o -> o
+        .index(i -> i
+            .index(indexName)
+            .id(sampleDocument.getId())
+            .document(sampleDocument)));
+  }
+
+  /**
+   * Document 부분 수정 BulkOperation 생성
+   *
+   * @param indexName      수정할 Document의 인덱스명
+   * @param sampleDocument 수정할 Document
+   * @return BulkOperation
+   */
+  static BulkOperation updateDocumentOperation(String indexName,
+      SampleDto.Document sampleDocument) {
+    return BulkOperation.of(o -> o
+        .update(u -> u
+            .index(indexName)
+            .id(sampleDocument.getId())
+            .document(sampleDocument)
+            .detectNoop(true)));
+  }
+
+  /**
+   * 여러 Document 조회 요청 생성
+   *
+   * @param indexName 조회할 Document의 인덱스명
+   * @param ids       조회할 Document id 목록
+   * @return MgetRequest
+   */
+  static MgetRequest getDocumentsRequest(String indexName, List<String> ids) {
+    return MgetRequest.of(r -> r
+        .index(indexName)
+        .ids(ids)
+    );
+  }
+
+  /**
+   * 스크립트에 전달할 firstName, lastName, null인 필드는 수정하지 않음
+   */
+  private static Map<String, JsonData> updateNameParams(SampleDto.Document sampleDocument) {
+
+    Map<String, JsonData> params = new HashMap<>();
+    if (sampleDocument.getFirstName() != null) {
+      params.put("firstName", JsonData.of(sampleDocument.getFirstName()));
+    }
+    if (sampleDocument.getLastName() != null) {
+      params.put("lastName", JsonData.of(sampleDocument.getLastName()));
+    }
+
+    return params;
+  }
+
+  /**
+   * BulkOperation을 sampleBulkIngester로 전송하고 항목별 결과를 기다림
+   *
+   * <p>mirrorDocuments가 있으면 저장에 성공한 Document를 재색인 중인 대상 Index에도 저장</p>
+   */
+  private List<SampleDto.ItemResult> bulk(String operationName, String indexName,
+      List<BulkOperation> operations, List<String> ids,
+      List<SampleDto.Document> mirrorDocuments) {
+
+    List<CompletableFuture<BulkResponseItem>> futures = new ArrayList<>(operations.size());
+    for (BulkOperation operation : operations) {
+      futures.add(sampleBulkIngester.add(operation));
+    }
+    // maxActions, maxSize에 도달하지 않은 마지막 묶음을 flushInterval까지 기다리지 않고 전송
+    sampleBulkIngester.flush();
+
+    List<SampleDto.ItemResult> itemResults = new ArrayList<>(futures.size());
+    int failed = 0;
+    for (int i = 0; i < futures.size(); i++) {
+      SampleDto.ItemResult itemResult = itemResult(ids.get(i), futures.get(i));
+      if (itemResult.getError() != null) {
+        failed++;
+      } else if (mirrorDocuments != null) {
+        BulkResponseItem item = futures.get(i).join();
+        indexReindexer.mirror(item.index(), item.id(), null,
+            item.version() == null ? 0L : item.version(), mirrorDocuments.get(i));
+      }
+      itemResults.add(itemResult);
+    }
+
+    if (failed > 0) {
+      log.error("{} indexName : [{}], size : [{}], failed : [{}]",
+          operationName, indexName, operations.size(), failed);
+    }
+
+    return itemResults;
+  }
+
+  /**
+   * BulkOperation 처리 결과를 Document 단위 결과로 변환
+   */
+  static SampleDto.ItemResult itemResult(String id,
+      CompletableFuture<BulkResponseItem> future) {
+
+    try {
+      return itemResult(future.join());
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof BulkItemFailureException failure) {
+        return itemResult(failure.getItem());
+      }
+      return errorResult(id, e.getCause());
+    }
+  }
+
+  /**
+   * Bulk 응답 항목을 Document 단위 결과로 변환
+   */
+  static SampleDto.ItemResult itemResult(BulkResponseItem item) {
+
+    if (item.error() != null) {
+      return SampleDto.ItemResult.builder()
+          .id(item.id())
+          .result(item.status() == 404 ? "not_found" : "error")
+          .status(item.status())
+          .error(item.error().reason())
+          .build();
+    }
+
+    return SampleDto.ItemResult.builder()
+        .id(item.id())
+        .result(item.result())
+        .status(item.status())
+        .changed(!Result.NoOp.jsonValue().equals(item.result())
+            && !Result.NotFound.jsonValue().equals(item.result()))
+        .build();
+  }
+
+  private static SampleDto.ItemResult errorResult(String id, Throwable throwable) {
+    return SampleDto.ItemResult.builder()
+        .id(id)
+        .result("error")
+        .error(String.valueOf(throwable.getMessage()))
+        .build();
+  }
+
+  private static List<String> ids(List<SampleDto.Document> sampleDocuments) {
+
+    List<String> ids = new ArrayList<>(sampleDocuments.size());
+    for (SampleDto.Document sampleDocument : sampleDocuments) {
+      ids.add(sampleDocument.getId());
+    }
+
+    return ids;
+  }
 }
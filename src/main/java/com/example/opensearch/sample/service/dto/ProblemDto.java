@@ -28,6 +28,28 @@ public class ProblemDto {
     private Long dsscValue;
   }
 
+  /**
+   * problem-records Index에 저장하는 문항 풀이 Document
+   *
+   * <p>시각은 epoch millis로 저장하고 problemEndDtm 대신 풀이 시간(durationMs)을 저장</p>
+   */
+  @Getter
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class AnswerDocument {
+
+    private Long studyId;
+    private Long studyStructureId;
+    private String studentId;
+    private Integer problemNo;
+    private Boolean correctYn;
+    private Long problemStartDtm;
+    private Long durationMs;
+    private Integer dsscValue;
+  }
+
   @Getter
   @Builder
   @NoArgsConstructor
@@ -41,6 +63,104 @@ public class ProblemDto {
     private List<Boolean> correctYns;
     private Instant startInstant;
     private Duration duration;
+    // 문항별 배점, 없으면 배점 없이 저장
+    private List<Long> dsscValues;
+
+    public StudentAnswerSheet(Long studyId, Long studyStructureId, List<Long> problemNos,
+        List<Boolean> correctYns, Instant startInstant, Duration duration) {
+      this(studyId, studyStructureId, problemNos, correctYns, startInstant, duration, null);
+    }
+  }
+
+  /**
+   * 답안지 저장 결과
+   *
+   * <p>이미 저장된 문항(같은 Document ID)은 duplicated로 세며, failedProblemNos의 문항은 답안지를 다시
+   * 보내면 저장됨</p>
+   */
+  @Getter
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class AnswerSheetResult {
+
+    private String studentId;
+    private int created;
+    private int duplicated;
+    private List<Long> failedProblemNos;
+  }
+
+  /**
+   * 클러스터에 저장하지 못해 스풀에 기록한 문항 풀이 Document
+   *
+   * <p>Document ID는 스풀에 기록할 때 정하므로 같은 레코드를 다시 보내도 중복 저장되지 않음</p>
+   */
+  @Getter
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class SpooledAnswer {
+
+    private String id;
+    private AnswerDocument document;
+  }
+
+  /**
+   * problem-rollups Index에 저장하는 학생별(student_{studentId}), 학습별(study_{studyId}),
+   * 전체(all) 문항 풀이 집계
+   *
+   * <p>totalCount는 정답 여부가 있는 풀이 수, dsscValue와 duration은 값이 있는 풀이만 집계</p>
+   */
+  @Getter
+  @Builder(toBuilder = true)
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class Rollup {
+
+    private String scope;
+    private String key;
+    private long totalCount;
+    private long correctCount;
+    private long dsscValueSum;
+    private long dsscValueCount;
+    private long durationSum;
+    private long durationCount;
+    private Long durationMin;
+    private Long durationMax;
+  }
+
+  /**
+   * 롤업 재구성 결과
+   */
+  @Getter
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class RollupRebuild {
+
+    private long students;
+    private long studies;
+    private long totalCount;
+    private long elapsedMillis;
+  }
+
+  /**
+   * 롤업과 문항 풀이 내용 집계의 비교 결과
+   */
+  @Getter
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class RollupConsistency {
+
+    private int checked;
+    private List<String> mismatchedIds;
+    private int repaired;
   }
 
   @Getter
@@ -55,4 +175,43 @@ public class ProblemDto {
     private int correctTotal;
     private int correctTrue;
   }
+
+  @Getter
+  @Builder(toBuilder = true)
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class AnswerStats {
+
+    private long totalCount;
+    private long correctCount;
+    private double dsscValueSum;
+    private long dsscValueCount;
+  }
+
+  @Getter
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class Statistics {
+
+    private String studentId;
+    private double avgDsscValue;
+    private double correctRate;
+  }
+
+  @Getter
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class StudentStatistics {
+
+    private String studentId;
+    private long totalCount;
+    private long correctCount;
+    private double correctRate;
+    private double avgDsscValue;
+  }
 }
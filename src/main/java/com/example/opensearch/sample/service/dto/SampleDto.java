@@ -19,4 +19,38 @@ public class SampleDto {
     private String firstName;
     private String lastName;
   }
+
+  /**
+   * Document 단위 저장, 수정, 삭제 결과
+   */
+  @Getter
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  public static class ItemResult {
+
+    private String id;
+
+    // created, updated, deleted, noop, not_found 또는 error
+    private String result;
+
+    // 개별 항목의 HTTP 상태 코드, 요청 자체가 실패하면 0
+    private int status;
+
+    // 실제로 Document 내용이 바뀌었는지 여부
+    private boolean changed;
+
+    // 실패한 경우 원인
+    private String error;
+
+    /**
+     * 다시 시도하면 성공할 수 있는 실패인지 여부
+     *
+     * @return 요청 자체가 실패했거나 429, 5xx로 실패한 경우 true
+     */
+    public boolean isRetryable() {
+      return error != null && (status == 0 || status == 429 || status >= 500);
+    }
+  }
 }
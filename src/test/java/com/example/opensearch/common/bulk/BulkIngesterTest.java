@@ -0,0 +1,159 @@
+package com.example.opensearch.common.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.config.resilience.TransientFailures;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class BulkIngesterTest {
+
+  static final String INDEX_NAME = "problem-records-2024.07";
+  static final String BULK = "POST /_bulk";
+
+  StubOpenSearchServer server;
+  OpenSearchTransport transport;
+  OpenSearchProperties.Bulk properties;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    transport = ApacheHttpClient5TransportBuilder.builder(HttpHost.create(server.uri())).build();
+
+    properties = new OpenSearchProperties.Bulk();
+    properties.setMaxActions(2);
+    properties.setFlushInterval(Duration.ofMillis(50));
+    properties.setMaxConcurrentRequests(4);
+    properties.setRetryBackoff(Duration.ofMillis(10));
+    properties.setMaxRetries(2);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    transport.close();
+    server.close();
+  }
+
+  @DisplayName("429로_거절된_Document만_다시_보내고_동시_요청_한도를_줄임")
+  @Test
+  void testRetryRejectedItems() throws Exception {
+
+    // Given
+    AtomicInteger calls = new AtomicInteger();
+    server.handle(BULK, (m, p, b) -> calls.incrementAndGet() == 1
+        ? new Response(200, "{\"took\":1,\"errors\":true,\"items\":["
+            + item("1", 201, null) + "," + item("2", 429, "es_rejected_execution_exception")
+            + "]}")
+        : new Response(200, "{\"took\":1,\"errors\":false,\"items\":["
+            + item("2", 201, null) + "]}"));
+    BulkIngester bulkIngester =
+        new BulkIngester(new OpenSearchClient(transport), properties, "test-bulk");
+
+    // When
+    CompletableFuture<BulkResponseItem> first = bulkIngester.add(operation("1"));
+    CompletableFuture<BulkResponseItem> second = bulkIngester.add(operation("2"));
+    BulkResponseItem firstItem = first.get(5, TimeUnit.SECONDS);
+    BulkResponseItem secondItem = second.get(5, TimeUnit.SECONDS);
+    bulkIngester.close();
+
+    // Then
+    assertAll(
+        () -> assertEquals("1", firstItem.id()),
+        () -> assertEquals("2", secondItem.id()),
+        () -> assertEquals(2, server.requestCount(BULK)),
+        () -> assertEquals(1L, bulkIngester.rejectedCount()),
+        () -> assertEquals(1L, bulkIngester.retriedCount()),
+        () -> assertEquals(0, bulkIngester.pendingCount()),
+        // 4 -> 2(거절) -> 3(성공)
+        () -> assertEquals(3, bulkIngester.concurrencyLimit())
+    );
+  }
+
+  @DisplayName("요청_전체가_429로_거절되면_maxRetries번까지_다시_보낸_후_실패")
+  @Test
+  void testRetryExhausted() throws Exception {
+
+    // Given
+    server.handle(BULK, (m, p, b) -> new Response(429, "{\"error\":{\"type\":"
+        + "\"es_rejected_execution_exception\",\"reason\":\"rejected\"},\"status\":429}"));
+    BulkIngester bulkIngester =
+        new BulkIngester(new OpenSearchClient(transport), properties, "test-bulk");
+
+    // When
+    CompletableFuture<BulkResponseItem> future = bulkIngester.add(operation("1"));
+    ExecutionException failure = assertThrows(ExecutionException.class,
+        () -> future.get(5, TimeUnit.SECONDS));
+    bulkIngester.close();
+
+    // Then
+    assertAll(
+        () -> assertEquals(429, TransientFailures.status(failure.getCause())),
+        () -> assertEquals(3, server.requestCount(BULK)),
+        () -> assertEquals(3L, bulkIngester.rejectedCount()),
+        () -> assertEquals(2L, bulkIngester.retriedCount()),
+        () -> assertEquals(0, bulkIngester.pendingCount()),
+        () -> assertEquals(1, bulkIngester.concurrencyLimit())
+    );
+  }
+
+  @DisplayName("close_backoff를_기다리던_Document를_기다리지_않고_전송")
+  @Test
+  void testCloseSendsDelayedRetries() throws Exception {
+
+    // Given
+    properties.setRetryBackoff(Duration.ofHours(1));
+    AtomicInteger calls = new AtomicInteger();
+    server.handle(BULK, (m, p, b) -> calls.incrementAndGet() == 1
+        ? new Response(200, "{\"took\":1,\"errors\":true,\"items\":["
+            + item("1", 429, "es_rejected_execution_exception") + "]}")
+        : new Response(200, "{\"took\":1,\"errors\":false,\"items\":["
+            + item("1", 201, null) + "]}"));
+    BulkIngester bulkIngester =
+        new BulkIngester(new OpenSearchClient(transport), properties, "test-bulk");
+
+    // When
+    CompletableFuture<BulkResponseItem> future = bulkIngester.add(operation("1"));
+    bulkIngester.flush();
+    while (bulkIngester.retriedCount() == 0) {
+      Thread.sleep(10);
+    }
+    bulkIngester.close();
+
+    // Then
+    assertAll(
+        () -> assertEquals("1", future.get(5, TimeUnit.SECONDS).id()),
+        () -> assertEquals(2, server.requestCount(BULK)),
+        () -> assertEquals(0, bulkIngester.pendingCount())
+    );
+  }
+
+  private static BulkOperation operation(String id) {
+    return BulkOperation.of(o -> o.index(i -> i.index(INDEX_NAME).id(id)
+        .document(Map.of("problemNo", id))));
+  }
+
+  private static String item(String id, int status, String errorType) {
+    return "{\"index\":{\"_index\":\"" + INDEX_NAME + "\",\"_id\":\"" + id + "\",\"status\":"
+        + status + (errorType == null ? ""
+        : ",\"error\":{\"type\":\"" + errorType + "\",\"reason\":\"rejected\"}") + "}}";
+  }
+}
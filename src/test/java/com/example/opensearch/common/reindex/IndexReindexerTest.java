@@ -0,0 +1,200 @@
+package com.example.opensearch.common.reindex;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class IndexReindexerTest {
+
+  static final String INDEX_NAME = "sample-index";
+  static final String TARGET_INDEX = "sample-index.v2";
+  static final String TASK_ID = "node-1:42";
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}";
+  static final String ACKNOWLEDGED = "{\"acknowledged\":true}";
+
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  IndexReindexer indexReindexer;
+  AtomicInteger taskPolls = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+
+    OpenSearchProperties.Reindex reindex = new OpenSearchProperties.Reindex();
+    reindex.setPollInterval(Duration.ofMillis(10));
+    indexReindexer = new IndexReindexer(new OpenSearchClient(openSearchTransport),
+        new OpenSearchAsyncClient(openSearchTransport), reindex);
+
+    server.handle("GET /" + INDEX_NAME, (m, p, b) -> new Response(200,
+            "{\"" + INDEX_NAME + "\":{\"aliases\":{\"samples\":{}},\"mappings\":{},"
+                + "\"settings\":{\"index\":{\"number_of_shards\":\"3\","
+                + "\"number_of_replicas\":\"1\",\"refresh_interval\":\"1s\"}}}}"))
+        .handle("PUT /" + TARGET_INDEX, (m, p, b) -> new Response(200,
+            "{\"acknowledged\":true,\"shards_acknowledged\":true,\"index\":\""
+                + TARGET_INDEX + "\"}"))
+        .handle("GET /" + TARGET_INDEX + "/_alias", (m, p, b) -> new Response(200,
+            "{\"" + TARGET_INDEX + "\":{\"aliases\":{\"samples-template\":{}}}}"))
+        .handle("PUT /" + TARGET_INDEX + "/_settings", (m, p, b) ->
+            new Response(200, ACKNOWLEDGED))
+        .handle("PUT /" + INDEX_NAME + "/_settings", (m, p, b) ->
+            new Response(200, ACKNOWLEDGED))
+        .handle("POST /_aliases", (m, p, b) -> new Response(200, ACKNOWLEDGED))
+        .handle("POST /_reindex", (m, p, b) -> new Response(200, "{\"task\":\"" + TASK_ID + "\"}"))
+        .handle("POST /_tasks/" + TASK_ID + "/_cancel", (m, p, b) ->
+            new Response(200, "{\"nodes\":{}}"))
+        .handle("POST /" + INDEX_NAME + "," + TARGET_INDEX + "/_refresh", (m, p, b) ->
+            new Response(200, "{\"_shards\":" + SHARDS + "}"))
+        .handle("POST /" + INDEX_NAME + "/_count", (m, p, b) ->
+            new Response(200, "{\"count\":10,\"_shards\":" + SHARDS + "}"))
+        .handle("PUT /" + TARGET_INDEX + "/_doc/", (m, p, b) -> new Response(201,
+            "{\"_index\":\"" + TARGET_INDEX + "\",\"_id\":\"new\",\"_version\":1,"
+                + "\"result\":\"created\",\"_shards\":" + SHARDS
+                + ",\"_seq_no\":0,\"_primary_term\":1}"))
+        .handle("DELETE /" + TARGET_INDEX, (m, p, b) -> new Response(200, ACKNOWLEDGED));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    indexReindexer.close();
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("복사가_끝나면_alias를_한_번에_교체하고_복사_중_저장한_Document는_이중_저장")
+  @Test
+  void testReindex() throws Exception {
+
+    // Given
+    server.handle("GET /_tasks/" + TASK_ID, (m, p, b) -> new Response(200,
+            taskPolls.incrementAndGet() < 3 ? task(false, "[]") : task(true, "[]")))
+        .handle("POST /" + TARGET_INDEX + "/_count", (m, p, b) ->
+            new Response(200, "{\"count\":11,\"_shards\":" + SHARDS + "}"));
+
+    // When
+    ReindexJob job = indexReindexer.reindex(INDEX_NAME, TARGET_INDEX, null, null);
+    indexReindexer.mirror(INDEX_NAME, "new", null, 3L, Map.of("id", "new"));
+    indexReindexer.mirror("other-index", "other", null, 1L, Map.of("id", "other"));
+    job.completion().get(5, TimeUnit.SECONDS);
+
+    // Then
+    List<String> aliasRequests = server.requestBodies().stream()
+        .filter(body -> body.contains("\"actions\""))
+        .toList();
+    String swap = aliasRequests.get(aliasRequests.size() - 1);
+    String reindexRequest = server.requestBodies().stream()
+        .filter(body -> body.contains("\"dest\""))
+        .findFirst().orElseThrow();
+    assertAll(
+        () -> assertEquals(ReindexJob.State.COMPLETED, job.getState()),
+        () -> assertEquals(TASK_ID, job.getTaskId()),
+        () -> assertEquals(100L, job.getTotal()),
+        () -> assertTrue(reindexRequest.contains("\"version_type\":\"external\"")),
+        () -> assertTrue(aliasRequests.get(0).contains("samples-template")),
+        () -> assertTrue(swap.contains("\"remove_index\":{\"index\":\"" + INDEX_NAME + "\"}")),
+        () -> assertTrue(swap.contains("\"alias\":\"samples\"")),
+        () -> assertEquals(1, server.requestCount("PUT /" + TARGET_INDEX + "/_doc/new")),
+        () -> assertEquals(0, server.requestCount("DELETE /" + TARGET_INDEX)),
+        () -> assertTrue(server.requestBodies().contains("{\"blocks\":{\"write\":true}}"))
+    );
+  }
+
+  @DisplayName("alias_교체_전에_원본_쓰기를_막고_진행_중인_이중_저장이_끝나기를_기다림")
+  @Test
+  void testSwapWaitsForMirrors() throws Exception {
+
+    // Given
+    AtomicLong mirroredAt = new AtomicLong();
+    AtomicLong swappedAt = new AtomicLong();
+    server.handle("GET /_tasks/" + TASK_ID, (m, p, b) -> {
+          // 복사가 끝날 때 원본에 저장된 Document의 이중 저장이 진행 중
+          indexReindexer.mirror(INDEX_NAME, "slow", null, 1L, Map.of("id", "slow"));
+          return new Response(200, task(true, "[]"));
+        })
+        .handle("PUT /" + TARGET_INDEX + "/_doc/slow", (m, p, b) -> {
+          try {
+            Thread.sleep(300);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          mirroredAt.set(System.nanoTime());
+          return new Response(201, "{\"_index\":\"" + TARGET_INDEX + "\",\"_id\":\"slow\","
+              + "\"_version\":1,\"result\":\"created\",\"_shards\":" + SHARDS
+              + ",\"_seq_no\":0,\"_primary_term\":1}");
+        })
+        .handle("POST /" + TARGET_INDEX + "/_count", (m, p, b) ->
+            new Response(200, "{\"count\":10,\"_shards\":" + SHARDS + "}"))
+        .handle("POST /_aliases", (m, p, b) -> {
+          swappedAt.set(System.nanoTime());
+          return new Response(200, ACKNOWLEDGED);
+        });
+
+    // When
+    ReindexJob job = indexReindexer.reindex(INDEX_NAME, TARGET_INDEX, null, null)
+        .completion().get(5, TimeUnit.SECONDS);
+
+    // Then
+    assertAll(
+        () -> assertEquals(ReindexJob.State.COMPLETED, job.getState()),
+        () -> assertEquals(1, server.requestCount("PUT /" + INDEX_NAME + "/_settings")),
+        () -> assertTrue(mirroredAt.get() > 0),
+        () -> assertTrue(swappedAt.get() > mirroredAt.get())
+    );
+  }
+
+  @DisplayName("reindex_작업이_실패하면_대상_Index를_삭제하고_alias는_그대로_둠")
+  @Test
+  void testRollback() throws Exception {
+
+    // Given
+    server.handle("GET /_tasks/" + TASK_ID, (m, p, b) -> new Response(200,
+        task(true, "[{\"index\":\"" + TARGET_INDEX + "\",\"id\":\"1\",\"status\":400,"
+            + "\"cause\":{\"type\":\"mapper_parsing_exception\",\"reason\":\"failed\"}}]")));
+
+    // When
+    ReindexJob job = indexReindexer.reindex(INDEX_NAME, TARGET_INDEX, null, null)
+        .completion().get(5, TimeUnit.SECONDS);
+
+    // Then
+    assertAll(
+        () -> assertEquals(ReindexJob.State.ROLLED_BACK, job.getState()),
+        () -> assertTrue(job.getError().contains("mapper_parsing_exception")),
+        () -> assertEquals(1, server.requestCount("DELETE /" + TARGET_INDEX)),
+        // 원본 쓰기를 막기 전에 실패했으므로 원본 설정은 바꾸지 않음
+        () -> assertEquals(0, server.requestCount("PUT /" + INDEX_NAME + "/_settings")),
+        () -> assertTrue(server.requestBodies().stream()
+            .noneMatch(body -> body.contains("remove_index")))
+    );
+  }
+
+  private static String task(boolean completed, String failures) {
+    String status = "{\"total\":100,\"created\":" + (completed ? 100 : 40) + ",\"updated\":0,"
+        + "\"deleted\":0,\"batches\":1,\"version_conflicts\":0,\"noops\":0}";
+    return "{\"completed\":" + completed + ",\"task\":{\"node\":\"node-1\",\"id\":42,"
+        + "\"action\":\"indices:data/write/reindex\",\"status\":" + status + "}"
+        + (completed ? ",\"response\":{\"total\":100,\"created\":100,\"updated\":0,"
+        + "\"deleted\":0,\"version_conflicts\":0,\"noops\":0,\"failures\":" + failures + "}" : "")
+        + "}";
+  }
+}
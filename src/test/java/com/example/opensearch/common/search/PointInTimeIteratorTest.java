@@ -0,0 +1,174 @@
+package com.example.opensearch.common.search;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.opensearch.sample.service.dto.SampleDto;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.Time;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class PointInTimeIteratorTest {
+
+  static final String INDEX_NAME = "sample-index";
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}";
+  static final List<String> DOCUMENT_IDS = IntStream.range(0, 25)
+      .mapToObj(i -> String.format("doc-%02d", i))
+      .toList();
+
+  ObjectMapper objectMapper = new ObjectMapper();
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  OpenSearchAsyncClient openSearchAsyncClient;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+    openSearchAsyncClient = new OpenSearchAsyncClient(openSearchTransport);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("PIT_search_after로 모든 Document를 순서대로 조회하고 PIT를 해제")
+  @Test
+  void testPointInTime() {
+
+    // Given
+    server.handle("POST /" + INDEX_NAME + "/_search/point_in_time", (m, p, b) ->
+            new Response(200, "{\"pit_id\":\"pit-1\",\"_shards\":" + SHARDS
+                + ",\"creation_time\":1}"))
+        .handle("POST /_search", (m, p, body) -> {
+          JsonNode request = read(body);
+          String after = request.has("search_after")
+              ? request.get("search_after").get(0).asText() : "";
+          List<String> ids = DOCUMENT_IDS.stream()
+              .filter(id -> id.compareTo(after) > 0)
+              .limit(request.get("size").asInt())
+              .toList();
+          return new Response(200, searchResponse("\"pit_id\":\"pit-1\"", ids));
+        })
+        .handle("DELETE /_search/point_in_time", (m, p, b) ->
+            new Response(200, "{\"pits\":[{\"successful\":true,\"pit_id\":\"pit-1\"}]}"));
+
+    // When
+    List<String> ids;
+    try (Stream<SampleDto.Document> documents = iterator(10).stream()) {
+      ids = documents.map(SampleDto.Document::getId).toList();
+    }
+
+    // Then
+    assertAll(
+        () -> assertEquals(DOCUMENT_IDS, ids),
+        () -> assertEquals(3, server.requestCount("POST /_search")),
+        () -> assertEquals(1, server.requestCount("DELETE /_search/point_in_time"))
+    );
+  }
+
+  @DisplayName("PIT_순회를 중간에 멈추고 닫으면 PIT를 해제")
+  @Test
+  void testCloseEarly() {
+
+    // Given
+    server.handle("POST /" + INDEX_NAME + "/_search/point_in_time", (m, p, b) ->
+            new Response(200, "{\"pit_id\":\"pit-1\",\"_shards\":" + SHARDS
+                + ",\"creation_time\":1}"))
+        .handle("POST /_search", (m, p, body) ->
+            new Response(200, searchResponse("\"pit_id\":\"pit-1\"", DOCUMENT_IDS.subList(0, 10))))
+        .handle("DELETE /_search/point_in_time", (m, p, b) ->
+            new Response(200, "{\"pits\":[{\"successful\":true,\"pit_id\":\"pit-1\"}]}"));
+
+    // When
+    List<SampleDto.Document> documents;
+    try (Stream<SampleDto.Document> stream = iterator(10).stream()) {
+      documents = stream.limit(5).toList();
+    }
+
+    // Then
+    assertAll(
+        () -> assertEquals(5, documents.size()),
+        () -> assertEquals(1, server.requestCount("DELETE /_search/point_in_time"))
+    );
+  }
+
+  @DisplayName("scroll_PIT를 지원하지 않으면 scroll로 조회하고 scroll을 해제")
+  @Test
+  void testScrollFallback() {
+
+    // Given
+    List<List<String>> pages = new ArrayList<>();
+    for (int from = 0; from < DOCUMENT_IDS.size(); from += 10) {
+      pages.add(DOCUMENT_IDS.subList(from, Math.min(from + 10, DOCUMENT_IDS.size())));
+    }
+    server.handle("POST /" + INDEX_NAME + "/_search/point_in_time", (m, p, b) ->
+            new Response(400, "{\"error\":{\"type\":\"illegal_argument_exception\","
+                + "\"reason\":\"no handler found\"},\"status\":400}"))
+        .handle("POST /" + INDEX_NAME + "/_search", (m, p, b) ->
+            new Response(200, searchResponse("\"_scroll_id\":\"scroll-1\"", pages.get(0))))
+        .handle("POST /_search/scroll", (m, p, body) -> {
+          int page = Integer.parseInt(read(body).get("scroll_id").asText().substring(7));
+          return new Response(200, searchResponse(
+              "\"_scroll_id\":\"scroll-" + (page + 1) + "\"", pages.get(page)));
+        })
+        .handle("DELETE /_search/scroll", (m, p, b) ->
+            new Response(200, "{\"succeeded\":true,\"num_freed\":1}"));
+
+    // When
+    List<String> ids;
+    try (Stream<SampleDto.Document> documents = iterator(10).stream()) {
+      ids = documents.map(SampleDto.Document::getId).toList();
+    }
+
+    // Then
+    assertAll(
+        () -> assertEquals(DOCUMENT_IDS, ids),
+        () -> assertEquals(2, server.requestCount("POST /_search/scroll")),
+        () -> assertEquals(1, server.requestCount("DELETE /_search/scroll"))
+    );
+  }
+
+  private PointInTimeIterator<SampleDto.Document> iterator(int pageSize) {
+    return new PointInTimeIterator<>(openSearchAsyncClient, INDEX_NAME,
+        Query.of(q -> q.matchAll(m -> m)), "id.keyword", pageSize,
+        Time.of(t -> t.time("1m")), SampleDto.Document.class);
+  }
+
+  private JsonNode read(String body) {
+    try {
+      return objectMapper.readTree(body);
+    } catch (Exception e) {
+      throw new IllegalArgumentException(body, e);
+    }
+  }
+
+  private static String searchResponse(String context, List<String> ids) {
+    String hits = ids.stream()
+        .map(id -> "{\"_index\":\"" + INDEX_NAME + "\",\"_id\":\"" + id + "\",\"_score\":null,"
+            + "\"_source\":{\"id\":\"" + id + "\",\"firstName\":\"f\",\"lastName\":\"l\"},"
+            + "\"sort\":[\"" + id + "\"]}")
+        .collect(Collectors.joining(","));
+    return "{" + context + ",\"took\":1,\"timed_out\":false,\"_shards\":" + SHARDS
+        + ",\"hits\":{\"max_score\":null,\"hits\":[" + hits + "]}}";
+  }
+}
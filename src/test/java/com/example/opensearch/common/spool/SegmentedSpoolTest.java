@@ -0,0 +1,142 @@
+package com.example.opensearch.common.spool;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentedSpoolTest {
+
+  // 레코드 하나(8 + 11바이트)가 세 개까지 들어가는 세그먼트
+  static final int SEGMENT_SIZE = 64;
+
+  @TempDir
+  Path directory;
+
+  @DisplayName("기록한_순서대로_읽고_commit하면_다_읽은_세그먼트를_삭제")
+  @Test
+  void testAppendReadCommit() throws Exception {
+
+    // Given
+    List<String> read;
+    long pendingAfterCommit;
+    long segmentsBeforeCommit;
+    long segmentsAfterCommit;
+    try (SegmentedSpool spool = open(SEGMENT_SIZE * 10)) {
+      for (int i = 0; i < 10; i++) {
+        spool.append(record(i));
+      }
+      segmentsBeforeCommit = segmentFiles();
+
+      // When
+      List<SegmentedSpool.Entry> entries = spool.read(7);
+      spool.commit(entries);
+      pendingAfterCommit = spool.pendingCount();
+      segmentsAfterCommit = segmentFiles();
+      entries.addAll(spool.read(100));
+      read = entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8))
+          .toList();
+    }
+
+    // Then
+    assertAll(
+        () -> assertEquals(10, read.size()),
+        () -> assertEquals("record-0000", read.get(0)),
+        () -> assertEquals("record-0009", read.get(9)),
+        () -> assertEquals(3L, pendingAfterCommit),
+        () -> assertEquals(4L, segmentsBeforeCommit),
+        // 7번째 레코드가 있는 세그먼트부터 남음
+        () -> assertEquals(2L, segmentsAfterCommit)
+    );
+  }
+
+  @DisplayName("다시_열면_checkpoint부터_읽고_깨진_마지막_레코드는_버림")
+  @Test
+  void testRecover() throws Exception {
+
+    // Given
+    try (SegmentedSpool spool = open(SEGMENT_SIZE * 10)) {
+      for (int i = 0; i < 5; i++) {
+        spool.append(record(i));
+      }
+      spool.commit(spool.read(2));
+    }
+    // 다섯 번째 레코드(마지막 세그먼트의 두 번째 레코드)의 본문을 쓰다가 중단된 상태
+    Path lastSegment = directory.resolve(String.format("spool-%020d.log", 1));
+    try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap("broken".getBytes(StandardCharsets.UTF_8)),
+          19 + SegmentedSpool.HEADER_SIZE);
+    }
+
+    // When
+    List<String> read;
+    long pendingAfterRecover;
+    try (SegmentedSpool spool = open(SEGMENT_SIZE * 10)) {
+      pendingAfterRecover = spool.pendingCount();
+      spool.append(record(5));
+    }
+    try (SegmentedSpool spool = open(SEGMENT_SIZE * 10)) {
+      read = spool.read(100).stream()
+          .map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    // Then
+    assertAll(
+        () -> assertEquals(2L, pendingAfterRecover),
+        () -> assertEquals(List.of("record-0002", "record-0003", "record-0005"), read)
+    );
+  }
+
+  @DisplayName("maxSize만큼_차면_새_레코드를_거절")
+  @Test
+  void testMaxSize() throws Exception {
+
+    try (SegmentedSpool spool = open(SEGMENT_SIZE * 2)) {
+
+      // When
+      for (int i = 0; i < 6; i++) {
+        assertTrue(spool.append(record(i)));
+      }
+      boolean appended = spool.append(record(6));
+      spool.commit(spool.read(3));
+      boolean appendedAfterCommit = spool.append(record(7));
+
+      // Then
+      assertAll(
+          () -> assertFalse(appended),
+          () -> assertTrue(appendedAfterCommit),
+          () -> assertEquals(1L, spool.rejectedCount()),
+          () -> assertEquals(4L, spool.pendingCount()),
+          () -> assertEquals(SEGMENT_SIZE * 2L, spool.sizeBytes())
+      );
+    }
+  }
+
+  private SegmentedSpool open(long maxSize) throws IOException {
+    return new SegmentedSpool(directory, SEGMENT_SIZE, maxSize, Duration.ofMillis(10));
+  }
+
+  private static byte[] record(int i) {
+    return String.format("record-%04d", i).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private long segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package com.example.opensearch.common.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class IndexTransferTest {
+
+  static final String INDEX_NAME = "sample-index";
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}";
+  static final int SLICES = 2;
+  static final int PAGE_SIZE = 10;
+  static final List<String> DOCUMENT_IDS = IntStream.range(0, 45)
+      .mapToObj(i -> String.format("doc-%02d", i))
+      .toList();
+
+  @TempDir
+  Path directory;
+
+  ObjectMapper objectMapper = new ObjectMapper();
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  IndexTransfer indexTransfer;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+
+    OpenSearchProperties.Transfer transfer = new OpenSearchProperties.Transfer();
+    transfer.setSlices(SLICES);
+    transfer.setPageSize(PAGE_SIZE);
+    transfer.setBulkMaxActions(7);
+    transfer.setMaxConcurrentRequests(2);
+    transfer.setRetryBackoff(Duration.ofMillis(1));
+    indexTransfer = new IndexTransfer(new OpenSearchClient(openSearchTransport), transfer);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("sliced_scroll로_내보낸_파일을_bulk로_가져오면_모든_Document와_routing이_보존됨")
+  @Test
+  void testExportAndImport() throws Exception {
+
+    // Given
+    // 슬라이스별로 Document를 나누고 scroll_id에 슬라이스와 다음 페이지 위치를 담는다
+    server.handle("POST /" + INDEX_NAME + "/_search", (m, p, body) -> {
+          int slice = read(body).get("slice").get("id").asInt();
+          return new Response(200, scrollPage(slice, 0));
+        })
+        .handle("POST /_search/scroll", (m, p, body) -> {
+          String[] scrollId = read(body).get("scroll_id").asText().split(":");
+          return new Response(200,
+              scrollPage(Integer.parseInt(scrollId[0]), Integer.parseInt(scrollId[1])));
+        })
+        .handle("DELETE /_search/scroll", (m, p, b) ->
+            new Response(200, "{\"succeeded\":true,\"num_freed\":1}"));
+
+    Map<String, String> imported = new ConcurrentHashMap<>();
+    server.handle("POST /_bulk", (m, p, body) -> {
+      List<String> items = new ArrayList<>();
+      String[] lines = body.split("\n");
+      for (int i = 0; i < lines.length; i += 2) {
+        JsonNode action = read(lines[i]).get("index");
+        imported.put(action.get("_id").asText(), action.get("routing").asText()
+            + "/" + action.get("_index").asText()
+            + "/" + read(lines[i + 1]).get("id").asText());
+        items.add("{\"index\":{\"_index\":\"copy-index\",\"_id\":\""
+            + action.get("_id").asText() + "\",\"status\":201}}");
+      }
+      return new Response(200, "{\"took\":1,\"errors\":false,\"items\":["
+          + String.join(",", items) + "]}");
+    });
+
+    // When
+    TransferReport exported = indexTransfer.exportIndex(INDEX_NAME, directory);
+    TransferReport importedReport = indexTransfer.importIndex(directory, INDEX_NAME, "copy-index");
+
+    // Then
+    Set<String> expected = new TreeSet<>(DOCUMENT_IDS);
+    assertAll(
+        () -> assertEquals(DOCUMENT_IDS.size(), exported.getDocuments()),
+        () -> assertEquals(SLICES, exported.getFiles().size()),
+        () -> assertTrue(exported.getBytes() > 0),
+        () -> assertEquals(SLICES, server.requestCount("DELETE /_search/scroll")),
+        () -> assertEquals(DOCUMENT_IDS.size(), importedReport.getDocuments()),
+        () -> assertEquals(0, importedReport.getFailedDocuments()),
+        () -> assertEquals(expected, new TreeSet<>(imported.keySet())),
+        () -> assertEquals("student-" + DOCUMENT_IDS.get(3) + "/copy-index/" + DOCUMENT_IDS.get(3),
+            imported.get(DOCUMENT_IDS.get(3)))
+    );
+  }
+
+  @DisplayName("bulk_응답의_429_항목은_다시_보내고_일시적이지_않은_오류로_실패한_항목_수를_보고")
+  @Test
+  void testImportFailures() throws Exception {
+
+    // Given
+    Set<String> failedIds = ConcurrentHashMap.newKeySet();
+    Set<String> rejectedIds = ConcurrentHashMap.newKeySet();
+    Set<String> importedIds = ConcurrentHashMap.newKeySet();
+    server.handle("POST /" + INDEX_NAME + "/_search", (m, p, body) -> {
+          int slice = read(body).get("slice").get("id").asInt();
+          return new Response(200, scrollPage(slice, 0));
+        })
+        .handle("POST /_search/scroll", (m, p, body) -> {
+          String[] scrollId = read(body).get("scroll_id").asText().split(":");
+          return new Response(200,
+              scrollPage(Integer.parseInt(scrollId[0]), Integer.parseInt(scrollId[1])));
+        })
+        // 요청의 첫 Document는 매핑 오류로, 두 번째 Document는 처음 한 번만 429로 거절
+        .handle("POST /_bulk", (m, p, body) -> {
+          String[] lines = body.split("\n");
+          List<String> items = new ArrayList<>();
+          for (int i = 0; i < lines.length; i += 2) {
+            String id = read(lines[i]).get("index").get("_id").asText();
+            if (i == 0 && !rejectedIds.contains(id)) {
+              failedIds.add(id);
+              items.add("{\"index\":{\"status\":400,\"error\":{\"type\":"
+                  + "\"mapper_parsing_exception\",\"reason\":\"failed\"}}}");
+            } else if (i == 2 && rejectedIds.add(id)) {
+              items.add("{\"index\":{\"status\":429,\"error\":{\"type\":"
+                  + "\"es_rejected_execution_exception\",\"reason\":\"rejected\"}}}");
+            } else {
+              importedIds.add(id);
+              items.add("{\"index\":{\"status\":201}}");
+            }
+          }
+          return new Response(200, "{\"took\":1,\"errors\":true,\"items\":["
+              + String.join(",", items) + "]}");
+        });
+    indexTransfer.exportIndex(INDEX_NAME, directory);
+
+    // When
+    TransferReport report = indexTransfer.importIndex(directory, INDEX_NAME, null);
+
+    // Then
+    Set<String> expected = new TreeSet<>(DOCUMENT_IDS);
+    expected.removeAll(failedIds);
+    assertAll(
+        // 슬라이스별 Document를 7개씩 나누어 보내므로 나눈 요청 수만큼 실패
+        () -> assertEquals(failedIds.size(), report.getFailedDocuments()),
+        () -> assertEquals(failedIds.size() + rejectedIds.size(),
+            server.requestCount("POST /_bulk")),
+        () -> assertEquals(expected, new TreeSet<>(importedIds))
+    );
+  }
+
+  /**
+   * slice에 속한 Document 중 from부터 PAGE_SIZE개를 scroll 응답으로 반환
+   */
+  private static String scrollPage(int slice, int from) {
+
+    List<String> ids = DOCUMENT_IDS.stream()
+        .filter(id -> DOCUMENT_IDS.indexOf(id) % SLICES == slice)
+        .skip(from)
+        .limit(PAGE_SIZE)
+        .toList();
+    String hits = ids.stream()
+        .map(id -> "{\"_index\":\"" + INDEX_NAME + "\",\"_id\":\"" + id + "\",\"_score\":null,"
+            + "\"_routing\":\"student-" + id + "\","
+            + "\"_source\":{\"id\":\"" + id + "\",\"tags\":[\"a\",\"b\"],\"nested\":{\"n\":1}},"
+            + "\"sort\":[0]}")
+        .collect(Collectors.joining(","));
+
+    return "{\"_scroll_id\":\"" + slice + ":" + (from + PAGE_SIZE) + "\",\"took\":1,"
+        + "\"timed_out\":false,\"_shards\":" + SHARDS
+        + ",\"hits\":{\"max_score\":null,\"hits\":[" + hits + "]}}";
+  }
+
+  private JsonNode read(String body) {
+    try {
+      return objectMapper.readTree(body);
+    } catch (Exception e) {
+      throw new IllegalArgumentException(body, e);
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package com.example.opensearch.config.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.io.IOException;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch._types.Time;
+import org.opensearch.client.transport.Endpoint;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.TransportOptions;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class CoalescingOpenSearchTransportTest {
+
+  static final String INDEX_NAME = "problem-records-2024.07";
+  static final String SEARCH = "POST /" + INDEX_NAME + "/_search";
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}";
+
+  StubOpenSearchServer server;
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  OpenSearchTransport apacheTransport;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    server.handle(SEARCH, (m, p, b) -> new Response(200,
+        "{\"took\":3,\"timed_out\":false,\"_shards\":" + SHARDS + ","
+            + "\"hits\":{\"total\":{\"value\":0,\"relation\":\"eq\"},\"hits\":[]}}"));
+    apacheTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    apacheTransport.close();
+    server.close();
+  }
+
+  @DisplayName("동시에_들어온_같은_검색_요청은_한_번만_전송하고_같은_응답을_공유")
+  @Test
+  void testCoalesce() throws Exception {
+
+    // Given
+    CoalescingOpenSearchTransport transport =
+        new CoalescingOpenSearchTransport(apacheTransport, Duration.ZERO, meterRegistry);
+    OpenSearchClient openSearchClient = new OpenSearchClient(transport);
+    OpenSearchAsyncClient openSearchAsyncClient = new OpenSearchAsyncClient(transport);
+    server.setDelayMillis(300);
+
+    // When
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<SearchResponse<Map>>> responses = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      // 같은 내용이면 aggregation을 추가한 순서가 달라도 같은 요청
+      boolean reversed = i % 2 == 0;
+      responses.add(executor.submit(() -> openSearchClient.search(request(reversed), Map.class)));
+    }
+    CompletableFuture<SearchResponse<Map>> asyncResponse =
+        openSearchAsyncClient.search(request(false), Map.class);
+    SearchResponse<Map> first = responses.get(0).get(5, TimeUnit.SECONDS);
+    for (Future<SearchResponse<Map>> response : responses) {
+      response.get(5, TimeUnit.SECONDS);
+    }
+    asyncResponse.get(5, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    // Then
+    assertAll(
+        () -> assertEquals(1, server.requestCount(SEARCH)),
+        () -> assertEquals(3L, first.took()),
+        () -> assertEquals(1.0, counter("leader")),
+        () -> assertEquals(8.0, counter("follower")),
+        () -> assertEquals(0, transport.sharedCalls())
+    );
+  }
+
+  @DisplayName("graceWindow_안에_들어온_같은_요청은_완료된_응답을_재사용하고_지나면_다시_전송")
+  @Test
+  void testGraceWindow() throws Exception {
+
+    // Given
+    CoalescingOpenSearchTransport transport = new CoalescingOpenSearchTransport(
+        apacheTransport, Duration.ofMillis(500), meterRegistry);
+    OpenSearchClient openSearchClient = new OpenSearchClient(transport);
+
+    // When
+    openSearchClient.search(request(false), Map.class);
+    openSearchClient.search(request(true), Map.class);
+    openSearchClient.search(s -> s.index(INDEX_NAME).size(1), Map.class);
+    Thread.sleep(600);
+    openSearchClient.search(request(false), Map.class);
+
+    // Then
+    assertAll(
+        () -> assertEquals(3, server.requestCount(SEARCH)),
+        () -> assertEquals(3.0, counter("leader")),
+        () -> assertEquals(1.0, counter("grace"))
+    );
+  }
+
+  @DisplayName("scroll을_여는_같은_검색_요청은_합치지_않고_각각_전송")
+  @Test
+  void testScrollNotCoalesced() throws Exception {
+
+    // Given
+    CoalescingOpenSearchTransport transport =
+        new CoalescingOpenSearchTransport(apacheTransport, Duration.ZERO, meterRegistry);
+    OpenSearchAsyncClient openSearchAsyncClient = new OpenSearchAsyncClient(transport);
+    server.setDelayMillis(300);
+    SearchRequest scrollRequest = SearchRequest.of(s -> s.index(INDEX_NAME).size(100)
+        .scroll(Time.of(t -> t.time("1m"))));
+
+    // When
+    CompletableFuture<SearchResponse<Map>> first =
+        openSearchAsyncClient.search(scrollRequest, Map.class);
+    CompletableFuture<SearchResponse<Map>> second =
+        openSearchAsyncClient.search(scrollRequest, Map.class);
+    first.get(5, TimeUnit.SECONDS);
+    second.get(5, TimeUnit.SECONDS);
+
+    // Then
+    assertAll(
+        () -> assertEquals(2, server.requestCount(SEARCH)),
+        () -> assertEquals(0, transport.sharedCalls())
+    );
+  }
+
+  @DisplayName("전송이_바로_예외를_던지면_공유_요청을_제거하고_다음_요청은_다시_전송")
+  @Test
+  void testSynchronousFailure() throws Exception {
+
+    // Given
+    AtomicBoolean failing = new AtomicBoolean(true);
+    CoalescingOpenSearchTransport transport = new CoalescingOpenSearchTransport(
+        new FailingTransport(apacheTransport, failing), Duration.ZERO, meterRegistry);
+    OpenSearchAsyncClient openSearchAsyncClient = new OpenSearchAsyncClient(transport);
+
+    // When
+    CompletableFuture<SearchResponse<Map>> failed =
+        openSearchAsyncClient.search(request(false), Map.class);
+    failing.set(false);
+    SearchResponse<Map> response =
+        openSearchAsyncClient.search(request(false), Map.class).get(5, TimeUnit.SECONDS);
+
+    // Then
+    assertAll(
+        () -> assertThrows(Exception.class, () -> failed.get(5, TimeUnit.SECONDS)),
+        () -> assertEquals(3L, response.took()),
+        () -> assertEquals(1, server.requestCount(SEARCH)),
+        () -> assertEquals(0, transport.sharedCalls())
+    );
+  }
+
+  private double counter(String role) {
+    return meterRegistry.get(CoalescingOpenSearchTransport.COALESCING)
+        .tag("role", role).counter().count();
+  }
+
+  private static SearchRequest request(boolean reversed) {
+    return SearchRequest.of(s -> {
+      s.index(INDEX_NAME).size(0);
+      if (reversed) {
+        s.aggregations("avgDscc", a -> a.avg(v -> v.field("dsscValue")))
+            .aggregations("correct", a -> a.terms(t -> t.field("correctYn")));
+      } else {
+        s.aggregations("correct", a -> a.terms(t -> t.field("correctYn")))
+            .aggregations("avgDscc", a -> a.avg(v -> v.field("dsscValue")));
+      }
+      return s;
+    });
+  }
+
+  /**
+   * failing이 true인 동안 performRequestAsync가 future를 돌려주지 않고 바로 예외를 던지는 전송
+   */
+  private record FailingTransport(OpenSearchTransport delegate, AtomicBoolean failing)
+      implements OpenSearchTransport {
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+        Endpoint<RequestT, ResponseT, ErrorT> endpoint, TransportOptions options)
+        throws IOException {
+      return delegate.performRequest(request, endpoint, options);
+    }
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(
+        RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+        TransportOptions options) {
+      if (failing.get()) {
+        throw new IllegalStateException("I/O reactor has been shut down");
+      }
+      return delegate.performRequestAsync(request, endpoint, options);
+    }
+
+    @Override
+    public JsonpMapper jsonpMapper() {
+      return delegate.jsonpMapper();
+    }
+
+    @Override
+    public TransportOptions options() {
+      return delegate.options();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+}
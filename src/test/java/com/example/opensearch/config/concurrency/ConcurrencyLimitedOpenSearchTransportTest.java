@@ -0,0 +1,113 @@
+package com.example.opensearch.config.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class ConcurrencyLimitedOpenSearchTransportTest {
+
+  static final int MAX_REQUESTS = 3;
+
+  StubOpenSearchServer server;
+  OpenSearchTransport apacheTransport;
+  AtomicInteger inFlight = new AtomicInteger();
+  AtomicInteger maxInFlight = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer()
+        .handle("HEAD /sample-index", (m, p, b) -> {
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(50);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          inFlight.decrementAndGet();
+          return new Response(200, "");
+        });
+    apacheTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    apacheTransport.close();
+    server.close();
+  }
+
+  @DisplayName("동기,_비동기_요청이_섞여도_동시에_전송하는_요청은_maxRequests개를_넘지_않음")
+  @Test
+  void testLimit() throws Exception {
+
+    // Given
+    ConcurrencyLimitedOpenSearchTransport transport = new ConcurrencyLimitedOpenSearchTransport(
+        apacheTransport, MAX_REQUESTS, Duration.ofSeconds(10));
+    OpenSearchClient openSearchClient = new OpenSearchClient(transport);
+    OpenSearchAsyncClient openSearchAsyncClient = new OpenSearchAsyncClient(transport);
+    ExecutorService executor = Executors.newFixedThreadPool(10);
+
+    // When
+    List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(openSearchAsyncClient.indices().exists(e -> e.index("sample-index"))
+          .thenApply(response -> response.value()));
+      futures.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          return openSearchClient.indices().exists(e -> e.index("sample-index")).value();
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      }, executor));
+    }
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    // Then
+    assertAll(
+        () -> assertEquals(20, server.requestCount("HEAD /sample-index")),
+        () -> assertTrue(maxInFlight.get() <= MAX_REQUESTS, "max : " + maxInFlight.get()),
+        () -> assertEquals(MAX_REQUESTS, transport.availablePermits()),
+        () -> assertEquals(0, transport.waitingRequests())
+    );
+  }
+
+  @DisplayName("순서를_acquireTimeout까지_기다리지_못한_동기_요청은_전송하지_않고_실패")
+  @Test
+  void testAcquireTimeout() throws Exception {
+
+    // Given
+    ConcurrencyLimitedOpenSearchTransport transport = new ConcurrencyLimitedOpenSearchTransport(
+        apacheTransport, 1, Duration.ofMillis(10));
+    CompletableFuture<?> running = new OpenSearchAsyncClient(transport).indices()
+        .exists(e -> e.index("sample-index"));
+
+    // When & Then
+    assertThrows(RejectedExecutionException.class, () -> new OpenSearchClient(transport)
+        .indices().exists(e -> e.index("sample-index")));
+    running.get(10, TimeUnit.SECONDS);
+    assertEquals(1, server.requestCount("HEAD /sample-index"));
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.opensearch.config.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.opensearch.common.bulk.BulkIngester;
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.ProblemAnswerSpool;
+import com.example.opensearch.sample.service.ProblemRollups;
+import com.example.opensearch.sample.service.ProblemService;
+import com.example.opensearch.sample.service.ProblemStatisticsCache;
+import com.example.opensearch.sample.service.load.AnswerSheetGenerator;
+import com.example.opensearch.sample.service.load.LoadProfile;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * 가상 스레드에서 문항 풀이 저장, 조회 경로를 실행하는 동안 캐리어 스레드 점유(pinning)가 없는지 확인
+ *
+ * <p>JFR의 jdk.VirtualThreadPinned 이벤트로 확인하며, 가상 스레드가 있는 Java 21 이상에서만 실행</p>
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadPinningTest {
+
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}";
+
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  BulkIngester problemBulkIngester;
+  IndexReindexer indexReindexer;
+  ProblemService problemService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer()
+        .handle("POST /problem-records-", (m, p, b) -> new Response(201,
+            "{\"_index\":\"problem-records-2024.07\",\"_id\":\"1\",\"_version\":1,"
+                + "\"result\":\"created\",\"_shards\":" + SHARDS
+                + ",\"_seq_no\":0,\"_primary_term\":1}"))
+        .handle("POST /problem-records/_search", (m, p, b) -> new Response(200,
+            "{\"took\":1,\"timed_out\":false,\"_shards\":" + SHARDS + ","
+                + "\"hits\":{\"total\":{\"value\":0,\"relation\":\"eq\"},\"hits\":[]},"
+                + "\"aggregations\":{\"value_count#correct_total_count\":{\"value\":10},"
+                + "\"filter#correct_true_count\":{\"doc_count\":7}}}"))
+        .handle("POST /_bulk", (m, p, body) -> {
+          List<String> items = new ArrayList<>();
+          for (int i = 0; i < body.split("\n").length; i += 2) {
+            items.add("{\"index\":{\"_index\":\"problem-records-2024.07\",\"_id\":\"" + i
+                + "\",\"_version\":1,\"status\":201}}");
+          }
+          return new Response(200, "{\"took\":1,\"errors\":false,\"items\":["
+              + String.join(",", items) + "]}");
+        });
+
+    OpenSearchProperties openSearchProperties = new OpenSearchProperties();
+    openSearchProperties.getBulk().setFlushInterval(Duration.ofMillis(20));
+    openSearchProperties.getCache().setEnabled(false);
+    openSearchTransport = new ConcurrencyLimitedOpenSearchTransport(
+        ApacheHttpClient5TransportBuilder.builder(HttpHost.create(server.uri())).build(),
+        8, Duration.ofSeconds(10));
+    OpenSearchClient openSearchClient = new OpenSearchClient(openSearchTransport);
+    problemBulkIngester = new BulkIngester(openSearchClient, openSearchProperties.getBulk(),
+        "problem-bulk-pinning", true);
+    indexReindexer = new IndexReindexer(openSearchClient,
+        new OpenSearchAsyncClient(openSearchTransport), openSearchProperties.getReindex());
+    ProblemStatisticsCache problemStatisticsCache = new ProblemStatisticsCache(openSearchProperties,
+        new SimpleMeterRegistry());
+    openSearchProperties.getSpool().setEnabled(false);
+    openSearchProperties.getRollup().setEnabled(false);
+    ProblemRollups problemRollups = new ProblemRollups(openSearchClient, openSearchProperties,
+        new SimpleMeterRegistry());
+    problemService = new ProblemService(openSearchClient, problemBulkIngester,
+        problemStatisticsCache, openSearchProperties, indexReindexer,
+        new ProblemAnswerSpool(openSearchClient, problemStatisticsCache, problemRollups,
+            indexReindexer, openSearchProperties, new SimpleMeterRegistry()),
+        problemRollups);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    problemBulkIngester.close();
+    indexReindexer.close();
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("insertProblemAnswer,_bulkInsertProblemAnswer,_getCorrectTrueRate를_가상_스레드에서_실행해도_pinning_없음")
+  @Test
+  void testNoPinning() throws Exception {
+
+    // Given
+    List<String> pinned = new CopyOnWriteArrayList<>();
+    AnswerSheetGenerator generator = new AnswerSheetGenerator(LoadProfile.builder()
+        .students(100)
+        .problemsPerSheet(10)
+        .build());
+    VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("pinning-test-");
+
+    try (RecordingStream recordingStream = new RecordingStream()) {
+      recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO)
+          .withStackTrace();
+      recordingStream.onEvent("jdk.VirtualThreadPinned",
+          event -> pinned.add(String.valueOf(event.getStackTrace())));
+      recordingStream.startAsync();
+
+      // When
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        AnswerSheetGenerator.Sheet sheet = generator.next();
+        futures.add(executor.submit(() -> {
+          sheet.answers().forEach(problemService::insertProblemAnswer);
+          sheet.answers().forEach(answer -> problemService.bulkInsertProblemAnswer(answer)
+              .join());
+          return problemService.getCorrectTrueRate(sheet.studentId());
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+
+      // JFR 이벤트가 전달될 때까지 대기
+      Thread.sleep(2000);
+    }
+
+    // Then
+    assertEquals(List.of(), pinned);
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.opensearch.config.json;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.sample.service.dto.SampleDto;
+import jakarta.json.stream.JsonGenerator;
+import java.io.StringWriter;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.jackson.JacksonJsonpMapper;
+
+class DtoJsonpMapperTest {
+
+  JsonpMapper defaultMapper = new JacksonJsonpMapper();
+  JsonpMapper dtoMapper = DtoJsonpMapper.create(false);
+
+  @DisplayName("직접_작성한_Serializer는_기본_JacksonJsonpMapper와_같은_JSON을_만들고_null_필드는_제외")
+  @Test
+  void testSerialize() {
+
+    // Given
+    ProblemDto.AnswerDocument answer = ProblemDto.AnswerDocument.builder()
+        .studyId(1024L)
+        .studyStructureId(20480L)
+        .studentId("student-\"1\"")
+        .problemNo(17)
+        .correctYn(false)
+        .problemStartDtm(1721034765123L)
+        .durationMs(46333L)
+        .dsscValue(5)
+        .build();
+    ProblemDto.AnswerDocument partialAnswer = ProblemDto.AnswerDocument.builder()
+        .studentId("student-1")
+        .problemNo(3)
+        .build();
+    SampleDto.Document document = SampleDto.Document.builder()
+        .id("1")
+        .firstName("서연")
+        .build();
+
+    // When, Then
+    assertAll(
+        () -> assertEquals(serialize(answer, defaultMapper), serialize(answer, dtoMapper)),
+        () -> assertEquals(serialize(partialAnswer, defaultMapper),
+            serialize(partialAnswer, dtoMapper)),
+        () -> assertEquals(serialize(document, defaultMapper), serialize(document, dtoMapper)),
+        () -> assertEquals(serialize(Map.of("id", "1"), defaultMapper),
+            serialize(Map.of("id", "1"), dtoMapper))
+    );
+  }
+
+  private static String serialize(Object value, JsonpMapper mapper) {
+    StringWriter out = new StringWriter();
+    try (JsonGenerator generator = mapper.jsonProvider().createGenerator(out)) {
+      mapper.serialize(value, generator);
+    }
+    return out.toString();
+  }
+}
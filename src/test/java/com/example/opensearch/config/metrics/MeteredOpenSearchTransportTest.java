@@ -0,0 +1,111 @@
+package com.example.opensearch.config.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class MeteredOpenSearchTransportTest {
+
+  static final String INDEX_NAME = "problem-records-2024.07";
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}";
+
+  StubOpenSearchServer server;
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  OpenSearchTransport openSearchTransport;
+  OpenSearchClient openSearchClient;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    openSearchTransport = new MeteredOpenSearchTransport(ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri()))
+        .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder
+            .addExecInterceptorLast(TrafficMetricsInterceptor.NAME,
+                new TrafficMetricsInterceptor(meterRegistry)))
+        .build(), meterRegistry);
+    openSearchClient = new OpenSearchClient(openSearchTransport);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("검색_요청의_응답_시간과_서버_took을_operation,_index별로_기록")
+  @Test
+  void testSearch() throws Exception {
+
+    // Given
+    server.handle("POST /" + INDEX_NAME + "/_search", (m, p, b) -> new Response(200,
+        "{\"took\":7,\"timed_out\":false,\"_shards\":" + SHARDS + ","
+            + "\"hits\":{\"total\":{\"value\":0,\"relation\":\"eq\"},\"hits\":[]}}"));
+
+    // When
+    openSearchClient.search(s -> s.index(INDEX_NAME), Map.class);
+
+    // Then
+    assertAll(
+        () -> assertEquals(1, meterRegistry.get(MeteredOpenSearchTransport.REQUESTS)
+            .tags("operation", "Search", "index", "problem-records-*", "outcome", "success")
+            .timer().count()),
+        () -> assertEquals(7.0, meterRegistry.get(MeteredOpenSearchTransport.SERVER_TOOK)
+            .tags("operation", "Search").timer().totalTime(TimeUnit.MILLISECONDS)),
+        () -> assertTrue(meterRegistry.get(TrafficMetricsInterceptor.REQUEST_SIZE)
+            .summary().totalAmount() > 0),
+        () -> assertTrue(meterRegistry.get(TrafficMetricsInterceptor.RESPONSE_SIZE)
+            .summary().totalAmount() > 0)
+    );
+  }
+
+  @DisplayName("실패한_요청은_예외_종류별로_오류_수를_기록")
+  @Test
+  void testError() {
+
+    // Given
+    server.handle("GET /missing-index/_doc/1", (m, p, b) -> new Response(400,
+        "{\"error\":{\"type\":\"illegal_argument_exception\",\"reason\":\"bad\"},"
+            + "\"status\":400}"));
+
+    // When
+    assertThrows(OpenSearchException.class,
+        () -> openSearchClient.get(g -> g.index("missing-index").id("1"), Map.class));
+
+    // Then
+    assertAll(
+        () -> assertEquals(1, meterRegistry.get(MeteredOpenSearchTransport.REQUESTS)
+            .tags("operation", "Get", "index", "missing-index", "outcome", "error")
+            .timer().count()),
+        () -> assertEquals(1.0, meterRegistry.get(MeteredOpenSearchTransport.ERRORS)
+            .tags("exception", "OpenSearchException").counter().count())
+    );
+  }
+
+  @DisplayName("날짜_파티션_Index는_tag_수가_늘어나지_않도록_날짜를_묶어서_기록")
+  @Test
+  void testIndexTag() {
+    assertAll(
+        () -> assertEquals("none", MeteredOpenSearchTransport.index("/_bulk")),
+        () -> assertEquals("sample-index",
+            MeteredOpenSearchTransport.index("/sample-index/_doc/1")),
+        () -> assertEquals("problem-records-*", MeteredOpenSearchTransport.index(
+            "/problem-records-2024.07%2Cproblem-records-2024.08.v2/_search"))
+    );
+  }
+}
@@ -0,0 +1,284 @@
+package com.example.opensearch.config.node;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.config.OpenSearchConfig;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.config.OpenSearchProperties.NodeSelectorType;
+import com.example.opensearch.config.json.DtoJsonpMapper;
+import com.example.opensearch.support.StubOpenSearchServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.internal.Node;
+import org.opensearch.client.opensearch.core.InfoResponse;
+import org.opensearch.client.transport.endpoints.BooleanResponse;
+
+@Slf4j
+class OpenSearchNodeSelectorTest {
+
+  List<StubOpenSearchServer> servers;
+  OpenSearchProperties openSearchProperties;
+  NodeStates nodeStates;
+  NodeHealthChecker nodeHealthChecker;
+  OpenSearchTransport openSearchTransport;
+
+  @BeforeEach
+  void setUp() throws Exception {
+
+    servers = List.of(
+        new StubOpenSearchServer(), new StubOpenSearchServer(), new StubOpenSearchServer());
+
+    List<String> nodes = new ArrayList<>();
+    List<HttpHost> hosts = new ArrayList<>();
+    for (StubOpenSearchServer server : servers) {
+      nodes.add(server.uri());
+      hosts.add(HttpHost.create(server.uri()));
+    }
+
+    openSearchProperties = new OpenSearchProperties();
+    openSearchProperties.setNodes(nodes);
+    nodeStates = new NodeStates(hosts);
+    nodeHealthChecker = new NodeHealthChecker(hosts, nodeStates, openSearchProperties);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (openSearchTransport != null) {
+      openSearchTransport.close();
+    }
+    nodeHealthChecker.close();
+    servers.forEach(StubOpenSearchServer::close);
+  }
+
+  @DisplayName("ROUND_ROBIN_살아있는 노드에 요청을 고르게 분배")
+  @Test
+  void testRoundRobin() throws Exception {
+
+    // Given
+    openSearchTransport = createTransport(NodeSelectorType.ROUND_ROBIN);
+    OpenSearchClient openSearchClient = new OpenSearchClient(openSearchTransport);
+
+    // When
+    for (int i = 0; i < 30; i++) {
+      openSearchClient.ping();
+    }
+
+    // Then
+    assertAll(
+        () -> assertEquals(10, servers.get(0).requestCount("HEAD /")),
+        () -> assertEquals(10, servers.get(1).requestCount("HEAD /")),
+        () -> assertEquals(10, servers.get(2).requestCount("HEAD /"))
+    );
+  }
+
+  @DisplayName("NodeHealthChecker_죽은 노드를 제외하고 되살아나면 다시 사용")
+  @Test
+  void testHealthCheck() throws Exception {
+
+    // Given
+    openSearchTransport = createTransport(NodeSelectorType.ROUND_ROBIN);
+    OpenSearchClient openSearchClient = new OpenSearchClient(openSearchTransport);
+    StubOpenSearchServer deadServer = servers.get(1);
+    HttpHost deadHost = HttpHost.create(deadServer.uri());
+
+    // When
+    deadServer.setHealthy(false);
+    nodeHealthChecker.checkAll();
+    boolean aliveAfterFailure = nodeStates.isAlive(deadHost);
+
+    List<BooleanResponse> responses = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      responses.add(openSearchClient.ping());
+    }
+    int deadServerRequests = deadServer.requestCount("HEAD /");
+
+    deadServer.setHealthy(true);
+    nodeHealthChecker.checkAll();
+    boolean aliveAfterRecovery = nodeStates.isAlive(deadHost);
+
+    // Then
+    assertAll(
+        () -> assertTrue(!aliveAfterFailure),
+        () -> assertTrue(responses.stream().allMatch(BooleanResponse::value)),
+        () -> assertEquals(0, deadServerRequests),
+        () -> assertTrue(aliveAfterRecovery)
+    );
+  }
+
+  @DisplayName("LEAST_OUTSTANDING_응답이 느린 노드에 요청을 덜 보냄")
+  @Test
+  void testLeastOutstanding() throws Exception {
+
+    // Given
+    openSearchTransport = createTransport(NodeSelectorType.LEAST_OUTSTANDING);
+    OpenSearchAsyncClient openSearchAsyncClient = new OpenSearchAsyncClient(openSearchTransport);
+    for (int i = 0; i < 30; i++) {
+      openSearchAsyncClient.info().join();
+    }
+    servers.forEach(StubOpenSearchServer::reset);
+    StubOpenSearchServer slowServer = servers.get(0);
+    slowServer.setDelayMillis(500);
+
+    // When
+    List<CompletableFuture<InfoResponse>> futures = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      futures.add(openSearchAsyncClient.info());
+      Thread.sleep(10);
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    log.debug("slow : [{}], fast : [{}], [{}]", slowServer.requestCount("GET /"),
+        servers.get(1).requestCount("GET /"), servers.get(2).requestCount("GET /"));
+
+    // Then
+    assertAll(
+        () -> assertTrue(slowServer.requestCount("GET /") < 5),
+        () -> assertEquals(30, servers.stream().mapToInt(s -> s.requestCount("GET /")).sum())
+    );
+  }
+
+  @DisplayName("CircuitBreaker_연속으로_실패한_노드를_open-duration_동안_제외")
+  @Test
+  void testCircuitBreaker() throws Exception {
+
+    // Given
+    List<HttpHost> hosts = new ArrayList<>();
+    for (StubOpenSearchServer server : servers) {
+      hosts.add(HttpHost.create(server.uri()));
+    }
+    nodeStates = new NodeStates(hosts, 3, Duration.ofMinutes(1));
+    openSearchTransport = createTransport(NodeSelectorType.ROUND_ROBIN);
+    OpenSearchClient openSearchClient = new OpenSearchClient(openSearchTransport);
+    StubOpenSearchServer failingServer = servers.get(1);
+    HttpHost failingHost = hosts.get(1);
+    // 500은 다른 노드로 재시도하지 않고 노드를 죽은 것으로 표시하지도 않음
+    failingServer.handle("GET /", (m, p, b) -> new StubOpenSearchServer.Response(500,
+        "{\"error\":{\"type\":\"internal\",\"reason\":\"internal\"},\"status\":500}"));
+
+    // When
+    int failures = 0;
+    for (int i = 0; i < 30; i++) {
+      try {
+        openSearchClient.info();
+      } catch (IOException e) {
+        failures++;
+      }
+    }
+    int failedRequests = failures;
+
+    // Then
+    assertAll(
+        () -> assertEquals(3, failedRequests),
+        () -> assertEquals(3, failingServer.requestCount("GET /")),
+        () -> assertTrue(nodeStates.isAlive(failingHost)),
+        () -> assertTrue(nodeStates.isCircuitOpen(failingHost)),
+        () -> assertEquals(1L, nodeStates.circuitOpenedCount(failingHost))
+    );
+  }
+
+  @DisplayName("CircuitBreaker_open-duration이_지나면_probe_요청_하나만_보내고_성공할_때까지_제외")
+  @Test
+  void testCircuitBreakerHalfOpen() throws Exception {
+
+    // Given
+    HttpHost healthyHost = HttpHost.create(servers.get(0).uri());
+    HttpHost failingHost = HttpHost.create(servers.get(1).uri());
+    nodeStates = new NodeStates(List.of(healthyHost, failingHost), 1, Duration.ofMillis(100));
+    OpenSearchNodeSelector nodeSelector =
+        new OpenSearchNodeSelector(nodeStates, NodeSelectorType.ROUND_ROBIN);
+    nodeStates.recordFailure(failingHost, false);
+    Thread.sleep(150);
+
+    // When
+    // 서킷이 열린 노드가 첫 번째인 목록으로 동시에 노드를 선택
+    List<CompletableFuture<List<Node>>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(CompletableFuture.supplyAsync(() -> {
+        List<Node> nodes = new ArrayList<>(List.of(new Node(failingHost), new Node(healthyHost)));
+        nodeSelector.select(nodes);
+        return nodes;
+      }));
+    }
+    long probes = futures.stream()
+        .map(CompletableFuture::join)
+        .filter(nodes -> nodes.get(0).getHost().equals(failingHost))
+        .count();
+    boolean availableDuringProbe = nodeStates.isAvailable(failingHost);
+    nodeStates.recordFailure(failingHost, nodeStates.claimProbe(failingHost));
+    boolean probeDueAfterFailure = nodeStates.isProbeDue(failingHost);
+    Thread.sleep(150);
+    boolean acquired = nodeStates.tryAcquireProbe(failingHost);
+    nodeStates.recordSuccess(failingHost, nodeStates.claimProbe(failingHost));
+
+    // Then
+    assertAll(
+        () -> assertEquals(1L, probes),
+        () -> assertFalse(availableDuringProbe),
+        // probe가 실패하면 다시 열림
+        () -> assertFalse(probeDueAfterFailure),
+        () -> assertTrue(acquired),
+        () -> assertEquals(2L, nodeStates.circuitOpenedCount(failingHost)),
+        // probe가 성공하면 닫힘
+        () -> assertTrue(nodeStates.isAvailable(failingHost)),
+        () -> assertFalse(nodeStates.isCircuitOpen(failingHost))
+    );
+  }
+
+  @DisplayName("CircuitBreaker_probe_중에_서킷을_열기_전에_보낸_요청이_성공해도_probe가_성공할_때까지_열어둠")
+  @Test
+  void testCircuitBreakerStaleSuccessDuringProbe() throws Exception {
+
+    // Given
+    HttpHost healthyHost = HttpHost.create(servers.get(0).uri());
+    HttpHost failingHost = HttpHost.create(servers.get(1).uri());
+    nodeStates = new NodeStates(List.of(healthyHost, failingHost), 1, Duration.ofMillis(100));
+    OpenSearchNodeSelector nodeSelector =
+        new OpenSearchNodeSelector(nodeStates, NodeSelectorType.ROUND_ROBIN);
+    nodeStates.recordFailure(failingHost, false);
+    Thread.sleep(150);
+
+    // When
+    List<Node> nodes = new ArrayList<>(List.of(new Node(failingHost), new Node(healthyHost)));
+    nodeSelector.select(nodes);
+    boolean probe = nodeStates.claimProbe(failingHost);
+    boolean claimedTwice = nodeStates.claimProbe(failingHost);
+    // 서킷을 열기 전에 보낸 요청이 probe보다 먼저 성공
+    nodeStates.recordSuccess(failingHost, false);
+    boolean openAfterStaleSuccess = nodeStates.isCircuitOpen(failingHost);
+    boolean availableAfterStaleSuccess = nodeStates.isAvailable(failingHost);
+    nodeStates.recordSuccess(failingHost, probe);
+
+    // Then
+    assertAll(
+        () -> assertEquals(failingHost, nodes.get(0).getHost()),
+        () -> assertTrue(probe),
+        () -> assertFalse(claimedTwice),
+        () -> assertTrue(openAfterStaleSuccess),
+        () -> assertFalse(availableAfterStaleSuccess),
+        // probe가 성공하면 닫힘
+        () -> assertFalse(nodeStates.isCircuitOpen(failingHost)),
+        () -> assertTrue(nodeStates.isAvailable(failingHost))
+    );
+  }
+
+  private OpenSearchTransport createTransport(NodeSelectorType nodeSelectorType) {
+    openSearchProperties.setNodeSelector(nodeSelectorType);
+    return new OpenSearchConfig().openSearchTransport(openSearchProperties, nodeStates,
+        DtoJsonpMapper.create(false), new SimpleMeterRegistry());
+  }
+}
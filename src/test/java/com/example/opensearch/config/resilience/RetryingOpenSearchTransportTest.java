@@ -0,0 +1,124 @@
+package com.example.opensearch.config.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class RetryingOpenSearchTransportTest {
+
+  static final String INDEX_NAME = "problem-records-2024.07";
+  static final String SEARCH = "POST /" + INDEX_NAME + "/_search";
+  static final String INDEX = "PUT /" + INDEX_NAME + "/_doc/1";
+  static final String UNAVAILABLE = "{\"error\":{\"type\":\"unavailable\","
+      + "\"reason\":\"unavailable\"},\"status\":503}";
+
+  StubOpenSearchServer server;
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  OpenSearchTransport apacheTransport;
+  RetryingOpenSearchTransport transport;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    apacheTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+
+    OpenSearchProperties.Retry retry = new OpenSearchProperties.Retry();
+    retry.setInitialBackoff(Duration.ofMillis(10));
+    transport = new RetryingOpenSearchTransport(apacheTransport, retry, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    apacheTransport.close();
+    server.close();
+  }
+
+  @DisplayName("503으로_실패한_검색_요청은_다시_보내서_성공")
+  @Test
+  void testRetrySearch() throws Exception {
+
+    // Given
+    failTwiceThenSucceed(SEARCH, "{\"took\":3,\"timed_out\":false,\"_shards\":{\"total\":1,"
+        + "\"successful\":1,\"skipped\":0,\"failed\":0},"
+        + "\"hits\":{\"total\":{\"value\":0,\"relation\":\"eq\"},\"hits\":[]}}");
+    OpenSearchClient openSearchClient = new OpenSearchClient(transport);
+    OpenSearchAsyncClient openSearchAsyncClient = new OpenSearchAsyncClient(transport);
+
+    // When
+    SearchResponse<Map> response = openSearchClient.search(s -> s.index(INDEX_NAME), Map.class);
+    int syncRequests = server.requestCount(SEARCH);
+    server.reset();
+    failTwiceThenSucceed(SEARCH, "{\"took\":4,\"timed_out\":false,\"_shards\":{\"total\":1,"
+        + "\"successful\":1,\"skipped\":0,\"failed\":0},"
+        + "\"hits\":{\"total\":{\"value\":0,\"relation\":\"eq\"},\"hits\":[]}}");
+    SearchResponse<Map> asyncResponse = openSearchAsyncClient
+        .search(s -> s.index(INDEX_NAME), Map.class).join();
+
+    // Then
+    assertAll(
+        () -> assertEquals(3L, response.took()),
+        () -> assertEquals(4L, asyncResponse.took()),
+        () -> assertEquals(3, syncRequests),
+        () -> assertEquals(3, server.requestCount(SEARCH)),
+        () -> assertEquals(4.0, counter("retried")),
+        () -> assertEquals(2.0, counter("recovered")),
+        () -> assertEquals(0.0, counter("exhausted"))
+    );
+  }
+
+  @DisplayName("저장_요청과_일시적이지_않은_오류는_다시_보내지_않음")
+  @Test
+  void testNoRetry() {
+
+    // Given
+    server.handle(INDEX, (m, p, b) -> new Response(503, UNAVAILABLE));
+    server.handle(SEARCH, (m, p, b) -> new Response(400,
+        "{\"error\":{\"type\":\"parsing_exception\",\"reason\":\"bad query\"},\"status\":400}"));
+    OpenSearchClient openSearchClient = new OpenSearchClient(transport);
+
+    // When
+    Exception indexFailure = assertThrows(Exception.class,
+        () -> openSearchClient.index(i -> i.index(INDEX_NAME).id("1").document(Map.of())));
+    Exception searchFailure = assertThrows(Exception.class,
+        () -> openSearchClient.search(s -> s.index(INDEX_NAME), Map.class));
+
+    // Then
+    assertAll(
+        () -> assertEquals(503, TransientFailures.status(indexFailure)),
+        () -> assertEquals(400, TransientFailures.status(searchFailure)),
+        () -> assertEquals(1, server.requestCount(INDEX)),
+        () -> assertEquals(1, server.requestCount(SEARCH)),
+        () -> assertEquals(0.0, counter("retried"))
+    );
+  }
+
+  private void failTwiceThenSucceed(String methodAndPath, String body) {
+    AtomicInteger calls = new AtomicInteger();
+    server.handle(methodAndPath, (m, p, b) -> calls.incrementAndGet() <= 2
+        ? new Response(503, UNAVAILABLE)
+        : new Response(200, body));
+  }
+
+  private double counter(String outcome) {
+    return meterRegistry.counter(RetryingOpenSearchTransport.RETRY, "outcome", outcome).count();
+  }
+}
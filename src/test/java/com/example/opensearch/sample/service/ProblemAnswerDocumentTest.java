@@ -0,0 +1,65 @@
+package com.example.opensearch.sample.service;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ProblemAnswerDocumentTest {
+
+  @DisplayName("answerDocument_시각은 epoch millis, 종료 시각은 풀이 시간으로 저장")
+  @Test
+  void testAnswerDocument() {
+
+    // Given
+    ProblemDto.Answer answer = ProblemDto.Answer.builder()
+        .studyId(1L)
+        .studyStructureId(10L)
+        .studentId("student-1")
+        .problemNo(3L)
+        .correctYn(true)
+        .problemStartDtm("2024-07-01T10:00:00Z")
+        .problemEndDtm("2024-07-01T10:00:42.500Z")
+        .dsscValue(5L)
+        .build();
+
+    // When
+    ProblemDto.AnswerDocument document = ProblemService.answerDocument(answer);
+
+    // Then
+    assertAll(
+        () -> assertEquals(1L, document.getStudyId()),
+        () -> assertEquals(10L, document.getStudyStructureId()),
+        () -> assertEquals("student-1", document.getStudentId()),
+        () -> assertEquals(3, document.getProblemNo()),
+        () -> assertEquals(true, document.getCorrectYn()),
+        () -> assertEquals(1719828000000L, document.getProblemStartDtm()),
+        () -> assertEquals(42500L, document.getDurationMs()),
+        () -> assertEquals(5, document.getDsscValue())
+    );
+  }
+
+  @DisplayName("answerDocument_종료 시각이 없으면 풀이 시간도 비움")
+  @Test
+  void testAnswerDocumentWithoutEndDtm() {
+
+    // Given
+    ProblemDto.Answer answer = ProblemDto.Answer.builder()
+        .studentId("student-1")
+        .problemStartDtm("2024-07-01T10:00:00Z")
+        .build();
+
+    // When
+    ProblemDto.AnswerDocument document = ProblemService.answerDocument(answer);
+
+    // Then
+    assertAll(
+        () -> assertEquals(1719828000000L, document.getProblemStartDtm()),
+        () -> assertNull(document.getDurationMs()),
+        () -> assertNull(document.getProblemNo())
+    );
+  }
+}
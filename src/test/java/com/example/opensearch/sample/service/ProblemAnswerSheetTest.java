@@ -0,0 +1,167 @@
+package com.example.opensearch.sample.service;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class ProblemAnswerSheetTest {
+
+  static final String STUDENT_ID = "STU0000001";
+  static final String PARTITION = "problem-records-2024.07";
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"failed\":0}";
+
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  IndexReindexer indexReindexer;
+  ProblemStatisticsCache problemStatisticsCache;
+  ProblemService problemService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+
+    OpenSearchProperties openSearchProperties = new OpenSearchProperties();
+    OpenSearchClient openSearchClient = new OpenSearchClient(openSearchTransport);
+    indexReindexer = new IndexReindexer(openSearchClient,
+        new OpenSearchAsyncClient(openSearchTransport), openSearchProperties.getReindex());
+    problemStatisticsCache = new ProblemStatisticsCache(openSearchProperties,
+        new SimpleMeterRegistry());
+    openSearchProperties.getRollup().setEnabled(false);
+    problemService = new ProblemService(openSearchClient, null, problemStatisticsCache,
+        openSearchProperties, indexReindexer, null,
+        new ProblemRollups(openSearchClient, openSearchProperties, new SimpleMeterRegistry()));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    indexReindexer.close();
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("insertAnswerSheet_문항별 Document ID로 한 번의 _bulk create 요청")
+  @Test
+  void testInsertAnswerSheet() {
+
+    // Given
+    server.handle("POST /_bulk", (m, p, b) -> new Response(200, bulkResponse(
+        created("1_10_" + STUDENT_ID + "_1"), created("1_10_" + STUDENT_ID + "_2"))));
+    problemStatisticsCache.put(STUDENT_ID, ProblemDto.AnswerStats.builder().build());
+
+    // When
+    ProblemDto.AnswerSheetResult answerSheetResult = problemService.insertAnswerSheet(STUDENT_ID,
+        answerSheet());
+
+    // Then
+    String bulkRequest = server.requestBodies().get(server.requestBodies().size() - 1);
+    ProblemDto.AnswerStats answerStats = problemStatisticsCache.getIfPresent(STUDENT_ID);
+    assertAll(
+        () -> assertEquals(1, server.requestCount("POST /_bulk")),
+        () -> assertTrue(bulkRequest.contains("{\"create\":{\"_id\":\"1_10_" + STUDENT_ID
+            + "_1\",\"_index\":\"" + PARTITION + "\",\"routing\":\"" + STUDENT_ID + "\"}}")),
+        () -> assertTrue(bulkRequest.contains("\"problemStartDtm\":1719828030000,"
+            + "\"durationMs\":30000,\"dsscValue\":0")),
+        () -> assertEquals(2, answerSheetResult.getCreated()),
+        () -> assertEquals(0, answerSheetResult.getDuplicated()),
+        () -> assertEquals(2, answerStats.getTotalCount()),
+        () -> assertEquals(1, answerStats.getCorrectCount())
+    );
+  }
+
+  @DisplayName("insertAnswerSheet_이미 저장된 문항은 중복으로 세고 집계에 반영하지 않음")
+  @Test
+  void testInsertAnswerSheetRetry() {
+
+    // Given
+    server.handle("POST /_bulk", (m, p, b) -> new Response(200, bulkResponse(
+        conflict("1_10_" + STUDENT_ID + "_1"), failed("1_10_" + STUDENT_ID + "_2"))));
+    problemStatisticsCache.put(STUDENT_ID, ProblemDto.AnswerStats.builder().build());
+
+    // When
+    ProblemDto.AnswerSheetResult answerSheetResult = problemService.insertAnswerSheet(STUDENT_ID,
+        answerSheet());
+
+    // Then
+    assertAll(
+        () -> assertEquals(0, answerSheetResult.getCreated()),
+        () -> assertEquals(1, answerSheetResult.getDuplicated()),
+        () -> assertEquals(List.of(2L), answerSheetResult.getFailedProblemNos()),
+        () -> assertEquals(0, problemStatisticsCache.getIfPresent(STUDENT_ID).getTotalCount())
+    );
+  }
+
+  @DisplayName("insertAnswerSheet_문항 수와 정답 여부 수가 다르면 저장하지 않음")
+  @Test
+  void testInsertAnswerSheetMismatch() {
+
+    // Given
+    ProblemDto.StudentAnswerSheet answerSheet = ProblemDto.StudentAnswerSheet.builder()
+        .problemNos(List.of(1L, 2L))
+        .correctYns(List.of(true))
+        .startInstant(Instant.parse("2024-07-01T10:00:00Z"))
+        .build();
+
+    // When & Then
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> problemService.insertAnswerSheet(STUDENT_ID, answerSheet)),
+        () -> assertEquals(0, server.requestCount("POST /_bulk"))
+    );
+  }
+
+  private static ProblemDto.StudentAnswerSheet answerSheet() {
+    return ProblemDto.StudentAnswerSheet.builder()
+        .studyId(1L)
+        .studyStructureId(10L)
+        .problemNos(List.of(1L, 2L))
+        .correctYns(List.of(true, false))
+        .startInstant(Instant.parse("2024-07-01T10:00:00Z"))
+        .duration(Duration.ofSeconds(30))
+        .dsscValues(List.of(10L, 0L))
+        .build();
+  }
+
+  private static String bulkResponse(String... items) {
+    return "{\"took\":1,\"errors\":true,\"items\":[" + String.join(",", items) + "]}";
+  }
+
+  private static String created(String id) {
+    return "{\"create\":{\"_index\":\"" + PARTITION + "\",\"_id\":\"" + id + "\",\"_version\":1,"
+        + "\"result\":\"created\",\"_shards\":" + SHARDS + ",\"_seq_no\":0,\"_primary_term\":1,"
+        + "\"status\":201}}";
+  }
+
+  private static String conflict(String id) {
+    return "{\"create\":{\"_index\":\"" + PARTITION + "\",\"_id\":\"" + id + "\",\"status\":409,"
+        + "\"error\":{\"type\":\"version_conflict_engine_exception\","
+        + "\"reason\":\"[" + id + "]: version conflict, document already exists\"}}}";
+  }
+
+  private static String failed(String id) {
+    return "{\"create\":{\"_index\":\"" + PARTITION + "\",\"_id\":\"" + id + "\",\"status\":429,"
+        + "\"error\":{\"type\":\"es_rejected_execution_exception\","
+        + "\"reason\":\"rejected execution\"}}}";
+  }
+}
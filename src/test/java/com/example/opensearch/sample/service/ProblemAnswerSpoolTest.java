@@ -0,0 +1,213 @@
+package com.example.opensearch.sample.service;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class ProblemAnswerSpoolTest {
+
+  static final String STUDENT_ID = "STU0000001";
+  static final String PARTITION = "problem-records-2024.07";
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"failed\":0}";
+  static final Pattern DOCUMENT_ID = Pattern.compile("\"_id\":\"([^\"]+)\"");
+
+  @TempDir
+  Path directory;
+
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  IndexReindexer indexReindexer;
+  ProblemStatisticsCache problemStatisticsCache;
+  ProblemAnswerSpool problemAnswerSpool;
+  ProblemService problemService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+
+    OpenSearchProperties openSearchProperties = new OpenSearchProperties();
+    openSearchProperties.getSpool().setDirectory(directory.toString());
+    openSearchProperties.getSpool().setMaxReplayAttempts(3);
+    // 테스트에서 replay()를 직접 호출
+    openSearchProperties.getSpool().setReplayInterval(Duration.ofHours(1));
+    OpenSearchClient openSearchClient = new OpenSearchClient(openSearchTransport);
+    indexReindexer = new IndexReindexer(openSearchClient,
+        new OpenSearchAsyncClient(openSearchTransport), openSearchProperties.getReindex());
+    problemStatisticsCache = new ProblemStatisticsCache(openSearchProperties,
+        new SimpleMeterRegistry());
+    openSearchProperties.getRollup().setEnabled(false);
+    ProblemRollups problemRollups = new ProblemRollups(openSearchClient, openSearchProperties,
+        new SimpleMeterRegistry());
+    problemAnswerSpool = new ProblemAnswerSpool(openSearchClient, problemStatisticsCache,
+        problemRollups, indexReindexer, openSearchProperties, new SimpleMeterRegistry());
+    problemService = new ProblemService(openSearchClient, null, problemStatisticsCache,
+        openSearchProperties, indexReindexer, problemAnswerSpool, problemRollups);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    problemAnswerSpool.close();
+    indexReindexer.close();
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("insertProblemAnswer_클러스터가_503이면_스풀에_기록하고_복구되면_순서대로_다시_저장")
+  @Test
+  void testSpoolAndReplay() {
+
+    // Given
+    // 첫 저장 요청은 503으로 응답하지만 실제로는 반영됨
+    List<String> indexPaths = new CopyOnWriteArrayList<>();
+    Set<String> storedIds = ConcurrentHashMap.newKeySet();
+    server.handle("PUT /" + PARTITION + "/_doc/", (m, p, b) -> {
+      indexPaths.add(p);
+      storedIds.add(p.substring(p.lastIndexOf('/') + 1));
+      return new Response(503,
+          "{\"error\":{\"type\":\"unavailable\",\"reason\":\"unavailable\"},\"status\":503}");
+    });
+    problemStatisticsCache.put(STUDENT_ID, ProblemDto.AnswerStats.builder().build());
+
+    // 첫 _bulk 요청은 두 번째 항목을 429로 거절하고, 이미 저장된 Document는 updated로 응답
+    AtomicInteger bulkCalls = new AtomicInteger();
+    server.handle("POST /_bulk", (m, p, body) -> {
+      List<String> items = new ArrayList<>();
+      Matcher matcher = DOCUMENT_ID.matcher(body);
+      boolean first = bulkCalls.incrementAndGet() == 1;
+      while (matcher.find()) {
+        String id = matcher.group(1);
+        items.add(first && !items.isEmpty() ? rejected(id)
+            : indexed(id, storedIds.add(id) ? "created" : "updated"));
+      }
+      return new Response(200, "{\"took\":1,\"errors\":" + first + ",\"items\":["
+          + String.join(",", items) + "]}");
+    });
+
+    // When
+    Object firstResponse = problemService.insertProblemAnswer(answer(1L));
+    Object secondResponse = problemService.insertProblemAnswer(answer(2L));
+    long pendingBeforeReplay = problemAnswerSpool.pendingCount();
+    int firstReplay = problemAnswerSpool.replay();
+    long pendingAfterRejection = problemAnswerSpool.pendingCount();
+    int secondReplay = problemAnswerSpool.replay();
+
+    // Then
+    List<String> bodies = server.requestBodies();
+    String firstBulk = bodies.get(bodies.size() - 2);
+    String lastBulk = bodies.get(bodies.size() - 1);
+    ProblemDto.AnswerStats answerStats = problemStatisticsCache.getIfPresent(STUDENT_ID);
+    assertAll(
+        () -> assertNull(firstResponse),
+        () -> assertNull(secondResponse),
+        // 스풀에 남은 풀이 내용이 있으면 클러스터에 보내지 않고 이어서 기록
+        () -> assertEquals(1, indexPaths.size()),
+        // 처음 저장할 때 사용한 ID로 다시 저장
+        () -> assertTrue(lastBulk.contains("\"_id\":\""
+            + indexPaths.get(0).substring(indexPaths.get(0).lastIndexOf('/') + 1) + "\"")),
+        () -> assertEquals(2L, pendingBeforeReplay),
+        () -> assertEquals(0, firstReplay),
+        () -> assertEquals(2L, pendingAfterRejection),
+        () -> assertEquals(2, secondReplay),
+        () -> assertEquals(0L, problemAnswerSpool.pendingCount()),
+        () -> assertEquals(firstBulk, lastBulk),
+        () -> assertTrue(lastBulk.indexOf("\"problemNo\":1,") < lastBulk.indexOf("\"problemNo\":2,")),
+        () -> assertTrue(lastBulk.contains("\"_index\":\"" + PARTITION + "\",\"routing\":\""
+            + STUDENT_ID + "\"")),
+        // 처음부터 updated인 항목도 한 번, 다시 보낸 묶음의 항목은 한 번만 반영
+        () -> assertEquals(2, answerStats.getTotalCount())
+    );
+  }
+
+  @DisplayName("replay_계속_거절되는_항목은_maxReplayAttempts번_다시_보낸_후_버림")
+  @Test
+  void testReplayDropsRejectedItems() {
+
+    // Given
+    // transient는 항상 503으로, invalid는 500으로 거절
+    server.handle("POST /_bulk", (m, p, body) -> new Response(200,
+        "{\"took\":1,\"errors\":true,\"items\":[" + failed("transient", 503) + ","
+            + failed("invalid", 500) + "," + indexed("stored", "created") + "]}"));
+    problemAnswerSpool.offer("transient", answerDocument(1));
+    problemAnswerSpool.offer("invalid", answerDocument(2));
+    problemAnswerSpool.offer("stored", answerDocument(3));
+
+    // When
+    int firstReplay = problemAnswerSpool.replay();
+    int secondReplay = problemAnswerSpool.replay();
+    long pendingBeforeLastAttempt = problemAnswerSpool.pendingCount();
+    int lastReplay = problemAnswerSpool.replay();
+
+    // Then
+    assertAll(
+        () -> assertEquals(0, firstReplay),
+        () -> assertEquals(0, secondReplay),
+        () -> assertEquals(3L, pendingBeforeLastAttempt),
+        () -> assertEquals(3, lastReplay),
+        () -> assertEquals(0L, problemAnswerSpool.pendingCount()),
+        () -> assertEquals(3, server.requestCount("POST /_bulk"))
+    );
+  }
+
+  private static ProblemDto.AnswerDocument answerDocument(int problemNo) {
+    return ProblemService.answerDocument(answer(problemNo));
+  }
+
+  private static ProblemDto.Answer answer(long problemNo) {
+    return ProblemDto.Answer.builder()
+        .studyId(1L)
+        .studyStructureId(10L)
+        .studentId(STUDENT_ID)
+        .problemNo(problemNo)
+        .correctYn(true)
+        .problemStartDtm("2024-07-01T10:00:00Z")
+        .problemEndDtm("2024-07-01T10:00:30Z")
+        .build();
+  }
+
+  private static String indexed(String id, String result) {
+    return "{\"index\":{\"_index\":\"" + PARTITION + "\",\"_id\":\"" + id + "\",\"_version\":1,"
+        + "\"result\":\"" + result + "\",\"_shards\":" + SHARDS + ",\"_seq_no\":0,"
+        + "\"_primary_term\":1,\"status\":201}}";
+  }
+
+  private static String failed(String id, int status) {
+    return "{\"index\":{\"_index\":\"" + PARTITION + "\",\"_id\":\"" + id + "\",\"status\":"
+        + status + ",\"error\":{\"type\":\"exception\",\"reason\":\"failed\"}}}";
+  }
+
+  private static String rejected(String id) {
+    return "{\"index\":{\"_index\":\"" + PARTITION + "\",\"_id\":\"" + id + "\",\"status\":429,"
+        + "\"error\":{\"type\":\"es_rejected_execution_exception\","
+        + "\"reason\":\"rejected execution\"}}}";
+  }
+}
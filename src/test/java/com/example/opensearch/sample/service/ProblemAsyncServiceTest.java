@@ -0,0 +1,82 @@
+package com.example.opensearch.sample.service;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.sample.service.dto.ProblemDto.Answer;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.opensearch.client.opensearch._types.Result;
+import org.opensearch.client.opensearch.core.IndexResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@Slf4j
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest
+class ProblemAsyncServiceTest {
+
+  @Autowired
+  ProblemAsyncService problemAsyncService;
+
+  @Order(1)
+  @DisplayName("insertProblemAnswer_문항 풀이 내용 비동기 저장")
+  @Test
+  void testInsertProblemAnswer() throws Exception {
+
+    // Given
+    Instant startInstant = Instant.parse("2024-07-18T10:00:00.00Z");
+    Answer answerRequest = Answer.builder()
+        .studyId(6L)
+        .studyStructureId(100L)
+        .studentId("TEST0005")
+        .problemNo(1L)
+        .correctYn(true)
+        .problemStartDtm(startInstant.toString())
+        .problemEndDtm(startInstant.plusSeconds(20).toString())
+        .dsscValue(10L)
+        .build();
+
+    // When
+    IndexResponse indexResponse = problemAsyncService.insertProblemAnswer(answerRequest).join();
+    log.debug("indexResponse.result : [{}]", indexResponse.result());
+
+    Thread.sleep(1000);
+
+    // Then
+    assertAll(
+        () -> assertTrue(ObjectUtils.isNotEmpty(indexResponse)),
+        () -> assertEquals(Result.Created, indexResponse.result())
+    );
+  }
+
+  @Order(2)
+  @DisplayName("getStatistics_배점 평균과 정답률을 동시에 조회")
+  @Test
+  void testGetStatistics() {
+
+    // Given
+    String studentId = "TEST0005";
+
+    // When
+    ProblemDto.Statistics statistics = problemAsyncService
+        .getStatistics(studentId, Duration.ofSeconds(5)).join();
+    log.debug("statistics : [{}]", statistics);
+
+    // Then
+    assertAll(
+        () -> assertNotEquals(0.0, statistics.getAvgDsscValue()),
+        () -> assertEquals(100.0, statistics.getCorrectRate())
+    );
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.opensearch.sample.service;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.config.OpenSearchProperties.PartitionInterval;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ProblemIndexPartitionsTest {
+
+  @DisplayName("partitionIndex_문항 풀이 시작 시각이 속한 파티션")
+  @Test
+  void testPartitionIndex() {
+
+    // Given
+    String problemStartDtm = "2024-07-31T23:59:59Z";
+
+    // When
+    String monthly = ProblemIndexPartitions.partitionIndex(PartitionInterval.MONTHLY,
+        problemStartDtm);
+    String daily = ProblemIndexPartitions.partitionIndex(PartitionInterval.DAILY,
+        problemStartDtm);
+
+    // Then
+    assertAll(
+        () -> assertEquals("problem-records-2024.07", monthly),
+        () -> assertEquals("problem-records-2024.07.31", daily)
+    );
+  }
+
+  @DisplayName("partitionIndices_기간에 걸친 파티션만 조회")
+  @Test
+  void testPartitionIndices() {
+
+    // Given
+    Instant from = Instant.parse("2024-06-15T00:00:00Z");
+    Instant to = Instant.parse("2024-08-01T00:00:00Z");
+
+    // When
+    List<String> indices = ProblemIndexPartitions.partitionIndices(PartitionInterval.MONTHLY,
+        from, to);
+    List<String> tooMany = ProblemIndexPartitions.partitionIndices(PartitionInterval.DAILY,
+        Instant.parse("2020-01-01T00:00:00Z"), to);
+
+    // Then
+    assertAll(
+        () -> assertEquals(List.of("problem-records-2024.06", "problem-records-2024.07"),
+            indices),
+        () -> assertTrue(tooMany.isEmpty())
+    );
+  }
+
+  @DisplayName("partitionStart_파티션 Index 이름에서 시작 시각 추출")
+  @Test
+  void testPartitionStart() {
+
+    // Given & When
+    Optional<Instant> partitionStart = ProblemIndexPartitions.partitionStart(
+        PartitionInterval.MONTHLY, "problem-records-2024.07");
+    Optional<Instant> versioned = ProblemIndexPartitions.partitionStart(
+        PartitionInterval.MONTHLY, "problem-records-2024.07.v3");
+    Optional<Instant> notPartition = ProblemIndexPartitions.partitionStart(
+        PartitionInterval.MONTHLY, "problem-records-template");
+
+    // Then
+    assertAll(
+        () -> assertEquals(Instant.parse("2024-07-01T00:00:00Z"), partitionStart.orElseThrow()),
+        () -> assertEquals(partitionStart, versioned),
+        () -> assertTrue(notPartition.isEmpty()),
+        () -> assertEquals("problem-records-2024.07.v3",
+            ProblemIndexPartitions.versionedIndex("problem-records-2024.07.v2", 3))
+    );
+  }
+}
@@ -0,0 +1,334 @@
+package com.example.opensearch.sample.service;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+class ProblemRollupsTest {
+
+  static final String INDEX = "problem-rollups";
+  static final String SHARDS = "{\"total\":1,\"successful\":1,\"failed\":0}";
+  static final String PIT_ID = "o463QQEKcHJvYmxlbS1yZWNvcmRz";
+  static final Pattern DOCUMENT_ID = Pattern.compile("\"_id\":\"([^\"]+)\"");
+
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  IndexReindexer indexReindexer;
+  ProblemRollups problemRollups;
+  ProblemService problemService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer();
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+
+    OpenSearchProperties openSearchProperties = new OpenSearchProperties();
+    // 테스트에서 flush()를 직접 호출
+    openSearchProperties.getRollup().setFlushInterval(Duration.ofHours(1));
+    openSearchProperties.getRollup().setRebuildConcurrency(2);
+    openSearchProperties.getRollup().setMaxFlushAttempts(2);
+    OpenSearchClient openSearchClient = new OpenSearchClient(openSearchTransport);
+    indexReindexer = new IndexReindexer(openSearchClient,
+        new OpenSearchAsyncClient(openSearchTransport), openSearchProperties.getReindex());
+    problemRollups = new ProblemRollups(openSearchClient, openSearchProperties,
+        new SimpleMeterRegistry());
+    problemService = new ProblemService(openSearchClient, null,
+        new ProblemStatisticsCache(openSearchProperties, new SimpleMeterRegistry()),
+        openSearchProperties, indexReindexer, null, problemRollups);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    indexReindexer.close();
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("flush_롤업별_증분을_합쳐_한_번의_bulk_scripted_upsert로_반영하고_429는_maxFlushAttempts번까지_다시_반영")
+  @Test
+  void testFlush() {
+
+    // Given
+    server.handle("POST /_bulk", (m, p, body) -> {
+      List<String> items = new ArrayList<>();
+      Matcher matcher = DOCUMENT_ID.matcher(body);
+      while (matcher.find()) {
+        String id = matcher.group(1);
+        items.add(id.equals("study_1") ? rejected(id) : updated(id));
+      }
+      return new Response(200, "{\"took\":1,\"errors\":true,\"items\":["
+          + String.join(",", items) + "]}");
+    });
+    problemRollups.record("answer-1", answer("STU0000001", true, 10, 30_000L));
+    problemRollups.record("answer-2", answer("STU0000001", false, null, 10_000L));
+    problemRollups.record("answer-3", answer("STU0000002", true, 5, null));
+
+    // When
+    int flushed = problemRollups.flush();
+    int pendingAfterRejection = problemRollups.pendingCount();
+    String bulkRequest = server.requestBodies().get(server.requestBodies().size() - 1);
+    int retried = problemRollups.flush();
+
+    // Then
+    assertAll(
+        () -> assertEquals(2, server.requestCount("POST /_bulk")),
+        () -> assertEquals(3, flushed),
+        // 429로 거절된 학습 롤업만 남음
+        () -> assertEquals(1, pendingAfterRejection),
+        // 두 번째로 거절되면 버림
+        () -> assertEquals(0, retried),
+        () -> assertEquals(0, problemRollups.pendingCount()),
+        () -> assertTrue(bulkRequest.contains("{\"update\":{\"_id\":\"student_STU0000001\","
+            + "\"_index\":\"" + INDEX + "\",\"retry_on_conflict\":3}}")),
+        () -> assertTrue(bulkRequest.contains("\"params\":{\"totalCount\":2,\"correctCount\":1,"
+            + "\"dsscValueSum\":10,\"dsscValueCount\":1,\"durationSum\":40000,"
+            + "\"durationCount\":2,\"durationMin\":10000,\"durationMax\":30000}")),
+        () -> assertTrue(bulkRequest.contains("\"upsert\":{\"scope\":\"all\",\"totalCount\":3,"
+            + "\"correctCount\":2,\"dsscValueSum\":15,\"dsscValueCount\":2")),
+        () -> assertTrue(bulkRequest.contains("\"upsert\":{\"scope\":\"study\",\"key\":\"1\""))
+    );
+  }
+
+  @DisplayName("getCorrectTrueRate_재구성된_롤업이_있으면_롤업_Document_하나를_조회")
+  @Test
+  void testReadRollup() {
+
+    // Given
+    server.handle("GET /" + INDEX + "/_mapping", (m, p, b) -> new Response(200,
+        "{\"" + INDEX + "\":{\"mappings\":{\"_meta\":{\"rebuilt_at\":1719828000000}}}}"));
+    server.handle("GET /" + INDEX + "/_doc/student_STU0000001", (m, p, b) -> new Response(200,
+        "{\"_index\":\"" + INDEX + "\",\"_id\":\"student_STU0000001\",\"_version\":3,"
+            + "\"_seq_no\":2,\"_primary_term\":1,\"found\":true,\"_source\":{\"scope\":\"student\","
+            + "\"key\":\"STU0000001\",\"totalCount\":4,\"correctCount\":3,\"dsscValueSum\":20,"
+            + "\"dsscValueCount\":4}}"));
+    server.handle("GET /" + INDEX + "/_doc/all", (m, p, b) -> new Response(404,
+        "{\"_index\":\"" + INDEX + "\",\"_id\":\"all\",\"found\":false}"));
+
+    // When
+    double correctRate = problemService.getCorrectTrueRate("STU0000001");
+    double avgDsscValue = problemService.getAvgDsscValue();
+
+    // Then
+    assertAll(
+        () -> assertEquals(75.0, correctRate),
+        () -> assertEquals(0.0, avgDsscValue),
+        () -> assertEquals(1, server.requestCount("GET /" + INDEX + "/_mapping")),
+        () -> assertEquals(0, server.requestCount("POST /problem-records/_search"))
+    );
+  }
+
+  @DisplayName("rebuild_학생을_파티션으로_나누어_point_in_time에서_집계하고_롤업을_덮어쓴_뒤_조회에_사용")
+  @Test
+  void testRebuild() throws Exception {
+
+    // Given
+    server.handle("HEAD /" + INDEX, (m, p, b) -> new Response(200, ""));
+    // refresh 전에 저장되어 point in time에 포함된 풀이 내용과 포함되지 않은 풀이 내용이 기록됨
+    server.handle("POST /problem-records-*/_refresh", (m, p, b) -> {
+      problemRollups.record("answer-1", answer("STU0000001", true, 10, 30_000L));
+      return new Response(200, "{\"_shards\":" + SHARDS + "}");
+    });
+    server.handle("POST /problem-records-*/_search/point_in_time", (m, p, b) -> {
+      // 풀이 시작 시각은 앞서지만 point in time을 만든 뒤에 저장됨
+      problemRollups.record("answer-2", ProblemDto.AnswerDocument.builder()
+          .studyId(1L)
+          .studentId("STU0000003")
+          .correctYn(true)
+          .problemStartDtm(1719827000000L)
+          .build());
+      return new Response(200, "{\"pit_id\":\"" + PIT_ID + "\",\"_shards\":" + SHARDS
+          + ",\"creation_time\":1719828000000}");
+    });
+    server.handle("DELETE /_search/point_in_time", (m, p, b) -> new Response(200,
+        "{\"pits\":[{\"pit_id\":\"" + PIT_ID + "\",\"successful\":true}]}"));
+    server.handle("POST /_search", (m, p, body) -> {
+      if (body.contains("\"ids\"")) {
+        return new Response(200, "{\"took\":1,\"timed_out\":false,\"_shards\":" + SHARDS
+            + ",\"hits\":{\"total\":{\"value\":1,\"relation\":\"eq\"},\"hits\":[{"
+            + "\"_index\":\"problem-records-2024.07\",\"_id\":\"answer-1\",\"_score\":1.0}]}}");
+      }
+      if (body.contains("\"cardinality\"")) {
+        return searchResponse("\"cardinality#keys\":{\"value\":"
+            + (body.contains("studentId") ? 1500 : 1) + "}");
+      }
+      if (body.contains("\"partition\":0") && body.contains("studentId")) {
+        return searchResponse("\"sterms#keys\":{\"sum_other_doc_count\":0,\"buckets\":["
+            + "{\"key\":\"STU0000001\",\"doc_count\":2," + stats(2, 1) + "}]}");
+      }
+      if (body.contains("\"partition\":1")) {
+        return searchResponse("\"sterms#keys\":{\"sum_other_doc_count\":0,\"buckets\":["
+            + "{\"key\":\"STU0000002\",\"doc_count\":1," + stats(1, 1) + "}]}");
+      }
+      if (body.contains("studyId")) {
+        return searchResponse("\"lterms#keys\":{\"sum_other_doc_count\":0,\"buckets\":["
+            + "{\"key\":1,\"doc_count\":3," + stats(3, 2) + "}]}");
+      }
+      return searchResponse(stats(3, 2));
+    });
+    server.handle("POST /_bulk", (m, p, body) -> {
+      List<String> items = new ArrayList<>();
+      Matcher matcher = DOCUMENT_ID.matcher(body);
+      while (matcher.find()) {
+        items.add(indexed(matcher.group(1)));
+      }
+      return new Response(200, "{\"took\":1,\"errors\":false,\"items\":["
+          + String.join(",", items) + "]}");
+    });
+    server.handle("PUT /" + INDEX + "/_mapping", (m, p, b) -> new Response(200,
+        "{\"acknowledged\":true}"));
+
+    // When
+    ProblemDto.RollupRebuild rollupRebuild = problemService.rebuildRollups();
+
+    // Then
+    String bulkRequests = String.join("\n", server.requestBodies());
+    assertAll(
+        // point in time에 포함된 풀이 내용은 재구성 집계에 포함되므로 포함되지 않은 풀이 내용만 남음
+        () -> assertEquals(3, problemRollups.pendingCount()),
+        () -> assertTrue(bulkRequests.contains("\"pit\":{\"id\":\"" + PIT_ID
+            + "\",\"keep_alive\":\"5m\"}")),
+        () -> assertTrue(bulkRequests.contains("\"query\":{\"ids\":{\"values\":"
+            + "[\"answer-1\",\"answer-2\"]}}")),
+        () -> assertEquals(2, rollupRebuild.getStudents()),
+        () -> assertEquals(1, rollupRebuild.getStudies()),
+        () -> assertEquals(3, rollupRebuild.getTotalCount()),
+        // 학생 1,500명은 두 개의 파티션, 학습은 하나의 파티션으로 집계
+        // 집계 6번과 재구성 중에 기록된 Document ID 조회 1번
+        () -> assertEquals(7, server.requestCount("POST /_search")),
+        () -> assertEquals(1, server.requestCount("DELETE /_search/point_in_time")),
+        () -> assertEquals(4, server.requestCount("POST /_bulk")),
+        () -> assertTrue(bulkRequests.contains("{\"index\":{\"_id\":\"student_STU0000002\","
+            + "\"_index\":\"" + INDEX + "\"}}")),
+        () -> assertTrue(bulkRequests.contains("{\"scope\":\"study\",\"key\":\"1\","
+            + "\"totalCount\":3,\"correctCount\":2,\"dsscValueSum\":20,\"dsscValueCount\":3,"
+            + "\"durationSum\":90000,\"durationCount\":3,\"durationMin\":10000,"
+            + "\"durationMax\":50000}")),
+        () -> assertTrue(bulkRequests.contains("\"_meta\":{\"rebuilt_at\":")),
+        () -> assertTrue(problemRollups.isReady())
+    );
+  }
+
+  @DisplayName("checkConsistency_임의로_고른_롤업을_집계와_비교하고_다른_롤업을_덮어씀")
+  @Test
+  void testCheckConsistency() throws Exception {
+
+    // Given
+    server.handle("POST /" + INDEX + ",problem-records-*/_refresh", (m, p, b) ->
+        new Response(200, "{\"_shards\":" + SHARDS + "}"));
+    server.handle("POST /" + INDEX + "/_search", (m, p, b) -> new Response(200,
+        "{\"took\":1,\"timed_out\":false,\"_shards\":" + SHARDS + ",\"hits\":{\"total\":"
+            + "{\"value\":2,\"relation\":\"eq\"},\"hits\":["
+            + hit("student_STU0000001", "{\"scope\":\"student\",\"key\":\"STU0000001\","
+            + "\"totalCount\":3,\"correctCount\":2,\"dsscValueSum\":20,\"dsscValueCount\":3,"
+            + "\"durationSum\":90000,\"durationCount\":3,\"durationMin\":10000,"
+            + "\"durationMax\":50000}") + ","
+            + hit("study_1", "{\"scope\":\"study\",\"key\":\"1\",\"totalCount\":3,"
+            + "\"correctCount\":2,\"dsscValueSum\":20,\"dsscValueCount\":3,"
+            + "\"durationSum\":90000,\"durationCount\":3,\"durationMin\":10000,"
+            + "\"durationMax\":50000}") + "]}}"));
+    server.handle("GET /" + INDEX + "/_doc/all", (m, p, b) -> new Response(200,
+        "{\"_index\":\"" + INDEX + "\",\"_id\":\"all\",\"_version\":1,\"_seq_no\":0,"
+            + "\"_primary_term\":1,\"found\":true,\"_source\":{\"scope\":\"all\","
+            + "\"totalCount\":3,\"correctCount\":2,\"dsscValueSum\":20,\"dsscValueCount\":3,"
+            + "\"durationSum\":90000,\"durationCount\":3,\"durationMin\":10000,"
+            + "\"durationMax\":50000}}"));
+    // 학생 롤업에는 한 번 더 반영된 풀이 내용이 있음
+    server.handle("POST /problem-records-*/_search", (m, p, b) -> searchResponse(stats(3, 2)
+        + ",\"filter#student\":{\"doc_count\":2,\"sterms#keys\":{\"sum_other_doc_count\":0,"
+        + "\"buckets\":[{\"key\":\"STU0000001\",\"doc_count\":2," + stats(2, 1) + "}]}},"
+        + "\"filter#study\":{\"doc_count\":3,\"lterms#keys\":{\"sum_other_doc_count\":0,"
+        + "\"buckets\":[{\"key\":1,\"doc_count\":3," + stats(3, 2) + "}]}}"));
+    server.handle("POST /_bulk", (m, p, b) -> new Response(200,
+        "{\"took\":1,\"errors\":false,\"items\":[" + indexed("student_STU0000001") + "]}"));
+
+    // When
+    ProblemDto.RollupConsistency rollupConsistency = problemService.checkRollups(10, true);
+
+    // Then
+    String repairRequest = server.requestBodies().get(server.requestBodies().size() - 1);
+    assertAll(
+        () -> assertEquals(3, rollupConsistency.getChecked()),
+        () -> assertEquals(List.of("student_STU0000001"), rollupConsistency.getMismatchedIds()),
+        () -> assertEquals(1, rollupConsistency.getRepaired()),
+        () -> assertTrue(repairRequest.contains("{\"scope\":\"student\",\"key\":\"STU0000001\","
+            + "\"totalCount\":2,\"correctCount\":1,"))
+    );
+  }
+
+  private static ProblemDto.AnswerDocument answer(String studentId, boolean correctYn,
+      Integer dsscValue, Long durationMs) {
+    return ProblemDto.AnswerDocument.builder()
+        .studyId(1L)
+        .studyStructureId(10L)
+        .studentId(studentId)
+        .problemNo(1)
+        .correctYn(correctYn)
+        .problemStartDtm(1719828000000L)
+        .durationMs(durationMs)
+        .dsscValue(dsscValue)
+        .build();
+  }
+
+  /**
+   * totalCount개의 풀이 중 correctCount개가 정답인 롤업 집계, 배점 합 20, 풀이 시간 10~50초
+   */
+  private static String stats(int totalCount, int correctCount) {
+    return "\"value_count#correct_total_count\":{\"value\":" + totalCount + "},"
+        + "\"filter#correct_true_count\":{\"doc_count\":" + correctCount + "},"
+        + "\"stats#dsscValue_stats\":{\"count\":" + totalCount + ",\"min\":0,\"max\":10,"
+        + "\"avg\":5,\"sum\":20},"
+        + "\"stats#durationMs_stats\":{\"count\":" + totalCount + ",\"min\":10000,"
+        + "\"max\":50000,\"avg\":30000,\"sum\":" + totalCount * 30_000 + "}";
+  }
+
+  private static Response searchResponse(String aggregations) {
+    return new Response(200, "{\"took\":1,\"timed_out\":false,\"_shards\":" + SHARDS + ","
+        + "\"hits\":{\"total\":{\"value\":0,\"relation\":\"eq\"},\"hits\":[]},"
+        + "\"aggregations\":{" + aggregations + "}}");
+  }
+
+  private static String hit(String id, String source) {
+    return "{\"_index\":\"" + INDEX + "\",\"_id\":\"" + id + "\",\"_score\":1.0,\"_source\":"
+        + source + "}";
+  }
+
+  private static String updated(String id) {
+    return "{\"update\":{\"_index\":\"" + INDEX + "\",\"_id\":\"" + id + "\",\"_version\":2,"
+        + "\"result\":\"updated\",\"_shards\":" + SHARDS + ",\"_seq_no\":1,"
+        + "\"_primary_term\":1,\"status\":200}}";
+  }
+
+  private static String rejected(String id) {
+    return "{\"update\":{\"_index\":\"" + INDEX + "\",\"_id\":\"" + id + "\",\"status\":429,"
+        + "\"error\":{\"type\":\"es_rejected_execution_exception\","
+        + "\"reason\":\"rejected execution\"}}}";
+  }
+
+  private static String indexed(String id) {
+    return "{\"index\":{\"_index\":\"" + INDEX + "\",\"_id\":\"" + id + "\",\"_version\":1,"
+        + "\"result\":\"created\",\"_shards\":" + SHARDS + ",\"_seq_no\":0,"
+        + "\"_primary_term\":1,\"status\":201}}";
+  }
+}
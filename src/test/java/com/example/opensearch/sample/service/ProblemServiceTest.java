@@ -7,13 +7,16 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.example.opensearch.sample.service.dto.ProblemDto.Answer;
 import com.example.opensearch.sample.service.dto.ProblemDto.StudentAnswerSheet;
+import com.example.opensearch.sample.service.dto.ProblemDto.StudentStatistics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
@@ -24,6 +27,7 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.opensearch.client.opensearch.core.IndexResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
 import org.opensearch.client.opensearch.indices.CreateIndexResponse;
 import org.opensearch.client.opensearch.indices.DeleteIndexResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -202,5 +206,88 @@ class ProblemServiceTest {
           () -> assertNotEquals(0.0, avgDsscValue)
       );
     }
+
+    @Order(4)
+    @DisplayName("bulkInsertProblemAnswer_문항 풀이 내용 Bulk 저장")
+    @Test
+    void testBulkInsertProblemAnswer() {
+
+      // Given
+      Instant startInstant = Instant.parse("2024-07-17T10:00:00.00Z");
+      Duration duration = Duration.ofSeconds(20);
+      List<CompletableFuture<BulkResponseItem>> futures = new ArrayList<>();
+
+      // When
+      for (long problemNo = 1; problemNo <= 10; problemNo++) {
+        Answer answerRequest = Answer.builder()
+            .studyId(5L)
+            .studyStructureId(100L)
+            .studentId("TEST0004")
+            .problemNo(problemNo)
+            .correctYn(problemNo % 2 == 0)
+            .problemStartDtm(startInstant.toString())
+            .problemEndDtm(startInstant.plus(duration).toString())
+            .dsscValue(problemNo % 2 == 0 ? 10L : 0L)
+            .build();
+        futures.add(problemService.bulkInsertProblemAnswer(answerRequest));
+        startInstant = startInstant.plus(duration);
+      }
+      List<BulkResponseItem> bulkResponseItems = futures.stream()
+          .map(CompletableFuture::join)
+          .toList();
+      log.debug("bulkResponseItems.size() : [{}]", bulkResponseItems.size());
+
+      // Then
+      assertAll(
+          () -> assertEquals(10, bulkResponseItems.size()),
+          () -> assertTrue(bulkResponseItems.stream().allMatch(item -> item.error() == null))
+      );
+    }
+
+    @Order(5)
+    @DisplayName("getCorrectTrueRates_여러 학생의 정답률을 일괄 조회")
+    @Test
+    void testGetCorrectTrueRates() {
+
+      // Given
+      List<String> studentIds = List.of("TEST0001", "TEST0002", "TEST0003", "TEST9999");
+
+      // When
+      Map<String, StudentStatistics> studentStatisticsMap =
+          problemService.getCorrectTrueRates(studentIds);
+      log.debug("studentStatisticsMap : [{}]", studentStatisticsMap);
+
+      // Then
+      assertAll(
+          () -> assertEquals(studentIds, List.copyOf(studentStatisticsMap.keySet())),
+          () -> assertEquals(10, studentStatisticsMap.get("TEST0001").getTotalCount()),
+          () -> assertEquals(0, studentStatisticsMap.get("TEST9999").getTotalCount()),
+          () -> studentIds.forEach(studentId -> assertEquals(
+              problemService.getCorrectTrueRate(studentId),
+              studentStatisticsMap.get(studentId).getCorrectRate()))
+      );
+    }
+
+    @Order(6)
+    @DisplayName("getCorrectTrueRate_기간에 걸친 파티션만 정답률을 조회")
+    @Test
+    void testGetCorrectTrueRateBetween() {
+
+      // Given
+      String studentId = "TEST0001";
+      Instant from = Instant.parse("2024-07-01T00:00:00Z");
+      Instant to = Instant.parse("2024-08-01T00:00:00Z");
+
+      // When
+      double correctRate = problemService.getCorrectTrueRate(studentId, from, to);
+      double emptyCorrectRate = problemService.getCorrectTrueRate(studentId,
+          Instant.parse("2023-01-01T00:00:00Z"), Instant.parse("2023-02-01T00:00:00Z"));
+
+      // Then
+      assertAll(
+          () -> assertEquals(problemService.getCorrectTrueRate(studentId), correctRate),
+          () -> assertTrue(Double.isNaN(emptyCorrectRate))
+      );
+    }
   }
 }
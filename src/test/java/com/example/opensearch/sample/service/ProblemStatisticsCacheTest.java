@@ -0,0 +1,136 @@
+package com.example.opensearch.sample.service;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import com.example.opensearch.sample.service.dto.ProblemDto.Answer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ProblemStatisticsCacheTest {
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  ProblemStatisticsCache problemStatisticsCache;
+
+  @BeforeEach
+  void setUp() {
+    problemStatisticsCache = new ProblemStatisticsCache(new OpenSearchProperties(), meterRegistry);
+  }
+
+  @DisplayName("get_캐시된 집계는 다시 조회하지 않음")
+  @Test
+  void testGet() throws Exception {
+
+    // Given
+    AtomicInteger loadCount = new AtomicInteger();
+
+    // When
+    for (int i = 0; i < 3; i++) {
+      problemStatisticsCache.get("TEST0001", () -> {
+        loadCount.incrementAndGet();
+        return ProblemDto.AnswerStats.builder().totalCount(10).correctCount(8).build();
+      });
+    }
+
+    // Then
+    assertAll(
+        () -> assertEquals(1, loadCount.get()),
+        () -> assertEquals(2, problemStatisticsCache.stats().hitCount()),
+        () -> assertEquals(1, problemStatisticsCache.stats().missCount()),
+        () -> assertEquals(2.0, meterRegistry.get("cache.gets")
+            .tags("cache", ProblemStatisticsCache.CACHE_NAME, "result", "hit")
+            .functionCounter().count())
+    );
+  }
+
+  @DisplayName("get_조회에 실패한 집계는 캐시하지 않음")
+  @Test
+  void testGetFailure() throws Exception {
+
+    // Given
+    AtomicInteger loadCount = new AtomicInteger();
+
+    // When
+    Exception exception = assertThrows(IOException.class,
+        () -> problemStatisticsCache.get("TEST0001", () -> {
+          loadCount.incrementAndGet();
+          throw new IOException("unavailable");
+        }));
+    ProblemDto.AnswerStats answerStats = problemStatisticsCache.get("TEST0001", () -> {
+      loadCount.incrementAndGet();
+      return ProblemDto.AnswerStats.builder().totalCount(1).build();
+    });
+
+    // Then
+    assertAll(
+        () -> assertEquals("unavailable", exception.getMessage()),
+        () -> assertEquals(2, loadCount.get()),
+        () -> assertEquals(1, answerStats.getTotalCount())
+    );
+  }
+
+  @DisplayName("record_저장된 문항 풀이 내용을 캐시된 집계에 반영")
+  @Test
+  void testRecord() throws Exception {
+
+    // Given
+    problemStatisticsCache.put("TEST0001",
+        ProblemDto.AnswerStats.builder()
+            .totalCount(10).correctCount(8).dsscValueSum(80).dsscValueCount(10).build());
+    problemStatisticsCache.put(ProblemStatisticsCache.ALL_STUDENTS,
+        ProblemDto.AnswerStats.builder()
+            .totalCount(20).correctCount(10).dsscValueSum(100).dsscValueCount(20).build());
+
+    // When
+    problemStatisticsCache.record(Answer.builder()
+        .studentId("TEST0001").correctYn(true).dsscValue(10L).build());
+    problemStatisticsCache.record(Answer.builder()
+        .studentId("TEST0002").correctYn(false).dsscValue(0L).build());
+
+    ProblemDto.AnswerStats student = problemStatisticsCache.get("TEST0001", () -> null);
+    ProblemDto.AnswerStats all = problemStatisticsCache.get(
+        ProblemStatisticsCache.ALL_STUDENTS, () -> null);
+
+    // Then
+    assertAll(
+        () -> assertEquals(11, student.getTotalCount()),
+        () -> assertEquals(9, student.getCorrectCount()),
+        () -> assertEquals(90.0, student.getDsscValueSum()),
+        () -> assertEquals(22, all.getTotalCount()),
+        () -> assertEquals(11, all.getCorrectCount()),
+        () -> assertEquals(22, all.getDsscValueCount()),
+        () -> assertEquals(2, problemStatisticsCache.size())
+    );
+  }
+
+  @DisplayName("record_조회 중인 집계는 기다리지 않고 캐시에서 제거")
+  @Test
+  void testRecordWhileLoading() {
+
+    // Given
+    CompletableFuture<ProblemDto.AnswerStats> loading = new CompletableFuture<>();
+    CompletableFuture<ProblemDto.AnswerStats> future =
+        problemStatisticsCache.getAsync("TEST0001", () -> loading);
+
+    // When
+    problemStatisticsCache.record(Answer.builder()
+        .studentId("TEST0001").correctYn(true).dsscValue(10L).build());
+    loading.complete(ProblemDto.AnswerStats.builder().totalCount(10).build());
+
+    // Then
+    assertAll(
+        () -> assertEquals(10, future.join().getTotalCount()),
+        // 풀이 내용이 반영되었는지 알 수 없는 집계는 다음 조회에서 다시 집계
+        () -> assertNull(problemStatisticsCache.getIfPresent("TEST0001"))
+    );
+  }
+}
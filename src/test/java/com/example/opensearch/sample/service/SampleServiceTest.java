@@ -2,10 +2,14 @@ package com.example.opensearch.sample.service;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.example.opensearch.sample.service.dto.SampleDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
 import org.junit.jupiter.api.BeforeAll;
@@ -100,6 +104,106 @@ class SampleServiceTest {
     }
   }
 
+  @DisplayName("여러 Document 저장, 조회, 수정, 삭제 샘플 테스트")
+  @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+  @Nested
+  class TestDocuments {
+
+    static String indexName;
+    static List<SampleDto.Document> sampleDocuments;
+
+    @BeforeAll
+    static void setUpAll() {
+      indexName = "sample-documents-index";
+      sampleDocuments = IntStream.range(0, 2500)
+          .mapToObj(i -> SampleDto.Document.builder()
+              .id(String.format("%04d", i))
+              .firstName("FirstName " + i)
+              .lastName("LastName " + i)
+              .build())
+          .toList();
+    }
+
+    @Order(1)
+    @DisplayName("insertDocuments_여러 Document 저장")
+    @Test
+    void testInsertDocuments() {
+
+      // Given
+      sampleService.createIndex(indexName);
+
+      // When
+      List<SampleDto.ItemResult> itemResults = sampleService.insertDocuments(
+          indexName, sampleDocuments);
+
+      // Then
+      assertAll(
+          () -> assertEquals(sampleDocuments.size(), itemResults.size()),
+          () -> assertTrue(itemResults.stream().allMatch(SampleDto.ItemResult::isChanged)),
+          () -> assertEquals(sampleDocuments.get(1234).getId(), itemResults.get(1234).getId())
+      );
+    }
+
+    @Order(2)
+    @DisplayName("getDocuments_여러 Document 조회")
+    @Test
+    void testGetDocuments() {
+
+      // Given
+      List<String> ids = List.of("0002", "not-exist", "2499", "0001");
+
+      // When
+      Map<String, SampleDto.Document> documents = sampleService.getDocuments(indexName, ids);
+
+      // Then
+      assertAll(
+          () -> assertEquals(List.of("0002", "2499", "0001"), List.copyOf(documents.keySet())),
+          () -> assertEquals("FirstName 2499", documents.get("2499").getFirstName())
+      );
+    }
+
+    @Order(3)
+    @DisplayName("updateDocuments_여러 Document 수정")
+    @Test
+    void testUpdateDocuments() {
+
+      // Given
+      List<SampleDto.Document> updates = List.of(
+          SampleDto.Document.builder().id("0000").lastName("Updated").build(),
+          SampleDto.Document.builder().id("0001").lastName("LastName 1").build(),
+          SampleDto.Document.builder().id("not-exist").lastName("Updated").build());
+
+      // When
+      List<SampleDto.ItemResult> itemResults = sampleService.updateDocuments(indexName, updates);
+
+      // Then
+      assertAll(
+          () -> assertTrue(itemResults.get(0).isChanged()),
+          () -> assertEquals("noop", itemResults.get(1).getResult()),
+          () -> assertEquals("not_found", itemResults.get(2).getResult()),
+          () -> assertFalse(itemResults.get(2).isRetryable())
+      );
+    }
+
+    @Order(4)
+    @DisplayName("deleteDocuments_여러 Document 삭제")
+    @Test
+    void testDeleteDocuments() {
+
+      // Given & When
+      List<SampleDto.ItemResult> itemResults = sampleService.deleteDocuments(
+          indexName, sampleDocuments);
+      sampleService.deleteIndex(indexName);
+
+      // Then
+      assertAll(
+          () -> assertEquals(sampleDocuments.size(), itemResults.size()),
+          () -> assertTrue(itemResults.stream()
+              .allMatch(itemResult -> "deleted".equals(itemResult.getResult())))
+      );
+    }
+  }
+
   @DisplayName("Index 및 Document 샘플 테스트")
   @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
   @Nested
@@ -208,6 +312,57 @@ class SampleServiceTest {
     }
 
     @Order(5)
+    @DisplayName("updateDocumentById_Document 부분 수정")
+    @Test
+    void testUpdateDocumentById() {
+
+      // Given
+      SampleDto.Document sampleDocument = SampleDto.Document.builder()
+          .id(id)
+          .lastName(originalLastName)
+          .build();
+
+      // When
+      SampleDto.ItemResult changed = sampleService.updateDocumentById(indexName, sampleDocument);
+      SampleDto.ItemResult unchanged = sampleService.updateDocumentById(indexName, sampleDocument);
+      log.debug("changed : [{}], unchanged : [{}]", changed, unchanged);
+
+      // Then
+      assertAll(
+          () -> assertEquals("updated", changed.getResult()),
+          () -> assertTrue(changed.isChanged()),
+          () -> assertEquals("noop", unchanged.getResult()),
+          () -> assertFalse(unchanged.isChanged())
+      );
+    }
+
+    @Order(6)
+    @DisplayName("updateDocuments_여러 Document를 Bulk로 수정")
+    @Test
+    void testUpdateDocuments() {
+
+      // Given
+      List<SampleDto.Document> sampleDocuments = List.of(
+          SampleDto.Document.builder().id(id).firstName(originalFirstName).build(),
+          SampleDto.Document.builder().id(id).firstName(originalFirstName).build(),
+          SampleDto.Document.builder().id("not-exist").firstName(originalFirstName).build());
+
+      // When
+      List<SampleDto.ItemResult> updateResults = sampleService.updateDocuments(
+          indexName, sampleDocuments);
+      log.debug("updateResults : [{}]", updateResults);
+
+      // Then
+      assertAll(
+          () -> assertEquals(3, updateResults.size()),
+          () -> assertTrue(updateResults.get(0).isChanged()),
+          () -> assertEquals("noop", updateResults.get(1).getResult()),
+          () -> assertEquals("not_found", updateResults.get(2).getResult()),
+          () -> assertFalse(updateResults.get(2).isChanged())
+      );
+    }
+
+    @Order(7)
     @DisplayName("deleteDocument_Document 삭제")
     @Test
     void testDeleteDocument() {
@@ -229,7 +384,7 @@ class SampleServiceTest {
       );
     }
 
-    @Order(6)
+    @Order(8)
     @DisplayName("deleteIndex_인덱스 삭제")
     @Test
     void testDeleteIndex() {
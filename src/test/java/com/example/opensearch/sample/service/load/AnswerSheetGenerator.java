@@ -0,0 +1,207 @@
+package com.example.opensearch.sample.service.load;
+
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 실제와 비슷한 분포의 답안지(StudentAnswerSheet)와 문항 풀이 내용을 만드는 생성기
+ *
+ * <p>학생 능력치와 문항 난이도로 정답 여부를 정하고(1PL 문항반응이론), 풀이 시간은 로그정규분포,
+ * 답안지를 내는 학생은 Zipf 분포를 따르므로 일부 학생에 요청이 몰림. 답안지 도착 간격은 평상시와
+ * 몰림 구간을 오가는 포아송 과정을 따름. 같은 seed면 항상 같은 순서로 생성됨</p>
+ */
+public class AnswerSheetGenerator {
+
+  // 문항 하나를 푸는 데 걸리는 시간의 중앙값
+  private static final double MEDIAN_SECONDS = 30.0;
+
+  // 풀이 시간 로그정규분포의 표준편차
+  private static final double DURATION_SIGMA = 0.6;
+
+  // 학생별 답안지 제출 빈도의 Zipf 지수
+  private static final double ZIPF_EXPONENT = 1.1;
+
+  private final LoadProfile profile;
+  private final SplittableRandom random;
+  private final double[] abilities;
+  private final double[] difficulties;
+  private final double[] zipfCumulative;
+
+  // 답안지 도착 시각(답안지 생성 시작부터의 나노초)과 몰림 구간 상태
+  private double arrivalNanos;
+  private boolean burst;
+  private double stateEndNanos;
+
+  private long sheetCount;
+
+  /**
+   * 답안지 생성기 생성
+   *
+   * @param profile 부하 생성 조건
+   */
+  public AnswerSheetGenerator(LoadProfile profile) {
+    this.profile = profile;
+    this.random = new SplittableRandom(profile.getSeed());
+
+    this.abilities = new double[profile.getStudents()];
+    for (int i = 0; i < abilities.length; i++) {
+      abilities[i] = gaussian();
+    }
+
+    this.difficulties = new double[profile.getProblemsPerSheet()];
+    for (int i = 0; i < difficulties.length; i++) {
+      difficulties[i] = gaussian();
+    }
+
+    this.zipfCumulative = new double[profile.getStudents()];
+    double sum = 0;
+    for (int i = 0; i < zipfCumulative.length; i++) {
+      sum += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+      zipfCumulative[i] = sum;
+    }
+    for (int i = 0; i < zipfCumulative.length; i++) {
+      zipfCumulative[i] /= sum;
+    }
+
+    this.stateEndNanos = nextStateLength();
+  }
+
+  /**
+   * 다음 답안지 생성
+   *
+   * @return 학생 아이디, 답안지, 문항 풀이 내용과 도착 시각
+   */
+  public Sheet next() {
+
+    int student = zipfStudent();
+    String studentId = String.format("STU%07d", student);
+    double ability = abilities[student];
+
+    long studyId = 1 + random.nextInt(profile.getStudies());
+    long studyStructureId = studyId * 100 + random.nextInt(10);
+    Instant startInstant = profile.getStartInstant()
+        .plusSeconds(sheetCount++ * 60 % Duration.ofDays(28).toSeconds());
+
+    List<Long> problemNos = new ArrayList<>(difficulties.length);
+    List<Boolean> correctYns = new ArrayList<>(difficulties.length);
+    List<Long> dsscValues = new ArrayList<>(difficulties.length);
+    List<ProblemDto.Answer> answers = new ArrayList<>(difficulties.length);
+    Instant problemStart = startInstant;
+    long totalMillis = 0;
+
+    for (int i = 0; i < difficulties.length; i++) {
+      double difficulty = difficulties[i];
+      boolean correct = random.nextDouble() < 1.0 / (1.0 + Math.exp(difficulty - ability));
+
+      // 어려운 문항일수록, 능력치가 낮을수록 오래 걸림
+      long millis = (long) (MEDIAN_SECONDS * 1000
+          * Math.exp(0.5 * difficulty - 0.3 * ability + DURATION_SIGMA * gaussian()));
+      Instant problemEnd = problemStart.plusMillis(Math.max(millis, 1000));
+
+      long dsscValue = correct ? dsscValue(difficulty) : 0L;
+      problemNos.add((long) i + 1);
+      correctYns.add(correct);
+      dsscValues.add(dsscValue);
+      answers.add(ProblemDto.Answer.builder()
+          .studyId(studyId)
+          .studyStructureId(studyStructureId)
+          .studentId(studentId)
+          .problemNo((long) i + 1)
+          .correctYn(correct)
+          .problemStartDtm(problemStart.toString())
+          .problemEndDtm(problemEnd.toString())
+          .dsscValue(dsscValue)
+          .build());
+
+      totalMillis += Duration.between(problemStart, problemEnd).toMillis();
+      problemStart = problemEnd;
+    }
+
+    ProblemDto.StudentAnswerSheet studentAnswerSheet = new ProblemDto.StudentAnswerSheet(
+        studyId, studyStructureId, problemNos, correctYns, startInstant,
+        Duration.ofMillis(totalMillis / difficulties.length), dsscValues);
+
+    return new Sheet(studentId, studentAnswerSheet, answers, nextArrivalNanos());
+  }
+
+  /**
+   * 다음 답안지의 도착 시각
+   *
+   * <p>평균 도착률은 targetRate / problemsPerSheet이며, 몰림 구간에서는 burstFactor배,
+   * 평상시에는 평균이 유지되도록 낮춘 도착률을 사용</p>
+   */
+  private long nextArrivalNanos() {
+
+    if (profile.getTargetRate() <= 0) {
+      return 0;
+    }
+
+    double meanRate = profile.getTargetRate() / profile.getProblemsPerSheet();
+    double burstRatio = profile.getBurstRatio();
+    double burstRate = meanRate * profile.getBurstFactor();
+    double normalRate = Math.max(meanRate * (1 - burstRatio * profile.getBurstFactor())
+        / (1 - burstRatio), meanRate * 0.05);
+
+    arrivalNanos += exponential(burst ? burstRate : normalRate) * 1e9;
+    while (arrivalNanos > stateEndNanos) {
+      burst = !burst;
+      stateEndNanos += nextStateLength();
+    }
+
+    return (long) arrivalNanos;
+  }
+
+  private double nextStateLength() {
+    double period = profile.getBurstPeriod().toNanos();
+    return burst
+        ? exponential(1 / (period * profile.getBurstRatio()))
+        : exponential(1 / (period * (1 - profile.getBurstRatio())));
+  }
+
+  private int zipfStudent() {
+    double u = random.nextDouble();
+    int low = 0;
+    int high = zipfCumulative.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (zipfCumulative[mid] < u) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  // 난이도가 높을수록 배점이 높음 (1 ~ 10)
+  private static long dsscValue(double difficulty) {
+    return Math.max(1, Math.min(10, Math.round(5.5 + difficulty * 2)));
+  }
+
+  private double exponential(double rate) {
+    return -Math.log(1 - random.nextDouble()) / rate;
+  }
+
+  private double gaussian() {
+    double u1 = 1 - random.nextDouble();
+    double u2 = random.nextDouble();
+    return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+  }
+
+  /**
+   * 생성된 답안지
+   *
+   * @param studentId          학생 아이디
+   * @param studentAnswerSheet 답안지
+   * @param answers            답안지의 문항별 풀이 내용
+   * @param arrivalNanos       부하 생성 시작부터 답안지가 도착하는 시각(나노초), 최대 속도이면 0
+   */
+  public record Sheet(String studentId, ProblemDto.StudentAnswerSheet studentAnswerSheet,
+                      List<ProblemDto.Answer> answers, long arrivalNanos) {
+
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.opensearch.sample.service.load;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AnswerSheetGeneratorTest {
+
+  @DisplayName("같은_seed는_같은_답안지를_만들고_학생과_정답률은_고르지_않게_분포")
+  @Test
+  void testDistribution() {
+
+    // Given
+    LoadProfile profile = LoadProfile.builder()
+        .students(1_000)
+        .problemsPerSheet(10)
+        .targetRate(1_000)
+        .build();
+    AnswerSheetGenerator generator = new AnswerSheetGenerator(profile);
+    AnswerSheetGenerator sameSeed = new AnswerSheetGenerator(profile);
+
+    // When
+    int sheets = 5_000;
+    Map<String, Integer> sheetsByStudent = new HashMap<>();
+    Map<String, int[]> correctByStudent = new HashMap<>();
+    long lastArrival = 0;
+    boolean ordered = true;
+    boolean sameSequence = true;
+    boolean chained = true;
+
+    for (int i = 0; i < sheets; i++) {
+      AnswerSheetGenerator.Sheet sheet = generator.next();
+      AnswerSheetGenerator.Sheet other = sameSeed.next();
+      sameSequence &= sheet.studentId().equals(other.studentId())
+          && sheet.arrivalNanos() == other.arrivalNanos();
+      ordered &= sheet.arrivalNanos() >= lastArrival;
+      lastArrival = sheet.arrivalNanos();
+
+      sheetsByStudent.merge(sheet.studentId(), 1, Integer::sum);
+      int[] correct = correctByStudent.computeIfAbsent(sheet.studentId(), k -> new int[2]);
+      for (int n = 0; n < sheet.answers().size(); n++) {
+        ProblemDto.Answer answer = sheet.answers().get(n);
+        correct[0] += answer.getCorrectYn() ? 1 : 0;
+        correct[1]++;
+        if (n > 0) {
+          chained &= answer.getProblemStartDtm()
+              .equals(sheet.answers().get(n - 1).getProblemEndDtm());
+        }
+      }
+    }
+
+    int hottest = sheetsByStudent.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    long weakStudents = correctByStudent.values().stream()
+        .filter(c -> c[1] >= 20 && c[0] < c[1] * 0.3).count();
+    long strongStudents = correctByStudent.values().stream()
+        .filter(c -> c[1] >= 20 && c[0] > c[1] * 0.7).count();
+    double seconds = lastArrival / 1e9;
+    double expectedSeconds = sheets * profile.getProblemsPerSheet() / profile.getTargetRate();
+    boolean firstProblemStartsAtSheet = Instant.parse(generator.next().answers().get(0)
+        .getProblemStartDtm()).isAfter(profile.getStartInstant());
+
+    // Then
+    boolean finalSameSequence = sameSequence;
+    boolean finalOrdered = ordered;
+    boolean finalChained = chained;
+    assertAll(
+        () -> assertTrue(finalSameSequence),
+        () -> assertTrue(finalOrdered),
+        () -> assertTrue(finalChained),
+        () -> assertTrue(firstProblemStartsAtSheet),
+        () -> assertTrue(hottest > sheets / 20, "Zipf : " + hottest),
+        () -> assertTrue(weakStudents > 0 && strongStudents > 0),
+        () -> assertEquals(expectedSeconds, seconds, expectedSeconds * 0.5)
+    );
+  }
+}
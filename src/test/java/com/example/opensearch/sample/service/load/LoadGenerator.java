@@ -0,0 +1,125 @@
+package com.example.opensearch.sample.service.load;
+
+import com.example.opensearch.sample.service.ProblemService;
+import com.example.opensearch.sample.service.dto.ProblemDto;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 생성한 답안지의 문항 풀이 내용을 ProblemService로 저장하며 처리량과 응답 시간을 측정
+ *
+ * <p>targetRate가 있으면 답안지 도착 시각에 맞춰 전송하고(open-loop), 응답 시간을 예정된 전송
+ * 시각부터 재므로 서버가 느려져 전송이 밀린 시간도 포함됨(coordinated omission 보정).
+ * targetRate가 0 이하이면 concurrency만큼 요청을 동시에 보내며 최대 속도로 전송</p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LoadGenerator {
+
+  private final ProblemService problemService;
+  private final LoadProfile profile;
+
+  /**
+   * 워밍업 후 측정 구간의 문항 풀이를 저장하고 결과를 반환
+   *
+   * @return LoadReport
+   * @throws InterruptedException 부하 생성 중 인터럽트된 경우
+   */
+  public LoadReport run() throws InterruptedException {
+
+    AnswerSheetGenerator generator = new AnswerSheetGenerator(profile);
+    if (profile.getWarmupAnswers() > 0) {
+      LoadReport warmup = run(generator, profile.getWarmupAnswers());
+      log.info("warmup : {}", warmup);
+    }
+
+    return run(generator, profile.getAnswers());
+  }
+
+  private LoadReport run(AnswerSheetGenerator generator, int answerCount)
+      throws InterruptedException {
+
+    Histogram responseTime = new ConcurrentHistogram(3);
+    Histogram serviceTime = new ConcurrentHistogram(3);
+    AtomicLong operations = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    Semaphore inFlight = new Semaphore(profile.getConcurrency());
+
+    // 단건 저장은 요청 스레드를 점유하므로 concurrency만큼 스레드를 사용
+    ExecutorService executor = profile.getMode() == LoadProfile.Mode.SINGLE
+        ? Executors.newFixedThreadPool(profile.getConcurrency())
+        : null;
+
+    long start = System.nanoTime();
+    long firstArrival = -1;
+    int submitted = 0;
+
+    try {
+      while (submitted < answerCount) {
+        AnswerSheetGenerator.Sheet sheet = generator.next();
+        if (firstArrival < 0) {
+          firstArrival = sheet.arrivalNanos();
+        }
+
+        long intended = profile.getTargetRate() > 0
+            ? start + sheet.arrivalNanos() - firstArrival
+            : 0;
+        waitUntil(intended);
+
+        for (ProblemDto.Answer answer : sheet.answers()) {
+          if (submitted++ >= answerCount) {
+            break;
+          }
+          inFlight.acquire();
+          long sent = System.nanoTime();
+          long scheduled = intended > 0 ? intended : sent;
+
+          CompletableFuture<Boolean> result = executor != null
+              ? CompletableFuture.supplyAsync(
+                  () -> problemService.insertProblemAnswer(answer) != null, executor)
+              : problemService.bulkInsertProblemAnswer(answer).thenApply(item -> true);
+
+          result.whenComplete((success, error) -> {
+            long now = System.nanoTime();
+            responseTime.recordValue(LoadReport.micros(now - scheduled));
+            serviceTime.recordValue(LoadReport.micros(now - sent));
+            operations.incrementAndGet();
+            if (error != null || !Boolean.TRUE.equals(success)) {
+              errors.incrementAndGet();
+            }
+            inFlight.release();
+          });
+        }
+      }
+
+      // 남은 요청이 모두 끝날 때까지 대기
+      inFlight.acquire(profile.getConcurrency());
+      inFlight.release(profile.getConcurrency());
+    } finally {
+      if (executor != null) {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+      }
+    }
+
+    return new LoadReport(profile.getMode(), operations.get(), errors.get(),
+        Duration.ofNanos(System.nanoTime() - start), responseTime, serviceTime);
+  }
+
+  private static void waitUntil(long deadline) {
+    long remaining;
+    while (deadline > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.example.opensearch.sample.service.load;
+
+import java.time.Duration;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 부하 생성 조건
+ *
+ * <p>load.* 시스템 프로퍼티로 바꿀 수 있음 (예: gradle loadTest -Dload.answers=1000000
+ * -Dload.target-rate=5000)</p>
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class LoadProfile {
+
+  /**
+   * 문항 풀이 내용 저장 방식
+   */
+  public enum Mode {
+    // ProblemService.insertProblemAnswer, 문항 풀이 하나당 요청 하나
+    SINGLE,
+    // ProblemService.bulkInsertProblemAnswer, BulkIngester로 묶어서 전송
+    BULK
+  }
+
+  @Builder.Default
+  private Mode mode = Mode.SINGLE;
+
+  // 학생 수
+  @Builder.Default
+  private int students = 10_000;
+
+  // 학습(studyId) 수
+  @Builder.Default
+  private int studies = 200;
+
+  // 답안지 하나의 문항 수
+  @Builder.Default
+  private int problemsPerSheet = 20;
+
+  // 측정할 문항 풀이 수
+  @Builder.Default
+  private int answers = 20_000;
+
+  // 측정에서 제외하는 워밍업 문항 풀이 수
+  @Builder.Default
+  private int warmupAnswers = 2_000;
+
+  // 초당 문항 풀이 수, 0 이하이면 최대 속도로 전송
+  @Builder.Default
+  private double targetRate = 0;
+
+  // 동시에 처리 중인 최대 요청 수, BULK이면 BulkIngester 버퍼에 쌓아 둘 수 있는 문항 풀이 수이므로
+  // opensearch.bulk.max-actions 이상으로 설정
+  @Builder.Default
+  private int concurrency = 16;
+
+  // 몰림 구간에서 평균 대비 도착률 배수
+  @Builder.Default
+  private double burstFactor = 4.0;
+
+  // 전체 시간 중 몰림 구간의 비율
+  @Builder.Default
+  private double burstRatio = 0.2;
+
+  // 평상시, 몰림 구간이 바뀌는 평균 주기
+  @Builder.Default
+  private Duration burstPeriod = Duration.ofSeconds(2);
+
+  // 첫 답안지의 문항 풀이 시작 시각
+  @Builder.Default
+  private Instant startInstant = Instant.parse("2024-07-01T00:00:00Z");
+
+  @Builder.Default
+  private long seed = 42L;
+
+  /**
+   * load.* 시스템 프로퍼티로 기본값을 덮어쓴 LoadProfile 생성
+   *
+   * @return LoadProfile
+   */
+  public static LoadProfile fromSystemProperties() {
+    LoadProfile defaults = LoadProfile.builder().build();
+    return LoadProfile.builder()
+        .mode(Mode.valueOf(property("mode", defaults.mode.name()).toUpperCase()))
+        .students(Integer.parseInt(property("students", defaults.students)))
+        .studies(Integer.parseInt(property("studies", defaults.studies)))
+        .problemsPerSheet(Integer.parseInt(property("problems-per-sheet",
+            defaults.problemsPerSheet)))
+        .answers(Integer.parseInt(property("answers", defaults.answers)))
+        .warmupAnswers(Integer.parseInt(property("warmup-answers", defaults.warmupAnswers)))
+        .targetRate(Double.parseDouble(property("target-rate", defaults.targetRate)))
+        .concurrency(Integer.parseInt(property("concurrency", defaults.concurrency)))
+        .burstFactor(Double.parseDouble(property("burst-factor", defaults.burstFactor)))
+        .burstRatio(Double.parseDouble(property("burst-ratio", defaults.burstRatio)))
+        .burstPeriod(Duration.parse(property("burst-period", defaults.burstPeriod)))
+        .startInstant(Instant.parse(property("start-instant", defaults.startInstant)))
+        .seed(Long.parseLong(property("seed", defaults.seed)))
+        .build();
+  }
+
+  private static String property(String name, Object defaultValue) {
+    return System.getProperty("load." + name, String.valueOf(defaultValue));
+  }
+}
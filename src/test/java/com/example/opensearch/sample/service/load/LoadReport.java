@@ -0,0 +1,80 @@
+package com.example.opensearch.sample.service.load;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 부하 생성 결과
+ *
+ * <p>응답 시간은 예정된 전송 시각부터 완료까지, 처리 시간은 실제 전송 시각부터 완료까지의 시간이며
+ * 최대 속도로 전송하면 두 값이 같음. 목표 속도를 따라가지 못해 밀린 시간은 응답 시간에만 포함됨</p>
+ */
+@Getter
+public class LoadReport {
+
+  private final LoadProfile.Mode mode;
+  private final long operations;
+  private final long errors;
+  private final Duration elapsed;
+
+  // 마이크로초 단위
+  private final Histogram responseTime;
+  private final Histogram serviceTime;
+
+  LoadReport(LoadProfile.Mode mode, long operations, long errors, Duration elapsed,
+      Histogram responseTime, Histogram serviceTime) {
+    this.mode = mode;
+    this.operations = operations;
+    this.errors = errors;
+    this.elapsed = elapsed;
+    this.responseTime = responseTime;
+    this.serviceTime = serviceTime;
+  }
+
+  /**
+   * 초당 처리한 문항 풀이 수
+   *
+   * @return ops/sec
+   */
+  public double throughput() {
+    return operations * 1e9 / Math.max(elapsed.toNanos(), 1);
+  }
+
+  /**
+   * 응답 시간 백분위수
+   *
+   * @param percentile 백분위 (예: 99.9)
+   * @return 밀리초
+   */
+  public double responseTimeMillis(double percentile) {
+    return responseTime.getValueAtPercentile(percentile) / 1000.0;
+  }
+
+  /**
+   * 처리 시간 백분위수
+   *
+   * @param percentile 백분위 (예: 99.9)
+   * @return 밀리초
+   */
+  public double serviceTimeMillis(double percentile) {
+    return serviceTime.getValueAtPercentile(percentile) / 1000.0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("mode=%s operations=%d errors=%d elapsed=%dms throughput=%.1f ops/s "
+            + "response(p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms) "
+            + "service(p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms)",
+        mode, operations, errors, elapsed.toMillis(), throughput(),
+        responseTimeMillis(50), responseTimeMillis(99), responseTimeMillis(99.9),
+        responseTime.getMaxValue() / 1000.0,
+        serviceTimeMillis(50), serviceTimeMillis(99), serviceTimeMillis(99.9),
+        serviceTime.getMaxValue() / 1000.0);
+  }
+
+  static long micros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+  }
+}
@@ -0,0 +1,149 @@
+package com.example.opensearch.sample.service.load;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.opensearch.common.bulk.BulkIngester;
+import com.example.opensearch.common.reindex.IndexReindexer;
+import com.example.opensearch.config.OpenSearchProperties;
+import com.example.opensearch.sample.service.ProblemAnswerSpool;
+import com.example.opensearch.sample.service.ProblemRollups;
+import com.example.opensearch.sample.service.ProblemService;
+import com.example.opensearch.sample.service.ProblemStatisticsCache;
+import com.example.opensearch.support.StubOpenSearchServer;
+import com.example.opensearch.support.StubOpenSearchServer.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+
+/**
+ * Stub OpenSearch 서버를 대상으로 문항 풀이 내용 저장 부하를 생성
+ *
+ * <p>gradle loadTest로 실행하며 조건은 load.* 시스템 프로퍼티로 바꿀 수 있음</p>
+ */
+@Slf4j
+@Tag("load")
+class ProblemLoadTest {
+
+  static final String SHARDS = "{\"total\":2,\"successful\":1,\"failed\":0}";
+
+  StubOpenSearchServer server;
+  OpenSearchTransport openSearchTransport;
+  BulkIngester problemBulkIngester;
+  IndexReindexer indexReindexer;
+  ProblemService problemService;
+  AtomicLong seqNo = new AtomicLong();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new StubOpenSearchServer()
+        .handle("POST /problem-records-", (m, p, b) -> new Response(201, indexResponse()))
+        .handle("POST /_bulk", (m, p, body) -> new Response(200, bulkResponse(body)));
+    openSearchTransport = ApacheHttpClient5TransportBuilder
+        .builder(HttpHost.create(server.uri())).build();
+    OpenSearchClient openSearchClient = new OpenSearchClient(openSearchTransport);
+
+    OpenSearchProperties openSearchProperties = new OpenSearchProperties();
+    openSearchProperties.getBulk().setFlushInterval(Duration.ofMillis(50));
+    problemBulkIngester = new BulkIngester(openSearchClient, openSearchProperties.getBulk(),
+        "problem-bulk-load");
+    indexReindexer = new IndexReindexer(openSearchClient,
+        new OpenSearchAsyncClient(openSearchTransport), openSearchProperties.getReindex());
+    ProblemStatisticsCache problemStatisticsCache = new ProblemStatisticsCache(openSearchProperties,
+        new SimpleMeterRegistry());
+    openSearchProperties.getSpool().setEnabled(false);
+    openSearchProperties.getRollup().setEnabled(false);
+    ProblemRollups problemRollups = new ProblemRollups(openSearchClient, openSearchProperties,
+        new SimpleMeterRegistry());
+    problemService = new ProblemService(openSearchClient, problemBulkIngester,
+        problemStatisticsCache, openSearchProperties, indexReindexer,
+        new ProblemAnswerSpool(openSearchClient, problemStatisticsCache, problemRollups,
+            indexReindexer, openSearchProperties, new SimpleMeterRegistry()),
+        problemRollups);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    problemBulkIngester.close();
+    indexReindexer.close();
+    openSearchTransport.close();
+    server.close();
+  }
+
+  @DisplayName("insertProblemAnswer_문항_풀이_단건_저장_처리량과_응답_시간")
+  @Test
+  void testSingleInsert() throws Exception {
+
+    // Given
+    LoadProfile profile = LoadProfile.fromSystemProperties().toBuilder()
+        .mode(LoadProfile.Mode.SINGLE)
+        .build();
+
+    // When
+    LoadReport report = new LoadGenerator(problemService, profile).run();
+    log.info("profile : {}", profile);
+    log.info("report : {}", report);
+
+    // Then
+    assertReport(profile, report);
+  }
+
+  @DisplayName("bulkInsertProblemAnswer_문항_풀이_Bulk_저장_처리량과_응답_시간")
+  @Test
+  void testBulkInsert() throws Exception {
+
+    // Given
+    LoadProfile defaults = LoadProfile.fromSystemProperties();
+    LoadProfile profile = defaults.toBuilder()
+        .mode(LoadProfile.Mode.BULK)
+        .concurrency(Math.max(defaults.getConcurrency(), 2_000))
+        .build();
+
+    // When
+    LoadReport report = new LoadGenerator(problemService, profile).run();
+    log.info("profile : {}", profile);
+    log.info("report : {}", report);
+
+    // Then
+    assertReport(profile, report);
+  }
+
+  private static void assertReport(LoadProfile profile, LoadReport report) {
+    assertAll(
+        () -> assertEquals(profile.getAnswers(), report.getOperations()),
+        () -> assertEquals(0, report.getErrors()),
+        () -> assertEquals(profile.getAnswers(), report.getResponseTime().getTotalCount()),
+        () -> assertTrue(report.responseTimeMillis(50) <= report.responseTimeMillis(99.9))
+    );
+  }
+
+  private String indexResponse() {
+    return "{\"_index\":\"problem-records-2024.07\",\"_id\":\"" + seqNo.incrementAndGet()
+        + "\",\"_version\":1,\"result\":\"created\",\"_shards\":" + SHARDS
+        + ",\"_seq_no\":" + seqNo.get() + ",\"_primary_term\":1}";
+  }
+
+  private String bulkResponse(String body) {
+    List<String> items = new ArrayList<>();
+    String[] lines = body.split("\n");
+    for (int i = 0; i < lines.length; i += 2) {
+      items.add("{\"index\":{\"_index\":\"problem-records-2024.07\",\"_id\":\""
+          + seqNo.incrementAndGet() + "\",\"_version\":1,\"result\":\"created\",\"status\":201}}");
+    }
+    return "{\"took\":1,\"errors\":false,\"items\":[" + String.join(",", items) + "]}";
+  }
+}
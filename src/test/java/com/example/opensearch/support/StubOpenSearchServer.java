@@ -0,0 +1,164 @@
+package com.example.opensearch.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 테스트용 OpenSearch Stub 서버
+ *
+ * <p>JDK HttpServer로 임의의 포트에서 실행되며, 경로별로 등록된 Handler의 응답을 돌려준다.
+ * 등록되지 않은 경로는 빈 JSON 객체로 응답한다.</p>
+ */
+public class StubOpenSearchServer implements AutoCloseable {
+
+  private static final String INFO_BODY = """
+      {"name":"stub","cluster_name":"stub-cluster","cluster_uuid":"stub",
+      "version":{"distribution":"opensearch","number":"2.11.1","build_type":"tar",
+      "build_hash":"stub","build_date":"2024-01-01T00:00:00Z","build_snapshot":false,
+      "lucene_version":"9.7.0","minimum_wire_compatibility_version":"7.10.0",
+      "minimum_index_compatibility_version":"7.0.0"},"tagline":"The OpenSearch Project"}
+      """;
+
+  static {
+    // 작은 응답이 Nagle 알고리즘 때문에 지연되지 않도록 TCP_NODELAY를 사용
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final HttpServer server;
+  private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+  private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+  private volatile boolean healthy = true;
+  private volatile long delayMillis;
+
+  public StubOpenSearchServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+    server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "stub-opensearch");
+      thread.setDaemon(true);
+      return thread;
+    }));
+    server.createContext("/", this::handle);
+    handle("GET /", (method, path, body) -> new Response(200, INFO_BODY));
+    server.start();
+  }
+
+  /**
+   * 요청 메서드와 경로 접두사(예: "POST /_bulk")에 대한 Handler를 등록
+   */
+  public StubOpenSearchServer handle(String methodAndPathPrefix, Handler handler) {
+    handlers.put(methodAndPathPrefix, handler);
+    return this;
+  }
+
+  public String uri() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  public void setHealthy(boolean healthy) {
+    this.healthy = healthy;
+  }
+
+  public void setDelayMillis(long delayMillis) {
+    this.delayMillis = delayMillis;
+  }
+
+  public int requestCount(String methodAndPath) {
+    AtomicInteger count = requestCounts.get(methodAndPath);
+    return count == null ? 0 : count.get();
+  }
+
+  public List<String> requestBodies() {
+    return requestBodies;
+  }
+
+  public void reset() {
+    requestCounts.clear();
+    requestBodies.clear();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+
+    String method = exchange.getRequestMethod();
+    String path = exchange.getRequestURI().getPath();
+    String body;
+    try (InputStream in = exchange.getRequestBody()) {
+      body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    requestCounts.computeIfAbsent(method + " " + path, k -> new AtomicInteger()).incrementAndGet();
+    if (!body.isEmpty()) {
+      requestBodies.add(body);
+    }
+
+    if (delayMillis > 0) {
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    Response response = healthy
+        ? findHandler(method, path).handle(method, path, body)
+        : new Response(503, "{\"error\":\"unavailable\",\"status\":503}");
+
+    byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    if ("HEAD".equals(method)) {
+      exchange.sendResponseHeaders(response.status(), -1);
+    } else {
+      exchange.sendResponseHeaders(response.status(), bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    }
+    exchange.close();
+  }
+
+  private Handler findHandler(String method, String path) {
+
+    String key = method + " " + path;
+    Handler handler = handlers.get(key);
+    if (handler != null) {
+      return handler;
+    }
+
+    String longest = null;
+    for (String prefix : handlers.keySet()) {
+      if (key.startsWith(prefix) && !prefix.endsWith(" /")
+          && (longest == null || prefix.length() > longest.length())) {
+        longest = prefix;
+      }
+    }
+
+    return longest != null
+        ? handlers.get(longest)
+        : (m, p, b) -> new Response(200, "{}");
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  @FunctionalInterface
+  public interface Handler {
+
+    Response handle(String method, String path, String body);
+  }
+
+  public record Response(int status, String body) {
+
+  }
+}